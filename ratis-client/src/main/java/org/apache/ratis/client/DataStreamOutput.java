@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.client;
+
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An asynchronous output stream for the bulk data sent to all the servers of a group out of the raft log.
+ *
+ * The data does not go through the leader and the log replication.
+ * Instead, it is sent to each server over a separate channel and handed to the state machine,
+ * i.e. the stream method of the state machine.
+ * When the stream is closed, a small message referring to the data is committed through raft.
+ */
+public interface DataStreamOutput {
+  /** @return the id of this stream, which is the call id identifying the stream in the servers. */
+  long getStreamId();
+
+  /**
+   * Send the remaining bytes of the given buffer to all the servers.
+   * The buffer must not be modified until the returned future completes.
+   *
+   * The write is acked when a majority of the servers have written the data.
+   * A server failing a write is aborted and excluded from the subsequent writes,
+   * so that the data is missing in that server;
+   * see org.apache.ratis.statemachine.StateMachine#stream.
+   * When a majority of the servers have failed, the stream is aborted in all the servers.
+   * This method blocks when there are too many outstanding writes,
+   * see {@link org.apache.ratis.client.RaftClientConfigKeys.DataStream#OUTSTANDING_WRITES_MAX_KEY}.
+   *
+   * @return a future of the total number of bytes written,
+   *         completed when a majority of the servers have written them.
+   */
+  CompletableFuture<Long> writeAsync(ByteBuffer buffer);
+
+  /**
+   * Close the stream in all the servers
+   * and then send the given message, which refers to the streamed data, to the raft service.
+   *
+   * @return a future of the reply of the given message.
+   */
+  CompletableFuture<RaftClientReply> closeAsync(Message reference);
+
+  /**
+   * Abort the stream in all the servers so that they discard the data.
+   * The outstanding and the subsequent writes fail.
+   */
+  void abort();
+}
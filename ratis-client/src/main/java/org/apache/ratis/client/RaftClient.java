@@ -57,12 +57,25 @@ public interface RaftClient extends Closeable {
   /** Async call to send the given readonly message to the raft service. */
   CompletableFuture<RaftClientReply> sendReadOnlyAsync(Message message);
 
+  /**
+   * Async call to send the given readonly message to a follower, which is selected in a round-robin manner.
+   * The read is linearizable if the servers are configured with the LINEARIZABLE read option;
+   * otherwise, the follower fails the request and the request is retried with the leader.
+   */
+  CompletableFuture<RaftClientReply> sendFollowerReadAsync(Message message);
+
   /** Async call to send the given stale-read message to the given server (not the raft service). */
   CompletableFuture<RaftClientReply> sendStaleReadAsync(Message message, long minIndex, RaftPeerId server);
 
   /** Async call to watch the given index to satisfy the given replication level. */
   CompletableFuture<RaftClientReply> sendWatchAsync(long index, ReplicationLevel replication);
 
+  /**
+   * Open a {@link DataStreamOutput} to stream the bulk data to all the servers out of the raft log.
+   * Only a small message referring to the data is committed through raft.
+   */
+  DataStreamOutput stream() throws IOException;
+
   /**
    * Send the given message to the raft service.
    * The message may change the state of the service.
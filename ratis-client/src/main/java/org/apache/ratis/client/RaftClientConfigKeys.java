@@ -18,6 +18,7 @@
 package org.apache.ratis.client;
 
 import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.util.SizeInBytes;
 import org.apache.ratis.util.TimeDuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,73 @@ public interface RaftClientConfigKeys {
     }
   }
 
+  /**
+   * Coalesce the small messages sent by {@link RaftClient#sendAsync} into batches,
+   * so that each batch is a single request and a single log entry.
+   * The state machine must unpack the batches,
+   * see org.apache.ratis.statemachine.impl.BaseStateMachine#applyBatch.
+   * The other requests send the pending batch first, so that they do not overtake the batched messages.
+   */
+  interface Batch {
+    String PREFIX = RaftClientConfigKeys.PREFIX + ".batch";
+
+    String ENABLED_KEY = PREFIX + ".enabled";
+    boolean ENABLED_DEFAULT = false;
+    static boolean enabled(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, ENABLED_KEY, ENABLED_DEFAULT, getDefaultLog());
+    }
+    static void setEnabled(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, ENABLED_KEY, enabled);
+    }
+
+    /** The max number of messages in a batch. */
+    String MESSAGES_MAX_KEY = PREFIX + ".messages.max";
+    int MESSAGES_MAX_DEFAULT = 256;
+    static int messagesMax(RaftProperties properties) {
+      return getInt(properties::getInt, MESSAGES_MAX_KEY, MESSAGES_MAX_DEFAULT, getDefaultLog(), requireMin(1));
+    }
+    static void setMessagesMax(RaftProperties properties, int messagesMax) {
+      setInt(properties::setInt, MESSAGES_MAX_KEY, messagesMax);
+    }
+
+    /** The max total size of the messages in a batch. */
+    String BYTES_MAX_KEY = PREFIX + ".bytes.max";
+    SizeInBytes BYTES_MAX_DEFAULT = SizeInBytes.valueOf("64KB");
+    static SizeInBytes bytesMax(RaftProperties properties) {
+      return getSizeInBytes(properties::getSizeInBytes, BYTES_MAX_KEY, BYTES_MAX_DEFAULT, getDefaultLog());
+    }
+    static void setBytesMax(RaftProperties properties, SizeInBytes bytesMax) {
+      setSizeInBytes(properties::set, BYTES_MAX_KEY, bytesMax);
+    }
+
+    /** The max time to wait for more messages before sending a batch. */
+    String WINDOW_KEY = PREFIX + ".window";
+    TimeDuration WINDOW_DEFAULT = TimeDuration.valueOf(1, TimeUnit.MILLISECONDS);
+    static TimeDuration window(RaftProperties properties) {
+      return getTimeDuration(properties.getTimeDuration(WINDOW_DEFAULT.getUnit()),
+          WINDOW_KEY, WINDOW_DEFAULT, getDefaultLog());
+    }
+    static void setWindow(RaftProperties properties, TimeDuration window) {
+      setTimeDuration(properties::setTimeDuration, WINDOW_KEY, window);
+    }
+  }
+
+  /** The configurations of the streams opened by {@link RaftClient#stream()}. */
+  interface DataStream {
+    String PREFIX = RaftClientConfigKeys.PREFIX + ".data-stream";
+
+    /** The max number of the writes of a stream not yet acked by all the servers. */
+    String OUTSTANDING_WRITES_MAX_KEY = PREFIX + ".outstanding-writes.max";
+    int OUTSTANDING_WRITES_MAX_DEFAULT = 16;
+    static int outstandingWritesMax(RaftProperties properties) {
+      return getInt(properties::getInt, OUTSTANDING_WRITES_MAX_KEY,
+          OUTSTANDING_WRITES_MAX_DEFAULT, getDefaultLog(), requireMin(1));
+    }
+    static void setOutstandingWritesMax(RaftProperties properties, int outstandingWritesMax) {
+      setInt(properties::setInt, OUTSTANDING_WRITES_MAX_KEY, outstandingWritesMax);
+    }
+  }
+
   static void main(String[] args) {
     printAll(RaftClientConfigKeys.class);
   }
@@ -26,10 +26,29 @@ import org.apache.ratis.util.JavaUtils;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 
 /** The client side rpc of a raft service. */
 public interface RaftClientRpc extends Closeable {
+  /** A stream sending the bulk data to a server out of the raft log. */
+  interface DataStream {
+    /**
+     * Send the remaining bytes of the given buffer to the server and then close the stream if close is true.
+     * The buffer must not be modified until the returned future completes.
+     *
+     * @return a future of the total number of bytes written by the server.
+     */
+    CompletableFuture<Long> writeAsync(ByteBuffer buffer, boolean close);
+
+    /**
+     * Abort the stream so that the server discards the data.
+     * The outstanding and the subsequent writes fail.
+     * This method has no effect if the stream is already closed or aborted.
+     */
+    void abort(Throwable cause);
+  }
+
   /** Async call to send a request. */
   default CompletableFuture<RaftClientReply> sendRequestAsync(RaftClientRequest request) {
     throw new UnsupportedOperationException(getClass() + " does not support this method.");
@@ -44,6 +63,12 @@ public interface RaftClientRpc extends Closeable {
   /** Send a request. */
   RaftClientReply sendRequest(RaftClientRequest request) throws IOException;
 
+  /** Open a {@link DataStream} to the server of the given request, whose call id is used as the stream id. */
+  default DataStream newDataStream(RaftClientRequest request) throws IOException {
+    throw new UnsupportedOperationException(getClass() + " does not support "
+        + JavaUtils.getCurrentStackTraceElement().getMethodName());
+  }
+
   /** Add the information of the given raft servers */
   void addServers(Iterable<RaftPeer> servers);
 
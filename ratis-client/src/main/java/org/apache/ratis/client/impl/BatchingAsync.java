@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.client.impl;
+
+import org.apache.ratis.client.RaftClientConfigKeys;
+import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.protocol.AlreadyClosedException;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
+import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.util.IOUtils;
+import org.apache.ratis.util.ProtoUtils;
+import org.apache.ratis.util.TimeDuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesce the messages sent asynchronously into batches.
+ * A batch is sent as a single ordered request when it reaches the max number of messages or bytes,
+ * or when the batch window has elapsed.
+ * The reply of a batch is demultiplexed to the replies of the individual messages.
+ *
+ * Each batch holds the {@link OrderedAsync} permit acquired by its first message,
+ * so that a batch is sent without blocking, even by the scheduler thread.
+ * The lock is never held while blocking for a permit.
+ */
+class BatchingAsync {
+  static final Logger LOG = LoggerFactory.getLogger(BatchingAsync.class);
+
+  static class PendingMessage {
+    private final Message message;
+    private final CompletableFuture<RaftClientReply> replyFuture = new CompletableFuture<>();
+
+    PendingMessage(Message message) {
+      this.message = message;
+    }
+
+    Message getMessage() {
+      return message;
+    }
+
+    CompletableFuture<RaftClientReply> getReplyFuture() {
+      return replyFuture;
+    }
+  }
+
+  private final RaftClientImpl client;
+  private final int messagesMax;
+  private final long bytesMax;
+  private final TimeDuration window;
+
+  private List<PendingMessage> batch = new ArrayList<>();
+  private long batchBytes = 0;
+  /** To tell if a scheduled flush is still for the current batch. */
+  private long batchId = 0;
+  private boolean closed = false;
+
+  BatchingAsync(RaftClientImpl client, RaftProperties properties) {
+    this.client = Objects.requireNonNull(client, "client == null");
+    this.messagesMax = RaftClientConfigKeys.Batch.messagesMax(properties);
+    this.bytesMax = RaftClientConfigKeys.Batch.bytesMax(properties).getSize();
+    this.window = RaftClientConfigKeys.Batch.window(properties);
+  }
+
+  CompletableFuture<RaftClientReply> send(Message message) {
+    Objects.requireNonNull(message, "message == null");
+    final PendingMessage pending = new PendingMessage(message);
+    final long size = message.getContent().size();
+    final OrderedAsync ordered = client.getOrderedAsync();
+    try {
+      ordered.acquirePermit();
+    } catch (InterruptedException e) {
+      pending.getReplyFuture().completeExceptionally(IOUtils.toInterruptedIOException(
+          "Interrupted when sending " + message, e));
+      return pending.getReplyFuture();
+    }
+
+    final boolean isPermitUsed;
+    synchronized (this) {
+      if (closed) {
+        ordered.releasePermit();
+        pending.getReplyFuture().completeExceptionally(new AlreadyClosedException(client.getId() + " is closed."));
+        return pending.getReplyFuture();
+      }
+      if (!batch.isEmpty() && batchBytes + size > bytesMax) {
+        flush();
+      }
+      // the first message of a batch passes its permit to the batch
+      isPermitUsed = batch.isEmpty();
+      batch.add(pending);
+      batchBytes += size;
+      if (batch.size() >= messagesMax || batchBytes >= bytesMax) {
+        flush();
+      } else if (batch.size() == 1) {
+        final long id = batchId;
+        client.getScheduler().onTimeout(window, () -> flush(id), LOG, () -> "Failed to flush batch #" + id);
+      }
+    }
+    if (!isPermitUsed) {
+      ordered.releasePermit();
+    }
+    return pending.getReplyFuture();
+  }
+
+  /** Send the current batch, if there is any, so that it is not overtaken by the requests sent afterward. */
+  synchronized void flushCurrentBatch() {
+    flush();
+  }
+
+  private synchronized void flush(long id) {
+    if (id == batchId) {
+      flush();
+    }
+  }
+
+  /**
+   * Send the current batch with its permit, which does not block.
+   * The caller must hold the lock so that the batches are sent in order.
+   */
+  private void flush() {
+    if (batch.isEmpty()) {
+      return;
+    }
+    final List<PendingMessage> pendings = batch;
+    batch = new ArrayList<>();
+    batchBytes = 0;
+    batchId++;
+
+    final Message batchMessage = Message.valueOf(ProtoUtils.toMessageBatch(
+        pendings.stream().map(PendingMessage::getMessage).collect(Collectors.toList())));
+    LOG.trace("{}: send a batch of {} messages", client.getId(), pendings.size());
+    client.getOrderedAsync().sendWithPermit(RaftClientRequest.writeRequestType(), batchMessage, null)
+        .whenComplete((reply, e) -> complete(pendings, reply, e));
+  }
+
+  private static void complete(List<PendingMessage> pendings, RaftClientReply reply, Throwable e) {
+    if (e == null) {
+      try {
+        final List<Message> replies = toReplies(reply, pendings.size());
+        for(int i = 0; i < pendings.size(); i++) {
+          pendings.get(i).getReplyFuture().complete(new RaftClientReply(reply.getClientId(), reply.getServerId(),
+              reply.getRaftGroupId(), reply.getCallId(), reply.isSuccess(), replies.get(i), null,
+              reply.getLogIndex(), reply.getCommitInfos()));
+        }
+        return;
+      } catch (IOException ioe) {
+        e = ioe;
+      }
+    }
+    for(PendingMessage p : pendings) {
+      p.getReplyFuture().completeExceptionally(e);
+    }
+  }
+
+  private static List<Message> toReplies(RaftClientReply reply, int expectedSize) throws IOException {
+    final Message message = reply.getMessage();
+    if (message == null) {
+      throw new IOException("The reply of the batch has no message: " + reply);
+    }
+    final List<Message> replies = ProtoUtils.toMessages(message.getContent());
+    if (replies.size() != expectedSize) {
+      throw new IOException("The batch has " + expectedSize + " messages but the reply has "
+          + replies.size() + " replies: " + reply);
+    }
+    return replies;
+  }
+
+  /** Fail the messages which are not yet sent. */
+  synchronized void close() {
+    closed = true;
+    if (!batch.isEmpty()) {
+      client.getOrderedAsync().releasePermit();
+    }
+    final AlreadyClosedException e = new AlreadyClosedException(client.getId() + " is closed.");
+    batch.forEach(p -> p.getReplyFuture().completeExceptionally(e));
+    batch = new ArrayList<>();
+    batchBytes = 0;
+    batchId++;
+  }
+}
@@ -318,6 +318,34 @@ public interface ClientProtoUtils {
     return toClientMessageEntryProtoBuilder(message.getContent());
   }
 
+  static DataStreamRequestProto toDataStreamRequestProto(
+      RaftClientRequest request, long offset, ByteString data, boolean close) {
+    return DataStreamRequestProto.newBuilder()
+        .setRpcRequest(toRaftRpcRequestProtoBuilder(request))
+        .setOffset(offset)
+        .setData(data)
+        .setClose(close)
+        .build();
+  }
+
+  static RaftClientRequest toRaftClientRequest(DataStreamRequestProto p) {
+    final RaftRpcRequestProto request = p.getRpcRequest();
+    return new RaftClientRequest(
+        ClientId.valueOf(request.getRequestorId()),
+        RaftPeerId.valueOf(request.getReplyId()),
+        ProtoUtils.toRaftGroupId(request.getRaftGroupId()),
+        request.getCallId(),
+        RaftClientRequest.writeRequestType());
+  }
+
+  static DataStreamReplyProto toDataStreamReplyProto(RaftClientRequest request, long bytesWritten) {
+    return DataStreamReplyProto.newBuilder()
+        .setRpcReply(toRaftRpcReplyProtoBuilder(request.getClientId().toByteString(),
+            request.getServerId().toByteString(), request.getRaftGroupId(), request.getCallId(), true))
+        .setBytesWritten(bytesWritten)
+        .build();
+  }
+
   static SetConfigurationRequest toSetConfigurationRequest(
       SetConfigurationRequestProto p) {
     final RaftRpcRequestProto m = p.getRpcRequest();
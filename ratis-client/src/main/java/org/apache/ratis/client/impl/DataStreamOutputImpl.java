@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.client.impl;
+
+import org.apache.ratis.client.DataStreamOutput;
+import org.apache.ratis.client.RaftClientRpc;
+import org.apache.ratis.protocol.AlreadyClosedException;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
+import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.protocol.RaftPeer;
+import org.apache.ratis.util.IOUtils;
+import org.apache.ratis.util.JavaUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** An implementation of {@link DataStreamOutput} sending the data to all the servers in parallel. */
+class DataStreamOutputImpl implements DataStreamOutput {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final RaftClientImpl client;
+  private final long streamId;
+  private final List<RaftClientRpc.DataStream> streams = new ArrayList<>();
+  /** The number of the servers required to ack a write. */
+  private final int majority;
+  /** Limit the outstanding writes so that the data buffered in the rpc is bounded. */
+  private final Semaphore outstandingWrites;
+  private final AtomicReference<Throwable> aborted = new AtomicReference<>();
+
+  DataStreamOutputImpl(RaftClientImpl client, long streamId, Collection<RaftPeer> peers, int outstandingWritesMax)
+      throws IOException {
+    this.client = client;
+    this.streamId = streamId;
+    for (RaftPeer peer : peers) {
+      final RaftClientRequest request = client.newRaftClientRequest(
+          peer.getId(), streamId, null, RaftClientRequest.writeRequestType(), null);
+      streams.add(client.getClientRpc().newDataStream(request));
+    }
+    this.majority = streams.size() / 2 + 1;
+    this.outstandingWrites = new Semaphore(outstandingWritesMax);
+  }
+
+  @Override
+  public long getStreamId() {
+    return streamId;
+  }
+
+  private synchronized CompletableFuture<Long> writeAsync(ByteBuffer buffer, boolean close) {
+    final Throwable cause = aborted.get();
+    if (cause != null) {
+      return JavaUtils.completeExceptionally(new AlreadyClosedException(this + " is aborted", cause));
+    }
+    try {
+      outstandingWrites.acquire();
+    } catch (InterruptedException e) {
+      return JavaUtils.completeExceptionally(IOUtils.toInterruptedIOException(
+          "Interrupted when writing " + this, e));
+    }
+
+    final List<CompletableFuture<Long>> futures = new ArrayList<>(streams.size());
+    for (RaftClientRpc.DataStream stream : streams) {
+      futures.add(stream.writeAsync(buffer.duplicate(), close));
+    }
+    // release the permit only after all the servers have replied, including the slow ones
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .whenComplete((v, e) -> outstandingWrites.release());
+    return majorityOf(futures);
+  }
+
+  /**
+   * @return a future completed when a majority of the given futures have succeeded,
+   *         or failed when a majority is no longer possible.
+   */
+  private CompletableFuture<Long> majorityOf(List<CompletableFuture<Long>> futures) {
+    final CompletableFuture<Long> result = new CompletableFuture<>();
+    final AtomicInteger succeeded = new AtomicInteger();
+    final AtomicInteger failed = new AtomicInteger();
+    for (int i = 0; i < futures.size(); i++) {
+      final RaftClientRpc.DataStream stream = streams.get(i);
+      futures.get(i).whenComplete((bytesWritten, e) -> {
+        if (e == null) {
+          if (succeeded.incrementAndGet() == majority) {
+            result.complete(bytesWritten);
+          }
+        } else {
+          // exclude the failed server from the subsequent writes
+          stream.abort(e);
+          if (failed.incrementAndGet() == streams.size() - majority + 1) {
+            abort(e);
+            result.completeExceptionally(e);
+          }
+        }
+      });
+    }
+    return result;
+  }
+
+  @Override
+  public CompletableFuture<Long> writeAsync(ByteBuffer buffer) {
+    return writeAsync(buffer, false);
+  }
+
+  @Override
+  public CompletableFuture<RaftClientReply> closeAsync(Message reference) {
+    return writeAsync(EMPTY, true).thenCompose(bytesWritten -> client.sendAsync(reference));
+  }
+
+  private void abort(Throwable cause) {
+    if (aborted.compareAndSet(null, cause)) {
+      streams.forEach(stream -> stream.abort(cause));
+    }
+  }
+
+  @Override
+  public void abort() {
+    abort(new AlreadyClosedException(this + " is aborted by the client"));
+  }
+
+  @Override
+  public String toString() {
+    return client.getId() + "-" + getClass().getSimpleName() + streamId;
+  }
+}
@@ -143,12 +143,29 @@ class OrderedAsync {
       Objects.requireNonNull(message, "message == null");
     }
     try {
-      requestSemaphore.acquire();
+      acquirePermit();
     } catch (InterruptedException e) {
       return JavaUtils.completeExceptionally(IOUtils.toInterruptedIOException(
           "Interrupted when sending " + type + ", message=" + message, e));
     }
+    return sendWithPermit(type, message, server);
+  }
+
+  /**
+   * Acquire a permit for an outstanding request; block if there are too many outstanding requests.
+   * The permit must be either passed to {@link #sendWithPermit(RaftClientRequest.Type, Message, RaftPeerId)}
+   * or returned by {@link #releasePermit()}.
+   */
+  void acquirePermit() throws InterruptedException {
+    requestSemaphore.acquire();
+  }
+
+  void releasePermit() {
+    requestSemaphore.release();
+  }
 
+  /** Send a request with a permit acquired by {@link #acquirePermit()}; this method does not block. */
+  CompletableFuture<RaftClientReply> sendWithPermit(RaftClientRequest.Type type, Message message, RaftPeerId server) {
     final long callId = RaftClientImpl.nextCallId();
     final LongFunction<PendingOrderedRequest> constructor = seqNum -> new PendingOrderedRequest(seqNum,
         slidingWindowEntry -> client.newRaftClientRequest(server, callId, message, type, slidingWindowEntry));
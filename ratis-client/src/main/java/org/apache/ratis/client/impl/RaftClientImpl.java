@@ -17,7 +17,9 @@
  */
 package org.apache.ratis.client.impl;
 
+import org.apache.ratis.client.DataStreamOutput;
 import org.apache.ratis.client.RaftClient;
+import org.apache.ratis.client.RaftClientConfigKeys;
 import org.apache.ratis.client.RaftClientRpc;
 import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.proto.RaftProtos.RaftClientRequestProto.TypeCase;
@@ -27,6 +29,7 @@ import org.apache.ratis.protocol.*;
 import org.apache.ratis.retry.RetryPolicy;
 import org.apache.ratis.util.CollectionUtils;
 import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.MemoizedSupplier;
 import org.apache.ratis.util.Preconditions;
 import org.apache.ratis.util.TimeoutScheduler;
 
@@ -34,15 +37,18 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /** A client who sends requests to a raft service. */
@@ -80,10 +86,15 @@ final class RaftClientImpl implements RaftClient {
   private final RetryPolicy retryPolicy;
 
   private volatile RaftPeerId leaderId;
+  /** For selecting the followers in a round-robin manner. */
+  private final AtomicInteger followerReadCount = new AtomicInteger();
 
   private final TimeoutScheduler scheduler;
 
   private final Supplier<OrderedAsync> orderedAsync;
+  /** Non-null iff batching is enabled. */
+  private final MemoizedSupplier<BatchingAsync> batchingAsync;
+  private final int dataStreamOutstandingWritesMax;
 
   RaftClientImpl(ClientId clientId, RaftGroup group, RaftPeerId leaderId,
       RaftClientRpc clientRpc, RaftProperties properties, RetryPolicy retryPolicy) {
@@ -100,6 +111,11 @@ final class RaftClientImpl implements RaftClient {
     clientRpc.addServers(peers);
 
     this.orderedAsync = JavaUtils.memoize(() -> new OrderedAsync(this, properties));
+    this.batchingAsync = properties != null && RaftClientConfigKeys.Batch.enabled(properties)?
+        JavaUtils.memoize(() -> new BatchingAsync(this, properties)): null;
+    this.dataStreamOutstandingWritesMax = properties != null?
+        RaftClientConfigKeys.DataStream.outstandingWritesMax(properties)
+        : RaftClientConfigKeys.DataStream.OUTSTANDING_WRITES_MAX_DEFAULT;
   }
 
   @Override
@@ -121,6 +137,9 @@ final class RaftClientImpl implements RaftClient {
 
   @Override
   public CompletableFuture<RaftClientReply> sendAsync(Message message) {
+    if (batchingAsync != null) {
+      return batchingAsync.get().send(message);
+    }
     return sendAsync(RaftClientRequest.writeRequestType(), message, null);
   }
 
@@ -134,16 +153,57 @@ final class RaftClientImpl implements RaftClient {
     return sendAsync(RaftClientRequest.staleReadRequestType(minIndex), message, server);
   }
 
+  @Override
+  public CompletableFuture<RaftClientReply> sendFollowerReadAsync(Message message) {
+    Objects.requireNonNull(message, "message == null");
+    flushBatch();
+    final RaftPeerId follower = nextFollower();
+    final AtomicBoolean isFirstAttempt = new AtomicBoolean(true);
+    // the retries, if there are any, are sent to the leader
+    return UnorderedAsync.send(RaftClientRequest.readRequestType(), message,
+        () -> isFirstAttempt.getAndSet(false)? follower: null, this);
+  }
+
+  /** @return the next follower in a round-robin manner, or the leader if there are no followers. */
+  private RaftPeerId nextFollower() {
+    final RaftPeerId leader = leaderId;
+    final List<RaftPeerId> followers = peers.stream()
+        .map(RaftPeer::getId)
+        .filter(id -> !id.equals(leader))
+        .collect(Collectors.toList());
+    if (followers.isEmpty()) {
+      return leader;
+    }
+    return followers.get((followerReadCount.getAndIncrement() & Integer.MAX_VALUE) % followers.size());
+  }
+
   @Override
   public CompletableFuture<RaftClientReply> sendWatchAsync(long index, ReplicationLevel replication) {
+    flushBatch();
     return UnorderedAsync.send(RaftClientRequest.watchRequestType(index, replication), this);
   }
 
   private CompletableFuture<RaftClientReply> sendAsync(
       RaftClientRequest.Type type, Message message, RaftPeerId server) {
+    flushBatch();
     return getOrderedAsync().send(type, message, server);
   }
 
+  /**
+   * Send the pending batch, if there is any, before the other requests.
+   * Then, the ordered requests sent afterward are ordered after the batch.
+   */
+  private void flushBatch() {
+    if (batchingAsync != null && batchingAsync.isInitialized()) {
+      batchingAsync.get().flushCurrentBatch();
+    }
+  }
+
+  @Override
+  public DataStreamOutput stream() throws IOException {
+    return new DataStreamOutputImpl(this, nextCallId(), peers, dataStreamOutstandingWritesMax);
+  }
+
   RaftClientRequest newRaftClientRequest(
       RaftPeerId server, long callId, Message message, RaftClientRequest.Type type,
       SlidingWindowEntry slidingWindowEntry) {
@@ -177,6 +237,7 @@ final class RaftClientImpl implements RaftClient {
     if (!type.is(TypeCase.WATCH)) {
       Objects.requireNonNull(message, "message == null");
     }
+    flushBatch();
 
     final long callId = nextCallId();
     return sendRequestWithRetry(() -> newRaftClientRequest(server, callId, message, type, null));
@@ -384,6 +445,9 @@ final class RaftClientImpl implements RaftClient {
 
   @Override
   public void close() throws IOException {
+    if (batchingAsync != null && batchingAsync.isInitialized()) {
+      batchingAsync.get().close();
+    }
     scheduler.close();
     clientRpc.close();
   }
@@ -19,6 +19,7 @@ package org.apache.ratis.client.impl;
 
 import org.apache.ratis.client.RaftClient;
 import org.apache.ratis.protocol.Message;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.ProtoUtils;
 import org.apache.ratis.util.SizeInBytes;
@@ -38,7 +39,7 @@ public class RaftOutputStream extends OutputStream {
   private final AtomicBoolean closed = new AtomicBoolean();
   private final Queue<CompletableFuture<Long>> flushFutures = new LinkedList<>();
 
-  private final byte[] buffer;
+  private byte[] buffer;
   private int byteCount;
   private long byteFlushed;
 
@@ -87,8 +88,7 @@ public class RaftOutputStream extends OutputStream {
       return;
     }
 
-    final CompletableFuture<Long> f = getClient().sendAsync(
-        Message.valueOf(ProtoUtils.toByteString(buffer, 0, byteCount))
+    final CompletableFuture<Long> f = getClient().sendAsync(Message.valueOf(takeBufferedBytes())
     ).thenApply(reply -> RaftClientImpl.handleRaftException(reply, CompletionException::new)
     ).thenApply(reply -> reply != null && reply.isSuccess()? pos: null);
     flushFutures.offer(f);
@@ -97,6 +97,16 @@ public class RaftOutputStream extends OutputStream {
     byteCount = 0;
   }
 
+  /** A full buffer is handed over without copying and then replaced by a new buffer. */
+  private ByteString takeBufferedBytes() {
+    if (byteCount < buffer.length) {
+      return ProtoUtils.toByteString(buffer, 0, byteCount);
+    }
+    final ByteString bytes = ProtoUtils.unsafeWrap(buffer, 0, byteCount);
+    buffer = new byte[buffer.length];
+    return bytes;
+  }
+
   /** Blocking flush call */
   private void flushImpl() throws IOException {
     final long pos = byteFlushed;
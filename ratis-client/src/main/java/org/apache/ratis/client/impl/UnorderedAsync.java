@@ -20,10 +20,12 @@ package org.apache.ratis.client.impl;
 import org.apache.ratis.client.impl.RaftClientImpl.PendingClientRequest;
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.GroupMismatchException;
+import org.apache.ratis.protocol.Message;
 import org.apache.ratis.protocol.NotLeaderException;
 import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.protocol.RaftClientRequest;
 import org.apache.ratis.protocol.RaftException;
+import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.retry.RetryPolicies;
 import org.apache.ratis.retry.RetryPolicy;
 import org.apache.ratis.util.JavaUtils;
@@ -53,9 +55,18 @@ public interface UnorderedAsync {
   }
 
   static CompletableFuture<RaftClientReply> send(RaftClientRequest.Type type, RaftClientImpl client) {
+    return send(type, null, () -> null, client);
+  }
+
+  /**
+   * Send the request to the server supplied for each attempt.
+   * When the supplied server is null, the request is sent to the leader.
+   */
+  static CompletableFuture<RaftClientReply> send(RaftClientRequest.Type type, Message message,
+      Supplier<RaftPeerId> server, RaftClientImpl client) {
     final long callId = RaftClientImpl.nextCallId();
     final PendingClientRequest pending = new PendingUnorderedRequest(
-        () -> client.newRaftClientRequest(null, callId, null, type, null));
+        () -> client.newRaftClientRequest(server.get(), callId, message, type, null));
     sendRequestWithRetry(pending, client);
     return pending.getReplyFuture()
         .thenApply(reply -> RaftClientImpl.handleRaftException(reply, CompletionException::new));
@@ -18,6 +18,7 @@
 package org.apache.ratis.protocol;
 
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.CompletableFuture;
 
 /** Asynchronous version of {@link RaftClientProtocol}. */
@@ -27,4 +28,24 @@ public interface RaftClientAsynchronousProtocol {
 
   CompletableFuture<RaftClientReply> setConfigurationAsync(
       SetConfigurationRequest request) throws IOException;
+
+  /**
+   * Open a stream for the bulk data sent out of the raft log.
+   * The stream is identified by the client id and the call id of the given request.
+   *
+   * @return a future of the channel to which the data is written.
+   */
+  default CompletableFuture<WritableByteChannel> streamAsync(RaftClientRequest request) throws IOException {
+    throw new UnsupportedOperationException(getClass() + " does not support data streaming.");
+  }
+
+  /**
+   * Abort the stream opened by {@link #streamAsync(RaftClientRequest)} before it is closed,
+   * e.g. the client has aborted it or the connection has failed.
+   *
+   * @return a future completed when the stream is aborted.
+   */
+  default CompletableFuture<Void> abortStreamAsync(RaftClientRequest request, Throwable cause) throws IOException {
+    throw new UnsupportedOperationException(getClass() + " does not support data streaming.");
+  }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+import java.util.zip.Checksum;
+
+/**
+ * A CRC32C {@link Checksum} which can also be updated with a {@link ByteBuffer} without copying.
+ *
+ * The implementations compute the same values,
+ * so that data checksummed by one implementation can be verified by another.
+ */
+public interface Crc32C extends Checksum {
+  Logger LOG = LoggerFactory.getLogger(Crc32C.class);
+
+  /**
+   * Update the checksum with the bytes of the given buffer in [offset, offset + length).
+   * The offset is absolute; the position and the limit of the buffer are not changed.
+   */
+  void update(ByteBuffer buffer, int offset, int length);
+
+  /** The implementations of {@link Crc32C}. */
+  enum Type {
+    /** Use the fastest available implementation, i.e. {@link #JDK}, {@link #NATIVE} and then {@link #PURE_JAVA}. */
+    AUTO,
+    /** Use java.util.zip.CRC32C, which is intrinsified by the JVM (Java 9 or above). */
+    JDK,
+    /** Use the native-ratis library. */
+    NATIVE,
+    /** Use {@link PureJavaCrc32C}. */
+    PURE_JAVA;
+
+    public boolean isAvailable() {
+      switch (this) {
+        case AUTO:
+        case PURE_JAVA:
+          return true;
+        case JDK:
+          return JdkCrc32C.isAvailable();
+        case NATIVE:
+          return NativeCrc32C.isAvailable();
+        default:
+          throw new IllegalStateException("Unexpected type " + this);
+      }
+    }
+
+    /** @return the type to be used, which is always available. */
+    public Type resolve() {
+      if (this == AUTO) {
+        return JDK.isAvailable()? JDK: NATIVE.isAvailable()? NATIVE: PURE_JAVA;
+      } else if (!isAvailable()) {
+        LOG.warn("{} CRC32C is unavailable, fall back to {}", this, PURE_JAVA);
+        return PURE_JAVA;
+      }
+      return this;
+    }
+  }
+
+  /** @return a new instance of the fastest available implementation. */
+  static Crc32C newInstance() {
+    return newSupplier(Type.AUTO).get();
+  }
+
+  /** @return a supplier of new instances of the given type (or its fallback if it is unavailable). */
+  static Supplier<Crc32C> newSupplier(Type type) {
+    final Type resolved = type.resolve();
+    LOG.debug("Use {} CRC32C (configured: {})", resolved, type);
+    switch (resolved) {
+      case JDK:
+        return JdkCrc32C::new;
+      case NATIVE:
+        return NativeCrc32C::new;
+      case PURE_JAVA:
+        return PureJavaCrc32C::new;
+      default:
+        throw new IllegalStateException("Unexpected type " + resolved);
+    }
+  }
+}
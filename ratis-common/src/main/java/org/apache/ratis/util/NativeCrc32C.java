@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link Crc32C} backed by the native-ratis library; see {@link NativeCrc32}.
+ *
+ * The native library computes the checksum of each update as a single chunk.
+ * The chunk checksums are combined so that the checksum can be updated incrementally.
+ */
+class NativeCrc32C implements Crc32C {
+  /** The reversed CRC32C polynomial. */
+  private static final int POLY = 0x82F63B78;
+
+  static boolean isAvailable() {
+    return NativeCrc32.isAvailable();
+  }
+
+  /** The checksum of the data so far; the checksum of empty data is 0. */
+  private int crc;
+  private final byte[] sums = new byte[4];
+  private ByteBuffer directSums;
+
+  NativeCrc32C() {
+    Preconditions.assertTrue(isAvailable(), "The native-ratis library is unavailable");
+  }
+
+  @Override
+  public void update(ByteBuffer buffer, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    if (buffer.hasArray()) {
+      update(buffer.array(), buffer.arrayOffset() + offset, length);
+    } else if (buffer.isDirect()) {
+      if (directSums == null) {
+        directSums = ByteBuffer.allocateDirect(4);
+      }
+      final ByteBuffer data = buffer.duplicate();
+      data.limit(offset + length).position(offset);
+      NativeCrc32.calculateChunkedSums(length, NativeCrc32.CHECKSUM_CRC32C, directSums, data);
+      combine(directSums.getInt(0), length);
+    } else {
+      final byte[] array = new byte[length];
+      final ByteBuffer data = buffer.duplicate();
+      data.position(offset);
+      data.get(array);
+      update(array, 0, length);
+    }
+  }
+
+  @Override
+  public void update(byte[] b, int off, int len) {
+    if (len <= 0) {
+      return;
+    }
+    NativeCrc32.calculateChunkedSumsByteArray(len, NativeCrc32.CHECKSUM_CRC32C, sums, 0, b, off, len);
+    combine(((sums[0] & 0xff) << 24) | ((sums[1] & 0xff) << 16) | ((sums[2] & 0xff) << 8) | (sums[3] & 0xff), len);
+  }
+
+  @Override
+  public void update(int b) {
+    update(new byte[]{(byte) b}, 0, 1);
+  }
+
+  private void combine(int chunkCrc, int chunkLength) {
+    crc = crc == 0? chunkCrc: combine(crc, chunkCrc, chunkLength);
+  }
+
+  @Override
+  public long getValue() {
+    return crc & 0xffffffffL;
+  }
+
+  @Override
+  public void reset() {
+    crc = 0;
+  }
+
+  /**
+   * Combine the checksums of two consecutive blocks of data, as in zlib's crc32_combine.
+   *
+   * @param crc1 the checksum of the first block.
+   * @param crc2 the checksum of the second block.
+   * @param length2 the length of the second block.
+   * @return the checksum of the concatenation of the two blocks.
+   */
+  static int combine(int crc1, int crc2, long length2) {
+    if (length2 <= 0) {
+      return crc1;
+    }
+
+    final int[] even = new int[32]; // even-power-of-two zeros operator
+    final int[] odd = new int[32];  // odd-power-of-two zeros operator
+
+    // put operator for one zero bit in odd
+    odd[0] = POLY;
+    for (int n = 1, row = 1; n < 32; n++, row <<= 1) {
+      odd[n] = row;
+    }
+    square(even, odd); // put operator for two zero bits in even
+    square(odd, even); // put operator for four zero bits in odd
+
+    // apply length2 zeros to crc1 (the first square puts the operator for one zero byte in even)
+    do {
+      square(even, odd);
+      if ((length2 & 1) != 0) {
+        crc1 = times(even, crc1);
+      }
+      length2 >>= 1;
+      if (length2 == 0) {
+        break;
+      }
+
+      square(odd, even);
+      if ((length2 & 1) != 0) {
+        crc1 = times(odd, crc1);
+      }
+      length2 >>= 1;
+    } while (length2 != 0);
+
+    return crc1 ^ crc2;
+  }
+
+  private static int times(int[] matrix, int vector) {
+    int sum = 0;
+    for (int i = 0; vector != 0; i++, vector >>>= 1) {
+      if ((vector & 1) != 0) {
+        sum ^= matrix[i];
+      }
+    }
+    return sum;
+  }
+
+  private static void square(int[] square, int[] matrix) {
+    for (int n = 0; n < 32; n++) {
+      square[n] = times(matrix, matrix[n]);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.util;
+
+import org.apache.ratis.thirdparty.io.netty.buffer.ByteBufAllocator;
+import org.apache.ratis.thirdparty.io.netty.buffer.PooledByteBufAllocator;
+import org.apache.ratis.thirdparty.io.netty.channel.Channel;
+import org.apache.ratis.thirdparty.io.netty.channel.ChannelOption;
+import org.apache.ratis.thirdparty.io.netty.channel.EventLoopGroup;
+import org.apache.ratis.thirdparty.io.netty.channel.ServerChannel;
+import org.apache.ratis.thirdparty.io.netty.channel.nio.NioEventLoopGroup;
+import org.apache.ratis.thirdparty.io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.apache.ratis.thirdparty.io.netty.channel.socket.nio.NioSocketChannel;
+import org.apache.ratis.thirdparty.io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utilities for the netty transports.
+ *
+ * The native epoll transport is used when it is enabled and available; otherwise, fall back to the nio transport.
+ * Since the native library may not be bundled, the epoll classes are loaded by reflection.
+ */
+public interface NettyUtils {
+  Logger LOG = LoggerFactory.getLogger(NettyUtils.class);
+
+  /** The package of the (possibly relocated) epoll classes. */
+  String EPOLL_PACKAGE = EventLoopGroup.class.getPackage().getName() + ".epoll.";
+
+  /** The pooled allocator preferring direct buffers. */
+  ByteBufAllocator POOLED_DIRECT_ALLOCATOR = new PooledByteBufAllocator(true);
+
+  final class Epoll {
+    private static final boolean AVAILABLE = isAvailable();
+
+    private static boolean isAvailable() {
+      try {
+        return (Boolean) Class.forName(EPOLL_PACKAGE + "Epoll").getMethod("isAvailable").invoke(null);
+      } catch (Throwable t) {
+        LOG.debug("Epoll is unavailable", t);
+        return false;
+      }
+    }
+
+    private Epoll() {}
+  }
+
+  /** @return true iff epoll is enabled and available. */
+  static boolean useEpoll(boolean enabled) {
+    if (enabled && !Epoll.AVAILABLE) {
+      LOG.warn("Epoll is enabled but unavailable, fall back to nio.");
+    }
+    return enabled && Epoll.AVAILABLE;
+  }
+
+  /**
+   * Create a new {@link EventLoopGroup} with daemon threads.
+   *
+   * @param size the number of threads; 0 means the netty default.
+   */
+  static EventLoopGroup newEventLoopGroup(String name, int size, boolean useEpoll) {
+    final ThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+    if (useEpoll) {
+      try {
+        return (EventLoopGroup) Class.forName(EPOLL_PACKAGE + "EpollEventLoopGroup")
+            .getConstructor(int.class, ThreadFactory.class)
+            .newInstance(size, threadFactory);
+      } catch (Exception e) {
+        LOG.warn("Failed to create EpollEventLoopGroup, fall back to nio.", e);
+      }
+    }
+    return new NioEventLoopGroup(size, threadFactory);
+  }
+
+  static boolean isEpoll(EventLoopGroup group) {
+    return group.getClass().getName().startsWith(EPOLL_PACKAGE);
+  }
+
+  static Class<? extends ServerChannel> getServerChannelClass(EventLoopGroup group) {
+    return isEpoll(group)? loadEpollClass("EpollServerSocketChannel", ServerChannel.class)
+        : NioServerSocketChannel.class;
+  }
+
+  static Class<? extends Channel> getSocketChannelClass(EventLoopGroup group) {
+    return isEpoll(group)? loadEpollClass("EpollSocketChannel", Channel.class)
+        : NioSocketChannel.class;
+  }
+
+  /** @return the SO_BUSY_POLL option if the given group uses epoll; otherwise, return null. */
+  @SuppressWarnings("unchecked")
+  static ChannelOption<Integer> getBusyPollOption(EventLoopGroup group) {
+    if (!isEpoll(group)) {
+      return null;
+    }
+    try {
+      return (ChannelOption<Integer>) Class.forName(EPOLL_PACKAGE + "EpollChannelOption")
+          .getField("SO_BUSY_POLL").get(null);
+    } catch (Exception e) {
+      LOG.warn("Failed to get SO_BUSY_POLL", e);
+      return null;
+    }
+  }
+
+  static <T> Class<? extends T> loadEpollClass(String name, Class<T> superClass) {
+    try {
+      return Class.forName(EPOLL_PACKAGE + name).asSubclass(superClass);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Failed to load " + name, e);
+    }
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.ratis.util;
 
 import org.apache.ratis.proto.RaftProtos.CommitInfoProto;
+import org.apache.ratis.proto.RaftProtos.MessageBatchProto;
 import org.apache.ratis.proto.RaftProtos.RaftGroupIdProto;
 import org.apache.ratis.proto.RaftProtos.RaftGroupMemberIdProto;
 import org.apache.ratis.proto.RaftProtos.RaftGroupProto;
@@ -25,16 +26,20 @@ import org.apache.ratis.proto.RaftProtos.RaftPeerProto;
 import org.apache.ratis.proto.RaftProtos.RaftRpcReplyProto;
 import org.apache.ratis.proto.RaftProtos.RaftRpcRequestProto;
 import org.apache.ratis.proto.RaftProtos.SlidingWindowEntry;
+import org.apache.ratis.protocol.Message;
 import org.apache.ratis.protocol.RaftGroup;
 import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftGroupMemberId;
 import org.apache.ratis.protocol.RaftPeer;
 import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.thirdparty.com.google.protobuf.InvalidProtocolBufferException;
 import org.apache.ratis.thirdparty.com.google.protobuf.ServiceException;
+import org.apache.ratis.thirdparty.com.google.protobuf.UnsafeByteOperations;
 
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -71,6 +76,38 @@ public interface ProtoUtils {
         ByteString.EMPTY : ByteString.copyFrom(bytes, offset, size);
   }
 
+  /**
+   * Wrap the given bytes as a {@link ByteString} without copying them.
+   * The bytes must not be modified afterward since the {@link ByteString} is assumed to be immutable.
+   */
+  static ByteString unsafeWrap(byte[] bytes, int offset, int size) {
+    return size == 0 ? ByteString.EMPTY : UnsafeByteOperations.unsafeWrap(bytes, offset, size);
+  }
+
+  /**
+   * Wrap the remaining bytes of the given buffer as a {@link ByteString} without copying them.
+   * The bytes must not be modified afterward since the {@link ByteString} is assumed to be immutable.
+   */
+  static ByteString unsafeWrap(ByteBuffer buffer) {
+    return !buffer.hasRemaining() ? ByteString.EMPTY : UnsafeByteOperations.unsafeWrap(buffer);
+  }
+
+  /** @return a {@link MessageBatchProto} of the given messages, where a null message is treated as empty. */
+  static ByteString toMessageBatch(List<Message> messages) {
+    final MessageBatchProto.Builder b = MessageBatchProto.newBuilder();
+    for(Message m : messages) {
+      b.addMessage(m != null? m.getContent(): ByteString.EMPTY);
+    }
+    return b.build().toByteString();
+  }
+
+  /** @return the messages in the given {@link MessageBatchProto}. */
+  static List<Message> toMessages(ByteString batch) throws InvalidProtocolBufferException {
+    return MessageBatchProto.parseFrom(batch).getMessageList().stream()
+        .map(Message::valueOf)
+        .collect(Collectors.toList());
+  }
+
   static RaftPeer toRaftPeer(RaftPeerProto p) {
     return new RaftPeer(RaftPeerId.valueOf(p.getId()), p.getAddress());
   }
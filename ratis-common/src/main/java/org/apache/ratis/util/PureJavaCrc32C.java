@@ -20,14 +20,14 @@
  */
 package org.apache.ratis.util;
 
-import java.util.zip.Checksum;
+import java.nio.ByteBuffer;
 
 /**
  * A pure-java implementation of the CRC32 checksum that uses
  * the CRC32-C polynomial, the same polynomial used by iSCSI
  * and implemented on many Intel chipsets supporting SSE4.2.
  */
-public class PureJavaCrc32C implements Checksum {
+public class PureJavaCrc32C implements Crc32C {
 
   /** the current CRC value, bit-flipped */
   private int crc;
@@ -88,6 +88,48 @@ public class PureJavaCrc32C implements Checksum {
     crc = localCrc;
   }
 
+  /**
+   * Update the checksum with the bytes in the given buffer region,
+   * where the offset is an absolute index.
+   * The position and the limit of the buffer are not changed,
+   * so that a direct buffer can be checksummed in place without copying.
+   */
+  @Override
+  public void update(ByteBuffer b, int off, int len) {
+    if (b.hasArray()) {
+      update(b.array(), b.arrayOffset() + off, len);
+      return;
+    }
+
+    int localCrc = crc;
+
+    while(len > 7) {
+      final int c0 =(b.get(off+0) ^ localCrc) & 0xff;
+      final int c1 =(b.get(off+1) ^ (localCrc >>>= 8)) & 0xff;
+      final int c2 =(b.get(off+2) ^ (localCrc >>>= 8)) & 0xff;
+      final int c3 =(b.get(off+3) ^ (localCrc >>>= 8)) & 0xff;
+      localCrc = (T[T8_7_START + c0] ^ T[T8_6_START + c1])
+          ^ (T[T8_5_START + c2] ^ T[T8_4_START + c3]);
+
+      final int c4 = b.get(off+4) & 0xff;
+      final int c5 = b.get(off+5) & 0xff;
+      final int c6 = b.get(off+6) & 0xff;
+      final int c7 = b.get(off+7) & 0xff;
+
+      localCrc ^= (T[T8_3_START + c4] ^ T[T8_2_START + c5])
+           ^ (T[T8_1_START + c6] ^ T[T8_0_START + c7]);
+
+      off += 8;
+      len -= 8;
+    }
+
+    for(; len > 0; len--) {
+      localCrc = (localCrc >>> 8) ^ T[T8_0_START + ((localCrc ^ b.get(off++)) & 0xff)];
+    }
+    // Publish crc out to object
+    crc = localCrc;
+  }
+
   @Override
   public final void update(int b) {
     crc = (crc >>> 8) ^ T[T8_0_START + ((crc ^ b) & 0xff)];
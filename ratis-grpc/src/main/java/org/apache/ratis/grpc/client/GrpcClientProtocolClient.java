@@ -23,6 +23,8 @@ import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.grpc.GrpcConfigKeys;
 import org.apache.ratis.grpc.GrpcTlsConfig;
 import org.apache.ratis.grpc.GrpcUtil;
+import org.apache.ratis.proto.RaftProtos.DataStreamReplyProto;
+import org.apache.ratis.proto.RaftProtos.DataStreamRequestProto;
 import org.apache.ratis.proto.RaftProtos.GroupInfoReplyProto;
 import org.apache.ratis.proto.RaftProtos.GroupInfoRequestProto;
 import org.apache.ratis.proto.RaftProtos.GroupListReplyProto;
@@ -53,6 +55,7 @@ import org.apache.ratis.thirdparty.io.grpc.netty.NettyChannelBuilder;
 import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
 import org.apache.ratis.util.CollectionUtils;
 import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.MemoizedSupplier;
 import org.apache.ratis.util.SizeInBytes;
 import org.apache.ratis.util.TimeDuration;
 import org.apache.ratis.util.TimeoutScheduler;
@@ -78,6 +81,8 @@ public class GrpcClientProtocolClient implements Closeable {
   private final Supplier<String> name;
   private final RaftPeer target;
   private final ManagedChannel channel;
+  /** A separate channel for the bulk data, so that it does not block the other requests. */
+  private final MemoizedSupplier<ManagedChannel> dataStreamChannel;
 
   private final TimeDuration requestTimeoutDuration;
   private final TimeoutScheduler scheduler = TimeoutScheduler.newInstance(0);
@@ -93,6 +98,15 @@ public class GrpcClientProtocolClient implements Closeable {
   GrpcClientProtocolClient(ClientId id, RaftPeer target, RaftProperties properties, GrpcTlsConfig tlsConf) {
     this.name = JavaUtils.memoize(() -> id + "->" + target.getId());
     this.target = target;
+    channel = newChannel(target, properties, tlsConf);
+    dataStreamChannel = MemoizedSupplier.valueOf(() -> newChannel(target, properties, tlsConf));
+    blockingStub = RaftClientProtocolServiceGrpc.newBlockingStub(channel);
+    asyncStub = RaftClientProtocolServiceGrpc.newStub(channel);
+    adminBlockingStub = AdminProtocolServiceGrpc.newBlockingStub(channel);
+    this.requestTimeoutDuration = RaftClientConfigKeys.Rpc.requestTimeout(properties);
+  }
+
+  private static ManagedChannel newChannel(RaftPeer target, RaftProperties properties, GrpcTlsConfig tlsConf) {
     final SizeInBytes flowControlWindow = GrpcConfigKeys.flowControlWindow(properties, LOG::debug);
     final SizeInBytes maxMessageSize = GrpcConfigKeys.messageSizeMax(properties, LOG::debug);
     NettyChannelBuilder channelBuilder =
@@ -123,13 +137,9 @@ public class GrpcClientProtocolClient implements Closeable {
     } else {
       channelBuilder.negotiationType(NegotiationType.PLAINTEXT);
     }
-    channel = channelBuilder.flowControlWindow(flowControlWindow.getSizeInt())
+    return channelBuilder.flowControlWindow(flowControlWindow.getSizeInt())
         .maxInboundMessageSize(maxMessageSize.getSizeInt())
         .build();
-    blockingStub = RaftClientProtocolServiceGrpc.newBlockingStub(channel);
-    asyncStub = RaftClientProtocolServiceGrpc.newStub(channel);
-    adminBlockingStub = AdminProtocolServiceGrpc.newBlockingStub(channel);
-    this.requestTimeoutDuration = RaftClientConfigKeys.Rpc.requestTimeout(properties);
   }
 
   String getName() {
@@ -140,13 +150,20 @@ public class GrpcClientProtocolClient implements Closeable {
   public void close() {
     Optional.ofNullable(orderedStreamObservers.getAndSet(null)).ifPresent(AsyncStreamObservers::close);
     Optional.ofNullable(unorderedStreamObservers.getAndSet(null)).ifPresent(AsyncStreamObservers::close);
+    if (dataStreamChannel.isInitialized()) {
+      shutdown(dataStreamChannel.get());
+    }
+    shutdown(channel);
+    scheduler.close();
+  }
+
+  private static void shutdown(ManagedChannel channel) {
     channel.shutdown();
     try {
       channel.awaitTermination(5, TimeUnit.SECONDS);
     } catch (Exception e) {
       LOG.error("Unexpected exception while waiting for channel termination", e);
     }
-    scheduler.close();
   }
 
   RaftClientReplyProto groupAdd(GroupManagementRequestProto request) throws IOException {
@@ -194,6 +211,10 @@ public class GrpcClientProtocolClient implements Closeable {
         .unordered(responseHandler);
   }
 
+  StreamObserver<DataStreamRequestProto> dataStream(StreamObserver<DataStreamReplyProto> responseHandler) {
+    return RaftClientProtocolServiceGrpc.newStub(dataStreamChannel.get()).dataStream(responseHandler);
+  }
+
   AsyncStreamObservers getOrderedStreamObservers() {
     return orderedStreamObservers.updateAndGet(
         a -> a != null? a : new AsyncStreamObservers(this::ordered));
@@ -21,6 +21,8 @@ import org.apache.ratis.client.impl.ClientProtoUtils;
 import org.apache.ratis.grpc.GrpcUtil;
 import org.apache.ratis.protocol.*;
 import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
+import org.apache.ratis.proto.RaftProtos.DataStreamReplyProto;
+import org.apache.ratis.proto.RaftProtos.DataStreamRequestProto;
 import org.apache.ratis.proto.RaftProtos.RaftClientReplyProto;
 import org.apache.ratis.proto.RaftProtos.RaftClientRequestProto;
 import org.apache.ratis.proto.RaftProtos.SetConfigurationRequestProto;
@@ -33,6 +35,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -163,6 +167,11 @@ public class GrpcClientProtocolService extends RaftClientProtocolServiceImplBase
     return new UnorderedRequestStreamObserver(responseObserver);
   }
 
+  @Override
+  public StreamObserver<DataStreamRequestProto> dataStream(StreamObserver<DataStreamReplyProto> responseObserver) {
+    return new DataStreamObserver(responseObserver);
+  }
+
   private final AtomicInteger streamCount = new AtomicInteger();
 
   private abstract class RequestStreamObserver implements StreamObserver<RaftClientRequestProto> {
@@ -393,4 +402,128 @@ public class GrpcClientProtocolService extends RaftClientProtocolServiceImplBase
       return false;
     }
   }
+
+  /**
+   * Write the bulk data of a stream to the channel opened by the state machine.
+   * The writes are chained, so that the data is written and replied in order.
+   */
+  private class DataStreamObserver implements StreamObserver<DataStreamRequestProto> {
+    private final String name = getId() + "-" + getClass().getSimpleName() + streamCount.getAndIncrement();
+    private final StreamObserver<DataStreamReplyProto> responseObserver;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+    /** Is the stream closed or aborted in the state machine? */
+    private final AtomicBoolean isStreamDone = new AtomicBoolean();
+    /** The request opening the stream. */
+    private RaftClientRequest request;
+    /** The channel future after the previous write. */
+    private CompletableFuture<WritableByteChannel> channel;
+    private long bytesWritten = 0;
+
+    DataStreamObserver(StreamObserver<DataStreamReplyProto> responseObserver) {
+      LOG.debug("new {}", name);
+      this.responseObserver = responseObserver;
+    }
+
+    private CompletableFuture<WritableByteChannel> open(RaftClientRequest request) {
+      try {
+        return protocol.streamAsync(request);
+      } catch (Throwable t) {
+        return JavaUtils.completeExceptionally(t);
+      }
+    }
+
+    private long write(WritableByteChannel ch, DataStreamRequestProto proto) {
+      Preconditions.assertTrue(proto.getOffset() == bytesWritten,
+          () -> name + ": offset mismatched, expected " + bytesWritten + " but received " + proto.getOffset());
+      try {
+        for (ByteBuffer buffer : proto.getData().asReadOnlyByteBufferList()) {
+          while (buffer.hasRemaining()) {
+            bytesWritten += ch.write(buffer);
+          }
+        }
+        if (proto.getClose() && isStreamDone.compareAndSet(false, true)) {
+          ch.close();
+        }
+      } catch (IOException e) {
+        throw new CompletionException(name + ": Failed to write at offset " + proto.getOffset(), e);
+      }
+      return bytesWritten;
+    }
+
+    /** Abort the stream in the state machine after the previous writes unless it is already closed or aborted. */
+    private synchronized void abort(Throwable cause) {
+      if (channel == null) {
+        return;
+      }
+      final RaftClientRequest r = request;
+      channel.handle((ch, e) -> {
+        if (isStreamDone.compareAndSet(false, true)) {
+          try {
+            protocol.abortStreamAsync(r, cause).whenComplete((v, t) -> {
+              if (t != null) {
+                LOG.warn("{}: Failed to abort {}", name, r, t);
+              }
+            });
+          } catch (Throwable t) {
+            LOG.warn("{}: Failed to abort {}", name, r, t);
+          }
+        }
+        return null;
+      });
+    }
+
+    @Override
+    public synchronized void onNext(DataStreamRequestProto proto) {
+      final RaftClientRequest r = ClientProtoUtils.toRaftClientRequest(proto);
+      if (channel == null) {
+        request = r;
+        channel = open(r);
+      }
+      channel = channel.thenApply(ch -> {
+        final long written = write(ch, proto);
+        responseNext(ClientProtoUtils.toDataStreamReplyProto(r, written));
+        return ch;
+      });
+      channel.exceptionally(t -> {
+        responseError(t);
+        abort(t);
+        return null;
+      });
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+      GrpcUtil.warn(LOG, () -> name + ": onError", t);
+      abort(t);
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+      if (channel == null) {
+        responseCompleted();
+      } else {
+        channel.thenAccept(ch -> responseCompleted());
+      }
+    }
+
+    private synchronized void responseNext(DataStreamReplyProto reply) {
+      if (!isClosed.get()) {
+        responseObserver.onNext(reply);
+      }
+    }
+
+    private synchronized void responseCompleted() {
+      if (isClosed.compareAndSet(false, true)) {
+        responseObserver.onCompleted();
+      }
+    }
+
+    private synchronized void responseError(Throwable t) {
+      if (isClosed.compareAndSet(false, true)) {
+        t = JavaUtils.unwrapCompletionException(t);
+        LOG.debug("{}: Failed", name, t);
+        responseObserver.onError(GrpcUtil.wrapException(t));
+      }
+    }
+  }
 }
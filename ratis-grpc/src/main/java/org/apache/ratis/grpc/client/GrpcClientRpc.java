@@ -84,6 +84,11 @@ public class GrpcClientRpc extends RaftClientRpcWithProxy<GrpcClientProtocolClie
     }
   }
 
+  @Override
+  public DataStream newDataStream(RaftClientRequest request) throws IOException {
+    return new GrpcDataStream(request, getProxies().getProxy(request.getServerId()));
+  }
+
   @Override
   public RaftClientReply sendRequest(RaftClientRequest request)
       throws IOException {
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.grpc.client;
+
+import org.apache.ratis.client.RaftClientRpc;
+import org.apache.ratis.client.impl.ClientProtoUtils;
+import org.apache.ratis.grpc.GrpcUtil;
+import org.apache.ratis.proto.RaftProtos.DataStreamReplyProto;
+import org.apache.ratis.proto.RaftProtos.DataStreamRequestProto;
+import org.apache.ratis.protocol.AlreadyClosedException;
+import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.thirdparty.io.grpc.Status;
+import org.apache.ratis.thirdparty.io.grpc.stub.StreamObserver;
+import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.ProtoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link RaftClientRpc.DataStream} over a grpc stream on the separate data channel.
+ * The server replies the writes in order.
+ */
+class GrpcDataStream implements RaftClientRpc.DataStream {
+  public static final Logger LOG = LoggerFactory.getLogger(GrpcDataStream.class);
+
+  private final String name;
+  private final RaftClientRequest request;
+  private final StreamObserver<DataStreamRequestProto> requestObserver;
+  /** The futures of the outstanding writes in order. */
+  private final Queue<CompletableFuture<Long>> replies = new ConcurrentLinkedQueue<>();
+
+  private long offset = 0;
+  private boolean closed = false;
+
+  GrpcDataStream(RaftClientRequest request, GrpcClientProtocolClient proxy) {
+    this.name = proxy.getName() + "-" + getClass().getSimpleName() + request.getCallId();
+    this.request = request;
+    this.requestObserver = proxy.dataStream(new StreamObserver<DataStreamReplyProto>() {
+      @Override
+      public void onNext(DataStreamReplyProto reply) {
+        final CompletableFuture<Long> f = replies.poll();
+        if (f == null) {
+          LOG.warn("{}: received an unexpected reply {}", name, reply);
+          return;
+        }
+        f.complete(reply.getBytesWritten());
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        GrpcUtil.warn(LOG, () -> name + ": onError", t);
+        setClosed();
+        failAll(GrpcUtil.unwrapIOException(t));
+      }
+
+      @Override
+      public void onCompleted() {
+        setClosed();
+        failAll(new AlreadyClosedException(name + " is closed."));
+      }
+    });
+  }
+
+  private synchronized void setClosed() {
+    closed = true;
+  }
+
+  private void failAll(Throwable t) {
+    for(CompletableFuture<Long> f; (f = replies.poll()) != null; ) {
+      f.completeExceptionally(t);
+    }
+  }
+
+  @Override
+  public synchronized CompletableFuture<Long> writeAsync(ByteBuffer buffer, boolean close) {
+    if (closed) {
+      return JavaUtils.completeExceptionally(new AlreadyClosedException(name + " is already closed."));
+    }
+    final int length = buffer.remaining();
+    final DataStreamRequestProto proto = ClientProtoUtils.toDataStreamRequestProto(
+        request, offset, ProtoUtils.unsafeWrap(buffer), close);
+    final CompletableFuture<Long> f = new CompletableFuture<>();
+    replies.offer(f);
+    try {
+      // grpc buffers the message if the stream is not ready;
+      // the buffered data is bounded since the caller limits the outstanding writes.
+      requestObserver.onNext(proto);
+      if (close) {
+        closed = true;
+        requestObserver.onCompleted();
+      }
+    } catch (RuntimeException e) {
+      closed = true;
+      requestObserver.onError(e);
+      failAll(e);
+      return f;
+    }
+    offset += length;
+    return f;
+  }
+
+  @Override
+  public void abort(Throwable cause) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      LOG.warn("{}: abort, cause={}", name, cause.toString());
+      try {
+        requestObserver.onError(Status.CANCELLED.withDescription(name + " is aborted").withCause(cause)
+            .asRuntimeException());
+      } catch (RuntimeException e) {
+        LOG.debug("{}: Failed to abort, exception is ignored", name, e);
+      }
+    }
+    // complete the futures outside the lock since their callbacks may abort the other streams
+    failAll(new AlreadyClosedException(name + " is aborted", cause));
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.ratis.grpc.GrpcTlsConfig;
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.RaftGroup;
 import org.apache.ratis.protocol.RaftPeerId;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.util.ProtoUtils;
 
 import java.io.IOException;
@@ -31,7 +32,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 public class GrpcOutputStream extends OutputStream {
   /** internal buffer */
-  private final byte buf[];
+  private byte buf[];
   private int count;
   private final AtomicLong seqNum = new AtomicLong();
   private final ClientId clientId;
@@ -80,12 +81,21 @@ public class GrpcOutputStream extends OutputStream {
 
   private void flushToStreamer() throws IOException {
     if (count > 0) {
-      streamer.write(ProtoUtils.toByteString(buf, 0, count),
-          seqNum.getAndIncrement());
+      streamer.write(takeBufferedBytes(), seqNum.getAndIncrement());
       count = 0;
     }
   }
 
+  /** A full buffer is handed over without copying and then replaced by a new buffer. */
+  private ByteString takeBufferedBytes() {
+    if (count < buf.length) {
+      return ProtoUtils.toByteString(buf, 0, count);
+    }
+    final ByteString bytes = ProtoUtils.unsafeWrap(buf, 0, count);
+    buf = new byte[buf.length];
+    return bytes;
+  }
+
   @Override
   public void flush() throws IOException {
     checkClosed();
@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.codahale.metrics.Timer;
@@ -97,31 +98,45 @@ public class GrpcLogAppender extends LogAppender {
 
   @Override
   protected void runAppenderImpl() throws IOException {
-    boolean shouldAppendLog;
     for(; isAppenderRunning(); mayWait()) {
-      shouldAppendLog = true;
-      if (shouldSendRequest()) {
-        if (installSnapshotEnabled) {
-          SnapshotInfo snapshot = shouldInstallSnapshot();
-          if (snapshot != null) {
-            installSnapshot(snapshot);
-            shouldAppendLog = false;
-          }
-        } else {
-          TermIndex installSnapshotNotificationTermIndex = shouldNotifyToInstallSnapshot();
-          if (installSnapshotNotificationTermIndex != null) {
-            installSnapshot(installSnapshotNotificationTermIndex);
-            shouldAppendLog = false;
-          }
+      appendOnce();
+    }
+    onAppenderStopped();
+  }
+
+  @Override
+  protected boolean isAppendOnceSupported() {
+    return true;
+  }
+
+  @Override
+  protected long appendOnce() throws IOException {
+    boolean shouldAppendLog = true;
+    if (shouldSendRequest()) {
+      if (installSnapshotEnabled) {
+        SnapshotInfo snapshot = shouldInstallSnapshot();
+        if (snapshot != null) {
+          installSnapshot(snapshot);
+          shouldAppendLog = false;
         }
-        if (shouldAppendLog && !shouldWait()) {
-          // keep appending log entries or sending heartbeats
-          appendLog();
+      } else {
+        TermIndex installSnapshotNotificationTermIndex = shouldNotifyToInstallSnapshot();
+        if (installSnapshotNotificationTermIndex != null) {
+          installSnapshot(installSnapshotNotificationTermIndex);
+          shouldAppendLog = false;
         }
       }
-      checkSlowness();
+      if (shouldAppendLog && !shouldWait()) {
+        // keep appending log entries or sending heartbeats
+        appendLog();
+      }
     }
+    checkSlowness();
+    return getWaitTimeMs();
+  }
 
+  @Override
+  protected void onAppenderStopped() {
     Optional.ofNullable(appendLogRequestObserver).ifPresent(StreamObserver::onCompleted);
   }
 
@@ -156,6 +171,11 @@ public class GrpcLogAppender extends LogAppender {
     return appendLogRequestObserver == null || super.shouldSendRequest();
   }
 
+  @Override
+  protected boolean hasPendingRequests() {
+    return !pendingRequests.isEmpty();
+  }
+
   /** @return true iff not received first response or queue is full. */
   private boolean shouldWait() {
     final int size = pendingRequests.size();
@@ -197,9 +217,16 @@ public class GrpcLogAppender extends LogAppender {
         server.getId(), null, request);
     AppendEntriesRequestProto requestProto = request.getRequestProto();
     request.startRequestTimer();
+    request.setSendTime();
     s.onNext(requestProto);
-    scheduler.onTimeout(requestTimeoutDuration, () -> timeoutAppendRequest(requestProto), LOG,
-        () -> "Timeout check failed for append entry request: " + request);
+    final ScheduledExecutorService shared = getSharedScheduler();
+    if (shared != null) {
+      shared.schedule(() -> timeoutAppendRequest(requestProto),
+          requestTimeoutDuration.getDuration(), requestTimeoutDuration.getUnit());
+    } else {
+      scheduler.onTimeout(requestTimeoutDuration, () -> timeoutAppendRequest(requestProto), LOG,
+          () -> "Timeout check failed for append entry request: " + request);
+    }
     follower.updateLastRpcSendTime();
   }
 
@@ -242,6 +269,7 @@ public class GrpcLogAppender extends LogAppender {
             ServerProtoUtils.toString(reply), ServerProtoUtils.toString(requestProto));
       }
       request.stopRequestTimer(); // Update completion time
+      checkAppendEntriesAck(reply, request.getSendTime());
 
       try {
         onNextImpl(requestProto, reply);
@@ -271,6 +299,7 @@ public class GrpcLogAppender extends LogAppender {
           if (checkAndUpdateMatchIndex(request)) {
             submitEventOnSuccessAppend();
           }
+          checkQuiescent(request, reply);
           break;
         case NOT_LEADER:
           grpcServerMetrics.onRequestNotLeader(getFollowerId().toString());
@@ -524,6 +553,7 @@ public class GrpcLogAppender extends LogAppender {
     private final AppendEntriesRequestProto requestProto;
     private final Timer timer;
     private Timer.Context timerContext;
+    private volatile Timestamp sendTime;
 
     AppendEntriesRequest(AppendEntriesRequestProto requestProto, Timer timer) {
       this.requestProto = requestProto;
@@ -541,5 +571,13 @@ public class GrpcLogAppender extends LogAppender {
     void stopRequestTimer() {
       timerContext.stop();
     }
+
+    void setSendTime() {
+      sendTime = Timestamp.currentTime();
+    }
+
+    Timestamp getSendTime() {
+      return sendTime;
+    }
   }
 }
@@ -100,6 +100,18 @@ public class GrpcServerProtocolClient implements Closeable {
     return r;
   }
 
+  public ReadIndexReplyProto readIndex(ReadIndexRequestProto request) {
+    // the StatusRuntimeException will be handled by the caller
+    return blockingStub.withDeadlineAfter(requestTimeoutDuration.getDuration(), requestTimeoutDuration.getUnit())
+        .readIndex(request);
+  }
+
+  public HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) {
+    // the StatusRuntimeException will be handled by the caller
+    return blockingStub.withDeadlineAfter(requestTimeoutDuration.getDuration(), requestTimeoutDuration.getUnit())
+        .heartbeats(request);
+  }
+
   StreamObserver<AppendEntriesRequestProto> appendEntries(
       StreamObserver<AppendEntriesReplyProto> responseHandler) {
     return asyncStub.appendEntries(responseHandler);
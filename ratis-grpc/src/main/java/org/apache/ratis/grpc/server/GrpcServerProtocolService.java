@@ -148,6 +148,44 @@ class GrpcServerProtocolService extends RaftServerProtocolServiceImplBase {
     }
   }
 
+  @Override
+  public void readIndex(ReadIndexRequestProto request, StreamObserver<ReadIndexReplyProto> responseObserver) {
+    try {
+      server.readIndexAsync(request).whenComplete((reply, e) -> {
+        if (e == null) {
+          responseObserver.onNext(reply);
+          responseObserver.onCompleted();
+        } else {
+          GrpcUtil.warn(LOG,
+              () -> getId() + ": Failed readIndex " + ProtoUtils.toString(request.getServerRequest()), e);
+          responseObserver.onError(GrpcUtil.wrapException(e));
+        }
+      });
+    } catch (Throwable e) {
+      GrpcUtil.warn(LOG, () -> getId() + ": Failed readIndex " + ProtoUtils.toString(request.getServerRequest()), e);
+      responseObserver.onError(GrpcUtil.wrapException(e));
+    }
+  }
+
+  @Override
+  public void heartbeats(HeartbeatsRequestProto request, StreamObserver<HeartbeatsReplyProto> responseObserver) {
+    try {
+      server.heartbeatsAsync(request).whenComplete((reply, e) -> {
+        if (e == null) {
+          responseObserver.onNext(reply);
+          responseObserver.onCompleted();
+        } else {
+          GrpcUtil.warn(LOG,
+              () -> getId() + ": Failed heartbeats " + ProtoUtils.toString(request.getServerRequest()), e);
+          responseObserver.onError(GrpcUtil.wrapException(e));
+        }
+      });
+    } catch (Throwable e) {
+      GrpcUtil.warn(LOG, () -> getId() + ": Failed heartbeats " + ProtoUtils.toString(request.getServerRequest()), e);
+      responseObserver.onError(GrpcUtil.wrapException(e));
+    }
+  }
+
   @Override
   public StreamObserver<AppendEntriesRequestProto> appendEntries(
       StreamObserver<AppendEntriesReplyProto> responseObserver) {
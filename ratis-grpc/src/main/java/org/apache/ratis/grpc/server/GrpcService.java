@@ -17,8 +17,10 @@
  */
 package org.apache.ratis.grpc.server;
 
+import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.grpc.GrpcConfigKeys;
 import org.apache.ratis.grpc.GrpcTlsConfig;
+import org.apache.ratis.grpc.GrpcUtil;
 import org.apache.ratis.grpc.client.GrpcClientProtocolService;
 import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftPeerId;
@@ -30,7 +32,9 @@ import org.apache.ratis.server.impl.RaftServerRpcWithProxy;
 import org.apache.ratis.thirdparty.io.grpc.netty.GrpcSslContexts;
 import org.apache.ratis.thirdparty.io.grpc.netty.NettyServerBuilder;
 import org.apache.ratis.thirdparty.io.grpc.Server;
+import org.apache.ratis.thirdparty.io.grpc.StatusRuntimeException;
 import org.apache.ratis.thirdparty.io.netty.channel.ChannelOption;
+import org.apache.ratis.thirdparty.io.netty.channel.EventLoopGroup;
 import org.apache.ratis.thirdparty.io.netty.handler.ssl.ClientAuth;
 import org.apache.ratis.thirdparty.io.netty.handler.ssl.SslContextBuilder;
 
@@ -41,6 +45,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import static org.apache.ratis.thirdparty.io.netty.handler.ssl.SslProvider.OPENSSL;
@@ -82,6 +88,8 @@ public class GrpcService extends RaftServerRpcWithProxy<GrpcServerProtocolClient
 
   private final Server server;
   private final Supplier<InetSocketAddress> addressSupplier;
+  /** The event loop groups created for this server, or empty if the grpc default groups are used. */
+  private final List<EventLoopGroup> eventLoopGroups = new ArrayList<>();
 
   private final GrpcClientProtocolService clientProtocolService;
 
@@ -95,6 +103,37 @@ public class GrpcService extends RaftServerRpcWithProxy<GrpcServerProtocolClient
         tlsConfig);
   }
 
+  /**
+   * Use the epoll transport and the event loop groups as configured.
+   * The grpc default groups, which are shared in the JVM, are kept if the defaults are not overridden.
+   */
+  private void setTransport(NettyServerBuilder builder, RaftProperties properties) {
+    builder.withChildOption(ChannelOption.TCP_NODELAY, GrpcConfigKeys.Transport.tcpNodelay(properties))
+        .withChildOption(ChannelOption.ALLOCATOR, NettyUtils.POOLED_DIRECT_ALLOCATOR);
+
+    final boolean useEpoll = NettyUtils.useEpoll(GrpcConfigKeys.Transport.epollEnabled(properties));
+    final int bossThreads = GrpcConfigKeys.Server.bossThreads(properties);
+    final int workerThreads = GrpcConfigKeys.Server.workerThreads(properties);
+    if (!useEpoll && bossThreads == 0 && workerThreads == 0) {
+      return;
+    }
+
+    final EventLoopGroup bossGroup = NettyUtils.newEventLoopGroup(getId() + "-grpc-boss", bossThreads, useEpoll);
+    final EventLoopGroup workerGroup = NettyUtils.newEventLoopGroup(
+        getId() + "-grpc-worker", workerThreads, useEpoll);
+    eventLoopGroups.add(bossGroup);
+    eventLoopGroups.add(workerGroup);
+    builder.bossEventLoopGroup(bossGroup)
+        .workerEventLoopGroup(workerGroup)
+        .channelType(NettyUtils.getServerChannelClass(bossGroup));
+
+    final ChannelOption<Integer> busyPoll = NettyUtils.getBusyPollOption(workerGroup);
+    final int busyPollMicros = GrpcConfigKeys.Transport.epollBusyPoll(properties);
+    if (busyPoll != null && busyPollMicros > 0) {
+      builder.withChildOption(busyPoll, busyPollMicros);
+    }
+  }
+
   private GrpcService(RaftServer raftServer, Supplier<RaftPeerId> idSupplier, int port,
       SizeInBytes grpcMessageSizeMax, SizeInBytes appenderBufferSize,
       SizeInBytes flowControlWindow,TimeDuration requestTimeoutDuration, GrpcTlsConfig tlsConfig) {
@@ -116,6 +155,7 @@ public class GrpcService extends RaftServerRpcWithProxy<GrpcServerProtocolClient
         .addService(new GrpcServerProtocolService(idSupplier, raftServer))
         .addService(clientProtocolService)
         .addService(new GrpcAdminProtocolService(raftServer));
+    setTransport(nettyServerBuilder, raftServer.getProperties());
 
     if (tlsConfig != null) {
       SslContextBuilder sslContextBuilder =
@@ -168,6 +208,8 @@ public class GrpcService extends RaftServerRpcWithProxy<GrpcServerProtocolClient
       s.awaitTermination();
     } catch(InterruptedException e) {
       throw IOUtils.toInterruptedIOException(name + " failed", e);
+    } finally {
+      eventLoopGroups.forEach(EventLoopGroup::shutdownGracefully);
     }
     LOG.info("{} successfully", name);
   }
@@ -203,4 +245,28 @@ public class GrpcService extends RaftServerRpcWithProxy<GrpcServerProtocolClient
     final RaftPeerId target = RaftPeerId.valueOf(request.getServerRequest().getReplyId());
     return getProxies().getProxy(target).requestVote(request);
   }
+
+  @Override
+  public ReadIndexReplyProto readIndex(ReadIndexRequestProto request) throws IOException {
+    CodeInjectionForTesting.execute(GRPC_SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftPeerId target = RaftPeerId.valueOf(request.getServerRequest().getReplyId());
+    try {
+      return getProxies().getProxy(target).readIndex(request);
+    } catch (StatusRuntimeException e) {
+      throw GrpcUtil.unwrapException(e);
+    }
+  }
+
+  @Override
+  public HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) throws IOException {
+    CodeInjectionForTesting.execute(GRPC_SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftPeerId target = RaftPeerId.valueOf(request.getServerRequest().getReplyId());
+    try {
+      return getProxies().getProxy(target).heartbeats(request);
+    } catch (StatusRuntimeException e) {
+      throw GrpcUtil.unwrapException(e);
+    }
+  }
 }
@@ -25,8 +25,12 @@ import org.apache.ratis.thirdparty.com.google.protobuf.RpcController;
 import org.apache.ratis.thirdparty.com.google.protobuf.ServiceException;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotReplyProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotRequestProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexReplyProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexRequestProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteReplyProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteRequestProto;
 
@@ -70,4 +74,24 @@ public class RaftServerProtocolServerSideTranslatorPB
       throw new ServiceException(ioe);
     }
   }
+
+  @Override
+  public ReadIndexReplyProto readIndex(RpcController unused, ReadIndexRequestProto request)
+      throws ServiceException {
+    try {
+      return impl.readIndex(request);
+    } catch(IOException ioe) {
+      throw new ServiceException(ioe);
+    }
+  }
+
+  @Override
+  public HeartbeatsReplyProto heartbeats(RpcController unused, HeartbeatsRequestProto request)
+      throws ServiceException {
+    try {
+      return impl.heartbeats(request);
+    } catch(IOException ioe) {
+      throw new ServiceException(ioe);
+    }
+  }
 }
@@ -17,17 +17,19 @@
  */
 package org.apache.ratis.netty;
 
+import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.thirdparty.io.netty.bootstrap.Bootstrap;
 import org.apache.ratis.thirdparty.io.netty.channel.Channel;
 import org.apache.ratis.thirdparty.io.netty.channel.ChannelFuture;
 import org.apache.ratis.thirdparty.io.netty.channel.ChannelInitializer;
+import org.apache.ratis.thirdparty.io.netty.channel.ChannelOption;
 import org.apache.ratis.thirdparty.io.netty.channel.EventLoopGroup;
 import org.apache.ratis.thirdparty.io.netty.channel.socket.SocketChannel;
-import org.apache.ratis.thirdparty.io.netty.channel.socket.nio.NioSocketChannel;
 import org.apache.ratis.thirdparty.io.netty.handler.logging.LogLevel;
 import org.apache.ratis.thirdparty.io.netty.handler.logging.LoggingHandler;
 import org.apache.ratis.util.LifeCycle;
 import org.apache.ratis.util.NetUtils;
+import org.apache.ratis.util.NettyUtils;
 
 import java.io.Closeable;
 import java.net.InetSocketAddress;
@@ -42,17 +44,30 @@ public class NettyClient implements Closeable {
   public void connect(String serverAddress, EventLoopGroup group,
                       ChannelInitializer<SocketChannel> initializer)
       throws InterruptedException {
+    connect(serverAddress, group, initializer, new RaftProperties());
+  }
+
+  /** Connects to the given server address using the transport settings in the given properties. */
+  public void connect(String serverAddress, EventLoopGroup group,
+                      ChannelInitializer<SocketChannel> initializer, RaftProperties properties)
+      throws InterruptedException {
     final InetSocketAddress address = NetUtils.createSocketAddr(serverAddress);
 
+    final Bootstrap bootstrap = new Bootstrap()
+        .group(group)
+        .channel(NettyUtils.getSocketChannelClass(group))
+        .option(ChannelOption.TCP_NODELAY, NettyConfigKeys.Transport.tcpNodelay(properties))
+        .option(ChannelOption.ALLOCATOR, NettyUtils.POOLED_DIRECT_ALLOCATOR)
+        .handler(new LoggingHandler(LogLevel.INFO))
+        .handler(initializer);
+    final ChannelOption<Integer> busyPoll = NettyUtils.getBusyPollOption(group);
+    final int busyPollMicros = NettyConfigKeys.Transport.epollBusyPoll(properties);
+    if (busyPoll != null && busyPollMicros > 0) {
+      bootstrap.option(busyPoll, busyPollMicros);
+    }
+
     lifeCycle.startAndTransition(
-        () -> channel = new Bootstrap()
-            .group(group)
-            .channel(NioSocketChannel.class)
-            .handler(new LoggingHandler(LogLevel.INFO))
-            .handler(initializer)
-            .connect(address)
-            .sync()
-            .channel(),
+        () -> channel = bootstrap.connect(address).sync().channel(),
         InterruptedException.class);
   }
 
@@ -47,6 +47,84 @@ public interface NettyConfigKeys {
     static void setPort(RaftProperties properties, int port) {
       setInt(properties::setInt, PORT_KEY, port);
     }
+
+    /** The number of the threads accepting the connections; 0 means the netty default. */
+    String BOSS_THREADS_KEY = PREFIX + ".boss.threads";
+    int BOSS_THREADS_DEFAULT = 0;
+    static int bossThreads(RaftProperties properties) {
+      return getInt(properties::getInt, BOSS_THREADS_KEY, BOSS_THREADS_DEFAULT, getDefaultLog(), requireMin(0));
+    }
+    static void setBossThreads(RaftProperties properties, int threads) {
+      setInt(properties::setInt, BOSS_THREADS_KEY, threads, requireMin(0));
+    }
+
+    /** The number of the threads handling the accepted connections; 0 means the netty default. */
+    String WORKER_THREADS_KEY = PREFIX + ".worker.threads";
+    int WORKER_THREADS_DEFAULT = 0;
+    static int workerThreads(RaftProperties properties) {
+      return getInt(properties::getInt, WORKER_THREADS_KEY, WORKER_THREADS_DEFAULT, getDefaultLog(), requireMin(0));
+    }
+    static void setWorkerThreads(RaftProperties properties, int threads) {
+      setInt(properties::setInt, WORKER_THREADS_KEY, threads, requireMin(0));
+    }
+  }
+
+  interface Client {
+    Logger LOG = LoggerFactory.getLogger(Client.class);
+    static Consumer<String> getDefaultLog() {
+      return LOG::info;
+    }
+
+    String PREFIX = NettyConfigKeys.PREFIX + ".client";
+
+    /** The number of the threads handling the outgoing connections; 0 means the netty default. */
+    String WORKER_THREADS_KEY = PREFIX + ".worker.threads";
+    int WORKER_THREADS_DEFAULT = 0;
+    static int workerThreads(RaftProperties properties) {
+      return getInt(properties::getInt, WORKER_THREADS_KEY, WORKER_THREADS_DEFAULT, getDefaultLog(), requireMin(0));
+    }
+    static void setWorkerThreads(RaftProperties properties, int threads) {
+      setInt(properties::setInt, WORKER_THREADS_KEY, threads, requireMin(0));
+    }
+  }
+
+  /** The transport settings for both the server and the client. */
+  interface Transport {
+    Logger LOG = LoggerFactory.getLogger(Transport.class);
+    static Consumer<String> getDefaultLog() {
+      return LOG::info;
+    }
+
+    String PREFIX = NettyConfigKeys.PREFIX + ".transport";
+
+    /** Use the native epoll transport if it is available; otherwise, fall back to nio. */
+    String EPOLL_ENABLED_KEY = PREFIX + ".epoll.enabled";
+    boolean EPOLL_ENABLED_DEFAULT = false;
+    static boolean epollEnabled(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, EPOLL_ENABLED_KEY, EPOLL_ENABLED_DEFAULT, getDefaultLog());
+    }
+    static void setEpollEnabled(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, EPOLL_ENABLED_KEY, enabled);
+    }
+
+    /** The SO_BUSY_POLL value in microseconds for epoll; 0 means disabled. */
+    String EPOLL_BUSY_POLL_KEY = PREFIX + ".epoll.busy-poll";
+    int EPOLL_BUSY_POLL_DEFAULT = 0;
+    static int epollBusyPoll(RaftProperties properties) {
+      return getInt(properties::getInt, EPOLL_BUSY_POLL_KEY, EPOLL_BUSY_POLL_DEFAULT, getDefaultLog(), requireMin(0));
+    }
+    static void setEpollBusyPoll(RaftProperties properties, int micros) {
+      setInt(properties::setInt, EPOLL_BUSY_POLL_KEY, micros, requireMin(0));
+    }
+
+    String TCP_NODELAY_KEY = PREFIX + ".tcp-nodelay";
+    boolean TCP_NODELAY_DEFAULT = true;
+    static boolean tcpNodelay(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, TCP_NODELAY_KEY, TCP_NODELAY_DEFAULT, getDefaultLog());
+    }
+    static void setTcpNodelay(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, TCP_NODELAY_KEY, enabled);
+    }
   }
 
   static void main(String[] args) {
@@ -17,9 +17,9 @@
  */
 package org.apache.ratis.netty;
 
+import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.protocol.RaftPeer;
 import org.apache.ratis.thirdparty.io.netty.channel.*;
-import org.apache.ratis.thirdparty.io.netty.channel.nio.NioEventLoopGroup;
 import org.apache.ratis.thirdparty.io.netty.channel.socket.SocketChannel;
 import org.apache.ratis.thirdparty.io.netty.handler.codec.protobuf.ProtobufDecoder;
 import org.apache.ratis.thirdparty.io.netty.handler.codec.protobuf.ProtobufEncoder;
@@ -29,31 +29,46 @@ import org.apache.ratis.proto.RaftProtos.RaftRpcRequestProto;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerReplyProto;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerRequestProto;
 import org.apache.ratis.util.IOUtils;
+import org.apache.ratis.util.NettyUtils;
 import org.apache.ratis.util.PeerProxyMap;
 import org.apache.ratis.util.ProtoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerReplyProto.RaftNettyServerReplyCase.EXCEPTIONREPLY;
 
 public class NettyRpcProxy implements Closeable {
+  public static final Logger LOG = LoggerFactory.getLogger(NettyRpcProxy.class);
+
   public static class PeerMap extends PeerProxyMap<NettyRpcProxy> {
-    private final EventLoopGroup group = new NioEventLoopGroup();
+    private final RaftProperties properties;
+    private final EventLoopGroup group;
 
     public PeerMap(String name) {
+      this(name, new RaftProperties());
+    }
+
+    public PeerMap(String name, RaftProperties properties) {
       super(name);
+      this.properties = properties;
+      this.group = NettyUtils.newEventLoopGroup(name + "-client", NettyConfigKeys.Client.workerThreads(properties),
+          NettyUtils.useEpoll(NettyConfigKeys.Transport.epollEnabled(properties)));
     }
 
     @Override
     public NettyRpcProxy createProxyImpl(RaftPeer peer)
         throws IOException {
       try {
-        return new NettyRpcProxy(peer, group);
+        return new NettyRpcProxy(peer, properties, group);
       } catch (InterruptedException e) {
         throw IOUtils.toInterruptedIOException("Failed connecting to " + peer, e);
       }
@@ -74,6 +89,10 @@ public class NettyRpcProxy implements Closeable {
         return proto.getAppendEntriesReply().getServerReply().getCallId();
       case INSTALLSNAPSHOTREPLY:
         return proto.getInstallSnapshotReply().getServerReply().getCallId();
+      case READINDEXREPLY:
+        return proto.getReadIndexReply().getServerReply().getCallId();
+      case HEARTBEATSREPLY:
+        return proto.getHeartbeatsReply().getServerReply().getCallId();
       case RAFTCLIENTREPLY:
         return proto.getRaftClientReply().getRpcReply().getCallId();
       case EXCEPTIONREPLY:
@@ -88,21 +107,27 @@ public class NettyRpcProxy implements Closeable {
   }
 
 
+  /**
+   * A connection multiplexing the requests.
+   * The replies are matched to the requests by the correlationIds, so that they can be completed out of order.
+   */
   class Connection implements Closeable {
     private final NettyClient client = new NettyClient();
-    private final Queue<CompletableFuture<RaftNettyServerReplyProto>> replies
-        = new LinkedList<>();
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final Map<Long, CompletableFuture<RaftNettyServerReplyProto>> replies = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
 
-    Connection(EventLoopGroup group) throws InterruptedException {
+    Connection(RaftProperties properties, EventLoopGroup group) throws InterruptedException {
       final ChannelInboundHandler inboundHandler
           = new SimpleChannelInboundHandler<RaftNettyServerReplyProto>() {
         @Override
         protected void channelRead0(ChannelHandlerContext ctx,
                                     RaftNettyServerReplyProto proto) {
-          final CompletableFuture<RaftNettyServerReplyProto> future = pollReply();
+          final CompletableFuture<RaftNettyServerReplyProto> future = replies.remove(proto.getCorrelationId());
           if (future == null) {
-            throw new IllegalStateException("Request #" + getCallId(proto)
-                + " not found");
+            // the request may have timed out
+            LOG.debug("{}: Request #{} (correlationId={}) not found", peer, getCallId(proto), proto.getCorrelationId());
+            return;
           }
           if (proto.getRaftNettyServerReplyCase() == EXCEPTIONREPLY) {
             final Object ioe = ProtoUtils.toObject(proto.getExceptionReply().getException());
@@ -111,6 +136,12 @@ public class NettyRpcProxy implements Closeable {
             future.complete(proto);
           }
         }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+          failAll(new IOException("Connection to " + peer + " is inactive."));
+          super.channelInactive(ctx);
+        }
       };
       final ChannelInitializer<SocketChannel> initializer
           = new ChannelInitializer<SocketChannel>() {
@@ -127,27 +158,49 @@ public class NettyRpcProxy implements Closeable {
         }
       };
 
-      client.connect(peer.getAddress(), group, initializer);
+      client.connect(peer.getAddress(), group, initializer, properties);
     }
 
-    synchronized ChannelFuture offer(RaftNettyServerRequestProto request,
-        CompletableFuture<RaftNettyServerReplyProto> reply) {
-      replies.offer(reply);
-      return client.writeAndFlush(request);
+    CompletableFuture<RaftNettyServerReplyProto> offer(RaftNettyServerRequestProto request) {
+      final CompletableFuture<RaftNettyServerReplyProto> reply = new CompletableFuture<>();
+      final long correlationId = correlationIds.incrementAndGet();
+      replies.put(correlationId, reply);
+      // the reply may be completed by the caller, e.g. timeout
+      reply.whenComplete((r, e) -> replies.remove(correlationId, reply));
+      if (closed) {
+        // the connection may be closed before the reply is put
+        failAll(new IOException("Connection to " + peer + " is closed."));
+        return reply;
+      }
+
+      try {
+        client.writeAndFlush(request.toBuilder().setCorrelationId(correlationId).build()).addListener(f -> {
+          if (!f.isSuccess()) {
+            failReply(correlationId, f.cause());
+          }
+        });
+      } catch (RuntimeException e) {
+        failReply(correlationId, e);
+      }
+      return reply;
     }
 
-    synchronized CompletableFuture<RaftNettyServerReplyProto> pollReply() {
-      return replies.poll();
+    private void failReply(long correlationId, Throwable cause) {
+      Optional.ofNullable(replies.remove(correlationId)).ifPresent(r -> r.completeExceptionally(
+          new IOException("Failed to send request #" + correlationId + " to " + peer, cause)));
+    }
+
+    private void failAll(IOException e) {
+      for (Long id : replies.keySet()) {
+        Optional.ofNullable(replies.remove(id)).ifPresent(r -> r.completeExceptionally(e));
+      }
     }
 
     @Override
-    public synchronized void close() {
+    public void close() {
+      closed = true;
       client.close();
-      if (!replies.isEmpty()) {
-        final IOException e = new IOException("Connection to " + peer + " is closed.");
-        replies.stream().forEach(f -> f.completeExceptionally(e));
-        replies.clear();
-      }
+      failAll(new IOException("Connection to " + peer + " is closed."));
     }
   }
 
@@ -155,8 +208,12 @@ public class NettyRpcProxy implements Closeable {
   private final Connection connection;
 
   public NettyRpcProxy(RaftPeer peer, EventLoopGroup group) throws InterruptedException {
+    this(peer, new RaftProperties(), group);
+  }
+
+  public NettyRpcProxy(RaftPeer peer, RaftProperties properties, EventLoopGroup group) throws InterruptedException {
     this.peer = peer;
-    this.connection = new Connection(group);
+    this.connection = new Connection(properties, group);
   }
 
   @Override
@@ -164,14 +221,15 @@ public class NettyRpcProxy implements Closeable {
     connection.close();
   }
 
+  public CompletableFuture<RaftNettyServerReplyProto> sendAsync(RaftNettyServerRequestProto proto) {
+    return connection.offer(proto);
+  }
+
   public RaftNettyServerReplyProto send(
       RaftRpcRequestProto request, RaftNettyServerRequestProto proto)
       throws IOException {
-    final CompletableFuture<RaftNettyServerReplyProto> reply = new CompletableFuture<>();
-    final ChannelFuture channelFuture = connection.offer(proto, reply);
-
+    final CompletableFuture<RaftNettyServerReplyProto> reply = sendAsync(proto);
     try {
-      channelFuture.sync();
       return reply.get();
     } catch (InterruptedException e) {
       throw IOUtils.toInterruptedIOException(ProtoUtils.toString(request)
@@ -17,8 +17,10 @@
  */
 package org.apache.ratis.netty.client;
 
+import org.apache.ratis.client.RaftClientConfigKeys;
 import org.apache.ratis.client.impl.ClientProtoUtils;
 import org.apache.ratis.client.impl.RaftClientRpcWithProxy;
+import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.netty.NettyRpcProxy;
 import org.apache.ratis.protocol.*;
 import org.apache.ratis.proto.RaftProtos;
@@ -26,13 +28,47 @@ import org.apache.ratis.proto.RaftProtos.RaftClientRequestProto;
 import org.apache.ratis.proto.RaftProtos.RaftRpcRequestProto;
 import org.apache.ratis.proto.RaftProtos.GroupManagementRequestProto;
 import org.apache.ratis.proto.RaftProtos.SetConfigurationRequestProto;
+import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerReplyProto;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerRequestProto;
+import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.TimeDuration;
+import org.apache.ratis.util.TimeoutScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 public class NettyClientRpc extends RaftClientRpcWithProxy<NettyRpcProxy> {
+  public static final Logger LOG = LoggerFactory.getLogger(NettyClientRpc.class);
+
+  private final TimeDuration requestTimeout;
+  private final TimeoutScheduler scheduler = TimeoutScheduler.newInstance(0);
+
   public NettyClientRpc(ClientId clientId) {
-    super(new NettyRpcProxy.PeerMap(clientId.toString()));
+    this(clientId, new RaftProperties());
+  }
+
+  public NettyClientRpc(ClientId clientId, RaftProperties properties) {
+    super(new NettyRpcProxy.PeerMap(clientId.toString(), properties));
+    this.requestTimeout = RaftClientConfigKeys.Rpc.requestTimeout(properties);
+  }
+
+  @Override
+  public CompletableFuture<RaftClientReply> sendRequestAsyncUnordered(RaftClientRequest request) {
+    final NettyRpcProxy proxy;
+    try {
+      proxy = getProxies().getProxy(request.getServerId());
+    } catch (IOException e) {
+      return JavaUtils.completeExceptionally(e);
+    }
+    final RaftNettyServerRequestProto.Builder b = RaftNettyServerRequestProto.newBuilder();
+    toRaftNettyServerRequestProto(request, b);
+    final CompletableFuture<RaftNettyServerReplyProto> reply = proxy.sendAsync(b.build());
+    scheduler.onTimeout(requestTimeout, () -> reply.completeExceptionally(
+        new TimeoutIOException("Request timeout " + requestTimeout + ": " + request)), LOG,
+        () -> "Timeout check failed for client request: " + request);
+    return reply.thenApply(r -> toRaftClientReply(request, r));
   }
 
   @Override
@@ -41,41 +77,52 @@ public class NettyClientRpc extends RaftClientRpcWithProxy<NettyRpcProxy> {
     final NettyRpcProxy proxy = getProxies().getProxy(serverId);
 
     final RaftNettyServerRequestProto.Builder b = RaftNettyServerRequestProto.newBuilder();
-    final RaftRpcRequestProto rpcRequest;
+    final RaftRpcRequestProto rpcRequest = toRaftNettyServerRequestProto(request, b);
+    return toRaftClientReply(request, proxy.send(rpcRequest, b.build()));
+  }
+
+  private static RaftRpcRequestProto toRaftNettyServerRequestProto(
+      RaftClientRequest request, RaftNettyServerRequestProto.Builder b) {
     if (request instanceof GroupManagementRequest) {
       final GroupManagementRequestProto proto = ClientProtoUtils.toGroupManagementRequestProto(
           (GroupManagementRequest)request);
       b.setGroupManagementRequest(proto);
-      rpcRequest = proto.getRpcRequest();
+      return proto.getRpcRequest();
     } else if (request instanceof SetConfigurationRequest) {
       final SetConfigurationRequestProto proto = ClientProtoUtils.toSetConfigurationRequestProto(
           (SetConfigurationRequest)request);
       b.setSetConfigurationRequest(proto);
-      rpcRequest = proto.getRpcRequest();
+      return proto.getRpcRequest();
     } else if (request instanceof GroupListRequest) {
       final RaftProtos.GroupListRequestProto proto = ClientProtoUtils.toGroupListRequestProto(
           (GroupListRequest)request);
       b.setGroupListRequest(proto);
-      rpcRequest = proto.getRpcRequest();
+      return proto.getRpcRequest();
     } else if (request instanceof GroupInfoRequest) {
       final RaftProtos.GroupInfoRequestProto proto = ClientProtoUtils.toGroupInfoRequestProto(
           (GroupInfoRequest)request);
       b.setGroupInfoRequest(proto);
-      rpcRequest = proto.getRpcRequest();
+      return proto.getRpcRequest();
     } else {
       final RaftClientRequestProto proto = ClientProtoUtils.toRaftClientRequestProto(request);
       b.setRaftClientRequest(proto);
-      rpcRequest = proto.getRpcRequest();
+      return proto.getRpcRequest();
     }
+  }
+
+  @Override
+  public void close() {
+    scheduler.close();
+    super.close();
+  }
+
+  private static RaftClientReply toRaftClientReply(RaftClientRequest request, RaftNettyServerReplyProto reply) {
     if (request instanceof GroupListRequest) {
-      return ClientProtoUtils.toGroupListReply(
-          proxy.send(rpcRequest, b.build()).getGroupListReply());
+      return ClientProtoUtils.toGroupListReply(reply.getGroupListReply());
     } else if (request instanceof GroupInfoRequest) {
-      return ClientProtoUtils.toGroupInfoReply(
-          proxy.send(rpcRequest, b.build()).getGroupInfoReply());
+      return ClientProtoUtils.toGroupInfoReply(reply.getGroupInfoReply());
     } else {
-      return ClientProtoUtils.toRaftClientReply(
-          proxy.send(rpcRequest, b.build()).getRaftClientReply());
+      return ClientProtoUtils.toRaftClientReply(reply.getRaftClientReply());
     }
   }
 }
@@ -18,21 +18,18 @@
 package org.apache.ratis.netty.server;
 
 import org.apache.ratis.client.impl.ClientProtoUtils;
+import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.netty.NettyConfigKeys;
 import org.apache.ratis.netty.NettyRpcProxy;
-import org.apache.ratis.protocol.GroupInfoReply;
-import org.apache.ratis.protocol.GroupListReply;
-import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.rpc.SupportedRpcType;
 import org.apache.ratis.server.RaftServer;
 import org.apache.ratis.server.RaftServerRpc;
 import org.apache.ratis.server.impl.RaftServerRpcWithProxy;
+import org.apache.ratis.server.protocol.RaftServerAsynchronousProtocol;
 import org.apache.ratis.thirdparty.io.netty.bootstrap.ServerBootstrap;
 import org.apache.ratis.thirdparty.io.netty.channel.*;
-import org.apache.ratis.thirdparty.io.netty.channel.nio.NioEventLoopGroup;
 import org.apache.ratis.thirdparty.io.netty.channel.socket.SocketChannel;
-import org.apache.ratis.thirdparty.io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.apache.ratis.thirdparty.io.netty.handler.codec.protobuf.ProtobufDecoder;
 import org.apache.ratis.thirdparty.io.netty.handler.codec.protobuf.ProtobufEncoder;
 import org.apache.ratis.thirdparty.io.netty.handler.codec.protobuf.ProtobufVarint32FrameDecoder;
@@ -43,17 +40,28 @@ import org.apache.ratis.proto.RaftProtos.*;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyExceptionReplyProto;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerReplyProto;
 import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerRequestProto;
+import org.apache.ratis.proto.netty.NettyProtos.RaftNettyServerRequestProto.RaftNettyServerRequestCase;
 import org.apache.ratis.util.CodeInjectionForTesting;
+import org.apache.ratis.util.Daemon;
+import org.apache.ratis.util.IOUtils;
+import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.NettyUtils;
 import org.apache.ratis.util.ProtoUtils;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A netty server endpoint that acts as the communication layer.
+ *
+ * The requests to a peer are multiplexed over a single connection,
+ * so that the asynchronous requests are delivered in the order they are sent.
  */
-public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy, NettyRpcProxy.PeerMap> {
+public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy, NettyRpcProxy.PeerMap>
+    implements RaftServerAsynchronousProtocol {
   static final String CLASS_NAME = NettyRpcService.class.getSimpleName();
   public static final String SEND_SERVER_REQUEST = CLASS_NAME + ".sendServerRequest";
 
@@ -77,23 +85,53 @@ public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy,
 
   private final RaftServer server;
 
-  private final EventLoopGroup bossGroup = new NioEventLoopGroup();
-  private final EventLoopGroup workerGroup = new NioEventLoopGroup();
+  private final EventLoopGroup bossGroup;
+  private final EventLoopGroup workerGroup;
   private final ChannelFuture channelFuture;
 
-  @ChannelHandler.Sharable
+  /**
+   * Handle the requests outside the event loop
+   * since the calls, such as requestVote, installSnapshot and even the async calls, may block.
+   */
+  private final ExecutorService requestExecutor;
+
+  /**
+   * Handle the requests of a connection asynchronously without blocking the event loop.
+   * The appendEntries requests of the connection are handled one by one in the order they are received;
+   * the other requests are handled concurrently.
+   * The replies are sent once they are ready, possibly out of order, with the correlationIds of the requests.
+   */
   class InboundHandler extends SimpleChannelInboundHandler<RaftNettyServerRequestProto> {
+    /** The future of the last appendEntries request handled by the executor; accessed only by the event loop. */
+    private CompletableFuture<?> lastAppendEntries = CompletableFuture.completedFuture(null);
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RaftNettyServerRequestProto proto) {
-      final RaftNettyServerReplyProto reply = handle(proto);
-      ctx.writeAndFlush(reply);
+      final long correlationId = proto.getCorrelationId();
+      final CompletableFuture<CompletableFuture<RaftNettyServerReplyProto>> handled;
+      if (proto.getRaftNettyServerRequestCase() == RaftNettyServerRequestCase.APPENDENTRIESREQUEST) {
+        // call appendEntriesAsync after the previous call has returned, but do not wait for its reply
+        handled = lastAppendEntries.thenApplyAsync(previous -> handleAsync(proto), requestExecutor);
+        lastAppendEntries = handled;
+      } else {
+        handled = CompletableFuture.supplyAsync(() -> handleAsync(proto), requestExecutor);
+      }
+      handled.thenCompose(reply -> reply).thenAccept(reply -> ctx.writeAndFlush(
+          reply.toBuilder().setCorrelationId(correlationId).build()));
     }
   }
 
   /** Constructs a netty server with the given port. */
   private NettyRpcService(RaftServer server) {
-    super(server::getId, id -> new NettyRpcProxy.PeerMap(id.toString()));
+    super(server::getId, id -> new NettyRpcProxy.PeerMap(id.toString(), server.getProperties()));
     this.server = server;
+    final RaftProperties properties = server.getProperties();
+    final boolean useEpoll = NettyUtils.useEpoll(NettyConfigKeys.Transport.epollEnabled(properties));
+    this.bossGroup = NettyUtils.newEventLoopGroup(getId() + "-boss",
+        NettyConfigKeys.Server.bossThreads(properties), useEpoll);
+    this.workerGroup = NettyUtils.newEventLoopGroup(getId() + "-worker",
+        NettyConfigKeys.Server.workerThreads(properties), useEpoll);
+    this.requestExecutor = Executors.newCachedThreadPool(r -> new Daemon(r, getId() + "-" + CLASS_NAME));
 
     final ChannelInitializer<SocketChannel> initializer
         = new ChannelInitializer<SocketChannel>() {
@@ -110,13 +148,20 @@ public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy,
       }
     };
 
-    final int port = NettyConfigKeys.Server.port(server.getProperties());
-    channelFuture = new ServerBootstrap()
+    final int port = NettyConfigKeys.Server.port(properties);
+    final ServerBootstrap bootstrap = new ServerBootstrap()
         .group(bossGroup, workerGroup)
-        .channel(NioServerSocketChannel.class)
+        .channel(NettyUtils.getServerChannelClass(bossGroup))
         .handler(new LoggingHandler(LogLevel.INFO))
         .childHandler(initializer)
-        .bind(port);
+        .childOption(ChannelOption.TCP_NODELAY, NettyConfigKeys.Transport.tcpNodelay(properties))
+        .childOption(ChannelOption.ALLOCATOR, NettyUtils.POOLED_DIRECT_ALLOCATOR);
+    final ChannelOption<Integer> busyPoll = NettyUtils.getBusyPollOption(workerGroup);
+    final int busyPollMicros = NettyConfigKeys.Transport.epollBusyPoll(properties);
+    if (busyPoll != null && busyPollMicros > 0) {
+      bootstrap.childOption(busyPoll, busyPollMicros);
+    }
+    channelFuture = bootstrap.bind(port);
   }
 
   @Override
@@ -139,6 +184,7 @@ public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy,
 
   @Override
   public void closeImpl() throws IOException {
+    requestExecutor.shutdownNow();
     bossGroup.shutdownGracefully();
     workerGroup.shutdownGracefully();
     final ChannelFuture f = getChannel().close();
@@ -151,89 +197,94 @@ public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy,
     return (InetSocketAddress)getChannel().localAddress();
   }
 
-  RaftNettyServerReplyProto handle(RaftNettyServerRequestProto proto) {
-    RaftRpcRequestProto rpcRequest = null;
+  private static RaftRpcRequestProto getRpcRequest(RaftNettyServerRequestProto proto) {
+    switch (proto.getRaftNettyServerRequestCase()) {
+      case REQUESTVOTEREQUEST:
+        return proto.getRequestVoteRequest().getServerRequest();
+      case APPENDENTRIESREQUEST:
+        return proto.getAppendEntriesRequest().getServerRequest();
+      case INSTALLSNAPSHOTREQUEST:
+        return proto.getInstallSnapshotRequest().getServerRequest();
+      case READINDEXREQUEST:
+        return proto.getReadIndexRequest().getServerRequest();
+      case HEARTBEATSREQUEST:
+        return proto.getHeartbeatsRequest().getServerRequest();
+      case RAFTCLIENTREQUEST:
+        return proto.getRaftClientRequest().getRpcRequest();
+      case SETCONFIGURATIONREQUEST:
+        return proto.getSetConfigurationRequest().getRpcRequest();
+      case GROUPMANAGEMENTREQUEST:
+        return proto.getGroupManagementRequest().getRpcRequest();
+      case GROUPLISTREQUEST:
+        return proto.getGroupListRequest().getRpcRequest();
+      case GROUPINFOREQUEST:
+        return proto.getGroupInfoRequest().getRpcRequest();
+      case RAFTNETTYSERVERREQUEST_NOT_SET:
+        throw new IllegalArgumentException("Request case not set in proto: "
+            + proto.getRaftNettyServerRequestCase());
+      default:
+        throw new UnsupportedOperationException("Request case not supported: "
+            + proto.getRaftNettyServerRequestCase());
+    }
+  }
+
+  /**
+   * Handle the given request asynchronously.
+   * The returned future is completed with an exception reply, instead of completed exceptionally, on failures.
+   */
+  CompletableFuture<RaftNettyServerReplyProto> handleAsync(RaftNettyServerRequestProto proto) {
+    final RaftRpcRequestProto rpcRequest = getRpcRequest(proto);
+    CompletableFuture<RaftNettyServerReplyProto> future;
     try {
-      switch (proto.getRaftNettyServerRequestCase()) {
-        case REQUESTVOTEREQUEST: {
-          final RequestVoteRequestProto request = proto.getRequestVoteRequest();
-          rpcRequest = request.getServerRequest();
-          final RequestVoteReplyProto reply = server.requestVote(request);
-          return RaftNettyServerReplyProto.newBuilder()
-              .setRequestVoteReply(reply)
-              .build();
-        }
-        case APPENDENTRIESREQUEST: {
-          final AppendEntriesRequestProto request = proto.getAppendEntriesRequest();
-          rpcRequest = request.getServerRequest();
-          final AppendEntriesReplyProto reply = server.appendEntries(request);
-          return RaftNettyServerReplyProto.newBuilder()
-              .setAppendEntriesReply(reply)
-              .build();
-        }
-        case INSTALLSNAPSHOTREQUEST: {
-          final InstallSnapshotRequestProto request = proto.getInstallSnapshotRequest();
-          rpcRequest = request.getServerRequest();
-          final InstallSnapshotReplyProto reply = server.installSnapshot(request);
-          return RaftNettyServerReplyProto.newBuilder()
-              .setInstallSnapshotReply(reply)
-              .build();
-        }
-        case RAFTCLIENTREQUEST: {
-          final RaftClientRequestProto request = proto.getRaftClientRequest();
-          rpcRequest = request.getRpcRequest();
-          final RaftClientReply reply = server.submitClientRequest(
-              ClientProtoUtils.toRaftClientRequest(request));
-          return RaftNettyServerReplyProto.newBuilder()
-              .setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply))
-              .build();
-        }
-        case SETCONFIGURATIONREQUEST: {
-          final SetConfigurationRequestProto request = proto.getSetConfigurationRequest();
-          rpcRequest = request.getRpcRequest();
-          final RaftClientReply reply = server.setConfiguration(
-              ClientProtoUtils.toSetConfigurationRequest(request));
-          return RaftNettyServerReplyProto.newBuilder()
-              .setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply))
-              .build();
-        }
-        case GROUPMANAGEMENTREQUEST: {
-          final GroupManagementRequestProto request = proto.getGroupManagementRequest();
-          rpcRequest = request.getRpcRequest();
-          final RaftClientReply reply = server.groupManagement(
-              ClientProtoUtils.toGroupManagementRequest(request));
-          return RaftNettyServerReplyProto.newBuilder()
-              .setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply))
-              .build();
-        }
-        case GROUPLISTREQUEST: {
-          final GroupListRequestProto request = proto.getGroupListRequest();
-          rpcRequest = request.getRpcRequest();
-          final GroupListReply reply = server.getGroupList(
-              ClientProtoUtils.toGroupListRequest(request));
-          return RaftNettyServerReplyProto.newBuilder()
-              .setGroupListReply(ClientProtoUtils.toGroupListReplyProto(reply))
-              .build();
-        }
-        case GROUPINFOREQUEST: {
-          final GroupInfoRequestProto request = proto.getGroupInfoRequest();
-          rpcRequest = request.getRpcRequest();
-          final GroupInfoReply reply = server.getGroupInfo(
-              ClientProtoUtils.toGroupInfoRequest(request));
-          return RaftNettyServerReplyProto.newBuilder()
-              .setGroupInfoReply(ClientProtoUtils.toGroupInfoReplyProto(reply))
-              .build();
-        }
-        case RAFTNETTYSERVERREQUEST_NOT_SET:
-          throw new IllegalArgumentException("Request case not set in proto: "
-              + proto.getRaftNettyServerRequestCase());
-        default:
-          throw new UnsupportedOperationException("Request case not supported: "
-              + proto.getRaftNettyServerRequestCase());
+      future = handleAsyncImpl(proto);
+    } catch (Throwable t) {
+      future = JavaUtils.completeExceptionally(t);
+    }
+    return future.exceptionally(e -> toRaftNettyServerReplyProto(rpcRequest,
+        IOUtils.asIOException(JavaUtils.unwrapCompletionException(e))));
+  }
+
+  private CompletableFuture<RaftNettyServerReplyProto> handleAsyncImpl(RaftNettyServerRequestProto proto)
+      throws IOException {
+    final RaftNettyServerReplyProto.Builder b = RaftNettyServerReplyProto.newBuilder();
+    switch (proto.getRaftNettyServerRequestCase()) {
+      case REQUESTVOTEREQUEST: {
+        final RequestVoteRequestProto request = proto.getRequestVoteRequest();
+        return CompletableFuture.completedFuture(b.setRequestVoteReply(server.requestVote(request)).build());
       }
-    } catch (IOException ioe) {
-      return toRaftNettyServerReplyProto(
-          Objects.requireNonNull(rpcRequest, "rpcRequest = null"), ioe);
+      case APPENDENTRIESREQUEST:
+        return server.appendEntriesAsync(proto.getAppendEntriesRequest())
+            .thenApply(reply -> b.setAppendEntriesReply(reply).build());
+      case INSTALLSNAPSHOTREQUEST: {
+        final InstallSnapshotRequestProto request = proto.getInstallSnapshotRequest();
+        return CompletableFuture.completedFuture(b.setInstallSnapshotReply(server.installSnapshot(request)).build());
+      }
+      case READINDEXREQUEST:
+        return server.readIndexAsync(proto.getReadIndexRequest())
+            .thenApply(reply -> b.setReadIndexReply(reply).build());
+      case HEARTBEATSREQUEST:
+        return server.heartbeatsAsync(proto.getHeartbeatsRequest())
+            .thenApply(reply -> b.setHeartbeatsReply(reply).build());
+      case RAFTCLIENTREQUEST:
+        return server.submitClientRequestAsync(ClientProtoUtils.toRaftClientRequest(proto.getRaftClientRequest()))
+            .thenApply(reply -> b.setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply)).build());
+      case SETCONFIGURATIONREQUEST:
+        return server.setConfigurationAsync(ClientProtoUtils.toSetConfigurationRequest(
+            proto.getSetConfigurationRequest()))
+            .thenApply(reply -> b.setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply)).build());
+      case GROUPMANAGEMENTREQUEST:
+        return server.groupManagementAsync(ClientProtoUtils.toGroupManagementRequest(
+            proto.getGroupManagementRequest()))
+            .thenApply(reply -> b.setRaftClientReply(ClientProtoUtils.toRaftClientReplyProto(reply)).build());
+      case GROUPLISTREQUEST:
+        return server.getGroupListAsync(ClientProtoUtils.toGroupListRequest(proto.getGroupListRequest()))
+            .thenApply(reply -> b.setGroupListReply(ClientProtoUtils.toGroupListReplyProto(reply)).build());
+      case GROUPINFOREQUEST:
+        return server.getGroupInfoAsync(ClientProtoUtils.toGroupInfoRequest(proto.getGroupInfoRequest()))
+            .thenApply(reply -> b.setGroupInfoReply(ClientProtoUtils.toGroupInfoReplyProto(reply)).build());
+      default:
+        throw new UnsupportedOperationException("Request case not supported: "
+            + proto.getRaftNettyServerRequestCase());
     }
   }
 
@@ -283,6 +334,80 @@ public final class NettyRpcService extends RaftServerRpcWithProxy<NettyRpcProxy,
     return sendRaftNettyServerRequestProto(serverRequest, proto).getInstallSnapshotReply();
   }
 
+  @Override
+  public ReadIndexReplyProto readIndex(ReadIndexRequestProto request) throws IOException {
+    CodeInjectionForTesting.execute(SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftNettyServerRequestProto proto = RaftNettyServerRequestProto.newBuilder()
+        .setReadIndexRequest(request)
+        .build();
+    final RaftRpcRequestProto serverRequest = request.getServerRequest();
+    return sendRaftNettyServerRequestProto(serverRequest, proto).getReadIndexReply();
+  }
+
+  @Override
+  public HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) throws IOException {
+    CodeInjectionForTesting.execute(SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftNettyServerRequestProto proto = RaftNettyServerRequestProto.newBuilder()
+        .setHeartbeatsRequest(request)
+        .build();
+    final RaftRpcRequestProto serverRequest = request.getServerRequest();
+    return sendRaftNettyServerRequestProto(serverRequest, proto).getHeartbeatsReply();
+  }
+
+  @Override
+  public CompletableFuture<AppendEntriesReplyProto> appendEntriesAsync(AppendEntriesRequestProto request)
+      throws IOException {
+    CodeInjectionForTesting.execute(SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftNettyServerRequestProto proto = RaftNettyServerRequestProto.newBuilder()
+        .setAppendEntriesRequest(request)
+        .build();
+    return sendRaftNettyServerRequestProtoAsync(request.getServerRequest(), proto)
+        .thenApply(RaftNettyServerReplyProto::getAppendEntriesReply);
+  }
+
+  @Override
+  public CompletableFuture<ReadIndexReplyProto> readIndexAsync(ReadIndexRequestProto request) throws IOException {
+    CodeInjectionForTesting.execute(SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftNettyServerRequestProto proto = RaftNettyServerRequestProto.newBuilder()
+        .setReadIndexRequest(request)
+        .build();
+    return sendRaftNettyServerRequestProtoAsync(request.getServerRequest(), proto)
+        .thenApply(RaftNettyServerReplyProto::getReadIndexReply);
+  }
+
+  @Override
+  public CompletableFuture<HeartbeatsReplyProto> heartbeatsAsync(HeartbeatsRequestProto request)
+      throws IOException {
+    CodeInjectionForTesting.execute(SEND_SERVER_REQUEST, getId(), null, request);
+
+    final RaftNettyServerRequestProto proto = RaftNettyServerRequestProto.newBuilder()
+        .setHeartbeatsRequest(request)
+        .build();
+    return sendRaftNettyServerRequestProtoAsync(request.getServerRequest(), proto)
+        .thenApply(RaftNettyServerReplyProto::getHeartbeatsReply);
+  }
+
+  private CompletableFuture<RaftNettyServerReplyProto> sendRaftNettyServerRequestProtoAsync(
+      RaftRpcRequestProto request, RaftNettyServerRequestProto proto) throws IOException {
+    final RaftPeerId id = RaftPeerId.valueOf(request.getReplyId());
+    final NettyRpcProxy p;
+    try {
+      p = getProxies().getProxy(id);
+    } catch (IOException e) {
+      getProxies().handleException(id, e, false);
+      throw e;
+    }
+    return p.sendAsync(proto).whenComplete((reply, e) -> {
+      if (e != null) {
+        getProxies().handleException(id, IOUtils.asIOException(JavaUtils.unwrapCompletionException(e)), false);
+      }
+    });
+  }
+
   private RaftNettyServerReplyProto sendRaftNettyServerRequestProto(
       RaftRpcRequestProto request, RaftNettyServerRequestProto proto)
       throws IOException {
@@ -18,6 +18,7 @@
 package org.apache.ratis.server;
 
 import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.util.Crc32C;
 import org.apache.ratis.util.SizeInBytes;
 import org.apache.ratis.util.TimeDuration;
 import org.slf4j.Logger;
@@ -124,6 +125,135 @@ public interface RaftServerConfigKeys {
     }
   }
 
+  interface Read {
+    String PREFIX = RaftServerConfigKeys.PREFIX + ".read";
+
+    enum Option {
+      /** Directly query the state machine; the result may be stale if the leader has been changed. */
+      DEFAULT,
+      /** Use the ReadIndex algorithm to confirm the leadership before querying the state machine. */
+      LINEARIZABLE
+    }
+
+    String OPTION_KEY = PREFIX + ".option";
+    Option OPTION_DEFAULT = Option.DEFAULT;
+    static Option option(RaftProperties properties) {
+      return get(properties::getEnum, OPTION_KEY, OPTION_DEFAULT, getDefaultLog());
+    }
+    static void setOption(RaftProperties properties, Option option) {
+      set(properties::setEnum, OPTION_KEY, option);
+    }
+
+    /**
+     * For the {@link Option#LINEARIZABLE} reads on a follower,
+     * the max number of threads sending the blocking readIndex requests to the leader.
+     * It is not used when the server rpc supports the asynchronous readIndex requests.
+     */
+    String FOLLOWER_THREADS_MAX_KEY = PREFIX + ".follower.threads.max";
+    int FOLLOWER_THREADS_MAX_DEFAULT = 4;
+    static int followerThreadsMax(RaftProperties properties) {
+      return getInt(properties::getInt, FOLLOWER_THREADS_MAX_KEY, FOLLOWER_THREADS_MAX_DEFAULT, getDefaultLog(),
+          requireMin(1));
+    }
+    static void setFollowerThreadsMax(RaftProperties properties, int threads) {
+      setInt(properties::setInt, FOLLOWER_THREADS_MAX_KEY, threads);
+    }
+
+    /**
+     * Leader lease: for the {@link Option#LINEARIZABLE} reads,
+     * the leader serves the reads locally, without a heartbeat round, while its lease is valid.
+     * The lease starts from the time when a majority of the peers have been sent appendEntries requests
+     * which are acknowledged afterward and it lasts for the min election timeout minus the clock drift.
+     * When it is enabled, the servers withhold their votes, even from the candidates with higher terms,
+     * within the min election timeout after hearing from the leader.
+     */
+    interface LeaderLease {
+      String PREFIX = Read.PREFIX + ".leader.lease";
+
+      String ENABLED_KEY = PREFIX + ".enabled";
+      boolean ENABLED_DEFAULT = false;
+      static boolean enabled(RaftProperties properties) {
+        return getBoolean(properties::getBoolean, ENABLED_KEY, ENABLED_DEFAULT, getDefaultLog());
+      }
+      static void setEnabled(RaftProperties properties, boolean enabled) {
+        setBoolean(properties::setBoolean, ENABLED_KEY, enabled);
+      }
+
+      /** The max clock drift between the servers; it must be less than the min election timeout. */
+      String CLOCK_DRIFT_KEY = PREFIX + ".clock.drift";
+      TimeDuration CLOCK_DRIFT_DEFAULT = TimeDuration.valueOf(50, TimeUnit.MILLISECONDS);
+      static TimeDuration clockDrift(RaftProperties properties) {
+        return getTimeDuration(properties.getTimeDuration(CLOCK_DRIFT_DEFAULT.getUnit()),
+            CLOCK_DRIFT_KEY, CLOCK_DRIFT_DEFAULT, getDefaultLog());
+      }
+      static void setClockDrift(RaftProperties properties, TimeDuration clockDrift) {
+        setTimeDuration(properties::setTimeDuration, CLOCK_DRIFT_KEY, clockDrift);
+      }
+    }
+  }
+
+  /** Applying the committed log entries to the state machine. */
+  interface Apply {
+    String PREFIX = RaftServerConfigKeys.PREFIX + ".apply";
+
+    /**
+     * Parallel apply: the transactions are dispatched to ordered executors
+     * according to {@link org.apache.ratis.statemachine.StateMachine#getPartitionKey}.
+     * The transactions in the same partition are applied in the log order
+     * while the transactions in different partitions may be applied concurrently.
+     */
+    interface Parallel {
+      String PREFIX = Apply.PREFIX + ".parallel";
+
+      String ENABLED_KEY = PREFIX + ".enabled";
+      boolean ENABLED_DEFAULT = false;
+      static boolean enabled(RaftProperties properties) {
+        return getBoolean(properties::getBoolean, ENABLED_KEY, ENABLED_DEFAULT, getDefaultLog());
+      }
+      static void setEnabled(RaftProperties properties, boolean enabled) {
+        setBoolean(properties::setBoolean, ENABLED_KEY, enabled);
+      }
+
+      /** The number of the ordered executors, i.e. the max number of transactions applied concurrently. */
+      String EXECUTORS_KEY = PREFIX + ".executors";
+      int EXECUTORS_DEFAULT = 8;
+      static int executors(RaftProperties properties) {
+        return getInt(properties::getInt, EXECUTORS_KEY, EXECUTORS_DEFAULT, getDefaultLog(), requireMin(1));
+      }
+      static void setExecutors(RaftProperties properties, int executors) {
+        setInt(properties::setInt, EXECUTORS_KEY, executors, requireMin(1));
+      }
+    }
+
+    /**
+     * Batch apply: the committed transactions are applied with
+     * {@link org.apache.ratis.statemachine.StateMachine#applyTransactions} in batches.
+     * It cannot be enabled together with the parallel apply.
+     */
+    interface Batch {
+      String PREFIX = Apply.PREFIX + ".batch";
+
+      String ENABLED_KEY = PREFIX + ".enabled";
+      boolean ENABLED_DEFAULT = false;
+      static boolean enabled(RaftProperties properties) {
+        return getBoolean(properties::getBoolean, ENABLED_KEY, ENABLED_DEFAULT, getDefaultLog());
+      }
+      static void setEnabled(RaftProperties properties, boolean enabled) {
+        setBoolean(properties::setBoolean, ENABLED_KEY, enabled);
+      }
+
+      /** The max number of transactions in a batch. */
+      String ELEMENT_LIMIT_KEY = PREFIX + ".element-limit";
+      int ELEMENT_LIMIT_DEFAULT = 1024;
+      static int elementLimit(RaftProperties properties) {
+        return getInt(properties::getInt, ELEMENT_LIMIT_KEY, ELEMENT_LIMIT_DEFAULT, getDefaultLog(), requireMin(1));
+      }
+      static void setElementLimit(RaftProperties properties, int limit) {
+        setInt(properties::setInt, ELEMENT_LIMIT_KEY, limit, requireMin(1));
+      }
+    }
+  }
+
   interface Log {
     String PREFIX = RaftServerConfigKeys.PREFIX + ".log";
 
@@ -188,6 +318,60 @@ public interface RaftServerConfigKeys {
       setInt(properties::setInt, SEGMENT_CACHE_MAX_NUM_KEY, maxCachedSegmentNum);
     }
 
+    /** The policy to evict the log entry cache of the closed segments. */
+    enum CachePolicy {
+      /** Evict the cache of entire segments, bounded by {@link #SEGMENT_CACHE_MAX_NUM_KEY}. */
+      SEGMENT_NUM,
+      /** Evict the cache of individual entries, bounded by {@link #SEGMENT_CACHE_SIZE_MAX_KEY}. */
+      BYTE_SIZE
+    }
+
+    String SEGMENT_CACHE_POLICY_KEY = PREFIX + ".segment.cache.policy";
+    CachePolicy SEGMENT_CACHE_POLICY_DEFAULT = CachePolicy.SEGMENT_NUM;
+    static CachePolicy segmentCachePolicy(RaftProperties properties) {
+      return get(properties::getEnum,
+          SEGMENT_CACHE_POLICY_KEY, SEGMENT_CACHE_POLICY_DEFAULT, getDefaultLog());
+    }
+    static void setSegmentCachePolicy(RaftProperties properties, CachePolicy cachePolicy) {
+      set(properties::setEnum, SEGMENT_CACHE_POLICY_KEY, cachePolicy);
+    }
+
+    /**
+     * Besides the open segment, the max total size of the cached log entries.
+     * It is used only by the {@link CachePolicy#BYTE_SIZE} policy.
+     */
+    String SEGMENT_CACHE_SIZE_MAX_KEY = PREFIX + ".segment.cache.size.max";
+    SizeInBytes SEGMENT_CACHE_SIZE_MAX_DEFAULT = SizeInBytes.valueOf("200MB");
+    static SizeInBytes segmentCacheSizeMax(RaftProperties properties) {
+      return getSizeInBytes(properties::getSizeInBytes,
+          SEGMENT_CACHE_SIZE_MAX_KEY, SEGMENT_CACHE_SIZE_MAX_DEFAULT, getDefaultLog());
+    }
+    static void setSegmentCacheSizeMax(RaftProperties properties, SizeInBytes maxSize) {
+      setSizeInBytes(properties::set, SEGMENT_CACHE_SIZE_MAX_KEY, maxSize);
+    }
+
+    /** The number of threads to load and verify the log segments in parallel on startup. */
+    String SEGMENT_LOAD_THREADS_KEY = PREFIX + ".segment.load.threads";
+    int SEGMENT_LOAD_THREADS_DEFAULT = 4;
+    static int segmentLoadThreads(RaftProperties properties) {
+      return getInt(properties::getInt, SEGMENT_LOAD_THREADS_KEY,
+          SEGMENT_LOAD_THREADS_DEFAULT, getDefaultLog(), requireMin(1));
+    }
+    static void setSegmentLoadThreads(RaftProperties properties, int segmentLoadThreads) {
+      setInt(properties::setInt, SEGMENT_LOAD_THREADS_KEY, segmentLoadThreads, requireMin(1));
+    }
+
+    /** The CRC32C implementation for checksumming the log entries written. */
+    String CHECKSUM_TYPE_KEY = PREFIX + ".checksum.type";
+    Crc32C.Type CHECKSUM_TYPE_DEFAULT = Crc32C.Type.AUTO;
+    static Crc32C.Type checksumType(RaftProperties properties) {
+      return get(properties::getEnum,
+          CHECKSUM_TYPE_KEY, CHECKSUM_TYPE_DEFAULT, getDefaultLog());
+    }
+    static void setChecksumType(RaftProperties properties, Crc32C.Type checksumType) {
+      set(properties::setEnum, CHECKSUM_TYPE_KEY, checksumType);
+    }
+
     String PREALLOCATED_SIZE_KEY = PREFIX + ".preallocated.size";
     SizeInBytes PREALLOCATED_SIZE_DEFAULT = SizeInBytes.valueOf("4MB");
     static SizeInBytes preallocatedSize(RaftProperties properties) {
@@ -218,6 +402,48 @@ public interface RaftServerConfigKeys {
       setInt(properties::setInt, FORCE_SYNC_NUM_KEY, forceSyncNum);
     }
 
+    /**
+     * Group commit: the log worker hands the written entries over to a dedicated sync thread,
+     * which batches the outstanding writes and completes all of them with a single sync.
+     */
+    interface GroupCommit {
+      String PREFIX = Log.PREFIX + ".group-commit";
+
+      String ENABLED_KEY = PREFIX + ".enabled";
+      boolean ENABLED_DEFAULT = false;
+      static boolean enabled(RaftProperties properties) {
+        return getBoolean(properties::getBoolean, ENABLED_KEY, ENABLED_DEFAULT, getDefaultLog());
+      }
+      static void setEnabled(RaftProperties properties, boolean enabled) {
+        setBoolean(properties::setBoolean, ENABLED_KEY, enabled);
+      }
+
+      /**
+       * The max time to wait for more writes before a sync.
+       * The actual window adapts to the measured sync latency and never exceeds this value.
+       */
+      String WINDOW_MAX_KEY = PREFIX + ".window.max";
+      TimeDuration WINDOW_MAX_DEFAULT = TimeDuration.valueOf(2, TimeUnit.MILLISECONDS);
+      static TimeDuration windowMax(RaftProperties properties) {
+        return getTimeDuration(properties.getTimeDuration(WINDOW_MAX_DEFAULT.getUnit()),
+            WINDOW_MAX_KEY, WINDOW_MAX_DEFAULT, getDefaultLog());
+      }
+      static void setWindowMax(RaftProperties properties, TimeDuration windowMax) {
+        setTimeDuration(properties::setTimeDuration, WINDOW_MAX_KEY, windowMax);
+      }
+
+      /** Sync immediately, without waiting for the window, once the unsynced bytes reach this limit. */
+      String BYTE_LIMIT_KEY = PREFIX + ".byte-limit";
+      SizeInBytes BYTE_LIMIT_DEFAULT = SizeInBytes.valueOf("4MB");
+      static SizeInBytes byteLimit(RaftProperties properties) {
+        return getSizeInBytes(properties::getSizeInBytes,
+            BYTE_LIMIT_KEY, BYTE_LIMIT_DEFAULT, getDefaultLog());
+      }
+      static void setByteLimit(RaftProperties properties, SizeInBytes byteLimit) {
+        setSizeInBytes(properties::set, BYTE_LIMIT_KEY, byteLimit);
+      }
+    }
+
     /** The policy to handle corrupted raft log. */
     enum CorruptionPolicy {
       /** Rethrow the exception. */
@@ -316,6 +542,37 @@ public interface RaftServerConfigKeys {
         setSizeInBytes(properties::set, BUFFER_BYTE_LIMIT_KEY, bufferByteLimit);
       }
 
+      /**
+       * The maximum number of outstanding appendEntries requests per follower for the base log appender.
+       * It requires an RPC delivering the asynchronous appendEntries requests in order, e.g. Netty;
+       * otherwise, it is ignored.
+       * 1 means sending a request only after the reply of the previous request is received.
+       */
+      String OUTSTANDING_APPENDS_MAX_KEY = PREFIX + ".outstanding-appends.max";
+      int OUTSTANDING_APPENDS_MAX_DEFAULT = 1;
+      static int outstandingAppendsMax(RaftProperties properties) {
+        return getInt(properties::getInt,
+            OUTSTANDING_APPENDS_MAX_KEY, OUTSTANDING_APPENDS_MAX_DEFAULT, getDefaultLog(), requireMin(1));
+      }
+      static void setOutstandingAppendsMax(RaftProperties properties, int outstandingAppendsMax) {
+        setInt(properties::setInt, OUTSTANDING_APPENDS_MAX_KEY, outstandingAppendsMax, requireMin(1));
+      }
+
+      /**
+       * The maximum total size of the state machine data of the log entries
+       * shared by the log appenders of all the followers.
+       * 0, the default, means disabling the sharing so that the data is read for each follower.
+       */
+      String SHARED_ENTRY_CACHE_BYTE_LIMIT_KEY = PREFIX + ".shared-entry-cache.byte-limit";
+      SizeInBytes SHARED_ENTRY_CACHE_BYTE_LIMIT_DEFAULT = SizeInBytes.valueOf(0);
+      static SizeInBytes sharedEntryCacheByteLimit(RaftProperties properties) {
+        return getSizeInBytes(properties::getSizeInBytes, SHARED_ENTRY_CACHE_BYTE_LIMIT_KEY,
+            SHARED_ENTRY_CACHE_BYTE_LIMIT_DEFAULT, getDefaultLog());
+      }
+      static void setSharedEntryCacheByteLimit(RaftProperties properties, SizeInBytes sharedEntryCacheByteLimit) {
+        setSizeInBytes(properties::set, SHARED_ENTRY_CACHE_BYTE_LIMIT_KEY, sharedEntryCacheByteLimit);
+      }
+
       String SNAPSHOT_CHUNK_SIZE_MAX_KEY = PREFIX + ".snapshot.chunk.size.max";
       SizeInBytes SNAPSHOT_CHUNK_SIZE_MAX_DEFAULT =SizeInBytes.valueOf("16MB");
       static SizeInBytes snapshotChunkSizeMax(RaftProperties properties) {
@@ -429,6 +686,73 @@ public interface RaftServerConfigKeys {
     }
   }
 
+  /** Heartbeats between the leaders and the followers. */
+  interface Heartbeat {
+    String PREFIX = RaftServerConfigKeys.PREFIX + ".heartbeat";
+
+    /**
+     * When coalescing is enabled, the heartbeats of the idle groups are sent from a server to a peer
+     * in a single server-level rpc, instead of one rpc per group.
+     */
+    String COALESCING_ENABLED_KEY = PREFIX + ".coalescing.enabled";
+    boolean COALESCING_ENABLED_DEFAULT = false;
+    static boolean coalescingEnabled(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, COALESCING_ENABLED_KEY, COALESCING_ENABLED_DEFAULT, getDefaultLog());
+    }
+    static void setCoalescingEnabled(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, COALESCING_ENABLED_KEY, enabled);
+    }
+
+    /**
+     * When quiescence is enabled, a leader stops sending heartbeats to an up-to-date follower of an idle group
+     * and the follower suspends its election timeout.
+     * The liveness of the leader server is then checked by a single heartbeats rpc per peer for all the groups.
+     * A new appendEntries request, e.g. for a client request, wakes up the group.
+     */
+    String QUIESCENCE_ENABLED_KEY = PREFIX + ".quiescence.enabled";
+    boolean QUIESCENCE_ENABLED_DEFAULT = false;
+    static boolean quiescenceEnabled(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, QUIESCENCE_ENABLED_KEY, QUIESCENCE_ENABLED_DEFAULT, getDefaultLog());
+    }
+    static void setQuiescenceEnabled(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, QUIESCENCE_ENABLED_KEY, enabled);
+    }
+  }
+
+  /** server thread pool related */
+  interface ThreadPool {
+    String PREFIX = RaftServerConfigKeys.PREFIX + ".threadpool";
+
+    /**
+     * When the shared thread pool is enabled, the election timers of the followers,
+     * the event processors of the leaders, the state machine updaters and the log appenders
+     * run as tasks in a thread pool shared by all the groups of a server, instead of dedicated threads per group.
+     * Only the appenders which do not wait for the replies can use the shared thread pool,
+     * i.e. the gRPC appenders and the appenders with more than one outstanding appends.
+     * A task still blocks a thread of the pool when the state machine applies a transaction synchronously
+     * or takes a snapshot, or when an appender installs a snapshot,
+     * so the pool size should be larger than the number of such concurrent operations.
+     * The log workers always use their own threads since they block on the disk I/O.
+     */
+    String SHARED_ENABLED_KEY = PREFIX + ".shared.enabled";
+    boolean SHARED_ENABLED_DEFAULT = false;
+    static boolean sharedEnabled(RaftProperties properties) {
+      return getBoolean(properties::getBoolean, SHARED_ENABLED_KEY, SHARED_ENABLED_DEFAULT, getDefaultLog());
+    }
+    static void setSharedEnabled(RaftProperties properties, boolean enabled) {
+      setBoolean(properties::setBoolean, SHARED_ENABLED_KEY, enabled);
+    }
+
+    String SHARED_SIZE_KEY = PREFIX + ".shared.size";
+    int SHARED_SIZE_DEFAULT = 8;
+    static int sharedSize(RaftProperties properties) {
+      return getInt(properties::getInt, SHARED_SIZE_KEY, SHARED_SIZE_DEFAULT, getDefaultLog(), requireMin(1));
+    }
+    static void setSharedSize(RaftProperties properties, int size) {
+      setInt(properties::setInt, SHARED_SIZE_KEY, size, requireMin(1));
+    }
+  }
+
   /** server retry cache related */
   interface RetryCache {
     String PREFIX = RaftServerConfigKeys.PREFIX + ".retrycache";
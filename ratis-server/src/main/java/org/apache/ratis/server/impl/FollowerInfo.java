@@ -38,6 +38,8 @@ public class FollowerInfo {
   private final RaftPeer peer;
   private final AtomicReference<Timestamp> lastRpcResponseTime;
   private final AtomicReference<Timestamp> lastRpcSendTime;
+  /** The send time of the latest appendEntries request acknowledged by the follower in the leader's term. */
+  private final AtomicReference<Timestamp> lastAckedAppendEntriesSendTime;
   private final RaftLogIndex nextIndex;
   private final RaftLogIndex matchIndex = new RaftLogIndex("matchIndex", 0L);
   private final RaftLogIndex commitIndex = new RaftLogIndex("commitIndex", RaftLog.INVALID_LOG_INDEX);
@@ -54,6 +56,7 @@ public class FollowerInfo {
     this.peer = peer;
     this.lastRpcResponseTime = new AtomicReference<>(lastRpcTime);
     this.lastRpcSendTime = new AtomicReference<>(lastRpcTime);
+    this.lastAckedAppendEntriesSendTime = new AtomicReference<>(lastRpcTime);
     this.nextIndex = new RaftLogIndex("nextIndex", nextIndex);
     this.attendVote = attendVote;
     this.rpcSlownessTimeoutMs = rpcSlownessTimeoutMs;
@@ -135,6 +138,15 @@ public class FollowerInfo {
     lastRpcSendTime.set(Timestamp.currentTime());
   }
 
+  /** Update lastAckedAppendEntriesSendTime to the given time if it is later. */
+  void updateLastAckedAppendEntriesSendTime(Timestamp sendTime) {
+    lastAckedAppendEntriesSendTime.updateAndGet(old -> Timestamp.latest(old, sendTime));
+  }
+
+  Timestamp getLastAckedAppendEntriesSendTime() {
+    return lastAckedAppendEntriesSendTime.get();
+  }
+
   Timestamp getLastRpcTime() {
     return Timestamp.latest(lastRpcResponseTime.get(), lastRpcSendTime.get());
   }
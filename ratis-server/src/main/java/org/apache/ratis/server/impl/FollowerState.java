@@ -23,11 +23,18 @@ import org.apache.ratis.util.Timestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.ToIntFunction;
 
 /**
  * Used when the peer is a follower. Used to track the election timeout.
+ *
+ * The election timeout is checked either in this thread
+ * or, when {@link org.apache.ratis.server.RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY} is set,
+ * by the tasks scheduled in the thread pool shared by all the groups.
  */
 class FollowerState extends Daemon {
   enum UpdateType {
@@ -55,16 +62,35 @@ class FollowerState extends Daemon {
   private final RaftServerImpl server;
 
   private volatile Timestamp lastRpcTime = Timestamp.currentTime();
+  /** Has the leader quiesced this group?  See {@link #setQuiescent()}. */
+  private volatile boolean quiescent = false;
   private volatile boolean isRunning = true;
   private final AtomicInteger outstandingOp = new AtomicInteger();
 
+  /** The shared thread pool, or null if this thread is used. */
+  private final ScheduledExecutorService scheduler;
+  private volatile ScheduledFuture<?> scheduled;
+
   FollowerState(RaftServerImpl server) {
     this.name = server.getMemberId() + "-" + getClass().getSimpleName();
     this.server = server;
+    this.scheduler = server.getProxy().getSharedScheduler();
+  }
+
+  /** Start this thread or, if the shared thread pool is enabled, schedule the first election timeout check. */
+  void startRunning() {
+    if (scheduler == null) {
+      start();
+    } else {
+      schedule();
+    }
   }
 
   void updateLastRpcTime(UpdateType type) {
     lastRpcTime = Timestamp.currentTime();
+    if (type != UpdateType.APPEND_COMPLETE) {
+      quiescent = false;
+    }
 
     final int n = type.update(outstandingOp);
     if (LOG.isTraceEnabled()) {
@@ -76,6 +102,22 @@ class FollowerState extends Daemon {
     return lastRpcTime;
   }
 
+  /**
+   * The leader has quiesced this group, i.e. it stops sending heartbeats to this group
+   * until the next appendEntries request.
+   * In the meantime, the leader server shows its liveness by {@link #onQuiescentLeaderAlive()}.
+   */
+  void setQuiescent() {
+    this.quiescent = true;
+  }
+
+  /** The leader server is alive; suspend the election timeout if this group is quiescent. */
+  void onQuiescentLeaderAlive() {
+    if (quiescent) {
+      lastRpcTime = Timestamp.currentTime();
+    }
+  }
+
   int getOutstandingOp() {
     return outstandingOp.get();
   }
@@ -86,6 +128,59 @@ class FollowerState extends Daemon {
 
   void stopRunning() {
     this.isRunning = false;
+    final ScheduledFuture<?> f = scheduled;
+    if (f != null) {
+      // do not interrupt since the task may be changing this server to candidate
+      f.cancel(false);
+    }
+  }
+
+  private void schedule() {
+    final long electionTimeout = server.getRandomTimeoutMs();
+    final Timestamp scheduleTime = Timestamp.currentTime();
+    scheduled = scheduler.schedule(() -> runScheduled(electionTimeout, scheduleTime),
+        electionTimeout, TimeUnit.MILLISECONDS);
+  }
+
+  private void runScheduled(long electionTimeout, Timestamp scheduleTime) {
+    final long elapsedMs = scheduleTime.elapsedTimeMs();
+    try {
+      if (elapsedMs - electionTimeout > server.getSleepDeviationThresholdMs()) {
+        LOG.warn("{}: Unexpected long delay: the check scheduled in {}ms actually ran after {}ms",
+            this, electionTimeout, elapsedMs);
+      } else if (!isRunningAsFollower() || checkElectionTimeout(electionTimeout)) {
+        return;
+      }
+    } catch (Exception e) {
+      LOG.warn(this + " caught an exception", e);
+    }
+    if (isRunning) {
+      schedule();
+    }
+  }
+
+  private boolean isRunningAsFollower() {
+    final boolean isFollower = server.isFollower();
+    if (!isRunning || !isFollower) {
+      LOG.info("{}: Stopping now (isRunning? {}, isFollower? {})", this, isRunning, isFollower);
+      return false;
+    }
+    return true;
+  }
+
+  /** @return true iff the election timed out and this server has changed to candidate. */
+  private boolean checkElectionTimeout(long electionTimeout) {
+    synchronized (server) {
+      if (outstandingOp.get() == 0 && lastRpcTime.elapsedTimeMs() >= electionTimeout) {
+        LOG.info("{}: change to CANDIDATE, lastRpcTime:{}ms, electionTimeout:{}ms",
+            this, lastRpcTime.elapsedTimeMs(), electionTimeout);
+        server.getLeaderElectionMetricsRegistry().onLeaderElectionTimeout(); // Update timeout metric counters.
+        // election timeout, should become a candidate
+        server.changeToCandidate();
+        return true;
+      }
+    }
+    return false;
   }
 
   @Override
@@ -98,21 +193,9 @@ class FollowerState extends Daemon {
           continue;
         }
 
-        final boolean isFollower = server.isFollower();
-        if (!isRunning || !isFollower) {
-          LOG.info("{}: Stopping now (isRunning? {}, isFollower? {})", this, isRunning, isFollower);
+        if (!isRunningAsFollower() || checkElectionTimeout(electionTimeout)) {
           break;
         }
-        synchronized (server) {
-          if (outstandingOp.get() == 0 && lastRpcTime.elapsedTimeMs() >= electionTimeout) {
-            LOG.info("{}: change to CANDIDATE, lastRpcTime:{}ms, electionTimeout:{}ms",
-                this, lastRpcTime.elapsedTimeMs(), electionTimeout);
-            server.getLeaderElectionMetricsRegistry().onLeaderElectionTimeout(); // Update timeout metric counters.
-            // election timeout, should become a candidate
-            server.changeToCandidate();
-            break;
-          }
-        }
       } catch (InterruptedException e) {
         LOG.info(this + " was interrupted: " + e);
         LOG.trace("TRACE", e);
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.server.impl;
+
+import com.codahale.metrics.Counter;
+import org.apache.ratis.metrics.RatisMetricRegistry;
+import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
+import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
+import org.apache.ratis.protocol.RaftGroupId;
+import org.apache.ratis.protocol.RaftPeerId;
+import org.apache.ratis.server.RaftServerConfigKeys;
+import org.apache.ratis.server.metrics.RatisMetricNames;
+import org.apache.ratis.server.metrics.RatisMetrics;
+import org.apache.ratis.util.Daemon;
+import org.apache.ratis.util.IOUtils;
+import org.apache.ratis.util.JavaUtils;
+import org.apache.ratis.util.ProtoUtils;
+import org.apache.ratis.util.TimeDuration;
+import org.apache.ratis.util.Timestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesce the heartbeats of the groups having the same leader server and the same follower server,
+ * so that a single heartbeats rpc is sent to each follower server instead of an appendEntries rpc per group.
+ *
+ * Only the idle appenders, i.e. the follower is up-to-date and there are no pending requests, are coalesced.
+ * The heartbeats are sent shortly before they are due.
+ * A successful reply postpones the heartbeat of the appender.
+ * When the rpc fails, the appender sends its own heartbeat as usual.
+ *
+ * When quiescence is enabled, a heartbeats rpc, possibly with no heartbeats,
+ * is also sent to a follower server having quiescent groups in order to show the liveness of this server;
+ * see {@link RaftServerConfigKeys.Heartbeat#QUIESCENCE_ENABLED_KEY}.
+ */
+class HeartbeatCoalescer implements Closeable {
+  public static final Logger LOG = LoggerFactory.getLogger(HeartbeatCoalescer.class);
+
+  private final RaftServerProxy proxy;
+  private final Set<LogAppender> appenders = ConcurrentHashMap.newKeySet();
+  /** The followers having a heartbeats rpc in flight. */
+  private final Set<RaftPeerId> sending = ConcurrentHashMap.newKeySet();
+  private final Map<RaftPeerId, Timestamp> lastSendTimes = new ConcurrentHashMap<>();
+  /** Is {@link RaftServerConfigKeys.Heartbeat#COALESCING_ENABLED_KEY} set? */
+  private final boolean coalescing;
+
+  private final long halfMinTimeoutMs;
+  /** Coalesce the heartbeats due within this time. */
+  private final long dueWithinMs;
+  private final long tickMs;
+
+  /** The number of the heartbeats rpcs sent. */
+  private final Counter rpcCount;
+  /** The number of the group heartbeats carried by the rpcs. */
+  private final Counter heartbeatCount;
+
+  private final ExecutorService sender;
+  private final Daemon daemon;
+  private volatile boolean running = true;
+
+  HeartbeatCoalescer(RaftServerProxy proxy, TimeDuration minTimeout, boolean coalescing) {
+    this.proxy = proxy;
+    this.coalescing = coalescing;
+    this.halfMinTimeoutMs = minTimeout.toLong(TimeUnit.MILLISECONDS) / 2;
+    this.dueWithinMs = halfMinTimeoutMs / 2;
+    this.tickMs = Math.max(1L, halfMinTimeoutMs / 4);
+
+    final RatisMetricRegistry metrics = RatisMetrics.getMetricsRegistryForServer(proxy.getId().toString());
+    this.rpcCount = metrics.counter(RatisMetricNames.HEARTBEATS_RPC_COUNT);
+    this.heartbeatCount = metrics.counter(RatisMetricNames.COALESCED_HEARTBEAT_COUNT);
+
+    final AtomicInteger threadCount = new AtomicInteger();
+    this.sender = Executors.newCachedThreadPool(r -> new Daemon(r, this + "-sender-" + threadCount.incrementAndGet()));
+    this.daemon = new Daemon(this::run, toString());
+  }
+
+  void start() {
+    daemon.start();
+  }
+
+  void register(LogAppender appender) {
+    appenders.add(appender);
+  }
+
+  void unregister(LogAppender appender) {
+    appenders.remove(appender);
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        final Map<RaftPeerId, List<LogAppender>> followers = new HashMap<>();
+        for (LogAppender appender : appenders) {
+          followers.computeIfAbsent(appender.getFollowerId(), k -> new ArrayList<>()).add(appender);
+        }
+        followers.forEach(this::sendHeartbeats);
+
+        Thread.sleep(tickMs);
+      } catch (InterruptedException e) {
+        if (running) {
+          LOG.info("{} was interrupted: {}", this, e);
+        }
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Throwable t) {
+        LOG.warn("{}: Failed to send heartbeats", this, t);
+      }
+    }
+  }
+
+  private void sendHeartbeats(RaftPeerId followerId, List<LogAppender> candidates) {
+    if (!sending.add(followerId)) {
+      return; // the previous rpc is still in flight
+    }
+
+    final Map<RaftGroupId, LogAppender> coalesced = new HashMap<>();
+    final Map<RaftGroupId, AppendEntriesRequestProto> heartbeats = new LinkedHashMap<>();
+    final Map<RaftGroupId, LogAppender> quiescent = new HashMap<>();
+    for (LogAppender appender : candidates) {
+      if (appender.isQuiescent()) {
+        quiescent.put(appender.getGroupId(), appender);
+        continue;
+      }
+      final AppendEntriesRequestProto heartbeat = coalescing? appender.newCoalescedHeartbeat(dueWithinMs): null;
+      if (heartbeat != null) {
+        final RaftGroupId groupId = ProtoUtils.toRaftGroupId(heartbeat.getServerRequest().getRaftGroupId());
+        heartbeats.put(groupId, heartbeat);
+        coalesced.put(groupId, appender);
+      }
+    }
+    if (heartbeats.isEmpty() && (quiescent.isEmpty() || !isLivenessDue(followerId))) {
+      sending.remove(followerId);
+      return;
+    }
+
+    final HeartbeatsRequestProto request = ServerProtoUtils.toHeartbeatsRequestProto(
+        proxy.getId(), followerId, new ArrayList<>(heartbeats.values()), quiescent.keySet());
+    final Timestamp sendTime = Timestamp.currentTime();
+    lastSendTimes.put(followerId, sendTime);
+    rpcCount.inc();
+    heartbeatCount.inc(heartbeats.size());
+    CompletableFuture.supplyAsync(() -> {
+      try {
+        return proxy.getServerRpc().heartbeats(request);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, sender).whenComplete((reply, e) -> {
+      sending.remove(followerId);
+      if (e != null) {
+        LOG.warn("{}: Failed to send {} heartbeats to {}: {}", this, heartbeats.size(), followerId,
+            IOUtils.asIOException(JavaUtils.unwrapCompletionException(e)).toString());
+        return;
+      }
+      quiescent.values().forEach(LogAppender::onLivenessReply);
+      onHeartbeatsReply(coalesced, heartbeats, reply, sendTime);
+    });
+  }
+
+  /** Is it time to send a heartbeats rpc for the liveness of this server? */
+  private boolean isLivenessDue(RaftPeerId followerId) {
+    final Timestamp last = lastSendTimes.get(followerId);
+    return last == null || last.elapsedTimeMs() >= halfMinTimeoutMs - dueWithinMs;
+  }
+
+  private void onHeartbeatsReply(Map<RaftGroupId, LogAppender> coalesced,
+      Map<RaftGroupId, AppendEntriesRequestProto> heartbeats, HeartbeatsReplyProto reply, Timestamp sendTime) {
+    for (AppendEntriesReplyProto r : reply.getRepliesList()) {
+      final RaftGroupId groupId = ProtoUtils.toRaftGroupId(r.getServerReply().getRaftGroupId());
+      final LogAppender appender = coalesced.get(groupId);
+      if (appender != null) {
+        appender.onCoalescedHeartbeatReply(heartbeats.get(groupId), r, sendTime);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    daemon.interrupt();
+    sender.shutdownNow();
+    appenders.clear();
+    lastSendTimes.clear();
+  }
+
+  @Override
+  public String toString() {
+    return proxy.getId() + "-" + getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.server.impl;
+
+import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.server.RaftServerConfigKeys;
+import org.apache.ratis.util.Preconditions;
+import org.apache.ratis.util.Timestamp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The lease of a leader; see the Raft dissertation section 6.4.1.
+ *
+ * A follower does not time out within the min election timeout after it has received an appendEntries request.
+ * Therefore, once a majority of the followers have acknowledged the appendEntries requests
+ * sent at or after a time t, no other leader can be elected before t + (min election timeout),
+ * subject to the clock drift.
+ */
+class LeaderLease {
+  private final boolean enabled;
+  private final long leaseTimeoutMs;
+  /** The lease start time, i.e. a majority of the peers have acknowledged the requests sent at or after it. */
+  private final AtomicReference<Timestamp> start;
+  private final RaftLeaderMetrics metrics;
+
+  LeaderLease(RaftServerImpl server, RaftProperties properties, RaftLeaderMetrics metrics) {
+    this.enabled = RaftServerConfigKeys.Read.LeaderLease.enabled(properties);
+    final long clockDriftMs = RaftServerConfigKeys.Read.LeaderLease.clockDrift(properties)
+        .toLong(TimeUnit.MILLISECONDS);
+    this.leaseTimeoutMs = server.getMinTimeoutMs() - clockDriftMs;
+    Preconditions.assertTrue(!enabled || leaseTimeoutMs > 0,
+        () -> "The clock drift " + clockDriftMs + "ms must be less than the min election timeout "
+            + server.getMinTimeoutMs() + "ms");
+    // the lease is initially expired
+    this.start = new AtomicReference<>(Timestamp.currentTime().addTimeMs(-leaseTimeoutMs));
+    this.metrics = metrics;
+    if (enabled) {
+      metrics.addLeaderLeaseRemainingTimeGauge(this::getRemainingTimeMs);
+    }
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Renew the lease if the given start time is later than the current start time. */
+  void renew(Timestamp newStart) {
+    final Timestamp previous = start.getAndUpdate(old -> Timestamp.latest(old, newStart));
+    if (previous.compareTo(newStart) < 0) {
+      metrics.onLeaderLeaseRenewal();
+    }
+  }
+
+  /** @return true iff the lease is valid; the expired leases are counted in the metrics. */
+  boolean isValid() {
+    if (getRemainingTimeMs() > 0) {
+      metrics.onLeaderLeaseRead();
+      return true;
+    }
+    metrics.onLeaderLeaseExpired();
+    return false;
+  }
+
+  long getRemainingTimeMs() {
+    return Math.max(leaseTimeoutMs - start.get().elapsedTimeMs(), 0L);
+  }
+
+  @Override
+  public String toString() {
+    return "lease(" + (enabled? "remaining=" + getRemainingTimeMs() + "ms": "disabled") + ")";
+  }
+}
@@ -37,7 +37,10 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Predicate;
@@ -106,7 +109,9 @@ public class LeaderState {
         queue.put(event);
       } catch (InterruptedException e) {
         LOG.info("{}: Interrupted when submitting {} ", this, event);
+        return;
       }
+      processor.notifyEvent();
     }
 
     StateUpdateEvent poll() {
@@ -123,6 +128,15 @@ public class LeaderState {
         }
       }
 
+      return removeDuplicated(e);
+    }
+
+    /** Similar to {@link #poll()} but return null immediately if the queue is empty. */
+    StateUpdateEvent pollNow() {
+      return removeDuplicated(queue.poll());
+    }
+
+    private StateUpdateEvent removeDuplicated(StateUpdateEvent e) {
       if (e != null) {
         // remove duplicated events from the head.
         for(; e.equals(queue.peek()); queue.poll());
@@ -130,6 +144,10 @@ public class LeaderState {
       return e;
     }
 
+    boolean isEmpty() {
+      return queue.isEmpty();
+    }
+
     @Override
     public String toString() {
       return name;
@@ -195,6 +213,8 @@ public class LeaderState {
   private final EventProcessor processor;
   private final PendingRequests pendingRequests;
   private final WatchRequests watchRequests;
+  private final ReadIndexHeartbeats readIndexHeartbeats;
+  private final LeaderLease leaderLease;
   private volatile boolean running = true;
 
   private final int stagingCatchupGap;
@@ -217,6 +237,7 @@ public class LeaderState {
     processor = new EventProcessor();
     this.pendingRequests = new PendingRequests(server.getMemberId(), properties);
     this.watchRequests = new WatchRequests(server.getMemberId(), properties);
+    this.readIndexHeartbeats = new ReadIndexHeartbeats(server.getMemberId());
 
     final RaftConfiguration conf = server.getRaftConf();
     Collection<RaftPeer> others = conf.getOtherPeers(server.getId());
@@ -224,6 +245,7 @@ public class LeaderState {
 
     senders = new SenderList();
     raftLeaderMetrics = RaftLeaderMetrics.getRaftLeaderMetrics(server);
+    leaderLease = new LeaderLease(server, properties, raftLeaderMetrics);
     addSenders(others, placeHolderIndex, true);
     voterLists = divideFollowers(conf);
   }
@@ -237,7 +259,7 @@ public class LeaderState {
     CodeInjectionForTesting.execute(APPEND_PLACEHOLDER,
         server.getId().toString(), null);
     raftLog.append(placeHolder);
-    processor.start();
+    processor.startProcessing();
     senders.forEach(LogAppender::startAppender);
     return placeHolder;
   }
@@ -249,6 +271,7 @@ public class LeaderState {
   void stop() {
     this.running = false;
     // do not interrupt event processor since it may be in the middle of logSync
+    processor.stopProcessing();
     senders.forEach(LogAppender::stopAppender);
     final NotLeaderException nle = server.generateNotLeaderException();
     final Collection<CommitInfoProto> commitInfos = server.getCommitInfos();
@@ -256,6 +279,7 @@ public class LeaderState {
       final Collection<TransactionContext> transactions = pendingRequests.sendNotLeaderResponses(nle, commitInfos);
       server.getStateMachine().notifyNotLeader(transactions);
       watchRequests.failWatches(nle);
+      readIndexHeartbeats.failAll(nle);
     } catch (IOException e) {
       LOG.warn("{}: Caught exception in sendNotLeaderResponses", this, e);
     }
@@ -334,6 +358,84 @@ public class LeaderState {
         });
   }
 
+  /**
+   * Get the read index for a linearizable read using the ReadIndex algorithm;
+   * see the Raft dissertation section 6.4.
+   *
+   * @return a future of the read index,
+   *         which will be completed once the leadership has been confirmed by a majority of the peers.
+   */
+  CompletableFuture<Long> getReadIndex() {
+    // Since the leader is ready, the placeholder entry of the current term is committed.
+    final long readIndex = raftLog.getLastCommittedIndex();
+    if (isLeadershipConfirmed(Timestamp.currentTime())) {
+      // there are no other voting peers
+      return CompletableFuture.completedFuture(readIndex);
+    }
+    if (leaderLease.isEnabled() && leaderLease.isValid()) {
+      return CompletableFuture.completedFuture(readIndex);
+    }
+    final CompletableFuture<Long> future = readIndexHeartbeats.add(readIndex);
+    senders.forEach(LogAppender::triggerHeartbeat);
+    return future;
+  }
+
+  /** @return true iff the leader lease is enabled and not yet expired. */
+  boolean hasValidLease() {
+    return leaderLease.isEnabled() && leaderLease.getRemainingTimeMs() > 0;
+  }
+
+  /** A follower has acknowledged an appendEntries request sent in the current term. */
+  void onAppendEntriesAcked() {
+    if (leaderLease.isEnabled()) {
+      getMajorityAckedSendTime().ifPresent(leaderLease::renew);
+    }
+    readIndexHeartbeats.onAppendEntriesAcked(this::isLeadershipConfirmed);
+  }
+
+  /**
+   * @return true iff a majority of the peers have acknowledged an appendEntries request
+   *         sent at or after the given time.
+   */
+  private boolean isLeadershipConfirmed(Timestamp time) {
+    final List<RaftPeerId> acked = senders.stream()
+        .map(LogAppender::getFollower)
+        .filter(f -> f.getLastAckedAppendEntriesSendTime().compareTo(time) >= 0)
+        .map(f -> f.getPeer().getId())
+        .collect(Collectors.toList());
+    return server.getRaftConf().hasMajority(acked, server.getId());
+  }
+
+  /**
+   * @return the latest time such that a majority of the peers have acknowledged
+   *         an appendEntries request sent at or after it.
+   */
+  private Optional<Timestamp> getMajorityAckedSendTime() {
+    final RaftPeerId selfId = server.getId();
+    final RaftConfiguration conf = server.getRaftConf();
+
+    final Optional<Timestamp> newConf = getMajorityAckedSendTime(voterLists.get(0), conf.containsInConf(selfId));
+    if (!conf.isTransitional()) {
+      return newConf;
+    }
+    final Optional<Timestamp> oldConf = getMajorityAckedSendTime(voterLists.get(1), conf.containsInOldConf(selfId));
+    return newConf.flatMap(n -> oldConf.map(o -> n.compareTo(o) <= 0? n: o));
+  }
+
+  private static Optional<Timestamp> getMajorityAckedSendTime(List<FollowerInfo> followers, boolean includeSelf) {
+    final List<Timestamp> times = followers.stream()
+        .map(FollowerInfo::getLastAckedAppendEntriesSendTime)
+        .collect(Collectors.toCollection(ArrayList::new));
+    if (includeSelf) {
+      times.add(Timestamp.currentTime());
+    }
+    if (times.isEmpty()) {
+      return Optional.empty();
+    }
+    Collections.sort(times);
+    return Optional.of(times.get((times.size() - 1) / 2));
+  }
+
   void commitIndexChanged() {
     getMajorityMin(FollowerInfo::getCommitIndex, raftLog::getLastCommittedIndex).ifPresent(m -> {
       // Normally, leader commit index is always ahead of followers.
@@ -372,9 +474,18 @@ public class LeaderState {
   AppendEntriesRequestProto newAppendEntriesRequestProto(RaftPeerId targetId,
       TermIndex previous, List<LogEntryProto> entries, boolean initializing,
       long callId) {
+    return newAppendEntriesRequestProto(targetId, previous, entries, initializing, false, callId);
+  }
+
+  AppendEntriesRequestProto newAppendEntriesRequestProto(RaftPeerId targetId,
+      TermIndex previous, List<LogEntryProto> entries, boolean initializing, boolean quiescent,
+      long callId) {
+    if (entries.isEmpty()) {
+      raftLeaderMetrics.onHeartbeat();
+    }
     return ServerProtoUtils.toAppendEntriesRequestProto(server.getMemberId(), targetId,
         currentTerm, entries, raftLog.getLastCommittedIndex(),
-        initializing, previous, server.getCommitInfos(), callId);
+        initializing, quiescent, previous, server.getCommitInfos(), callId);
   }
 
   /**
@@ -456,8 +567,79 @@ public class LeaderState {
   /**
    * The processor thread takes the responsibility to update the raft server's
    * state, such as changing to follower, or updating the committed index.
+   *
+   * When {@link org.apache.ratis.server.RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY} is set,
+   * the events are instead processed serially by the tasks submitted to the thread pool shared by all the groups.
+   * Each task processes at most {@link #MAX_EVENTS_PER_TASK} events so that a busy group cannot starve the others.
    */
   private class EventProcessor extends Daemon {
+    private static final int MAX_EVENTS_PER_TASK = 64;
+
+    /** The shared thread pool, or null if this thread is used. */
+    private final ScheduledExecutorService scheduler = server.getProxy().getSharedScheduler();
+    /**
+     * Is a task submitted or running?  At most one task is processing the events at any time.
+     * It is initially true so that no events are processed before {@link #startProcessing()}.
+     */
+    private final AtomicBoolean processing = new AtomicBoolean(true);
+    private volatile ScheduledFuture<?> stagingChecker;
+
+    void startProcessing() {
+      if (scheduler == null) {
+        start();
+        return;
+      }
+      scheduler.execute(() -> {
+        // apply an empty message; check if necessary to replicate (new) conf
+        prepare();
+        processEvents();
+      });
+      // similar to the poll timeout of the thread
+      final long maxTimeoutMs = server.getMaxTimeoutMs();
+      stagingChecker = scheduler.scheduleWithFixedDelay(() -> {
+        if (running && inStagingState()) {
+          submitCheckStagingEvent();
+        }
+      }, maxTimeoutMs, maxTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    void stopProcessing() {
+      final ScheduledFuture<?> f = stagingChecker;
+      if (f != null) {
+        f.cancel(false);
+      }
+    }
+
+    /** Submit a task to the shared thread pool, if there is no task processing the events. */
+    void notifyEvent() {
+      if (scheduler != null && running && processing.compareAndSet(false, true)) {
+        scheduler.execute(this::processEvents);
+      }
+    }
+
+    private void processEvents() {
+      try {
+        for (int i = 0; i < MAX_EVENTS_PER_TASK && running; i++) {
+          final StateUpdateEvent event = eventQueue.pollNow();
+          if (event == null) {
+            break;
+          }
+          synchronized (server) {
+            if (running) {
+              event.execute();
+            }
+          }
+        }
+      } catch (Throwable t) {
+        LOG.error("{}: Failed to process events", LeaderState.this, t);
+      } finally {
+        processing.set(false);
+      }
+      if (!eventQueue.isEmpty()) {
+        notifyEvent();
+      }
+    }
+
     @Override
     public void run() {
       // apply an empty message; check if necessary to replicate (new) conf
@@ -576,6 +758,7 @@ public class LeaderState {
   private void updateCommit() {
     getMajorityMin(FollowerInfo::getMatchIndex, raftLog::getFlushIndex)
         .ifPresent(m -> updateCommit(m.majority, m.min));
+    Arrays.stream(getFollowerNextIndices()).min().ifPresent(raftLog::releaseEntriesBelow);
   }
 
   private Optional<MinMajorityMax> getMajorityMin(ToLongFunction<FollowerInfo> followerIndex, LongSupplier logIndex) {
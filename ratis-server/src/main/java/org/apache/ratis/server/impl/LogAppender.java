@@ -18,8 +18,11 @@
 package org.apache.ratis.server.impl;
 
 import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.server.RaftServerConfigKeys;
+import org.apache.ratis.server.RaftServerRpc;
+import org.apache.ratis.server.protocol.RaftServerAsynchronousProtocol;
 import org.apache.ratis.server.protocol.TermIndex;
 import org.apache.ratis.server.storage.FileInfo;
 import org.apache.ratis.server.raftlog.RaftLog;
@@ -29,6 +32,7 @@ import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.proto.RaftProtos.*;
 import org.apache.ratis.statemachine.SnapshotInfo;
 import org.apache.ratis.util.*;
+import org.apache.ratis.util.function.CheckedSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +42,13 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.apache.ratis.server.impl.RaftServerConstants.DEFAULT_CALLID;
 import static org.apache.ratis.util.LifeCycle.State.CLOSED;
@@ -53,15 +64,35 @@ import static org.apache.ratis.util.LifeCycle.State.STARTING;
 public class LogAppender {
   public static final Logger LOG = LoggerFactory.getLogger(LogAppender.class);
 
+  /**
+   * Run the appender in a dedicated thread or,
+   * when {@link RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY} is set and {@link #isAppendOnceSupported()},
+   * as a chain of {@link #appendOnce()} tasks in the thread pool shared by all the groups.
+   * At most one task is scheduled or running at any time.
+   */
   class AppenderDaemon {
     private final String name = LogAppender.this + "-" + getClass().getSimpleName();
     private final LifeCycle lifeCycle = new LifeCycle(name);
-    private final Daemon daemon = new Daemon(this::run);
+    private final Daemon daemon = new Daemon(this::run, name);
+    /** The shared thread pool, or null if the dedicated thread is used; set once by {@link #start()}. */
+    private volatile ScheduledExecutorService scheduler;
+    /** The next task, or null if a task is running or the appender has stopped.  Guarded by this. */
+    private ScheduledFuture<?> next;
+    /** Is the appender notified while a task is running?  Guarded by this. */
+    private boolean notified = false;
+    /** Can the next task be run earlier by {@link #wakeUp()}?  Guarded by this. */
+    private boolean wakeable = true;
 
     void start() {
       // The life cycle state could be already closed due to server shutdown.
       if (lifeCycle.compareAndTransition(NEW, STARTING)) {
-        daemon.start();
+        final ScheduledExecutorService shared = server.getProxy().getSharedScheduler();
+        if (shared != null && isAppendOnceSupported()) {
+          scheduler = shared;
+          schedule(0);
+        } else {
+          daemon.start();
+        }
       }
     }
 
@@ -72,8 +103,36 @@ public class LogAppender {
         }
         lifeCycle.transition(RUNNING);
       }
-      try {
+      runAppender(() -> {
         runAppenderImpl();
+        return 0L;
+      });
+      finish();
+    }
+
+    private void runTask() {
+      synchronized (this) {
+        next = null;
+        notified = false;
+        wakeable = true;
+      }
+      synchronized (lifeCycle) {
+        if (isRunning()) {
+          lifeCycle.compareAndTransition(STARTING, RUNNING);
+        }
+      }
+      final long waitTimeMs = isRunning()? runAppender(LogAppender.this::appendOnce): 0L;
+      if (isRunning()) {
+        schedule(waitTimeMs);
+      } else {
+        finishTask();
+      }
+    }
+
+    /** @return the wait time returned by the given appender, or 0 if it has failed. */
+    private long runAppender(CheckedSupplier<Long, Exception> appender) {
+      try {
+        return appender.get();
       } catch (InterruptedException | InterruptedIOException e) {
         LOG.info(this + " was interrupted: " + e);
       } catch (RaftLogIOException e) {
@@ -85,13 +144,48 @@ public class LogAppender {
       } catch (Throwable e) {
         LOG.error(this + " unexpected exception", e);
         lifeCycle.transition(EXCEPTION);
-      } finally {
-        if (!lifeCycle.compareAndTransition(CLOSING, CLOSED)) {
-          lifeCycle.transitionIfNotEqual(EXCEPTION);
-        }
-        if (lifeCycle.getCurrentState() == EXCEPTION) {
-          leaderState.restartSender(LogAppender.this);
-        }
+      }
+      return 0L;
+    }
+
+    private synchronized void schedule(long waitTimeMs) {
+      if (notified && wakeable) {
+        waitTimeMs = 0;
+      }
+      next = scheduler.schedule(this::runTask, waitTimeMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** For the shared thread pool, run the next task now rather than after the wait time. */
+    synchronized void wakeUp() {
+      if (scheduler == null) {
+        return;
+      }
+      if (next == null) {
+        notified = true; // a task is running; schedule the next task immediately after it
+      } else if (wakeable && next.getDelay(TimeUnit.MILLISECONDS) > 0 && next.cancel(false)) {
+        next = scheduler.schedule(this::runTask, 0, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    /** For the shared thread pool, do not run the next task earlier, e.g. backing off after a failure. */
+    synchronized void disableWakeUp() {
+      wakeable = false;
+    }
+
+    /** Similar to the end of {@link #run()} but also call {@link #onAppenderStopped()} if it is closing. */
+    private void finishTask() {
+      if (lifeCycle.getCurrentState() == CLOSING) {
+        onAppenderStopped();
+      }
+      finish();
+    }
+
+    private void finish() {
+      if (!lifeCycle.compareAndTransition(CLOSING, CLOSED)) {
+        lifeCycle.transitionIfNotEqual(EXCEPTION);
+      }
+      if (lifeCycle.getCurrentState() == EXCEPTION) {
+        leaderState.restartSender(LogAppender.this);
       }
     }
 
@@ -109,7 +203,21 @@ public class LogAppender {
         }
         lifeCycle.transition(CLOSING);
       }
-      daemon.interrupt();
+      if (scheduler == null) {
+        daemon.interrupt();
+        return;
+      }
+      final boolean cancelled;
+      synchronized (this) {
+        // if a task is running, it will finish after seeing the state change
+        cancelled = next != null && next.cancel(false);
+        if (cancelled) {
+          next = null;
+        }
+      }
+      if (cancelled) {
+        finishTask();
+      }
     }
 
     @Override
@@ -128,6 +236,21 @@ public class LogAppender {
   private final int snapshotChunkMaxSize;
   protected final long halfMinTimeoutMs;
 
+  /** The maximum number of outstanding requests; see {@link #runPipelinedAppender()}. */
+  private final int outstandingAppendsMax;
+  private final Map<Long, AppendEntriesRequestProto> pendingRequests = new ConcurrentHashMap<>();
+  /** Increased when the nextIndex is rewound, in order to invalidate the requests being created. */
+  private final AtomicLong pendingEpoch = new AtomicLong();
+  private final AtomicBoolean pendingRequestFailed = new AtomicBoolean();
+  private long callId = 0;
+  private volatile boolean firstResponseReceived = false;
+  /** Should a heartbeat be sent immediately?  See {@link #triggerHeartbeat()}. */
+  private volatile boolean heartbeatTriggered = false;
+  /** See {@link RaftServerConfigKeys.Heartbeat#QUIESCENCE_ENABLED_KEY}. */
+  private final boolean quiescenceEnabled;
+  /** Has the follower acknowledged a quiescent heartbeat?  See {@link #isQuiescent()}. */
+  private volatile boolean quiescent = false;
+
   private final AppenderDaemon daemon;
 
   public LogAppender(RaftServerImpl server, LeaderState leaderState, FollowerInfo f) {
@@ -140,6 +263,8 @@ public class LogAppender {
     final RaftProperties properties = server.getProxy().getProperties();
     this.snapshotChunkMaxSize = RaftServerConfigKeys.Log.Appender.snapshotChunkSizeMax(properties).getSizeInt();
     this.halfMinTimeoutMs = server.getMinTimeoutMs() / 2;
+    this.outstandingAppendsMax = RaftServerConfigKeys.Log.Appender.outstandingAppendsMax(properties);
+    this.quiescenceEnabled = RaftServerConfigKeys.Heartbeat.quiescenceEnabled(properties);
 
     final SizeInBytes bufferByteLimit = RaftServerConfigKeys.Log.Appender.bufferByteLimit(properties);
     final int bufferElementLimit = RaftServerConfigKeys.Log.Appender.bufferElementLimit(properties);
@@ -154,6 +279,7 @@ public class LogAppender {
 
   void startAppender() {
     daemon.start();
+    Optional.ofNullable(server.getProxy().getHeartbeatCoalescer()).ifPresent(c -> c.register(this));
   }
 
   public boolean isAppenderRunning() {
@@ -161,6 +287,7 @@ public class LogAppender {
   }
 
   void stopAppender() {
+    Optional.ofNullable(server.getProxy().getHeartbeatCoalescer()).ifPresent(c -> c.unregister(this));
     daemon.stop();
   }
 
@@ -168,6 +295,10 @@ public class LogAppender {
     return follower;
   }
 
+  RaftGroupId getGroupId() {
+    return server.getMemberId().getGroupId();
+  }
+
   protected RaftPeerId getFollowerId() {
     return getFollower().getPeer().getId();
   }
@@ -197,20 +328,25 @@ public class LogAppender {
   protected AppendEntriesRequestProto createRequest(long callId) throws RaftLogIOException {
     final TermIndex previous = getPrevious(follower.getNextIndex());
     final long heartbeatRemainingMs = getHeartbeatRemainingTime();
+    // any request, including a request with entries, can be used to confirm the leadership
+    heartbeatTriggered = false;
     if (heartbeatRemainingMs <= 0L) {
       // heartbeat
       return leaderState.newAppendEntriesRequestProto(
-          getFollowerId(), previous, Collections.emptyList(), !follower.isAttendingVote(), callId);
+          getFollowerId(), previous, Collections.emptyList(), !follower.isAttendingVote(), shouldQuiesce(), callId);
     }
 
     Preconditions.assertTrue(buffer.isEmpty(), () -> "buffer has " + buffer.getNumElements() + " elements.");
 
     final long leaderNext = raftLog.getNextIndex();
     final long followerNext = follower.getNextIndex();
-    final long halfMs = heartbeatRemainingMs/2;
-    for (long next = followerNext; leaderNext > next && getHeartbeatRemainingTime() - halfMs > 0; ) {
-      if (!buffer.offer(raftLog.getEntryWithData(next++))) {
-        break;
+    if (leaderNext > followerNext) {
+      final int maxCount = buffer.getElementLimit() > 0? buffer.getElementLimit(): Integer.MAX_VALUE;
+      final long maxBytes = buffer.getByteLimit() > 0? buffer.getByteLimit(): Long.MAX_VALUE;
+      for (EntryWithData entry : raftLog.getEntriesWithData(followerNext, leaderNext, maxCount, maxBytes)) {
+        if (!buffer.offer(entry)) {
+          break;
+        }
       }
     }
     if (buffer.isEmpty()) {
@@ -222,6 +358,7 @@ public class LogAppender {
             follower.getName(), entry, time, exception));
     buffer.clear();
     assertProtos(protos, followerNext, previous);
+    quiescent = false;
     return leaderState.newAppendEntriesRequestProto(
         getFollowerId(), previous, protos, !follower.isAttendingVote(), callId);
   }
@@ -260,11 +397,14 @@ public class LogAppender {
           return null;
         }
 
+        final Timestamp sendTime = Timestamp.currentTime();
         follower.updateLastRpcSendTime();
         final AppendEntriesReplyProto r = server.getServerRpc().appendEntries(request);
         follower.updateLastRpcResponseTime();
 
+        checkAppendEntriesAck(r, sendTime);
         updateCommitIndex(r.getFollowerCommit());
+        checkQuiescent(request, r);
         return r;
       } catch (InterruptedIOException | RaftLogIOException e) {
         throw e;
@@ -282,6 +422,109 @@ public class LogAppender {
     return null;
   }
 
+  /**
+   * If the follower has acknowledged the leadership, i.e. the reply is either SUCCESS or INCONSISTENCY,
+   * notify the leader for confirming the pending ReadIndex requests.
+   *
+   * @param sendTime the time when the request of the given reply was sent.
+   */
+  protected void checkAppendEntriesAck(AppendEntriesReplyProto reply, Timestamp sendTime) {
+    final AppendEntriesReplyProto.AppendResult result = reply.getResult();
+    if (result == AppendEntriesReplyProto.AppendResult.SUCCESS
+        || result == AppendEntriesReplyProto.AppendResult.INCONSISTENCY) {
+      follower.updateLastAckedAppendEntriesSendTime(sendTime);
+      leaderState.onAppendEntriesAcked();
+    }
+  }
+
+  /** @return true iff there are appendEntries requests sent but not yet replied. */
+  protected boolean hasPendingRequests() {
+    return !pendingRequests.isEmpty();
+  }
+
+  /**
+   * Create a heartbeat to be coalesced with the heartbeats of the other groups;
+   * see {@link RaftServerConfigKeys.Heartbeat#COALESCING_ENABLED_KEY}.
+   *
+   * @return the heartbeat if this appender is idle and its heartbeat is due within the given time;
+   *         otherwise, return null.
+   */
+  AppendEntriesRequestProto newCoalescedHeartbeat(long dueWithinMs) {
+    if (!isAppenderRunning() || heartbeatTriggered || !isIdle()) {
+      return null;
+    }
+    if (getHeartbeatRemainingTime() > dueWithinMs) {
+      return null;
+    }
+    return leaderState.newAppendEntriesRequestProto(getFollowerId(), getPrevious(follower.getNextIndex()),
+        Collections.emptyList(), !follower.isAttendingVote(), shouldQuiesce(), DEFAULT_CALLID);
+  }
+
+  /**
+   * Handle the reply of a coalesced heartbeat.
+   * The nextIndex and the matchIndex are unchanged since the heartbeat has no entries.
+   * An INCONSISTENCY reply is left to the appender by triggering its own heartbeat.
+   */
+  void onCoalescedHeartbeatReply(AppendEntriesRequestProto request, AppendEntriesReplyProto reply,
+      Timestamp sendTime) {
+    if (!isAppenderRunning()) {
+      return;
+    }
+    follower.updateLastRpcResponseTime();
+    checkAppendEntriesAck(reply, sendTime);
+    updateCommitIndex(reply.getFollowerCommit());
+
+    switch (reply.getResult()) {
+      case SUCCESS:
+        checkQuiescent(request, reply);
+        break;
+      case NOT_LEADER:
+        checkResponseTerm(reply.getTerm());
+        break;
+      case INCONSISTENCY:
+        triggerHeartbeat();
+        break;
+      default:
+        LOG.warn("{}: received {}", this, reply.getResult());
+        break;
+    }
+  }
+
+  /** @return true iff the follower is up-to-date and there are no pending requests. */
+  private boolean isIdle() {
+    final long nextIndex = follower.getNextIndex();
+    return nextIndex == raftLog.getNextIndex() && follower.getMatchIndex() + 1 == nextIndex && !hasPendingRequests();
+  }
+
+  /**
+   * Should the follower suspend its election timeout?
+   * It requires that the group is idle and the follower has already learned the commit index.
+   */
+  private boolean shouldQuiesce() {
+    return quiescenceEnabled && follower.isAttendingVote() && isIdle()
+        && follower.getCommitIndex() >= raftLog.getLastCommittedIndex();
+  }
+
+  /** Once the follower has acknowledged a quiescent heartbeat, stop sending heartbeats until woken up. */
+  protected void checkQuiescent(AppendEntriesRequestProto request, AppendEntriesReplyProto reply) {
+    if (request.getQuiescent() && reply.getResult() == AppendEntriesReplyProto.AppendResult.SUCCESS) {
+      quiescent = true;
+    }
+  }
+
+  /**
+   * @return true iff this appender does not send heartbeats;
+   *         it is woken up by a new entry or by {@link #triggerHeartbeat()}.
+   */
+  boolean isQuiescent() {
+    return quiescent && isIdle();
+  }
+
+  /** The follower has received the liveness of this server; see {@link FollowerState#onQuiescentLeaderAlive()}. */
+  void onLivenessReply() {
+    follower.updateLastRpcResponseTime();
+  }
+
   protected void updateCommitIndex(long commitIndex) {
     if (follower.updateCommitIndex(commitIndex)) {
       leaderState.commitIndexChanged();
@@ -448,6 +691,16 @@ public class LogAppender {
 
   /** Check and send appendEntries RPC */
   protected void runAppenderImpl() throws InterruptedException, IOException {
+    if (outstandingAppendsMax > 1) {
+      final RaftServerRpc rpc = server.getServerRpc();
+      if (rpc instanceof RaftServerAsynchronousProtocol) {
+        runPipelinedAppender((RaftServerAsynchronousProtocol) rpc);
+        return;
+      }
+      LOG.warn("{}: {} does not support asynchronous appendEntries, ignoring {} = {}", this, rpc.getRpcType(),
+          RaftServerConfigKeys.Log.Appender.OUTSTANDING_APPENDS_MAX_KEY, outstandingAppendsMax);
+    }
+
     while (isAppenderRunning()) {
       if (shouldSendRequest()) {
         SnapshotInfo snapshot = shouldInstallSnapshot();
@@ -478,6 +731,198 @@ public class LogAppender {
     }
   }
 
+  /**
+   * Similar to {@link #runAppenderImpl()} but keep sending appendEntries requests
+   * without waiting for the replies, as long as there are at most {@link #outstandingAppendsMax} pending requests.
+   * It requires the server rpc to support {@link RaftServerAsynchronousProtocol#appendEntriesAsync}
+   * which delivers the requests to a follower in the order they are sent.
+   *
+   * The follower's nextIndex is increased once a request is sent.
+   * When a request fails or the follower replies INCONSISTENCY,
+   * the pending requests are discarded and the nextIndex is rewound;
+   * the replies of the discarded requests are ignored.
+   */
+  private void runPipelinedAppender(RaftServerAsynchronousProtocol rpc) throws InterruptedException, IOException {
+    while (isAppenderRunning()) {
+      final long waitTime = appendPipelined(rpc);
+      if (pendingRequestFailed.compareAndSet(true, false)) {
+        leaderState.getSyncInterval().sleep();
+      } else if (waitTime > 0) {
+        // wait for the next heartbeat, or wait for a reply or a new entry
+        synchronized (this) {
+          wait(waitTime);
+        }
+      }
+      checkSlowness();
+    }
+  }
+
+  /**
+   * A single iteration of {@link #runPipelinedAppender}.
+   * @return the time in milliseconds to wait for the next heartbeat, a reply or a new entry.
+   */
+  private long appendPipelined(RaftServerAsynchronousProtocol rpc) throws InterruptedException, IOException {
+    boolean sent = false;
+    if (shouldSendRequest()) {
+      final SnapshotInfo snapshot = shouldInstallSnapshot();
+      if (snapshot != null) {
+        if (pendingRequests.isEmpty()) {
+          LOG.info("{}: followerNextIndex = {} but logStartIndex = {}, send snapshot {} to follower",
+              this, follower.getNextIndex(), raftLog.getStartIndex(), snapshot);
+          final InstallSnapshotReplyProto r = installSnapshot(snapshot);
+          if (r != null && r.getResult() == InstallSnapshotResult.NOT_LEADER) {
+            checkResponseTerm(r.getTerm());
+          }
+          sent = true;
+        }
+      } else if (!shouldWaitForPendingRequests()) {
+        sent = sendAppendEntriesAsync(rpc);
+      }
+    }
+
+    if (!isAppenderRunning() || sent) {
+      return 0L;
+    }
+    return shouldSendRequest()? halfMinTimeoutMs: getHeartbeatRemainingTime();
+  }
+
+  /**
+   * @return true iff this appender can run as tasks in the shared thread pool by {@link #appendOnce()},
+   *         i.e. it does not block on the replies.
+   */
+  protected boolean isAppendOnceSupported() {
+    return outstandingAppendsMax > 1 && server.getServerRpc() instanceof RaftServerAsynchronousProtocol;
+  }
+
+  /**
+   * Run a single iteration of the appender loop, for running as tasks in the shared thread pool;
+   * see {@link RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY}.
+   * It is used only if {@link #isAppendOnceSupported()}.
+   *
+   * @return the time in milliseconds to wait before the next iteration unless {@link #notifyAppend()} is called.
+   */
+  protected long appendOnce() throws InterruptedException, IOException {
+    final long waitTime = appendPipelined((RaftServerAsynchronousProtocol) server.getServerRpc());
+    checkSlowness();
+    if (pendingRequestFailed.compareAndSet(true, false)) {
+      daemon.disableWakeUp();
+      return leaderState.getSyncInterval().toLong(TimeUnit.MILLISECONDS);
+    }
+    return waitTime;
+  }
+
+  /**
+   * Called when the appender stops since it is closing.
+   * The {@link #appendOnce()} tasks call it automatically; {@link #runAppenderImpl()} should call it at the end.
+   */
+  protected void onAppenderStopped() {
+  }
+
+  /** @return the thread pool shared by all the groups, or null if it is disabled. */
+  protected ScheduledExecutorService getSharedScheduler() {
+    return server.getProxy().getSharedScheduler();
+  }
+
+  /** @return true iff the first reply is not yet received or there are too many pending requests. */
+  private boolean shouldWaitForPendingRequests() {
+    final int size = pendingRequests.size();
+    return size > 0 && (!firstResponseReceived || size >= outstandingAppendsMax);
+  }
+
+  private boolean sendAppendEntriesAsync(RaftServerAsynchronousProtocol rpc) throws RaftLogIOException {
+    // The request is created outside the lock since it may wait for the state machine data.
+    // Only this thread advances the nextIndex; a rewind in the meantime invalidates the request.
+    final long epoch = pendingEpoch.get();
+    final AppendEntriesRequestProto request = createRequest(callId++);
+    if (request == null) {
+      return false;
+    }
+    synchronized (pendingRequests) {
+      // the changes of the follower's nextIndex and the pending requests must be done together
+      if (epoch != pendingEpoch.get()) {
+        LOG.debug("{}: nextIndex was rewound, discard {}", this, ServerProtoUtils.toString(request));
+        return true; // retry immediately
+      }
+      pendingRequests.put(request.getServerRequest().getCallId(), request);
+      final int n = request.getEntriesCount();
+      if (n > 0) {
+        follower.increaseNextIndex(request.getEntries(n - 1).getIndex() + 1);
+      }
+    }
+
+    final Timestamp sendTime = Timestamp.currentTime();
+    follower.updateLastRpcSendTime();
+    CompletableFuture<AppendEntriesReplyProto> reply;
+    try {
+      reply = rpc.appendEntriesAsync(request);
+    } catch (IOException e) {
+      reply = JavaUtils.completeExceptionally(e);
+    }
+    reply.whenComplete((r, e) -> onAppendEntriesReply(request, sendTime, r, e));
+    return true;
+  }
+
+  private void onAppendEntriesReply(AppendEntriesRequestProto request, Timestamp sendTime,
+      AppendEntriesReplyProto reply, Throwable throwable) {
+    if (pendingRequests.remove(request.getServerRequest().getCallId()) == null) {
+      LOG.debug("{}: Ignoring the reply of a discarded request {}", this, ServerProtoUtils.toString(request));
+      return;
+    }
+
+    if (throwable != null) {
+      final IOException ioe = IOUtils.asIOException(JavaUtils.unwrapCompletionException(throwable));
+      if (isAppenderRunning()) {
+        LOG.warn("{}: Failed appendEntries {}: {}", this, ServerProtoUtils.toString(request), ioe.toString());
+        handleException(ioe);
+        rewindNextIndex(request.hasPreviousLog()?
+            request.getPreviousLog().getIndex() + 1: follower.getMatchIndex() + 1, true);
+        pendingRequestFailed.set(true);
+      }
+    } else {
+      follower.updateLastRpcResponseTime();
+      firstResponseReceived = true;
+      checkAppendEntriesAck(reply, sendTime);
+      updateCommitIndex(reply.getFollowerCommit());
+
+      switch (reply.getResult()) {
+        case SUCCESS:
+          final int n = request.getEntriesCount();
+          // The follower answers a heartbeat without waiting for its pending appends
+          // so that the previous entry of a heartbeat is only known to be flushed up to the follower commit.
+          final long matchIndex = n == 0? Math.min(request.getPreviousLog().getIndex(), reply.getFollowerCommit())
+              : request.getEntries(n - 1).getIndex();
+          if (follower.updateMatchIndex(matchIndex)) {
+            submitEventOnSuccessAppend();
+          }
+          checkQuiescent(request, reply);
+          break;
+        case NOT_LEADER:
+          checkResponseTerm(reply.getTerm());
+          break;
+        case INCONSISTENCY:
+          rewindNextIndex(reply.getNextIndex(), false);
+          break;
+        default:
+          LOG.warn("{}: received {}", this, reply.getResult());
+          break;
+      }
+    }
+    notifyAppend();
+  }
+
+  private void rewindNextIndex(long nextIndex, boolean failed) {
+    synchronized (pendingRequests) {
+      pendingEpoch.incrementAndGet();
+      pendingRequests.clear();
+      firstResponseReceived = false;
+      if (failed) {
+        follower.decreaseNextIndex(nextIndex);
+      } else {
+        follower.updateNextIndex(nextIndex);
+      }
+    }
+  }
+
   private void handleReply(AppendEntriesReplyProto reply) {
     if (reply != null) {
       switch (reply.getResult()) {
@@ -533,6 +978,13 @@ public class LogAppender {
 
   public synchronized void notifyAppend() {
     this.notify();
+    daemon.wakeUp();
+  }
+
+  /** Send a heartbeat immediately, e.g. for confirming the leadership. */
+  public void triggerHeartbeat() {
+    heartbeatTriggered = true;
+    notifyAppend();
   }
 
   /** Should the leader send appendEntries RPC to this follower? */
@@ -552,7 +1004,10 @@ public class LogAppender {
    * @return the time in milliseconds that the leader should send a heartbeat.
    */
   protected long getHeartbeatRemainingTime() {
-    return halfMinTimeoutMs - follower.getLastRpcTime().elapsedTimeMs();
+    if (heartbeatTriggered) {
+      return 0L;
+    }
+    return isQuiescent()? Long.MAX_VALUE: halfMinTimeoutMs - follower.getLastRpcTime().elapsedTimeMs();
   }
 
   protected boolean checkResponseTerm(long responseTerm) {
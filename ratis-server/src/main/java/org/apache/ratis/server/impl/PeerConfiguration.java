@@ -94,7 +94,7 @@ class PeerConfiguration {
         return true;
       }
     }
-    return false;
+    return num > size() / 2;
   }
 
   @Override
@@ -18,12 +18,18 @@
 
 package org.apache.ratis.server.impl;
 
+import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_HEARTBEAT_COUNT;
+import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_LEASE_EXPIRED_COUNT;
+import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_LEASE_READ_COUNT;
+import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_LEASE_REMAINING_TIME;
+import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_LEASE_RENEWAL_COUNT;
 import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_PEER_COMMIT_INDEX;
 import static org.apache.ratis.server.metrics.RatisMetricNames.LEADER_METRIC_FOLLOWER_LAST_HEARTBEAT_ELAPSED_TIME_METRIC;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.function.LongSupplier;
 
 import com.codahale.metrics.Gauge;
 import com.google.common.annotations.VisibleForTesting;
@@ -123,4 +129,28 @@ public final class RaftLeaderMetrics {
     followerLastHeartbeatElapsedTimeMap.put(peer.getId().toString(),
         elapsedTime);
   }
-}
\ No newline at end of file
+
+  /**
+   * Register a gauge for the remaining time of the leader lease.
+   * @param remainingTimeMs supplying the remaining time in milliseconds.
+   */
+  public void addLeaderLeaseRemainingTimeGauge(LongSupplier remainingTimeMs) {
+    registry.gauge(LEADER_METRIC_LEASE_REMAINING_TIME, () -> () -> remainingTimeMs.getAsLong());
+  }
+
+  public void onLeaderLeaseRenewal() {
+    registry.counter(LEADER_METRIC_LEASE_RENEWAL_COUNT).inc();
+  }
+
+  public void onLeaderLeaseRead() {
+    registry.counter(LEADER_METRIC_LEASE_READ_COUNT).inc();
+  }
+
+  public void onLeaderLeaseExpired() {
+    registry.counter(LEADER_METRIC_LEASE_EXPIRED_COUNT).inc();
+  }
+
+  public void onHeartbeat() {
+    registry.counter(LEADER_METRIC_HEARTBEAT_COUNT).inc();
+  }
+}
@@ -44,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.management.ObjectName;
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -52,6 +53,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -82,6 +84,8 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
   private final int rpcSlownessTimeoutMs;
   private final int sleepDeviationThresholdMs;
   private final boolean installSnapshotEnabled;
+  private final RaftServerConfigKeys.Read.Option readOption;
+  private final boolean leaderLeaseEnabled;
 
   private final LifeCycle lifeCycle;
   private final ServerState state;
@@ -90,6 +94,14 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
 
   private final RetryCache retryCache;
   private final CommitInfoCache commitInfoCache = new CommitInfoCache();
+  /**
+   * The follower log appends, which are chained in order and run outside the server lock.
+   * It completes once all the submitted appends have been handed to the log.
+   * Guarded by the server lock.
+   */
+  private CompletableFuture<Void> appendLogFuture = CompletableFuture.completedFuture(null);
+  /** The last entry of the most recently submitted follower log append.  Guarded by the server lock. */
+  private TermIndex lastAppendSubmitted;
 
   private final RaftServerJmxAdapter jmxAdapter;
   private final LeaderElectionMetrics leaderElectionMetricsRegistry;
@@ -99,6 +111,9 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
 
   private final AtomicBoolean honorMinTimeoutMs = new AtomicBoolean();
 
+  /** The linearizable reads, which wait for the readIndex and the state machine, fail after this timeout. */
+  private final TimeDuration readTimeout;
+
   RaftServerImpl(RaftGroup group, StateMachine stateMachine, RaftServerProxy proxy) throws IOException {
     final RaftPeerId id = proxy.getId();
     LOG.info("{}: new RaftServerImpl for {} with {}", id, group, stateMachine);
@@ -112,6 +127,9 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     rpcSlownessTimeoutMs = RaftServerConfigKeys.Rpc.slownessTimeout(properties).toIntExact(TimeUnit.MILLISECONDS);
     sleepDeviationThresholdMs = RaftServerConfigKeys.sleepDeviationThreshold(properties);
     installSnapshotEnabled = RaftServerConfigKeys.Log.Appender.installSnapshotEnabled(properties);
+    readOption = RaftServerConfigKeys.Read.option(properties);
+    readTimeout = RaftServerConfigKeys.Rpc.requestTimeout(properties);
+    leaderLeaseEnabled = RaftServerConfigKeys.Read.LeaderLease.enabled(properties);
     Preconditions.assertTrue(maxTimeoutMs > minTimeoutMs,
         "max timeout: %s, min timeout: %s", maxTimeoutMs, minTimeoutMs);
     this.proxy = proxy;
@@ -548,6 +566,19 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     return pending.getFuture();
   }
 
+  @Override
+  public CompletableFuture<WritableByteChannel> streamAsync(RaftClientRequest request) throws IOException {
+    assertLifeCycleState(RUNNING);
+    LOG.debug("{}: receive data stream({})", getMemberId(), request);
+    return getStateMachine().stream(request);
+  }
+
+  @Override
+  public CompletableFuture<Void> abortStreamAsync(RaftClientRequest request, Throwable cause) {
+    LOG.debug("{}: abort data stream({}): {}", getMemberId(), request, cause.toString());
+    return getStateMachine().abortStream(request, cause);
+  }
+
   @Override
   public CompletableFuture<RaftClientReply> submitClientRequestAsync(
       RaftClientRequest request) throws IOException {
@@ -556,6 +587,10 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     if (request.is(RaftClientRequestProto.TypeCase.STALEREAD)) {
       return staleReadAsync(request);
     }
+    if (request.is(RaftClientRequestProto.TypeCase.READ)
+        && readOption == RaftServerConfigKeys.Read.Option.LINEARIZABLE && !isLeader()) {
+      return followerReadAsync(request);
+    }
 
     // first check the server's leader state
     CompletableFuture<RaftClientReply> reply = checkLeaderState(request, null);
@@ -566,6 +601,9 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     // let the state machine handle read-only request from client
     final StateMachine stateMachine = getStateMachine();
     if (request.is(RaftClientRequestProto.TypeCase.READ)) {
+      if (readOption == RaftServerConfigKeys.Read.Option.LINEARIZABLE) {
+        return readAsync(request);
+      }
       // TODO: We might not be the leader anymore by the time this completes.
       // See the RAFT paper section 8 (last part)
       return processQueryFuture(stateMachine.query(request.getMessage()), request);
@@ -605,6 +643,96 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
             new RaftClientReply(request, generateNotLeaderException(), getCommitInfos())));
   }
 
+  /**
+   * Linearizable read using the ReadIndex algorithm:
+   * confirm the leadership with a majority of the peers,
+   * wait for the state machine to apply up to the read index
+   * and then query the state machine.
+   */
+  private CompletableFuture<RaftClientReply> readAsync(RaftClientRequest request) {
+    final Optional<LeaderState> leader = role.getLeaderState();
+    if (!leader.isPresent()) {
+      return CompletableFuture.completedFuture(
+          new RaftClientReply(request, generateNotLeaderException(), getCommitInfos()));
+    }
+    return withReadTimeout(request, leader.get().getReadIndex()
+        .thenCompose(state::getAppliedIndexFuture)
+        .thenCompose(appliedIndex -> processQueryFuture(getStateMachine().query(request.getMessage()), request))
+        .exceptionally(e -> {
+          e = JavaUtils.unwrapCompletionException(e);
+          if (e instanceof NotLeaderException) {
+            return new RaftClientReply(request, (NotLeaderException)e, getCommitInfos());
+          }
+          throw new CompletionException(e);
+        }));
+  }
+
+  /** Fail the given read with a {@link TimeoutIOException} if it is not yet completed after the timeout. */
+  private CompletableFuture<RaftClientReply> withReadTimeout(
+      RaftClientRequest request, CompletableFuture<RaftClientReply> read) {
+    if (!read.isDone()) {
+      proxy.getReadTimeoutScheduler().onTimeout(readTimeout, () -> {
+        if (read.completeExceptionally(new TimeoutIOException(
+            getMemberId() + ": Read timeout " + readTimeout + " for " + request))) {
+          LOG.debug("{}: read timeout {} for {}", getMemberId(), readTimeout, request);
+        }
+      }, LOG, () -> getMemberId() + ": Failed to timeout " + request);
+    }
+    return read;
+  }
+
+  /**
+   * Linearizable read on a follower:
+   * ask the leader for its read index,
+   * wait for the local state machine to apply up to the read index
+   * and then query the local state machine.
+   */
+  private CompletableFuture<RaftClientReply> followerReadAsync(RaftClientRequest request) {
+    try {
+      assertGroup(request.getRequestorId(), request.getRaftGroupId());
+    } catch (GroupMismatchException e) {
+      return JavaUtils.completeExceptionally(e);
+    }
+    final RaftPeerId leaderId = state.getLeaderId();
+    if (leaderId == null) {
+      return CompletableFuture.completedFuture(
+          new RaftClientReply(request, generateNotLeaderException(), getCommitInfos()));
+    }
+
+    final ReadIndexRequestProto readIndexRequest = ServerProtoUtils.toReadIndexRequestProto(getMemberId(), leaderId);
+    final RaftServerRpc rpc = getServerRpc();
+    final CompletableFuture<ReadIndexReplyProto> readIndexReply;
+    if (rpc instanceof RaftServerAsynchronousProtocol) {
+      try {
+        readIndexReply = ((RaftServerAsynchronousProtocol) rpc).readIndexAsync(readIndexRequest);
+      } catch (IOException e) {
+        return JavaUtils.completeExceptionally(e);
+      }
+    } else {
+      readIndexReply = CompletableFuture.supplyAsync(() -> {
+        try {
+          return rpc.readIndex(readIndexRequest);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }, proxy.getFollowerReadExecutor());
+    }
+    return withReadTimeout(request, readIndexReply.thenCompose(reply -> {
+      LOG.debug("{}: receive readIndex reply {}", getMemberId(), ServerProtoUtils.toString(reply));
+      if (!reply.getServerReply().getSuccess()) {
+        throw new CompletionException(generateNotLeaderException());
+      }
+      return state.getAppliedIndexFuture(reply.getReadIndex());
+    }).thenCompose(appliedIndex -> processQueryFuture(getStateMachine().query(request.getMessage()), request)
+    ).exceptionally(e -> {
+      e = JavaUtils.unwrapCompletionException(e);
+      if (e instanceof NotLeaderException) {
+        return new RaftClientReply(request, (NotLeaderException)e, getCommitInfos());
+      }
+      throw new CompletionException(e);
+    }));
+  }
+
   private CompletableFuture<RaftClientReply> staleReadAsync(RaftClientRequest request) {
     final long minIndex = request.getType().getStaleRead().getMinIndex();
     final long commitIndex = state.getLog().getLastCommittedIndex();
@@ -719,14 +847,27 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
 
   private boolean shouldWithholdVotes(long candidateTerm) {
     if (state.getCurrentTerm() < candidateTerm) {
-      return false;
+      // A leader lease requires withholding the votes even from a candidate with a higher term
+      // when the leader is still alive; see the Raft dissertation section 6.4.1.
+      return leaderLeaseEnabled && isLeaderAlive();
     } else if (isLeader()) {
       return true;
     } else {
       // following a leader and not yet timeout
-      return isFollower() && state.hasLeader()
-          && role.getFollowerState().map(FollowerState::shouldWithholdVotes).orElse(false);
+      return isLeaderAlive();
+    }
+  }
+
+  /**
+   * @return true iff this server is a leader holding a valid lease
+   *         or it is a follower which has heard from its leader within the min election timeout.
+   */
+  private boolean isLeaderAlive() {
+    if (isLeader()) {
+      return role.getLeaderState().map(LeaderState::hasValidLease).orElse(false);
     }
+    return isFollower() && state.hasLeader()
+        && role.getFollowerState().map(FollowerState::shouldWithholdVotes).orElse(false);
   }
 
   /**
@@ -855,7 +996,7 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
         previous, r.getLeaderCommit(), r.getInitializing(), entries);
     try {
       return appendEntriesAsync(requestorId, r.getLeaderTerm(), previous, r.getLeaderCommit(),
-          request.getCallId(), r.getInitializing(), r.getCommitInfosList(), entries);
+          request.getCallId(), r.getInitializing(), r.getQuiescent(), r.getCommitInfosList(), entries);
     } catch(Throwable t) {
       LOG.error("{}: Failed appendEntriesAsync {}", getMemberId(), r, t);
       throw t;
@@ -874,6 +1015,13 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     }
   }
 
+  /** The leader server of a quiescent group is alive; see {@link FollowerState#onQuiescentLeaderAlive()}. */
+  void onQuiescentLeaderAlive(RaftPeerId leaderId) {
+    if (leaderId.equals(state.getLeaderId())) {
+      role.getFollowerState().ifPresent(FollowerState::onQuiescentLeaderAlive);
+    }
+  }
+
   private Optional<FollowerState> updateLastRpcTime(FollowerState.UpdateType updateType) {
     final Optional<FollowerState> fs = role.getFollowerState();
     if (fs.isPresent() && lifeCycle.getCurrentState() == RUNNING) {
@@ -906,14 +1054,14 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
 
   private CompletableFuture<AppendEntriesReplyProto> appendEntriesAsync(
       RaftPeerId leaderId, long leaderTerm, TermIndex previous, long leaderCommit, long callId, boolean initializing,
-      List<CommitInfoProto> commitInfos, LogEntryProto... entries) {
+      boolean quiescent, List<CommitInfoProto> commitInfos, LogEntryProto... entries) {
     final boolean isHeartbeat = entries.length == 0;
     logAppendEntries(isHeartbeat,
         () -> getMemberId() + ": receive appendEntries(" + leaderId + ", " + leaderTerm + ", "
             + previous + ", " + leaderCommit + ", " + initializing
             + ", commits" + ProtoUtils.toString(commitInfos)
             + ", entries: " + ServerProtoUtils.toString(entries));
-    final List<CompletableFuture<Long>> futures;
+    final CompletableFuture<List<CompletableFuture<Long>>> appendFuture;
 
     final long currentTerm;
     final long followerCommit = state.getLog().getLastCommittedIndex();
@@ -957,17 +1105,18 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
         followerState.ifPresent(fs -> fs.updateLastRpcTime(FollowerState.UpdateType.APPEND_COMPLETE));
         return CompletableFuture.completedFuture(inconsistencyReply);
       }
+      if (quiescent && isHeartbeat) {
+        followerState.ifPresent(FollowerState::setQuiescent);
+      }
 
       state.updateConfiguration(entries);
+      // A heartbeat has nothing to append so that it does not wait for the pending appends.
+      appendFuture = isHeartbeat? CompletableFuture.completedFuture(Collections.emptyList()): appendLogAsync(entries);
     }
 
-    futures = state.getLog().append(entries);
     commitInfos.forEach(commitInfoCache::update);
 
-    if (!isHeartbeat) {
-      CodeInjectionForTesting.execute(RaftLog.LOG_SYNC, getId(), null);
-    }
-    return JavaUtils.allOf(futures).whenCompleteAsync(
+    return appendFuture.thenCompose(JavaUtils::allOf).whenCompleteAsync(
         (r, t) -> followerState.ifPresent(fs -> fs.updateLastRpcTime(FollowerState.UpdateType.APPEND_COMPLETE))
     ).thenApply(v -> {
       final AppendEntriesReplyProto reply;
@@ -984,6 +1133,35 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     });
   }
 
+  /**
+   * Append the entries to the log after the previously submitted appends, outside the server lock.
+   * The caller must hold the server lock.
+   */
+  private CompletableFuture<List<CompletableFuture<Long>>> appendLogAsync(LogEntryProto... entries) {
+    final CompletableFuture<List<CompletableFuture<Long>>> appended = appendLogFuture.thenApplyAsync(v -> {
+      final List<CompletableFuture<Long>> futures = state.getLog().append(entries);
+      CodeInjectionForTesting.execute(RaftLog.LOG_SYNC, getId(), null);
+      return futures;
+    }, proxy.getAppendExecutor());
+    appendLogFuture = appended.handle((futures, e) -> null);
+    lastAppendSubmitted = ServerProtoUtils.toTermIndex(entries[entries.length - 1]);
+    return appended;
+  }
+
+  /** @return true if an append ending with the given entry has been submitted but not yet handed to the log. */
+  private boolean isAppendPending(TermIndex ti) {
+    return !appendLogFuture.isDone() && ti.equals(lastAppendSubmitted);
+  }
+
+  /** Wait for the submitted follower log appends, if there are any, to be handed to the log. */
+  private void waitForPendingAppends() {
+    final CompletableFuture<Void> pending;
+    synchronized (this) {
+      pending = appendLogFuture;
+    }
+    pending.join();
+  }
+
   private AppendEntriesReplyProto checkInconsistentAppendEntries(RaftPeerId leaderId, long currentTerm,
       long followerCommit, TermIndex previous, long callId, LogEntryProto... entries) {
     final long replyNextIndex = checkInconsistentAppendEntries(previous, entries);
@@ -1018,7 +1196,7 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     }
 
     // Check if "previous" is contained in current state.
-    if (previous != null && !state.containsTermIndex(previous)) {
+    if (previous != null && !state.containsTermIndex(previous) && !isAppendPending(previous)) {
       final long replyNextIndex = Math.min(state.getNextIndex(), previous.getIndex());
       LOG.info("{}: Failed appendEntries as previous log entry ({}) is not found", getMemberId(), previous);
       return replyNextIndex;
@@ -1027,6 +1205,49 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     return -1;
   }
 
+  @Override
+  public ReadIndexReplyProto readIndex(ReadIndexRequestProto request) throws IOException {
+    try {
+      return readIndexAsync(request).join();
+    } catch (CompletionException e) {
+      throw IOUtils.asIOException(JavaUtils.unwrapCompletionException(e));
+    }
+  }
+
+  @Override
+  public CompletableFuture<ReadIndexReplyProto> readIndexAsync(ReadIndexRequestProto r) throws IOException {
+    final RaftRpcRequestProto request = r.getServerRequest();
+    final RaftPeerId requestorId = RaftPeerId.valueOf(request.getRequestorId());
+    LOG.debug("{}: receive readIndex from {}", getMemberId(), requestorId);
+    assertLifeCycleState(RUNNING);
+    assertGroup(requestorId, ProtoUtils.toRaftGroupId(request.getRaftGroupId()));
+
+    final long currentTerm = state.getCurrentTerm();
+    final LeaderState leader = role.getLeaderState().filter(LeaderState::isReady).orElse(null);
+    if (leader == null) {
+      return CompletableFuture.completedFuture(
+          ServerProtoUtils.toReadIndexReplyProto(requestorId, getMemberId(), false, currentTerm, 0L));
+    }
+    return leader.getReadIndex()
+        .thenApply(readIndex -> ServerProtoUtils.toReadIndexReplyProto(
+            requestorId, getMemberId(), true, currentTerm, readIndex))
+        .exceptionally(e -> {
+          LOG.debug("{}: Failed readIndex from {}", getMemberId(), requestorId, e);
+          return ServerProtoUtils.toReadIndexReplyProto(requestorId, getMemberId(), false, currentTerm, 0L);
+        });
+  }
+
+  @Override
+  public HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) throws IOException {
+    // the heartbeats may belong to the other groups
+    return getProxy().heartbeats(request);
+  }
+
+  @Override
+  public CompletableFuture<HeartbeatsReplyProto> heartbeatsAsync(HeartbeatsRequestProto request) {
+    return getProxy().heartbeatsAsync(request);
+  }
+
   @Override
   public InstallSnapshotReplyProto installSnapshot(InstallSnapshotRequestProto request) throws IOException {
     if (LOG.isInfoEnabled()) {
@@ -1059,11 +1280,13 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
     if (installSnapshotEnabled) {
       // Leader has sent InstallSnapshot request with SnapshotInfo. Install the snapshot.
       if (request.hasSnapshotChunk()) {
+        waitForPendingAppends();
         return checkAndInstallSnapshot(request, leaderId);
       }
     } else {
       // Leader has only sent a notification to install snapshot. Inform State Machine to install snapshot.
       if (request.hasNotification()) {
+        waitForPendingAppends();
         return notifyStateMachineToInstallSnapshot(request, leaderId);
       }
     }
@@ -1271,6 +1494,18 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
   }
 
   CompletableFuture<Message> applyLogToStateMachine(LogEntryProto next) {
+    return applyLogToStateMachine(next, (trx, apply) -> apply.get());
+  }
+
+  /**
+   * Apply the given log entry to the state machine.
+   *
+   * @param dispatcher for dispatching the call to {@link StateMachine#applyTransaction(TransactionContext)};
+   *                   it returns the future of the call, which may be made later by another thread.
+   * @return the future of the transaction, or null if the log entry is not a state machine log entry.
+   */
+  CompletableFuture<Message> applyLogToStateMachine(LogEntryProto next,
+      BiFunction<TransactionContext, Supplier<CompletableFuture<Message>>, CompletableFuture<Message>> dispatcher) {
     final StateMachine stateMachine = getStateMachine();
     if (!next.hasStateMachineLogEntry()) {
       stateMachine.notifyIndexUpdate(next.getTerm(), next.getIndex());
@@ -1280,32 +1515,76 @@ public class RaftServerImpl implements RaftServerProtocol, RaftServerAsynchronou
       // the new conf in the metadata file.
       state.writeRaftConfiguration(next);
     } else if (next.hasStateMachineLogEntry()) {
-      // check whether there is a TransactionContext because we are the leader.
-      TransactionContext trx = role.getLeaderState()
-          .map(leader -> leader.getTransactionContext(next.getIndex())).orElseGet(
-              () -> TransactionContext.newBuilder()
-                  .setServerRole(role.getCurrentRole())
-                  .setStateMachine(stateMachine)
-                  .setLogEntry(next)
-                  .build());
-
-      // Let the StateMachine inject logic for committed transactions in sequential order.
-      trx = stateMachine.applyTransactionSerial(trx);
-
-      try {
-        // TODO: This step can be parallelized
-        CompletableFuture<Message> stateMachineFuture =
-            stateMachine.applyTransaction(trx);
-        return replyPendingRequest(next, stateMachineFuture);
-      } catch (Throwable e) {
-        LOG.error("{}: applyTransaction failed for index:{} proto:{}",
-            getMemberId(), next.getIndex(), ServerProtoUtils.toString(next), e);
-        throw e;
-      }
+      final TransactionContext trx = applyTransactionSerial(next);
+      final CompletableFuture<Message> stateMachineFuture = dispatcher.apply(trx, () -> applyTransaction(next, trx));
+      return replyPendingRequest(next, stateMachineFuture);
     }
     return null;
   }
 
+  /**
+   * Apply the given state machine log entries to the state machine as a batch.
+   *
+   * @param entries the contiguous state machine log entries in the log order.
+   * @return the future of the batch.
+   */
+  CompletableFuture<List<Message>> applyLogsToStateMachine(List<LogEntryProto> entries) {
+    final List<TransactionContext> trxs = new ArrayList<>(entries.size());
+    for(LogEntryProto next : entries) {
+      Preconditions.assertTrue(next.hasStateMachineLogEntry());
+      trxs.add(applyTransactionSerial(next));
+    }
+
+    final CompletableFuture<List<Message>> future;
+    try {
+      future = getStateMachine().applyTransactions(trxs).thenApply(replies -> {
+        // the replies are matched with the entries by position
+        if (replies == null || replies.size() != entries.size()) {
+          throw new CompletionException(new StateMachineException("Bug in StateMachine: applyTransactions returned "
+              + (replies == null? null: replies.size()) + " replies for " + entries.size()
+              + " transactions with indices [" + entries.get(0).getIndex() + ", "
+              + entries.get(entries.size() - 1).getIndex() + "]; StateMachine class="
+              + getStateMachine().getClass().getName()));
+        }
+        return replies;
+      });
+    } catch (Throwable e) {
+      LOG.error("{}: applyTransactions failed for indices:[{}, {}]", getMemberId(),
+          entries.get(0).getIndex(), entries.get(entries.size() - 1).getIndex(), e);
+      throw e;
+    }
+    for(int i = 0; i < entries.size(); i++) {
+      final int j = i;
+      replyPendingRequest(entries.get(i), future.thenApply(replies -> replies.get(j)));
+    }
+    return future;
+  }
+
+  private TransactionContext applyTransactionSerial(LogEntryProto next) {
+    final StateMachine stateMachine = getStateMachine();
+    // check whether there is a TransactionContext because we are the leader.
+    final TransactionContext trx = role.getLeaderState()
+        .map(leader -> leader.getTransactionContext(next.getIndex())).orElseGet(
+            () -> TransactionContext.newBuilder()
+                .setServerRole(role.getCurrentRole())
+                .setStateMachine(stateMachine)
+                .setLogEntry(next)
+                .build());
+
+    // Let the StateMachine inject logic for committed transactions in sequential order.
+    return stateMachine.applyTransactionSerial(trx);
+  }
+
+  private CompletableFuture<Message> applyTransaction(LogEntryProto next, TransactionContext trx) {
+    try {
+      return getStateMachine().applyTransaction(trx);
+    } catch (Throwable e) {
+      LOG.error("{}: applyTransaction failed for index:{} proto:{}",
+          getMemberId(), next.getIndex(), ServerProtoUtils.toString(next), e);
+      throw e;
+    }
+  }
+
   /**
    * The given log entry is being truncated.
    * Fail the corresponding client request, if there is any.
@@ -23,9 +23,14 @@ import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
 import org.apache.ratis.proto.RaftProtos.CommitInfoProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotReplyProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotRequestProto;
+import org.apache.ratis.proto.RaftProtos.RaftGroupIdProto;
 import org.apache.ratis.proto.RaftProtos.RaftRpcRequestProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexReplyProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexRequestProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteReplyProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteRequestProto;
 import org.apache.ratis.protocol.*;
@@ -34,11 +39,15 @@ import org.apache.ratis.server.RaftServer;
 import org.apache.ratis.server.RaftServerConfigKeys;
 import org.apache.ratis.server.RaftServerRpc;
 import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.util.Daemon;
 import org.apache.ratis.util.IOUtils;
 import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.LifeCycle;
+import org.apache.ratis.util.MemoizedSupplier;
 import org.apache.ratis.util.Preconditions;
 import org.apache.ratis.util.ProtoUtils;
+import org.apache.ratis.util.TimeDuration;
+import org.apache.ratis.util.TimeoutScheduler;
 import org.apache.ratis.util.function.CheckedFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +56,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -56,6 +66,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -158,6 +169,24 @@ public class RaftServerProxy implements RaftServer {
   private final ServerFactory factory;
 
   private ExecutorService implExecutor;
+  /**
+   * Non-null iff {@link RaftServerConfigKeys.Heartbeat#COALESCING_ENABLED_KEY}
+   * or {@link RaftServerConfigKeys.Heartbeat#QUIESCENCE_ENABLED_KEY} is set.
+   */
+  private final HeartbeatCoalescer heartbeatCoalescer;
+  /** Non-null iff {@link RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY} is set. */
+  private final ScheduledExecutorService sharedScheduler;
+  /** For appending the follower log entries of all the groups asynchronously. */
+  private final ExecutorService appendExecutor = Executors.newCachedThreadPool(newDaemonFactory("append"));
+  /**
+   * For sending the blocking readIndex requests to the leader in the follower reads of all the groups
+   * when the server rpc does not support the asynchronous readIndex requests.
+   */
+  private final MemoizedSupplier<ExecutorService> followerReadExecutor;
+  /** For timing out the linearizable reads of all the groups. */
+  private final TimeoutScheduler readTimeoutScheduler = TimeoutScheduler.newInstance(1);
+  /** For expiring the retry cache entries of all the groups; it is the shared thread pool if it is enabled. */
+  private final ScheduledExecutorService retryCacheExpiryScheduler;
 
   private final ImplMap impls = new ImplMap();
 
@@ -174,6 +203,34 @@ public class RaftServerProxy implements RaftServer {
     this.lifeCycle = new LifeCycle(this.id + "-" + getClass().getSimpleName());
 
     this.implExecutor = Executors.newSingleThreadExecutor();
+    final boolean coalescing = RaftServerConfigKeys.Heartbeat.coalescingEnabled(properties);
+    final boolean quiescence = RaftServerConfigKeys.Heartbeat.quiescenceEnabled(properties);
+    this.heartbeatCoalescer = coalescing || quiescence?
+        new HeartbeatCoalescer(this, RaftServerConfigKeys.Rpc.timeoutMin(properties), coalescing): null;
+    this.sharedScheduler = RaftServerConfigKeys.ThreadPool.sharedEnabled(properties)?
+        newSharedScheduler(RaftServerConfigKeys.ThreadPool.sharedSize(properties)): null;
+    final int followerReadThreads = RaftServerConfigKeys.Read.followerThreadsMax(properties);
+    this.followerReadExecutor = JavaUtils.memoize(() -> newFollowerReadExecutor(followerReadThreads));
+    this.retryCacheExpiryScheduler = sharedScheduler != null? sharedScheduler
+        : Executors.newSingleThreadScheduledExecutor(newDaemonFactory("retryCacheExpiry"));
+  }
+
+  private ExecutorService newFollowerReadExecutor(int maxThreads) {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), newDaemonFactory("followerRead"));
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private ThreadFactory newDaemonFactory(String name) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return r -> new Daemon(r, getId() + "-" + name + "-" + threadCount.incrementAndGet());
+  }
+
+  private ScheduledExecutorService newSharedScheduler(int size) {
+    final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(size, newDaemonFactory("shared"));
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
   }
 
   /** Check the storage dir and add groups*/
@@ -253,6 +310,27 @@ public class RaftServerProxy implements RaftServer {
     return properties;
   }
 
+  HeartbeatCoalescer getHeartbeatCoalescer() {
+    return heartbeatCoalescer;
+  }
+
+  /** @return the thread pool shared by all the groups, or null if it is disabled. */
+  ScheduledExecutorService getSharedScheduler() {
+    return sharedScheduler;
+  }
+
+  ExecutorService getAppendExecutor() {
+    return appendExecutor;
+  }
+
+  ExecutorService getFollowerReadExecutor() {
+    return followerReadExecutor.get();
+  }
+
+  TimeoutScheduler getReadTimeoutScheduler() {
+    return readTimeoutScheduler;
+  }
+
   public RaftServerRpc getServerRpc() {
     return serverRpc;
   }
@@ -298,9 +376,29 @@ public class RaftServerProxy implements RaftServer {
     lifeCycle.startAndTransition(() -> {
       LOG.info("{}: start RPC server", getId());
       getServerRpc().start();
+      Optional.ofNullable(heartbeatCoalescer).ifPresent(HeartbeatCoalescer::start);
+      scheduleRetryCacheExpiry();
     }, IOException.class);
   }
 
+  /**
+   * Expire the retry cache entries periodically.
+   * Otherwise, the entries of a group are only expired when the group applies new transactions.
+   */
+  private void scheduleRetryCacheExpiry() {
+    final TimeDuration period = RaftServerConfigKeys.RetryCache.expiryTime(properties);
+    retryCacheExpiryScheduler.scheduleWithFixedDelay(this::expireRetryCaches,
+        period.getDuration(), period.getDuration(), period.getUnit());
+  }
+
+  private void expireRetryCaches() {
+    for(CompletableFuture<RaftServerImpl> f : impls.getAll()) {
+      if (f.isDone() && !f.isCompletedExceptionally()) {
+        f.join().getRetryCache().expire();
+      }
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -312,7 +410,15 @@ public class RaftServerProxy implements RaftServer {
 
     lifeCycle.checkStateAndClose(() -> {
       LOG.info("{}: close", getId());
+      Optional.ofNullable(heartbeatCoalescer).ifPresent(HeartbeatCoalescer::close);
       impls.close();
+      Optional.ofNullable(sharedScheduler).ifPresent(ExecutorService::shutdownNow);
+      appendExecutor.shutdownNow();
+      retryCacheExpiryScheduler.shutdownNow();
+      if (followerReadExecutor.isInitialized()) {
+        followerReadExecutor.get().shutdownNow();
+      }
+      readTimeoutScheduler.close();
 
       try {
         getServerRpc().close();
@@ -333,6 +439,16 @@ public class RaftServerProxy implements RaftServer {
     return submitRequest(request.getRaftGroupId(), impl -> impl.submitClientRequestAsync(request));
   }
 
+  @Override
+  public CompletableFuture<WritableByteChannel> streamAsync(RaftClientRequest request) {
+    return submitRequest(request.getRaftGroupId(), impl -> impl.streamAsync(request));
+  }
+
+  @Override
+  public CompletableFuture<Void> abortStreamAsync(RaftClientRequest request, Throwable cause) {
+    return submitRequest(request.getRaftGroupId(), impl -> impl.abortStreamAsync(request, cause));
+  }
+
   @Override
   public RaftClientReply submitClientRequest(RaftClientRequest request)
       throws IOException {
@@ -459,6 +575,41 @@ public class RaftServerProxy implements RaftServer {
     return getImpl(request.getServerRequest()).installSnapshot(request);
   }
 
+  @Override
+  public ReadIndexReplyProto readIndex(ReadIndexRequestProto request) throws IOException {
+    return getImpl(request.getServerRequest()).readIndex(request);
+  }
+
+  @Override
+  public CompletableFuture<ReadIndexReplyProto> readIndexAsync(ReadIndexRequestProto request) {
+    final RaftGroupId groupId = ProtoUtils.toRaftGroupId(request.getServerRequest().getRaftGroupId());
+    return submitRequest(groupId, impl -> impl.readIndexAsync(request));
+  }
+
+  @Override
+  public HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) throws IOException {
+    return IOUtils.getFromFuture(heartbeatsAsync(request), () -> getId() + ": heartbeats");
+  }
+
+  @Override
+  public CompletableFuture<HeartbeatsReplyProto> heartbeatsAsync(HeartbeatsRequestProto request) {
+    final RaftPeerId requestorId = RaftPeerId.valueOf(request.getServerRequest().getRequestorId());
+    for (RaftGroupIdProto quiescent : request.getQuiescentGroupsList()) {
+      final CompletableFuture<RaftServerImpl> impl = getImplFuture(ProtoUtils.toRaftGroupId(quiescent));
+      if (impl.isDone() && !impl.isCompletedExceptionally()) {
+        impl.join().onQuiescentLeaderAlive(requestorId);
+      }
+    }
+    // a failed heartbeat is dropped from the reply so that the leader will send it again separately
+    final List<CompletableFuture<AppendEntriesReplyProto>> futures = request.getHeartbeatsList().stream()
+        .map(heartbeat -> appendEntriesAsync(heartbeat).exceptionally(e -> {
+          LOG.warn("{}: Failed heartbeat {}: {}", getId(), ServerProtoUtils.toString(heartbeat), e.toString());
+          return null;
+        })).collect(Collectors.toList());
+    return JavaUtils.allOf(futures).thenApply(v -> ServerProtoUtils.toHeartbeatsReplyProto(requestorId, getId(),
+        futures.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(Collectors.toList())));
+  }
+
   @Override
   public String toString() {
     return getId() + String.format(":%9s ", lifeCycle.getCurrentState()) + impls;
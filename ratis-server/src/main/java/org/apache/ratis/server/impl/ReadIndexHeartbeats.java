@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.server.impl;
+
+import org.apache.ratis.util.Timestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * The pending ReadIndex requests waiting for the leadership confirmation.
+ *
+ * A request is confirmed once a majority of the followers have acknowledged an appendEntries request
+ * sent after the request was received.
+ * Since the requests are ordered by their receive time, the concurrent requests share the same heartbeats.
+ */
+class ReadIndexHeartbeats {
+  public static final Logger LOG = LoggerFactory.getLogger(ReadIndexHeartbeats.class);
+
+  static class ReadIndexRequest {
+    private final long readIndex;
+    private final Timestamp receiveTime = Timestamp.currentTime();
+    private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    ReadIndexRequest(long readIndex) {
+      this.readIndex = readIndex;
+    }
+
+    Timestamp getReceiveTime() {
+      return receiveTime;
+    }
+
+    CompletableFuture<Long> getFuture() {
+      return future;
+    }
+
+    void complete() {
+      future.complete(readIndex);
+    }
+
+    @Override
+    public String toString() {
+      return "readIndex=" + readIndex + ", receiveTime=" + receiveTime;
+    }
+  }
+
+  private final String name;
+  private final LinkedList<ReadIndexRequest> queue = new LinkedList<>();
+
+  ReadIndexHeartbeats(Object name) {
+    this.name = name + "-" + getClass().getSimpleName();
+  }
+
+  /** Add a request with the given read index. */
+  synchronized CompletableFuture<Long> add(long readIndex) {
+    final ReadIndexRequest request = new ReadIndexRequest(readIndex);
+    queue.add(request);
+    LOG.debug("{}: add {}", name, request);
+    return request.getFuture();
+  }
+
+  /**
+   * An appendEntries request has been acknowledged by a follower.
+   * Complete the requests confirmed by the given predicate.
+   */
+  synchronized void onAppendEntriesAcked(Predicate<Timestamp> isConfirmed) {
+    for(; !queue.isEmpty() && isConfirmed.test(queue.getFirst().getReceiveTime()); ) {
+      queue.removeFirst().complete();
+    }
+  }
+
+  synchronized void failAll(Exception e) {
+    queue.forEach(r -> r.getFuture().completeExceptionally(e));
+    queue.clear();
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
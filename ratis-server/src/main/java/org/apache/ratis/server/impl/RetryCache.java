@@ -18,20 +18,32 @@
 package org.apache.ratis.server.impl;
 
 import java.io.Closeable;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.thirdparty.com.google.common.annotations.VisibleForTesting;
-import org.apache.ratis.thirdparty.com.google.common.cache.Cache;
-import org.apache.ratis.thirdparty.com.google.common.cache.CacheBuilder;
 import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.Preconditions;
 import org.apache.ratis.util.TimeDuration;
+import org.apache.ratis.util.Timestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A retry cache keyed by {@link ClientId}, where each client has a sliding window of callIds.
+ * The entries of different clients are updated under different locks.
+ * The entries expire after the expiry time;
+ * they are removed either when they are accessed or in bulk by {@link #expire(long)} and {@link #expire()}.
+ */
 public class RetryCache implements Closeable {
   static final Logger LOG = LoggerFactory.getLogger(RetryCache.class);
 
@@ -84,11 +96,16 @@ public class RetryCache implements Closeable {
      * applying the transaction.
      */
     private volatile boolean failed = false;
+    private final long creationTimeNanos = System.nanoTime();
 
     CacheEntry(CacheKey key) {
       this.key = key;
     }
 
+    boolean isExpired(long expiryNanos) {
+      return System.nanoTime() - creationTimeNanos > expiryNanos;
+    }
+
     @Override
     public String toString() {
       return key + ":" + (isDone() ? "done" : "pending");
@@ -148,84 +165,172 @@ public class RetryCache implements Closeable {
     }
   }
 
-  private final Cache<CacheKey, CacheEntry> cache;
+  /**
+   * The entries of a client, i.e. a sliding window of the callIds.
+   * The entries are accessed under the lock of this object.
+   */
+  static class ClientEntries {
+    private final ClientId clientId;
+    private final NavigableMap<Long, CacheEntry> window = new TreeMap<>();
+    /** Is this object removed from the cache?  If it is, it must not be used anymore. */
+    private boolean removed = false;
+
+    ClientEntries(ClientId clientId) {
+      this.clientId = clientId;
+    }
+
+    /** @return the entry of the given callId, or null if it does not exist or it is expired. */
+    CacheEntry get(long callId, long expiryNanos) {
+      final CacheEntry entry = window.get(callId);
+      if (entry != null && entry.isExpired(expiryNanos)) {
+        window.remove(callId);
+        return null;
+      }
+      return entry;
+    }
+
+    CacheEntry put(CacheEntry entry) {
+      window.put(entry.getKey().callId, entry);
+      return entry;
+    }
+
+    CacheEntry create(long callId) {
+      return put(new CacheEntry(new CacheKey(clientId, callId)));
+    }
+
+    /**
+     * Remove all the expired entries.
+     * Since a failed entry is replaced by a new entry with the same callId,
+     * the callId order is not the creation order so that all the entries are checked.
+     * @return true iff the window becomes empty and this object is marked as removed.
+     */
+    boolean expire(long expiryNanos) {
+      window.values().removeIf(e -> e.isExpired(expiryNanos));
+      removed = window.isEmpty();
+      return removed;
+    }
+  }
+
+  /** Expire the entries in bulk when the applied index has been advanced by this gap. */
+  private static final long EXPIRY_INDEX_GAP = 1024;
+
+  private final ConcurrentMap<ClientId, ClientEntries> clients = new ConcurrentHashMap<>();
+  private final long expiryNanos;
+  private final AtomicLong lastExpiryIndex = new AtomicLong();
+  private final AtomicReference<Timestamp> lastExpiryTime = new AtomicReference<>(Timestamp.currentTime());
 
   /**
    * @param expirationTime time for an entry to expire in milliseconds
    */
   RetryCache(TimeDuration expirationTime) {
-    cache = CacheBuilder.newBuilder()
-        .expireAfterWrite(expirationTime.getDuration(), expirationTime.getUnit())
-        .build();
+    this.expiryNanos = expirationTime.toLong(TimeUnit.NANOSECONDS);
   }
 
-  CacheEntry getOrCreateEntry(ClientId clientId, long callId) {
-    final CacheKey key = new CacheKey(clientId, callId);
-    final CacheEntry entry;
-    try {
-      entry = cache.get(key, () -> new CacheEntry(key));
-    } catch (ExecutionException e) {
-      throw new IllegalStateException(e);
+  /** Apply the given function to the entries of the given client under the lock of the entries. */
+  private <T> T applyToClientEntries(ClientId clientId, Function<ClientEntries, T> function) {
+    for(;;) {
+      final ClientEntries entries = clients.computeIfAbsent(clientId, ClientEntries::new);
+      synchronized (entries) {
+        if (!entries.removed) {
+          return function.apply(entries);
+        }
+      }
+      // the entries were removed by a concurrent expiry; retry with new entries.
     }
+  }
+
+  CacheEntry getOrCreateEntry(ClientId clientId, long callId) {
+    final CacheEntry entry = applyToClientEntries(clientId, entries -> {
+      final CacheEntry e = entries.get(callId, expiryNanos);
+      return e != null? e: entries.create(callId);
+    });
     Preconditions.assertTrue(entry != null && !entry.isCompletedNormally(),
         "retry cache entry should be pending: %s", entry);
     return entry;
   }
 
   CacheEntry refreshEntry(CacheEntry newEntry) {
-    cache.put(newEntry.key, newEntry);
-    return newEntry;
+    return applyToClientEntries(newEntry.getKey().clientId, entries -> entries.put(newEntry));
   }
 
   CacheQueryResult queryCache(ClientId clientId, long callId) {
-    CacheKey key = new CacheKey(clientId, callId);
-    final CacheEntry newEntry = new CacheEntry(key);
-    CacheEntry cacheEntry;
-    try {
-      cacheEntry = cache.get(key, () -> newEntry);
-    } catch (ExecutionException e) {
-      throw new IllegalStateException(e);
-    }
-
-    if (cacheEntry == newEntry) {
-      // this is the entry we just newly created
-      return new CacheQueryResult(cacheEntry, false);
-    } else if (!cacheEntry.isDone() || !cacheEntry.isFailed()){
-      // the previous attempt is either pending or successful
-      return new CacheQueryResult(cacheEntry, true);
-    }
-
-    // the previous attempt failed, replace it with a new one.
-    synchronized (this) {
-      // need to recheck, since there may be other retry attempts being
-      // processed at the same time. The recheck+replacement should be protected
-      // by lock.
-      CacheEntry currentEntry = cache.getIfPresent(key);
-      if (currentEntry == cacheEntry || currentEntry == null) {
-        // if the failed entry has not got replaced by another retry, or the
-        // failed entry got invalidated, we add a new cache entry
-        return new CacheQueryResult(refreshEntry(newEntry), false);
-      } else {
-        return new CacheQueryResult(currentEntry, true);
+    return applyToClientEntries(clientId, entries -> {
+      final CacheEntry cacheEntry = entries.get(callId, expiryNanos);
+      if (cacheEntry == null) {
+        return new CacheQueryResult(entries.create(callId), false);
+      } else if (!cacheEntry.isDone() || !cacheEntry.isFailed()) {
+        // the previous attempt is either pending or successful
+        return new CacheQueryResult(cacheEntry, true);
+      }
+      // the previous attempt failed, replace it with a new one.
+      return new CacheQueryResult(entries.create(callId), false);
+    });
+  }
+
+  /**
+   * Expire the entries in bulk when the applied index has been advanced enough
+   * or the expiry time has elapsed since the previous expiry.
+   * Note that an expired entry is also removed when it is accessed.
+   */
+  void expire(long appliedIndex) {
+    final long previous = lastExpiryIndex.get();
+    if (appliedIndex - previous < EXPIRY_INDEX_GAP
+        && lastExpiryTime.get().elapsedTime().toLong(TimeUnit.NANOSECONDS) < expiryNanos) {
+      return;
+    }
+    if (!lastExpiryIndex.compareAndSet(previous, appliedIndex)) {
+      return; // another thread is expiring
+    }
+    lastExpiryTime.set(Timestamp.currentTime());
+
+    for(ClientEntries entries : clients.values()) {
+      synchronized (entries) {
+        if (!entries.removed && entries.expire(expiryNanos)) {
+          clients.remove(entries.clientId, entries);
+        }
       }
     }
   }
 
+  /**
+   * Expire the entries in bulk if the expiry time has elapsed since the previous expiry.
+   * It is called periodically so that the entries are removed even if there are no new transactions.
+   */
+  void expire() {
+    expire(lastExpiryIndex.get());
+  }
+
   @VisibleForTesting
   long size() {
-    return cache.size();
+    long size = 0;
+    for(ClientEntries entries : clients.values()) {
+      synchronized (entries) {
+        size += entries.window.size();
+      }
+    }
+    return size;
   }
 
   @VisibleForTesting
   CacheEntry get(ClientId clientId, long callId) {
-    return cache.getIfPresent(new CacheKey(clientId, callId));
+    final ClientEntries entries = clients.get(clientId);
+    if (entries == null) {
+      return null;
+    }
+    synchronized (entries) {
+      return entries.get(callId, expiryNanos);
+    }
   }
 
   @Override
-  public synchronized void close() {
-    if (cache != null) {
-      cache.invalidateAll();
+  public void close() {
+    for(ClientEntries entries : clients.values()) {
+      synchronized (entries) {
+        entries.window.clear();
+        entries.removed = true;
+      }
     }
+    clients.clear();
   }
 
   static CompletableFuture<RaftClientReply> failWithReply(
@@ -112,7 +112,7 @@ class RoleInfo {
   }
 
   void startFollowerState(RaftServerImpl server) {
-    updateAndGet(followerState, new FollowerState(server)).start();
+    updateAndGet(followerState, new FollowerState(server)).startRunning();
   }
 
   void shutdownFollowerState() {
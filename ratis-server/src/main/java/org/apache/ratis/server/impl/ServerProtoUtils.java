@@ -22,6 +22,7 @@ import org.apache.ratis.proto.RaftProtos.*;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto.AppendResult;
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftGroupMemberId;
 import org.apache.ratis.protocol.RaftPeer;
 import org.apache.ratis.protocol.RaftPeerId;
@@ -119,6 +120,13 @@ public interface ServerProtoUtils {
     return ProtoUtils.toString(proto.getServerReply()) + "-t" + proto.getTerm();
   }
 
+  static String toString(ReadIndexReplyProto proto) {
+    if (proto == null) {
+      return null;
+    }
+    return ProtoUtils.toString(proto.getServerReply()) + "-t" + proto.getTerm() + ",readIndex=" + proto.getReadIndex();
+  }
+
   static String toString(InstallSnapshotRequestProto proto) {
     if (proto == null) {
       return null;
@@ -319,6 +327,40 @@ public interface ServerProtoUtils {
     return b.build();
   }
 
+  static ReadIndexRequestProto toReadIndexRequestProto(RaftGroupMemberId requestorId, RaftPeerId replyId) {
+    return ReadIndexRequestProto.newBuilder()
+        .setServerRequest(toRaftRpcRequestProtoBuilder(requestorId, replyId))
+        .build();
+  }
+
+  static HeartbeatsRequestProto toHeartbeatsRequestProto(RaftPeerId requestorId, RaftPeerId replyId,
+      List<AppendEntriesRequestProto> heartbeats, Collection<RaftGroupId> quiescentGroups) {
+    final RaftGroupMemberId requestor = RaftGroupMemberId.valueOf(requestorId, RaftGroupId.emptyGroupId());
+    final HeartbeatsRequestProto.Builder b = HeartbeatsRequestProto.newBuilder()
+        .setServerRequest(toRaftRpcRequestProtoBuilder(requestor, replyId))
+        .addAllHeartbeats(heartbeats);
+    quiescentGroups.forEach(groupId -> b.addQuiescentGroups(ProtoUtils.toRaftGroupIdProtoBuilder(groupId)));
+    return b.build();
+  }
+
+  static HeartbeatsReplyProto toHeartbeatsReplyProto(
+      RaftPeerId requestorId, RaftPeerId replyId, List<AppendEntriesReplyProto> replies) {
+    final RaftGroupMemberId replier = RaftGroupMemberId.valueOf(replyId, RaftGroupId.emptyGroupId());
+    return HeartbeatsReplyProto.newBuilder()
+        .setServerReply(toRaftRpcReplyProtoBuilder(requestorId, replier, true))
+        .addAllReplies(replies)
+        .build();
+  }
+
+  static ReadIndexReplyProto toReadIndexReplyProto(
+      RaftPeerId requestorId, RaftGroupMemberId replyId, boolean success, long term, long readIndex) {
+    return ReadIndexReplyProto.newBuilder()
+        .setServerReply(toRaftRpcReplyProtoBuilder(requestorId, replyId, success))
+        .setTerm(term)
+        .setReadIndex(readIndex)
+        .build();
+  }
+
   static InstallSnapshotReplyProto toInstallSnapshotReplyProto(
       RaftPeerId requestorId, RaftGroupMemberId replyId,
       long currentTerm, int requestIndex, InstallSnapshotResult result) {
@@ -402,7 +444,7 @@ public interface ServerProtoUtils {
 
   static AppendEntriesRequestProto toAppendEntriesRequestProto(
       RaftGroupMemberId requestorId, RaftPeerId replyId, long leaderTerm,
-      List<LogEntryProto> entries, long leaderCommit, boolean initializing,
+      List<LogEntryProto> entries, long leaderCommit, boolean initializing, boolean quiescent,
       TermIndex previous, Collection<CommitInfoProto> commitInfos, long callId) {
     RaftRpcRequestProto.Builder rpcRequest = toRaftRpcRequestProtoBuilder(requestorId, replyId)
         .setCallId(callId);
@@ -411,7 +453,8 @@ public interface ServerProtoUtils {
         .setServerRequest(rpcRequest)
         .setLeaderTerm(leaderTerm)
         .setLeaderCommit(leaderCommit)
-        .setInitializing(initializing);
+        .setInitializing(initializing)
+        .setQuiescent(quiescent);
     if (entries != null && !entries.isEmpty()) {
       b.addAllEntries(entries);
     }
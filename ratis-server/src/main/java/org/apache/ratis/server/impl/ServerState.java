@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -437,6 +438,11 @@ public class ServerState implements Closeable {
     return stateMachineUpdater.getLastAppliedIndex();
   }
 
+  /** @return a future which will be completed once the given index has been applied to the state machine. */
+  CompletableFuture<Long> getAppliedIndexFuture(long index) {
+    return stateMachineUpdater.getAppliedIndexFuture(index);
+  }
+
   boolean containsTermIndex(TermIndex ti) {
     Objects.requireNonNull(ti, "ti == null");
 
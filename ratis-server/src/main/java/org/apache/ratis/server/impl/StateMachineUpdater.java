@@ -28,6 +28,7 @@ import org.apache.ratis.server.raftlog.RaftLogIOException;
 import org.apache.ratis.server.raftlog.RaftLogIndex;
 import org.apache.ratis.statemachine.SnapshotInfo;
 import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.statemachine.TransactionContext;
 import org.apache.ratis.statemachine.impl.SnapshotRetentionPolicy;
 import org.apache.ratis.util.*;
 import org.slf4j.Logger;
@@ -35,13 +36,24 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.LongStream;
 
 /**
@@ -52,6 +64,20 @@ import java.util.stream.LongStream;
  * If the auto log compaction is enabled, the state machine updater thread will
  * trigger a snapshot of the state machine by calling
  * {@link StateMachine#takeSnapshot} when the log size exceeds a limit.
+ *
+ * If the parallel apply is enabled, the transactions are dispatched to a pool of
+ * ordered executors according to {@link StateMachine#getPartitionKey}
+ * by chaining the futures, so that the updater thread never blocks on a transaction
+ * except that a non-transaction entry, such as a configuration entry, waits for all the preceding transactions.
+ * The applied index is advanced only to the largest index
+ * such that all the transactions up to it have completed.
+ *
+ * If the batch apply is enabled, the contiguous state machine log entries are applied
+ * with a single {@link StateMachine#applyTransactions} call.
+ *
+ * If the shared thread pool is enabled, see {@link RaftServerConfigKeys.ThreadPool#SHARED_ENABLED_KEY},
+ * the updater runs as serial tasks submitted to the thread pool shared by all the groups
+ * when there are new committed entries, instead of a dedicated thread waiting for them.
  */
 class StateMachineUpdater implements Runnable {
   static final Logger LOG = LoggerFactory.getLogger(StateMachineUpdater.class);
@@ -71,9 +97,30 @@ class StateMachineUpdater implements Runnable {
   private final Long autoSnapshotThreshold;
 
   private final Thread updater;
+  /** The shared thread pool, or null if the updater thread is used. */
+  private final ScheduledExecutorService scheduler;
+  /** For the shared thread pool, is a task submitted or running?  At most one task is updating at any time. */
+  private final AtomicBoolean updating = new AtomicBoolean();
+  /** For the shared thread pool, completed once the updater has stopped. */
+  private final CompletableFuture<Void> stopped = new CompletableFuture<>();
   private final RaftLogIndex appliedIndex;
+  /** For the parallel apply, the index of the last log entry dispatched to the executors. */
+  private final RaftLogIndex dispatchedIndex;
+  /** For the parallel apply, the completed indices which are not yet contiguous to the applied index. */
+  private final NavigableSet<Long> completedIndices = new TreeSet<>();
+  /** For the parallel apply, the ordered executors; null if the parallel apply is disabled. */
+  private final ExecutorService[] applyExecutors;
+  /**
+   * For the parallel apply, the futures of the last transactions dispatched to the executors,
+   * which never complete exceptionally; accessed only by the updater thread.
+   */
+  private final CompletableFuture<?>[] applyTails;
+  /** For the batch apply, the max number of transactions in a batch; null if the batch apply is disabled. */
+  private final Integer applyBatchLimit;
   private final RaftLogIndex snapshotIndex;
   private final AtomicReference<Long> stopIndex = new AtomicReference<>();
+  /** The futures to be completed when the corresponding indices are applied. */
+  private final NavigableMap<Long, CompletableFuture<Long>> appliedIndexFutures = new ConcurrentSkipListMap<>();
   private volatile State state = State.RUNNING;
   private SnapshotRetentionPolicy snapshotRetentionPolicy;
   private StateMachineMetrics stateMachineMetrics = null;
@@ -90,6 +137,15 @@ class StateMachineUpdater implements Runnable {
 
     this.appliedIndex = new RaftLogIndex("appliedIndex", lastAppliedIndex);
     this.snapshotIndex = new RaftLogIndex("snapshotIndex", lastAppliedIndex);
+    this.dispatchedIndex = new RaftLogIndex("dispatchedIndex", lastAppliedIndex);
+    this.applyExecutors = RaftServerConfigKeys.Apply.Parallel.enabled(properties)?
+        newApplyExecutors(RaftServerConfigKeys.Apply.Parallel.executors(properties)): null;
+    this.applyBatchLimit = RaftServerConfigKeys.Apply.Batch.enabled(properties)?
+        RaftServerConfigKeys.Apply.Batch.elementLimit(properties): null;
+    Preconditions.assertTrue(applyExecutors == null || applyBatchLimit == null,
+        "The parallel apply and the batch apply cannot be both enabled.");
+    this.applyTails = applyExecutors == null? null: new CompletableFuture<?>[applyExecutors.length];
+    resetApplyTails();
 
     final boolean autoSnapshot = RaftServerConfigKeys.Snapshot.autoTriggerEnabled(properties);
     this.autoSnapshotThreshold = autoSnapshot? RaftServerConfigKeys.Snapshot.autoTriggerThreshold(properties): null;
@@ -101,12 +157,32 @@ class StateMachineUpdater implements Runnable {
       }
     };
     updater = new Daemon(this);
+    this.scheduler = server.getProxy().getSharedScheduler();
+  }
+
+  private ExecutorService[] newApplyExecutors(int n) {
+    final ExecutorService[] executors = new ExecutorService[n];
+    for(int i = 0; i < n; i++) {
+      final String threadName = name + "-apply-" + i;
+      executors[i] = Executors.newSingleThreadExecutor(r -> new Daemon(r, threadName));
+    }
+    return executors;
+  }
+
+  private void resetApplyTails() {
+    if (applyTails != null) {
+      Arrays.fill(applyTails, CompletableFuture.completedFuture(null));
+    }
   }
 
   void start() {
     //wait for RaftServerImpl and ServerState constructors to complete
     initializeMetrics();
-    updater.start();
+    if (scheduler == null) {
+      updater.start();
+    } else {
+      submitUpdate();
+    }
   }
 
   private void initializeMetrics() {
@@ -119,11 +195,18 @@ class StateMachineUpdater implements Runnable {
 
   private void stop() {
     state = State.STOP;
+    final IllegalStateException e = new IllegalStateException(name + " is stopped");
+    appliedIndexFutures.values().forEach(f -> f.completeExceptionally(e));
+    appliedIndexFutures.clear();
+    if (applyExecutors != null) {
+      Arrays.stream(applyExecutors).forEach(ExecutorService::shutdown);
+    }
     try {
       stateMachine.close();
     } catch(Throwable t) {
       LOG.warn(name + ": Failed to close " + stateMachine.getClass().getSimpleName() + " " + stateMachine, t);
     }
+    stopped.complete(null);
   }
 
   /**
@@ -135,7 +218,15 @@ class StateMachineUpdater implements Runnable {
       notifyUpdater();
       LOG.info("{}: set stopIndex = {}", this, stopIndex);
     }
-    updater.join();
+    if (scheduler == null) {
+      updater.join();
+      return;
+    }
+    try {
+      stopped.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(this + ": Unexpected exception", e);
+    }
   }
 
   void reloadStateMachine() {
@@ -143,8 +234,11 @@ class StateMachineUpdater implements Runnable {
     notifyUpdater();
   }
 
-  synchronized void notifyUpdater() {
-    notifyAll();
+  void notifyUpdater() {
+    synchronized (this) {
+      notifyAll();
+    }
+    submitUpdate();
   }
 
   @Override
@@ -157,31 +251,73 @@ class StateMachineUpdater implements Runnable {
     for(; state != State.STOP; ) {
       try {
         waitForCommit();
+        applyCommitted();
+      } catch (Throwable t) {
+        onFailure(t);
+      }
+    }
+  }
 
-        if (state == State.RELOAD) {
-          reload();
-        }
+  /** For the shared thread pool, submit a task if there is something to update and no task is updating. */
+  private void submitUpdate() {
+    if (scheduler != null && shouldUpdate() && updating.compareAndSet(false, true)) {
+      scheduler.execute(this::update);
+    }
+  }
 
-        final MemoizedSupplier<List<CompletableFuture<Message>>> futures = applyLog();
-        checkAndTakeSnapshot(futures);
+  /** For the shared thread pool, similar to an iteration of {@link #run()} without waiting. */
+  private void update() {
+    try {
+      if (shouldUpdate()) {
+        applyCommitted();
+      }
+    } catch (Throwable t) {
+      onFailure(t);
+    } finally {
+      updating.set(false);
+    }
+    // a notification may have been missed when the task was running
+    submitUpdate();
+  }
 
-        if (shouldStop()) {
-          checkAndTakeSnapshot(futures);
-          stop();
-        }
-      } catch (InterruptedException e) {
-        if (state == State.STOP) {
-          LOG.info("{}: the StateMachineUpdater is interrupted and will exit.", this);
-        } else {
-          final String s = this + ": the StateMachineUpdater is wrongly interrupted";
-          LOG.error(s, e);
-          server.shutdown(false);
-        }
-      } catch (Throwable t) {
-        final String s = this + ": the StateMachineUpdater hits Throwable";
-        LOG.error(s, t);
-        server.shutdown(false);
+  /** @return true iff the updater has something to do, i.e. {@link #waitForCommit()} will not wait. */
+  private boolean shouldUpdate() {
+    return state != State.STOP && (getLastDispatchedIndex() < raftLog.getLastCommittedIndex()
+        || state != State.RUNNING || shouldStop());
+  }
+
+  private void applyCommitted() throws Exception {
+    if (state == State.RELOAD) {
+      reload();
+    }
+
+    final MemoizedSupplier<List<CompletableFuture<?>>> futures = applyBatchLimit == null?
+        applyLog(): applyLogInBatches();
+    completeAppliedIndexFutures();
+    server.getRetryCache().expire(getLastAppliedIndex());
+    checkAndTakeSnapshot(futures);
+
+    if (shouldStop()) {
+      checkAndTakeSnapshot(futures);
+      stop();
+    }
+  }
+
+  private void onFailure(Throwable t) {
+    if (t instanceof InterruptedException) {
+      if (state == State.STOP) {
+        LOG.info("{}: the StateMachineUpdater is interrupted and will exit.", this);
+        return;
       }
+      LOG.error(this + ": the StateMachineUpdater is wrongly interrupted", t);
+    } else {
+      LOG.error(this + ": the StateMachineUpdater hits Throwable", t);
+    }
+    if (scheduler == null) {
+      server.shutdown(false);
+    } else {
+      // the shutdown waits for this updater to stop, so it cannot run in the updating task
+      CompletableFuture.runAsync(() -> server.shutdown(false));
     }
   }
 
@@ -189,7 +325,7 @@ class StateMachineUpdater implements Runnable {
     // When a peer starts, the committed is initialized to 0.
     // It will be updated only after the leader contacts other peers.
     // Thus it is possible to have applied > committed initially.
-    final long applied = getLastAppliedIndex();
+    final long applied = getLastDispatchedIndex();
     for(; applied >= raftLog.getLastCommittedIndex() && state == State.RUNNING && !shouldStop(); ) {
       wait();
     }
@@ -205,13 +341,23 @@ class StateMachineUpdater implements Runnable {
     final long i = snapshot.getIndex();
     snapshotIndex.setUnconditionally(i, infoIndexChange);
     appliedIndex.setUnconditionally(i, infoIndexChange);
+    if (applyExecutors != null) {
+      dispatchedIndex.setUnconditionally(i, infoIndexChange);
+      synchronized (this) {
+        completedIndices.clear();
+      }
+      resetApplyTails();
+    }
     state = State.RUNNING;
   }
 
-  private MemoizedSupplier<List<CompletableFuture<Message>>> applyLog() throws RaftLogIOException {
-    final MemoizedSupplier<List<CompletableFuture<Message>>> futures = MemoizedSupplier.valueOf(ArrayList::new);
+  private MemoizedSupplier<List<CompletableFuture<?>>> applyLog()
+      throws RaftLogIOException, ExecutionException, InterruptedException {
+    final MemoizedSupplier<List<CompletableFuture<?>>> futures = MemoizedSupplier.valueOf(ArrayList::new);
     final long committed = raftLog.getLastCommittedIndex();
-    for(long applied; (applied = getLastAppliedIndex()) < committed && state == State.RUNNING && !shouldStop(); ) {
+    // do not apply beyond the stop index
+    final long end = Optional.ofNullable(stopIndex.get()).filter(i -> i < committed).orElse(committed);
+    for(long applied; (applied = getLastDispatchedIndex()) < end && state == State.RUNNING && !shouldStop(); ) {
       final long nextIndex = applied + 1;
       final LogEntryProto next = raftLog.get(nextIndex);
       if (next != null) {
@@ -221,12 +367,27 @@ class StateMachineUpdater implements Runnable {
           LOG.debug("{}: applying nextIndex={}", this, nextIndex);
         }
 
-        final CompletableFuture<Message> f = server.applyLogToStateMachine(next);
-        if (f != null) {
-          futures.get().add(f);
+        if (applyExecutors == null) {
+          final CompletableFuture<Message> f = server.applyLogToStateMachine(next);
+          if (f != null) {
+            futures.get().add(f);
+          }
+          final long incremented = appliedIndex.incrementAndGet(debugIndexChange);
+          Preconditions.assertTrue(incremented == nextIndex);
+        } else {
+          if (!next.hasStateMachineLogEntry()) {
+            // a barrier: wait for all the preceding transactions before applying a non-transaction entry
+            getAppliedIndexFuture(applied).get();
+          }
+          final CompletableFuture<Message> f = server.applyLogToStateMachine(next, this::dispatch);
+          final long incremented = dispatchedIndex.incrementAndGet(debugIndexChange);
+          Preconditions.assertTrue(incremented == nextIndex);
+          if (f != null) {
+            futures.get().add(f.whenComplete((r, e) -> onApplied(nextIndex)));
+          } else {
+            onApplied(nextIndex);
+          }
         }
-        final long incremented = appliedIndex.incrementAndGet(debugIndexChange);
-        Preconditions.assertTrue(incremented == nextIndex);
       } else {
         LOG.debug("{}: logEntry {} is null. There may be snapshot to load. state:{}",
             this, nextIndex, state);
@@ -236,12 +397,91 @@ class StateMachineUpdater implements Runnable {
     return futures;
   }
 
-  private void checkAndTakeSnapshot(MemoizedSupplier<List<CompletableFuture<Message>>> futures)
+  private MemoizedSupplier<List<CompletableFuture<?>>> applyLogInBatches() throws RaftLogIOException {
+    final MemoizedSupplier<List<CompletableFuture<?>>> futures = MemoizedSupplier.valueOf(ArrayList::new);
+    final long committed = raftLog.getLastCommittedIndex();
+    // do not apply beyond the stop index
+    final long end = Optional.ofNullable(stopIndex.get()).filter(i -> i < committed).orElse(committed);
+    final List<LogEntryProto> batch = new ArrayList<>();
+    for(long applied; (applied = getLastAppliedIndex()) < end && state == State.RUNNING; ) {
+      // collect the contiguous state machine log entries
+      batch.clear();
+      LogEntryProto next = null;
+      for(long i = applied + 1; i <= end && batch.size() < applyBatchLimit; i++) {
+        next = raftLog.get(i);
+        if (next == null || !next.hasStateMachineLogEntry()) {
+          break;
+        }
+        batch.add(next);
+      }
+
+      if (!batch.isEmpty()) {
+        final long lastIndex = batch.get(batch.size() - 1).getIndex();
+        LOG.debug("{}: applying a batch of {} entries [{}, {}]", this, batch.size(), applied + 1, lastIndex);
+        futures.get().add(server.applyLogsToStateMachine(batch));
+        final boolean updated = appliedIndex.updateIncreasingly(lastIndex, debugIndexChange);
+        Preconditions.assertTrue(updated);
+      } else if (next != null) {
+        // not a state machine log entry
+        LOG.debug("{}: applying nextIndex={}", this, next.getIndex());
+        Preconditions.assertNull(server.applyLogToStateMachine(next), "future");
+        final long incremented = appliedIndex.incrementAndGet(debugIndexChange);
+        Preconditions.assertTrue(incremented == next.getIndex());
+      } else {
+        LOG.debug("{}: logEntry {} is null. There may be snapshot to load. state:{}",
+            this, applied + 1, state);
+        break;
+      }
+    }
+    return futures;
+  }
+
+  /**
+   * For the parallel apply, dispatch the transaction to the executor selected by the partition key.
+   * It is chained after the previous transaction of the same executor.
+   * A transaction without a partition key is chained after all the preceding transactions
+   * and all the following transactions are chained after it.
+   * The updater thread does not wait for any of them.
+   */
+  private CompletableFuture<Message> dispatch(TransactionContext trx, Supplier<CompletableFuture<Message>> apply) {
+    final Object key = stateMachine.getPartitionKey(trx);
+    if (key != null) {
+      final int i = Math.floorMod(key.hashCode(), applyExecutors.length);
+      final CompletableFuture<Message> f = applyTails[i].thenComposeAsync(previous -> apply.get(), applyExecutors[i]);
+      applyTails[i] = f.handle((reply, e) -> null);
+      return f;
+    }
+    final long previousIndex = trx.getLogEntry().getIndex() - 1;
+    final CompletableFuture<Message> f = getAppliedIndexFuture(previousIndex)
+        .thenComposeAsync(previous -> apply.get(), applyExecutors[0]);
+    Arrays.fill(applyTails, f.handle((reply, e) -> null));
+    return f;
+  }
+
+  /** For the parallel apply, advance the applied index when the transactions become contiguous. */
+  private void onApplied(long index) {
+    synchronized (this) {
+      if (index <= getLastAppliedIndex()) {
+        return; // the applied index has been reset by a reload
+      }
+      completedIndices.add(index);
+      for(; completedIndices.remove(getLastAppliedIndex() + 1); ) {
+        appliedIndex.incrementAndGet(debugIndexChange);
+      }
+      notifyAll();
+    }
+    completeAppliedIndexFutures();
+    if (stopIndex.get() != null) {
+      submitUpdate();
+    }
+  }
+
+  private void checkAndTakeSnapshot(MemoizedSupplier<List<CompletableFuture<?>>> futures)
       throws ExecutionException, InterruptedException {
     // check if need to trigger a snapshot
     if (shouldTakeSnapshot()) {
       if (futures.isInitialized()) {
-        JavaUtils.allOf(futures.get()).get();
+        CompletableFuture.allOf(futures.get().toArray(new CompletableFuture<?>[0])).get();
       }
 
       takeSnapshot();
@@ -291,4 +531,29 @@ class StateMachineUpdater implements Runnable {
   long getLastAppliedIndex() {
     return appliedIndex.get();
   }
+
+  private long getLastDispatchedIndex() {
+    return applyExecutors == null? getLastAppliedIndex(): dispatchedIndex.get();
+  }
+
+  /** @return a future which will be completed once the given index has been applied. */
+  CompletableFuture<Long> getAppliedIndexFuture(long index) {
+    if (index <= getLastAppliedIndex()) {
+      return CompletableFuture.completedFuture(index);
+    }
+    final CompletableFuture<Long> future = appliedIndexFutures.computeIfAbsent(index, i -> new CompletableFuture<>());
+    // the index may be applied before the future is added.
+    completeAppliedIndexFutures();
+    return future;
+  }
+
+  private void completeAppliedIndexFutures() {
+    final long applied = getLastAppliedIndex();
+    for(Map.Entry<Long, CompletableFuture<Long>> e;
+        (e = appliedIndexFutures.firstEntry()) != null && e.getKey() <= applied; ) {
+      if (appliedIndexFutures.remove(e.getKey(), e.getValue())) {
+        e.getValue().complete(e.getKey());
+      }
+    }
+  }
 }
@@ -76,6 +76,14 @@ public class RaftLogMetrics {
     registry.counter(RAFT_LOG_CACHE_MISS_COUNT).inc();
   }
 
+  public void onRaftLogCacheEviction(long numEvicted) {
+    registry.counter(RAFT_LOG_CACHE_EVICTION_COUNT).inc(numEvicted);
+  }
+
+  public void addCacheSizeGauge(MetricRegistry.MetricSupplier<Gauge> supplier) {
+    registry.gauge(RAFT_LOG_CACHE_SIZE, supplier);
+  }
+
   public void onRaftLogFlush() {
     registry.counter(RAFT_LOG_FLUSH_COUNT).inc();
   }
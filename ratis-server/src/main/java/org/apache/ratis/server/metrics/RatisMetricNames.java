@@ -34,6 +34,18 @@ public final class RatisMetricNames {
   public static final String LEADER_METRIC_PEER_COMMIT_INDEX =
       "%s_peerCommitIndex";
 
+  // Remaining time of the leader lease in milliseconds.
+  public static final String LEADER_METRIC_LEASE_REMAINING_TIME = "leaderLeaseRemainingTime";
+  // Number of times the leader lease is renewed.
+  public static final String LEADER_METRIC_LEASE_RENEWAL_COUNT = "leaderLeaseRenewalCount";
+  // Number of reads served under the leader lease.
+  public static final String LEADER_METRIC_LEASE_READ_COUNT = "leaderLeaseReadCount";
+  // Number of reads falling back to a heartbeat round since the leader lease has expired.
+  public static final String LEADER_METRIC_LEASE_EXPIRED_COUNT = "leaderLeaseExpiredCount";
+
+  // Number of heartbeats, i.e. appendEntries requests without entries, created for the followers.
+  public static final String LEADER_METRIC_HEARTBEAT_COUNT = "heartbeatCount";
+
   public static final String STATEMACHINE_APPLIED_INDEX_GAUGE =
       "statemachine_applied_index";
   public static final String STATEMACHINE_APPLY_COMPLETED_GAUGE =
@@ -67,6 +79,12 @@ public final class RatisMetricNames {
   // Count of RaftLogCache Hits
   public static final String RAFT_LOG_CACHE_HIT_COUNT = "cacheHitCount";
 
+  // Count of the log entries evicted from RaftLogCache
+  public static final String RAFT_LOG_CACHE_EVICTION_COUNT = "cacheEvictionCount";
+
+  // Total size of the cached log entries in the closed segments
+  public static final String RAFT_LOG_CACHE_SIZE = "cacheSize";
+
   // Total time taken to append a raft log entry
   public static final String RAFT_LOG_APPEND_ENTRY_LATENCY = "appendEntryLatency";
 
@@ -94,4 +112,10 @@ public final class RatisMetricNames {
   public static final String RAFT_LOG_LOAD_SEGMENT_LATENCY = "segmentLoadLatency";
 
   public static final String FOLLOWER_APPEND_ENTRIES_LATENCY = "follower_append_entry_latency";
+
+  // Number of the heartbeats rpcs sent by the heartbeat coalescer of a server.
+  public static final String HEARTBEATS_RPC_COUNT = "heartbeatsRpcCount";
+
+  // Number of the group heartbeats carried by the heartbeats rpcs.
+  public static final String COALESCED_HEARTBEAT_COUNT = "coalescedHeartbeatCount";
 }
@@ -20,6 +20,10 @@ package org.apache.ratis.server.protocol;
 
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexReplyProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexRequestProto;
 
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
@@ -28,4 +32,8 @@ public interface RaftServerAsynchronousProtocol {
 
   CompletableFuture<AppendEntriesReplyProto> appendEntriesAsync(AppendEntriesRequestProto request)
       throws IOException;
+
+  CompletableFuture<ReadIndexReplyProto> readIndexAsync(ReadIndexRequestProto request) throws IOException;
+
+  CompletableFuture<HeartbeatsReplyProto> heartbeatsAsync(HeartbeatsRequestProto request) throws IOException;
 }
@@ -21,17 +21,27 @@ import java.io.IOException;
 
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotReplyProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotRequestProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexReplyProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexRequestProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteReplyProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteRequestProto;
 
 public interface RaftServerProtocol {
-  enum Op {REQUEST_VOTE, APPEND_ENTRIES, INSTALL_SNAPSHOT}
+  enum Op {REQUEST_VOTE, APPEND_ENTRIES, INSTALL_SNAPSHOT, READ_INDEX, HEARTBEATS}
 
   RequestVoteReplyProto requestVote(RequestVoteRequestProto request) throws IOException;
 
   AppendEntriesReplyProto appendEntries(AppendEntriesRequestProto request) throws IOException;
 
   InstallSnapshotReplyProto installSnapshot(InstallSnapshotRequestProto request) throws IOException;
+
+  /** Ask the leader for its read index, which is returned once the leadership has been confirmed. */
+  ReadIndexReplyProto readIndex(ReadIndexRequestProto request) throws IOException;
+
+  /** Send the heartbeats of all the groups sharing the same leader server and follower server in one call. */
+  HeartbeatsReplyProto heartbeats(HeartbeatsRequestProto request) throws IOException;
 }
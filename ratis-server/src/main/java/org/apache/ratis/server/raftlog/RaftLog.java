@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -284,6 +285,37 @@ public abstract class RaftLog implements RaftLogSequentialOps, Closeable {
    */
   public abstract EntryWithData getEntryWithData(long index) throws RaftLogIOException;
 
+  /**
+   * Get the log entries in the given index range along with the state machine data.
+   * The entries are returned in order until an entry is missing,
+   * or the element limit or the byte limit (excluding the state machine data) is reached.
+   * The first entry is always returned regardless of the byte limit.
+   *
+   * @param startIndex the starting log index (inclusive)
+   * @param endIndex the ending log index (exclusive)
+   * @param maxCount the maximum number of entries.
+   * @param maxBytes the maximum total serialized size of the entries.
+   * @return the log entries, which are non-empty if startIndex < endIndex and maxCount > 0.
+   * @throws RaftLogIOException if the entry at startIndex is not found.
+   */
+  public List<EntryWithData> getEntriesWithData(long startIndex, long endIndex, int maxCount, long maxBytes)
+      throws RaftLogIOException {
+    final List<EntryWithData> entries = new ArrayList<>();
+    long numBytes = 0;
+    for(long index = startIndex; index < endIndex && entries.size() < maxCount; index++) {
+      if (!entries.isEmpty() && get(index) == null) {
+        break;
+      }
+      final EntryWithData entry = getEntryWithData(index);
+      numBytes += entry.getSerializedSize();
+      if (!entries.isEmpty() && numBytes > maxBytes) {
+        break;
+      }
+      entries.add(entry);
+    }
+    return entries;
+  }
+
   /**
    * Get the TermIndex information of the given index.
    *
@@ -293,6 +325,13 @@ public abstract class RaftLog implements RaftLogSequentialOps, Closeable {
    */
   public abstract TermIndex getTermIndex(long index);
 
+  /**
+   * The entries below the given index have been sent to all the followers,
+   * so that the entries read for the followers can be released.
+   */
+  public void releaseEntriesBelow(long index) {
+  }
+
   /**
    * @param startIndex the starting log index (inclusive)
    * @param endIndex the ending log index (exclusive)
@@ -446,17 +485,26 @@ public abstract class RaftLog implements RaftLogSequentialOps, Closeable {
    */
   public class EntryWithData {
     private final LogEntryProto logEntry;
-    private final CompletableFuture<ByteString> future;
+    /**
+     * The entry with the state machine data added.
+     * It is built once so that the same instance, including its memoized serialized size,
+     * can be shared by the requests to all the followers.
+     */
+    private final CompletableFuture<LogEntryProto> future;
 
     public EntryWithData(LogEntryProto logEntry, CompletableFuture<ByteString> future) {
       this.logEntry = logEntry;
-      this.future = future;
+      this.future = future == null? null: future.thenApply(data -> ServerProtoUtils.addStateMachineData(data, logEntry));
     }
 
     public long getIndex() {
       return logEntry.getIndex();
     }
 
+    public TermIndex getTermIndex() {
+      return ServerProtoUtils.toTermIndex(logEntry);
+    }
+
     public int getSerializedSize() {
       return ServerProtoUtils.getSerializedSize(logEntry);
     }
@@ -468,8 +516,7 @@ public abstract class RaftLog implements RaftLogSequentialOps, Closeable {
       }
 
       try {
-        entryProto = future.thenApply(data -> ServerProtoUtils.addStateMachineData(data, logEntry))
-            .get(timeout.getDuration(), timeout.getUnit());
+        entryProto = future.get(timeout.getDuration(), timeout.getUnit());
       } catch (TimeoutException t) {
         throw t;
       } catch (Throwable t) {
@@ -17,6 +17,9 @@
  */
 package org.apache.ratis.server.raftlog.segmented;
 
+import org.apache.ratis.util.Preconditions;
+import org.apache.ratis.util.function.CheckedConsumer;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
@@ -55,9 +58,14 @@ public class BufferedWriteChannel extends BufferedChannelBase {
   }
 
   public void write(byte[] b) throws IOException {
-    int offset = 0;
-    while (offset < b.length) {
-      int toPut = Math.min(b.length - offset, writeBuffer.remaining());
+    write(b, 0, b.length);
+  }
+
+  public void write(byte[] b, int off, int len) throws IOException {
+    int offset = off;
+    final int end = off + len;
+    while (offset < end) {
+      int toPut = Math.min(end - offset, writeBuffer.remaining());
       writeBuffer.put(b, offset, toPut);
       offset += toPut;
       if (writeBuffer.remaining() == 0) {
@@ -65,7 +73,35 @@ public class BufferedWriteChannel extends BufferedChannelBase {
       }
     }
     flushed = false;
-    position += b.length;
+    position += len;
+  }
+
+  /**
+   * Write directly to the write buffer, i.e. without any intermediate array.
+   * The buffer is flushed first if it does not have enough remaining space.
+   *
+   * @param size the number of bytes to be written, which must not exceed {@link #capacity()}.
+   * @param writer write exactly the given number of bytes to the buffer starting at its position.
+   */
+  public void writeDirectly(int size, CheckedConsumer<ByteBuffer, IOException> writer) throws IOException {
+    Preconditions.assertTrue(size <= capacity(), () -> "size = " + size + " > capacity = " + capacity());
+    if (writeBuffer.remaining() < size) {
+      flushInternal();
+    }
+    final int start = writeBuffer.position();
+    writer.accept(writeBuffer);
+    final int written = writeBuffer.position() - start;
+    Preconditions.assertTrue(written == size, () -> "written = " + written + " != size = " + size);
+    if (writeBuffer.remaining() == 0) {
+      flushInternal();
+    }
+    flushed = false;
+    position += size;
+  }
+
+  /** @return the capacity of the write buffer. */
+  public int capacity() {
+    return writeBuffer.capacity();
   }
 
   /**
@@ -91,6 +127,26 @@ public class BufferedWriteChannel extends BufferedChannelBase {
     flushed = true;
   }
 
+  /**
+   * Write any data in the buffer to the file without forcing a sync.
+   * The data can be persisted later by {@link #sync()}.
+   *
+   * @throws IOException if the write fails.
+   */
+  void flushBuffer() throws IOException {
+    flushInternal();
+  }
+
+  /**
+   * Force a sync so that the data already written to the file is persisted to the disk.
+   * Unlike the other methods, it may be called by a thread other than the writer.
+   *
+   * @throws IOException if the sync operation fails.
+   */
+  void sync() throws IOException {
+    fileChannel.force(false);
+  }
+
   /**
    * Write any data in the buffer to the file and advance the writeBufferPosition
    * Callers are expected to synchronize appropriately
@@ -19,12 +19,39 @@ package org.apache.ratis.server.raftlog.segmented;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
+import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.server.RaftServerConfigKeys;
+import org.apache.ratis.server.RaftServerConfigKeys.Log.CachePolicy;
 import org.apache.ratis.server.raftlog.segmented.SegmentedRaftLogCache.LogSegmentList;
 import org.apache.ratis.util.AutoCloseableLock;
 
 public interface CacheInvalidationPolicy {
+  static CacheInvalidationPolicy newInstance(RaftProperties properties) {
+    final CachePolicy policy = RaftServerConfigKeys.Log.segmentCachePolicy(properties);
+    switch (policy) {
+      case SEGMENT_NUM:
+        return new CacheInvalidationPolicyDefault();
+      case BYTE_SIZE:
+        return new CacheInvalidationPolicyByteSize(
+            RaftServerConfigKeys.Log.segmentCacheSizeMax(properties).getSize());
+      default:
+        throw new IllegalStateException("Unexpected enum value: " + policy + ", class=" + CachePolicy.class);
+    }
+  }
+
+  /**
+   * @param segments The list of closed log segments.
+   * @param maxCachedSegments the max number of segments with cached log entries
+   * @return true if the cache should be evicted.
+   */
+  default boolean shouldEvict(LogSegmentList segments, int maxCachedSegments) {
+    return segments.countCached() > maxCachedSegments;
+  }
+
   /**
    * Determine which log segments should evict their log entry cache
    * @param followerNextIndices the next indices of all the follower peers. Null
@@ -120,4 +147,99 @@ public interface CacheInvalidationPolicy {
       return result;
     }
   }
+
+  /**
+   * Bound the total size of the cached log entries, instead of the number of cached segments.
+   *
+   * The eviction is done for individual entries.
+   * It first evicts the entries which are not going to be read,
+   * i.e. the entries before both the min follower next index and the state machine next index to apply.
+   * Then, it evicts the entries of the least recently accessed segments which are not being read.
+   *
+   * The returned segments are the segments with all the entries evicted.
+   */
+  class CacheInvalidationPolicyByteSize implements CacheInvalidationPolicy {
+    private final long maxCachedSize;
+
+    CacheInvalidationPolicyByteSize(long maxCachedSize) {
+      this.maxCachedSize = maxCachedSize;
+    }
+
+    @Override
+    public boolean shouldEvict(LogSegmentList segments, int maxCachedSegments) {
+      return segments.getCachedSize() > maxCachedSize;
+    }
+
+    @Override
+    public List<LogSegment> evict(long[] followerNextIndices,
+        long localFlushedIndex, long lastAppliedIndex,
+        LogSegmentList segments, final int maxCachedSegments) {
+      try(AutoCloseableLock readLock = segments.readLock()) {
+        return evictImpl(followerNextIndices, localFlushedIndex, lastAppliedIndex, segments);
+      }
+    }
+
+    private List<LogSegment> evictImpl(long[] followerNextIndices,
+        long localFlushedIndex, long lastAppliedIndex, LogSegmentList segments) {
+      long excess = segments.getCachedSize() - maxCachedSize;
+      if (excess <= 0) {
+        return Collections.emptyList();
+      }
+
+      // a segment's cache can be invalidated only if it's close and all its
+      // entries have been flushed to the local disk
+      final List<LogSegment> candidates = new ArrayList<>();
+      for (int i = 0; i < segments.size(); i++) {
+        final LogSegment s = segments.get(i);
+        if (s.isOpen() || s.getEndIndex() > localFlushedIndex) {
+          break;
+        }
+        if (s.hasCache()) {
+          candidates.add(s);
+        }
+      }
+
+      final long nextToApply = lastAppliedIndex + 1;
+      final boolean hasFollowers = followerNextIndices != null && followerNextIndices.length > 0;
+      final long minToRead = !hasFollowers? nextToApply
+          : Math.min(Arrays.stream(followerNextIndices).min().getAsLong(), nextToApply);
+
+      final List<LogSegment> result = new ArrayList<>();
+      // first, evict the entries which are not going to be read.
+      for (LogSegment s : candidates) {
+        if (excess <= 0 || s.getStartIndex() >= minToRead) {
+          break;
+        }
+        excess -= evict(s, minToRead, result);
+      }
+
+      // then, evict the least recently accessed segments which are not being read.
+      if (excess > 0) {
+        candidates.sort(Comparator.comparingLong(LogSegment::getLastAccessTime));
+        for (LogSegment s : candidates) {
+          if (excess <= 0) {
+            break;
+          }
+          if (s.hasCache() && !s.containsIndex(nextToApply)
+              && (!hasFollowers || Arrays.stream(followerNextIndices).noneMatch(s::containsIndex))) {
+            excess -= evict(s, s.getEndIndex() + 1, result);
+          }
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Evict the entries of the given segment before the given index.
+     * @return the size evicted.
+     */
+    private static long evict(LogSegment s, long toIndex, List<LogSegment> evicted) {
+      final long before = s.getCachedSize();
+      s.evictCache(s.getStartIndex(), toIndex);
+      if (!s.hasCache()) {
+        evicted.add(s);
+      }
+      return before - s.getCachedSize();
+    }
+  }
 }
@@ -29,11 +29,15 @@ import org.apache.ratis.thirdparty.com.google.common.cache.CacheLoader;
 import org.apache.ratis.thirdparty.com.google.protobuf.CodedOutputStream;
 import org.apache.ratis.util.FileUtils;
 import org.apache.ratis.util.Preconditions;
+import org.apache.ratis.util.Crc32C;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -42,6 +46,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -159,26 +164,55 @@ class LogSegment implements Comparable<Long> {
   }
 
   /**
-   * The current log entry loader simply loads the whole segment into the memory.
-   * In most of the cases this may be good enough considering the main use case
-   * for load log entries is for leader appending to followers.
+   * For a closed segment, the log entry loader memory-maps the segment file
+   * and reads only the requested entry using the offset in its {@link LogRecord}.
    *
-   * In the future we can make the cache loader configurable if necessary.
+   * For an open segment, which is still being written, it loads the whole segment into the memory.
    */
   class LogEntryLoader extends CacheLoader<LogRecord, LogEntryProto> {
     private RaftLogMetrics raftLogMetrics;
+    private final Crc32C checksum = Crc32C.newInstance();
+    /** The memory-mapped segment file; only for closed segments. */
+    private MappedByteBuffer mapped;
 
     LogEntryLoader(RaftLogMetrics raftLogMetrics) {
       this.raftLogMetrics = raftLogMetrics;
     }
 
+    private LogEntryProto loadEntry(LogRecord key) throws IOException {
+      if (mapped == null) {
+        final File file = getSegmentFile();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+          // the file may have extra padding; do not map beyond the last entry.
+          mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, totalSize);
+        }
+      }
+      final LogEntryProto entry = SegmentedRaftLogReader.readEntry(
+          mapped, Math.toIntExact(key.getOffset()), getSegmentFile(), checksum);
+      final TermIndex ti = ServerProtoUtils.toTermIndex(entry);
+      Preconditions.assertTrue(ti.equals(key.getTermIndex()),
+          () -> "Unexpected entry " + ti + " loaded for " + key.getTermIndex() + " in " + LogSegment.this);
+      putEntryCache(ti, entry);
+      return entry;
+    }
+
+    void unmap() {
+      mapped = null;
+    }
+
     @Override
     public LogEntryProto load(LogRecord key) throws IOException {
+      if (!isOpen) {
+        final LogEntryProto entry = loadEntry(key);
+        loadingTimes.incrementAndGet();
+        return entry;
+      }
+
       final File file = getSegmentFile();
       // note the loading should not exceed the endIndex: it is possible that
       // the on-disk log file should be truncated but has not been done yet.
       readSegmentFile(file, startIndex, endIndex, isOpen, getLogCorruptionPolicy(), raftLogMetrics,
-          entry -> entryCache.put(ServerProtoUtils.toTermIndex(entry), entry));
+          entry -> putEntryCache(ServerProtoUtils.toTermIndex(entry), entry));
       loadingTimes.incrementAndGet();
       return Objects.requireNonNull(entryCache.get(key.getTermIndex()));
     }
@@ -208,6 +242,10 @@ class LogSegment implements Comparable<Long> {
    * the entryCache caches the content of log entries.
    */
   private final Map<TermIndex, LogEntryProto> entryCache = new ConcurrentHashMap<>();
+  /** The total serialized size of the entries in {@link #entryCache}. */
+  private final AtomicLong cachedSize = new AtomicLong();
+  /** The last time, in nanoseconds, that an entry of this segment was read. */
+  private volatile long lastAccessTime = System.nanoTime();
   private final Set<TermIndex> configEntries = new HashSet<>();
 
   private LogSegment(RaftStorage storage, boolean isOpen, long start, long end, RaftLogMetrics raftLogMetrics) {
@@ -260,7 +298,7 @@ class LogSegment implements Comparable<Long> {
     final LogRecord record = new LogRecord(totalSize, entry);
     records.add(record);
     if (keepEntryInCache) {
-      entryCache.put(record.getTermIndex(), entry);
+      putEntryCache(record.getTermIndex(), entry);
     }
     if (entry.hasConfigurationEntry()) {
       configEntries.add(record.getTermIndex());
@@ -270,13 +308,40 @@ class LogSegment implements Comparable<Long> {
   }
 
   LogEntryProto getEntryFromCache(TermIndex ti) {
-    return entryCache.get(ti);
+    final LogEntryProto entry = entryCache.get(ti);
+    if (entry != null) {
+      lastAccessTime = System.nanoTime();
+    }
+    return entry;
+  }
+
+  private void putEntryCache(TermIndex key, LogEntryProto value) {
+    final LogEntryProto previous = entryCache.put(key, value);
+    final long previousSize = previous == null? 0: previous.getSerializedSize();
+    cachedSize.addAndGet(value.getSerializedSize() - previousSize);
+  }
+
+  private boolean removeEntryCache(TermIndex key) {
+    final LogEntryProto removed = entryCache.remove(key);
+    if (removed == null) {
+      return false;
+    }
+    cachedSize.addAndGet(-removed.getSerializedSize());
+    return true;
+  }
+
+  private int clearEntryCache() {
+    final int size = entryCache.size();
+    entryCache.clear();
+    cachedSize.set(0);
+    return size;
   }
 
   /**
    * Acquire LogSegment's monitor so that there is no concurrent loading.
    */
   synchronized LogEntryProto loadCache(LogRecord record) throws RaftLogIOException {
+    lastAccessTime = System.nanoTime();
     LogEntryProto entry = entryCache.get(record.getTermIndex());
     if (entry != null) {
       return entry;
@@ -317,9 +382,10 @@ class LogSegment implements Comparable<Long> {
    */
   void truncate(long fromIndex) {
     Preconditions.assertTrue(fromIndex >= startIndex && fromIndex <= endIndex);
+    unmap();
     for (long index = endIndex; index >= fromIndex; index--) {
       LogRecord removed = records.remove(Math.toIntExact(index - startIndex));
-      entryCache.remove(removed.getTermIndex());
+      removeEntryCache(removed.getTermIndex());
       configEntries.remove(removed.getTermIndex());
       totalSize = removed.offset;
     }
@@ -345,8 +411,9 @@ class LogSegment implements Comparable<Long> {
   }
 
   void clear() {
+    unmap();
     records.clear();
-    entryCache.clear();
+    clearEntryCache();
     configEntries.clear();
     endIndex = startIndex - 1;
   }
@@ -355,8 +422,55 @@ class LogSegment implements Comparable<Long> {
     return loadingTimes.get();
   }
 
-  void evictCache() {
-    entryCache.clear();
+  /**
+   * Evict all the cached entries.
+   * @return the number of evicted entries.
+   */
+  int evictCache() {
+    final int evicted = clearEntryCache();
+    unmap();
+    onEvicted(evicted);
+    return evicted;
+  }
+
+  private void onEvicted(int numEvicted) {
+    if (raftLogMetrics != null && numEvicted > 0) {
+      raftLogMetrics.onRaftLogCacheEviction(numEvicted);
+    }
+  }
+
+  /**
+   * Evict the cached entries with index in the range [fromIndex, toIndex).
+   * @return the number of evicted entries.
+   */
+  int evictCache(long fromIndex, long toIndex) {
+    int evicted = 0;
+    final long end = Math.min(toIndex, endIndex + 1);
+    for(long i = Math.max(fromIndex, startIndex); i < end; i++) {
+      final LogRecord record = getLogRecord(i);
+      if (record != null && removeEntryCache(record.getTermIndex())) {
+        evicted++;
+      }
+    }
+    if (entryCache.isEmpty()) {
+      unmap();
+    }
+    onEvicted(evicted);
+    return evicted;
+  }
+
+  /** @return the total serialized size of the cached entries. */
+  long getCachedSize() {
+    return cachedSize.get();
+  }
+
+  long getLastAccessTime() {
+    return lastAccessTime;
+  }
+
+  /** Release the memory-mapped segment file, if there is any. */
+  private synchronized void unmap() {
+    cacheLoader.unmap();
   }
 
   boolean hasCache() {
@@ -36,6 +36,7 @@ import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.statemachine.StateMachine;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.util.AutoCloseableLock;
+import org.apache.ratis.util.IOUtils;
 import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.Preconditions;
 import org.apache.ratis.util.StringUtils;
@@ -44,9 +45,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import com.codahale.metrics.Timer;
@@ -192,6 +198,8 @@ public class SegmentedRaftLog extends RaftLog {
   private final SegmentedRaftLogWorker fileLogWorker;
   private final long segmentMaxSize;
   private final boolean stateMachineCachingEnabled;
+  private final int segmentLoadThreads;
+  private final SharedEntryCache sharedEntryCache;
   private final RaftLogMetrics metricRegistry;
 
   public SegmentedRaftLog(RaftGroupMemberId memberId, RaftServerImpl server,
@@ -214,6 +222,9 @@ public class SegmentedRaftLog extends RaftLog {
     this.fileLogWorker = new SegmentedRaftLogWorker(memberId, stateMachine,
         submitUpdateCommitEvent, server, storage, properties, metricRegistry);
     stateMachineCachingEnabled = RaftServerConfigKeys.Log.StateMachineData.cachingEnabled(properties);
+    this.segmentLoadThreads = RaftServerConfigKeys.Log.segmentLoadThreads(properties);
+    this.sharedEntryCache = new SharedEntryCache(
+        RaftServerConfigKeys.Log.Appender.sharedEntryCacheByteLimit(properties).getSize());
   }
 
   @Override
@@ -238,19 +249,23 @@ public class SegmentedRaftLog extends RaftLog {
       Consumer<LogEntryProto> logConsumer) throws IOException {
     try(AutoCloseableLock writeLock = writeLock()) {
       List<LogPathAndIndex> paths = storage.getStorageDir().getLogSegmentFiles();
-      int i = 0;
-      for (LogPathAndIndex pi : paths) {
-        // During the initial loading, we can only confirm the committed
-        // index based on the snapshot. This means if a log segment is not kept
-        // in cache after the initial loading, later we have to load its content
-        // again for updating the state machine.
-        // TODO we should let raft peer persist its committed index periodically
-        // so that during the initial loading we can apply part of the log
-        // entries to the state machine
-        boolean keepEntryInCache = (paths.size() - i++) <= cache.getMaxCachedSegments();
-        final Timer.Context loadSegmentContext = metricRegistry.getRaftLogLoadSegmentTimer().time();
-        cache.loadSegment(pi, keepEntryInCache, logConsumer);
-        loadSegmentContext.stop();
+      if (segmentLoadThreads > 1 && paths.size() > 1) {
+        loadLogSegmentsInParallel(paths, logConsumer);
+      } else {
+        int i = 0;
+        for (LogPathAndIndex pi : paths) {
+          // During the initial loading, we can only confirm the committed
+          // index based on the snapshot. This means if a log segment is not kept
+          // in cache after the initial loading, later we have to load its content
+          // again for updating the state machine.
+          // TODO we should let raft peer persist its committed index periodically
+          // so that during the initial loading we can apply part of the log
+          // entries to the state machine
+          boolean keepEntryInCache = (paths.size() - i++) <= cache.getMaxCachedSegments();
+          final Timer.Context loadSegmentContext = metricRegistry.getRaftLogLoadSegmentTimer().time();
+          cache.loadSegment(pi, keepEntryInCache, logConsumer);
+          loadSegmentContext.stop();
+        }
       }
 
       // if the largest index is smaller than the last index in snapshot, we do
@@ -266,6 +281,66 @@ public class SegmentedRaftLog extends RaftLog {
     }
   }
 
+  /**
+   * Read and verify the segment files in parallel, and then add the segments to the cache
+   * and pass the entries to the consumer in order, same as the sequential loading.
+   *
+   * In order to bound the memory usage, at most segmentLoadThreads segments are loaded ahead of the one
+   * being consumed.
+   */
+  private void loadLogSegmentsInParallel(List<LogPathAndIndex> paths,
+      Consumer<LogEntryProto> logConsumer) throws IOException {
+    final ForkJoinPool pool = new ForkJoinPool(Math.min(segmentLoadThreads, paths.size()));
+    try {
+      final List<CompletableFuture<LoadedSegment>> futures = new ArrayList<>(paths.size());
+      for (int i = 0; i < paths.size(); i++) {
+        for(; futures.size() < Math.min(i + segmentLoadThreads, paths.size()); ) {
+          futures.add(loadSegmentAsync(paths, futures.size(), logConsumer != null, pool));
+        }
+
+        final LogPathAndIndex pi = paths.get(i);
+        final LoadedSegment loaded = IOUtils.getFromFuture(futures.get(i), () -> getName() + ": load " + pi);
+        futures.set(i, null);
+        if (loaded.segment != null) {
+          cache.addSegment(loaded.segment);
+        }
+        if (logConsumer != null) {
+          loaded.entries.forEach(logConsumer);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private CompletableFuture<LoadedSegment> loadSegmentAsync(List<LogPathAndIndex> paths, int i,
+      boolean collectEntries, ForkJoinPool pool) {
+    final LogPathAndIndex pi = paths.get(i);
+    final boolean keepEntryInCache = (paths.size() - i) <= cache.getMaxCachedSegments();
+    return CompletableFuture.supplyAsync(() -> {
+      final List<LogEntryProto> entries = new ArrayList<>();
+      final Timer.Context loadSegmentContext = metricRegistry.getRaftLogLoadSegmentTimer().time();
+      try {
+        final LogSegment segment = cache.readSegment(pi, keepEntryInCache, collectEntries? entries::add: null);
+        return new LoadedSegment(segment, entries);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      } finally {
+        loadSegmentContext.stop();
+      }
+    }, pool);
+  }
+
+  private static final class LoadedSegment {
+    private final LogSegment segment;
+    private final List<LogEntryProto> entries;
+
+    private LoadedSegment(LogSegment segment, List<LogEntryProto> entries) {
+      this.segment = segment;
+      this.entries = entries;
+    }
+  }
+
   @Override
   public LogEntryProto get(long index) throws RaftLogIOException {
     checkLogState();
@@ -299,13 +374,190 @@ public class SegmentedRaftLog extends RaftLog {
     if (entry == null) {
       throw new RaftLogIOException("Log entry not found: index = " + index);
     }
+    return newEntryWithData(entry);
+  }
+
+  /**
+   * Read the entries from the cache with a single read lock acquisition and segment traversal.
+   * The lock is released only when an entry has to be loaded from its segment file.
+   */
+  @Override
+  public List<EntryWithData> getEntriesWithData(long startIndex, long endIndex, int maxCount, long maxBytes)
+      throws RaftLogIOException {
+    checkLogState();
+    final EntryBatch batch = new EntryBatch(maxCount, maxBytes);
+    for(long index = startIndex; index < endIndex && !batch.isFull(); ) {
+      LogSegment segment = null;
+      LogRecord missed = null;
+      try (AutoCloseableLock readLock = readLock()) {
+        for(; index < endIndex && !batch.isFull(); index++) {
+          if (segment == null || index > segment.getEndIndex()) {
+            segment = cache.getSegment(index);
+          }
+          final LogRecord record = segment == null? null: segment.getLogRecord(index);
+          if (record == null) {
+            break;
+          }
+          final LogEntryProto entry = segment.getEntryFromCache(record.getTermIndex());
+          if (entry == null) {
+            missed = record;
+            break;
+          }
+          metricRegistry.onRaftLogCacheHit();
+          if (!batch.add(entry)) {
+            break;
+          }
+        }
+      }
+      if (missed == null) {
+        break;
+      }
+
+      // the entry is not in the segment's cache. Load the cache without holding the lock.
+      metricRegistry.onRaftLogCacheMiss();
+      checkAndEvictCache();
+      if (!batch.add(segment.loadCache(missed))) {
+        break;
+      }
+      index++;
+    }
+
+    if (batch.entries.isEmpty() && startIndex < endIndex && maxCount > 0) {
+      throw new RaftLogIOException("Log entry not found: index = " + startIndex);
+    }
+    final List<EntryWithData> entries = new ArrayList<>(batch.entries.size());
+    for(LogEntryProto entry : batch.entries) {
+      entries.add(newEntryWithData(entry));
+    }
+    return entries;
+  }
+
+  /**
+   * The entries, with the state machine data read, shared by the log appenders of all the followers
+   * so that the data is read and added to the entry only once, but not once per follower.
+   *
+   * The cache is bounded by the total size of the state machine data.
+   * The entries are released once they are sent to all the followers, see {@link #releaseEntriesBelow(long)}.
+   */
+  private static final class SharedEntryCache {
+    private static final class Element {
+      private final EntryWithData entry;
+      /** The size of the state machine data, which is known once the data is read. */
+      private long numBytes = 0;
+
+      private Element(EntryWithData entry) {
+        this.entry = entry;
+      }
+    }
+
+    private final long byteLimit;
+    private final NavigableMap<Long, Element> entries = new TreeMap<>();
+    private long numBytes = 0;
+
+    private SharedEntryCache(long byteLimit) {
+      this.byteLimit = byteLimit;
+    }
+
+    boolean isEnabled() {
+      return byteLimit > 0;
+    }
+
+    synchronized EntryWithData get(TermIndex ti) {
+      final Element e = entries.get(ti.getIndex());
+      return e != null && e.entry.getTermIndex().equals(ti)? e.entry: null;
+    }
+
+    synchronized void put(EntryWithData e, CompletableFuture<ByteString> future) {
+      final Element element = new Element(e);
+      Optional.ofNullable(entries.put(e.getIndex(), element)).ifPresent(this::subtract);
+      future.whenComplete((data, t) -> onRead(element, data, t));
+      evictIfFull();
+    }
+
+    private synchronized void onRead(Element element, ByteString data, Throwable t) {
+      final long index = element.entry.getIndex();
+      if (entries.get(index) != element) {
+        return; // already evicted
+      }
+      if (t != null) {
+        // do not share a failed read so that it can be retried
+        entries.remove(index);
+        return;
+      }
+      element.numBytes = data != null? data.size(): 0;
+      numBytes += element.numBytes;
+      evictIfFull();
+    }
+
+    private void evictIfFull() {
+      while (!entries.isEmpty() && numBytes > byteLimit) {
+        subtract(entries.pollFirstEntry().getValue());
+      }
+    }
+
+    private void subtract(Element e) {
+      numBytes -= e.numBytes;
+    }
+
+    synchronized void releaseBelow(long index) {
+      for(Iterator<Element> i = entries.headMap(index).values().iterator(); i.hasNext(); ) {
+        subtract(i.next());
+        i.remove();
+      }
+    }
+
+    synchronized void clear() {
+      entries.clear();
+      numBytes = 0;
+    }
+  }
+
+  /** A batch of log entries bounded by the number of entries and the total serialized size. */
+  private static final class EntryBatch {
+    private final int maxCount;
+    private final long maxBytes;
+    private final List<LogEntryProto> entries = new ArrayList<>();
+    private long numBytes = 0;
+
+    private EntryBatch(int maxCount, long maxBytes) {
+      this.maxCount = maxCount;
+      this.maxBytes = maxBytes;
+    }
+
+    boolean isFull() {
+      return entries.size() >= maxCount;
+    }
+
+    /** @return true if the entry is added; otherwise, the byte limit is reached. */
+    boolean add(LogEntryProto entry) {
+      final int size = ServerProtoUtils.getSerializedSize(entry);
+      if (!entries.isEmpty() && numBytes + size > maxBytes) {
+        return false;
+      }
+      entries.add(entry);
+      numBytes += size;
+      return true;
+    }
+  }
+
+  private EntryWithData newEntryWithData(LogEntryProto entry) throws RaftLogIOException {
     if (!ServerProtoUtils.shouldReadStateMachineData(entry)) {
       return new EntryWithData(entry, null);
     }
 
+    final TermIndex ti = ServerProtoUtils.toTermIndex(entry);
+    final EntryWithData shared = sharedEntryCache.get(ti);
+    if (shared != null) {
+      return shared;
+    }
+
     try {
       final CompletableFuture<ByteString> future = stateMachine != null? stateMachine.readStateMachineData(entry): null;
-      return new EntryWithData(entry, future);
+      final EntryWithData entryWithData = new EntryWithData(entry, future);
+      if (future != null && sharedEntryCache.isEnabled()) {
+        sharedEntryCache.put(entryWithData, future);
+      }
+      return entryWithData;
     } catch (Throwable e) {
       final String err = getName() + ": Failed readStateMachineData for " +
           ServerProtoUtils.toLogEntryString(entry);
@@ -314,6 +566,11 @@ public class SegmentedRaftLog extends RaftLog {
     }
   }
 
+  @Override
+  public void releaseEntriesBelow(long index) {
+    sharedEntryCache.releaseBelow(index);
+  }
+
   private void checkAndEvictCache() {
     if (server.shouldEvictCache()) {
       // TODO if the cache is hitting the maximum size and we cannot evict any
@@ -499,6 +756,7 @@ public class SegmentedRaftLog extends RaftLog {
     try(AutoCloseableLock writeLock = writeLock()) {
       super.close();
       cache.clear();
+      sharedEntryCache.clear();
     }
     fileLogWorker.close();
     storage.close();
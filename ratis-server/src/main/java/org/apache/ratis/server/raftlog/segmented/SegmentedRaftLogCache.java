@@ -17,6 +17,7 @@
  */
 package org.apache.ratis.server.raftlog.segmented;
 
+import com.codahale.metrics.Gauge;
 import org.apache.ratis.conf.RaftProperties;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.server.RaftServerConfigKeys;
@@ -26,7 +27,6 @@ import org.apache.ratis.server.metrics.RaftLogMetrics;
 import org.apache.ratis.server.protocol.TermIndex;
 import org.apache.ratis.server.raftlog.RaftLog;
 import org.apache.ratis.server.storage.RaftStorage;
-import org.apache.ratis.server.raftlog.segmented.CacheInvalidationPolicy.CacheInvalidationPolicyDefault;
 import org.apache.ratis.server.raftlog.segmented.LogSegment.LogRecord;
 import org.apache.ratis.server.storage.RaftStorageDirectory.LogPathAndIndex;
 import org.apache.ratis.util.AutoCloseableLock;
@@ -144,6 +144,12 @@ class SegmentedRaftLogCache {
       }
     }
 
+    long getCachedSize() {
+      try(AutoCloseableLock readLock = readLock()) {
+        return segments.stream().mapToLong(LogSegment::getCachedSize).sum();
+      }
+    }
+
     LogSegment getLast() {
       try(AutoCloseableLock readLock = readLock()) {
         return segments.isEmpty()? null: segments.get(segments.size() - 1);
@@ -294,7 +300,7 @@ class SegmentedRaftLogCache {
   private final RaftLogMetrics raftLogMetrics;
 
   private final int maxCachedSegments;
-  private final CacheInvalidationPolicy evictionPolicy = new CacheInvalidationPolicyDefault();
+  private final CacheInvalidationPolicy evictionPolicy;
 
   SegmentedRaftLogCache(Object name, RaftStorage storage, RaftProperties properties) {
     this(name, storage, properties, null);
@@ -306,7 +312,11 @@ class SegmentedRaftLogCache {
     this.closedSegments = new LogSegmentList(name);
     this.storage = storage;
     maxCachedSegments = RaftServerConfigKeys.Log.maxCachedSegmentNum(properties);
+    this.evictionPolicy = CacheInvalidationPolicy.newInstance(properties);
     this.raftLogMetrics = raftLogMetrics;
+    if (raftLogMetrics != null) {
+      raftLogMetrics.addCacheSizeGauge(() -> (Gauge<Long>) closedSegments::getCachedSize);
+    }
   }
 
   int getMaxCachedSegments() {
@@ -315,19 +325,30 @@ class SegmentedRaftLogCache {
 
   void loadSegment(LogPathAndIndex pi, boolean keepEntryInCache,
       Consumer<LogEntryProto> logConsumer) throws IOException {
-    LogSegment logSegment = LogSegment.loadSegment(storage, pi.getPath().toFile(),
-        pi.startIndex, pi.endIndex, pi.isOpen(), keepEntryInCache, logConsumer, raftLogMetrics);
+    LogSegment logSegment = readSegment(pi, keepEntryInCache, logConsumer);
     if (logSegment != null) {
       addSegment(logSegment);
     }
   }
 
+  /**
+   * Read and verify the given segment file without adding it to this cache.
+   * Unlike the other methods, it can be called concurrently for different segment files.
+   *
+   * @return the segment, or null if the segment file does not have any entries.
+   */
+  LogSegment readSegment(LogPathAndIndex pi, boolean keepEntryInCache,
+      Consumer<LogEntryProto> logConsumer) throws IOException {
+    return LogSegment.loadSegment(storage, pi.getPath().toFile(),
+        pi.startIndex, pi.endIndex, pi.isOpen(), keepEntryInCache, logConsumer, raftLogMetrics);
+  }
+
   long getCachedSegmentNum() {
     return closedSegments.countCached();
   }
 
   boolean shouldEvict() {
-    return closedSegments.countCached() > maxCachedSegments;
+    return evictionPolicy.shouldEvict(closedSegments, maxCachedSegments);
   }
 
   void evictCache(long[] followerIndices, long flushedIndex,
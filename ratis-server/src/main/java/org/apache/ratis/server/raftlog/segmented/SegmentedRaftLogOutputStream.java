@@ -21,7 +21,7 @@ import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.thirdparty.com.google.protobuf.CodedOutputStream;
 import org.apache.ratis.util.FileUtils;
 import org.apache.ratis.util.IOUtils;
-import org.apache.ratis.util.PureJavaCrc32C;
+import org.apache.ratis.util.Crc32C;
 import org.apache.ratis.util.function.CheckedConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,10 +29,10 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.zip.Checksum;
 
 public class SegmentedRaftLogOutputStream implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(SegmentedRaftLogOutputStream.class);
@@ -50,7 +50,21 @@ public class SegmentedRaftLogOutputStream implements Closeable {
   private File file;
   private FileChannel fc; // channel of the file stream for sync
   private BufferedWriteChannel out; // buffered FileChannel for writing
-  private final Checksum checksum;
+  private final Crc32C checksum;
+  /** Write to {@link #out} and update {@link #checksum}. */
+  private final OutputStream checksummedOut = new OutputStream() {
+    @Override
+    public void write(int b) throws IOException {
+      checksum.update(b);
+      out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      checksum.update(b, off, len);
+      out.write(b, off, len);
+    }
+  };
 
   private final long segmentMaxSize;
   private final long preallocatedSize;
@@ -59,8 +73,14 @@ public class SegmentedRaftLogOutputStream implements Closeable {
   public SegmentedRaftLogOutputStream(File file, boolean append, long segmentMaxSize,
       long preallocatedSize, int bufferSize)
       throws IOException {
+    this(file, append, segmentMaxSize, preallocatedSize, bufferSize, Crc32C.newInstance());
+  }
+
+  public SegmentedRaftLogOutputStream(File file, boolean append, long segmentMaxSize,
+      long preallocatedSize, int bufferSize, Crc32C checksum)
+      throws IOException {
     this.file = file;
-    this.checksum = new PureJavaCrc32C();
+    this.checksum = checksum;
     this.segmentMaxSize = segmentMaxSize;
     this.preallocatedSize = preallocatedSize;
     RandomAccessFile rp = new RandomAccessFile(file, "rw");
@@ -105,17 +125,30 @@ public class SegmentedRaftLogOutputStream implements Closeable {
 
     preallocateIfNecessary(bufferSize + 4);
 
-    byte[] buf = new byte[bufferSize];
-    CodedOutputStream cout = CodedOutputStream.newInstance(buf);
-    cout.writeUInt32NoTag(serialized);
-    entry.writeTo(cout);
+    if (bufferSize + 4 <= out.capacity()) {
+      // serialize and checksum the entry in place; no intermediate array
+      out.writeDirectly(bufferSize + 4, buffer -> {
+        final int start = buffer.position();
+        final CodedOutputStream cout = CodedOutputStream.newInstance(buffer);
+        cout.writeUInt32NoTag(serialized);
+        entry.writeTo(cout);
+        cout.flush();
+
+        checksum.reset();
+        checksum.update(buffer, start, bufferSize);
+        buffer.putInt((int) checksum.getValue());
+      });
+      return;
+    }
 
+    // the entry is larger than the write buffer:
+    // stream it through the buffer, so that the payload is not copied to a full-size intermediate array
     checksum.reset();
-    checksum.update(buf, 0, buf.length);
-    final int sum = (int) checksum.getValue();
-
-    out.write(buf);
-    writeInt(sum);
+    final CodedOutputStream cout = CodedOutputStream.newInstance(checksummedOut);
+    cout.writeUInt32NoTag(serialized);
+    entry.writeTo(cout);
+    cout.flush();
+    writeInt((int) checksum.getValue());
   }
 
   private void writeInt(int v) throws IOException {
@@ -160,6 +193,27 @@ public class SegmentedRaftLogOutputStream implements Closeable {
     out.flush();
   }
 
+  /**
+   * Write the buffered data to the file without syncing it.
+   * @return the stream to be passed to a sync thread.
+   */
+  SegmentedRaftLogOutputStream flushBuffer() throws IOException {
+    if (out == null) {
+      throw new IOException("Trying to use aborted output stream");
+    }
+    out.flushBuffer();
+    return this;
+  }
+
+  /** Sync the data previously written by {@link #flushBuffer()}. */
+  void sync() throws IOException {
+    final BufferedWriteChannel channel = out;
+    if (channel == null) {
+      throw new IOException("Trying to use aborted output stream");
+    }
+    channel.sync();
+  }
+
   private void preallocate() throws IOException {
     fill.position(0);
     long targetSize = Math.min(segmentMaxSize - fc.size(), preallocatedSize);
@@ -26,12 +26,13 @@ import org.apache.ratis.thirdparty.com.google.protobuf.CodedOutputStream;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.util.IOUtils;
 import org.apache.ratis.util.Preconditions;
-import org.apache.ratis.util.PureJavaCrc32C;
+import org.apache.ratis.util.Crc32C;
 import org.apache.ratis.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.zip.Checksum;
 
 import com.codahale.metrics.Timer;
@@ -128,6 +129,50 @@ class SegmentedRaftLogReader implements Closeable {
 
   private static final int maxOpSize = 32 * 1024 * 1024;
 
+  /**
+   * Read and verify a single log entry at the given offset of a buffer,
+   * which usually is a memory-mapped segment file.
+   * The position and the limit of the given buffer are not changed.
+   *
+   * @param buffer the buffer containing the log entry.
+   * @param offset the absolute offset of the log entry in the buffer.
+   * @param file the segment file, for error messages.
+   * @param checksum the checksum to verify the log entry.
+   * @return the log entry.
+   */
+  static LogEntryProto readEntry(ByteBuffer buffer, int offset, File file, Crc32C checksum)
+      throws IOException {
+    final ByteBuffer b = buffer.duplicate();
+    b.position(offset);
+    final int entryLength = CodedInputStream.newInstance(b).readRawVarint32();
+    if (entryLength > maxOpSize) {
+      throw new IOException("Entry has size " + entryLength
+          + ", but maxOpSize = " + maxOpSize + " in " + file + " at offset " + offset);
+    }
+    final int varintLength = CodedOutputStream.computeUInt32SizeNoTag(entryLength);
+    final int totalLength = varintLength + entryLength;
+    if (offset + totalLength + 4 > b.capacity()) {
+      throw new EOFException("Entry at offset " + offset + " with length " + totalLength
+          + " exceeds the end of " + file + ", size=" + b.capacity());
+    }
+
+    // verify checksum
+    checksum.reset();
+    checksum.update(b, offset, totalLength);
+    final int expectedChecksum = b.getInt(offset + totalLength);
+    final int calculatedChecksum = (int) checksum.getValue();
+    if (expectedChecksum != calculatedChecksum) {
+      final String s = StringUtils.format("Log entry corrupted: Calculated checksum is %08X but read checksum is %08X.",
+          calculatedChecksum, expectedChecksum);
+      throw new ChecksumException(s, offset);
+    }
+
+    // parse the buffer
+    b.limit(offset + totalLength);
+    b.position(offset + varintLength);
+    return LogEntryProto.parseFrom(b);
+  }
+
   private final File file;
   private final LimitedInputStream limiter;
   private final DataInputStream in;
@@ -140,7 +185,7 @@ class SegmentedRaftLogReader implements Closeable {
     this.limiter = new LimitedInputStream(
         new BufferedInputStream(new FileInputStream(file)));
     in = new DataInputStream(limiter);
-    checksum = new PureJavaCrc32C();
+    checksum = Crc32C.newInstance();
     this.raftLogMetrics = raftLogMetrics;
   }
 
@@ -36,6 +36,7 @@ import org.apache.ratis.server.raftlog.segmented.SegmentedRaftLog.Task;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.statemachine.StateMachine;
 import org.apache.ratis.util.*;
+import org.apache.ratis.util.function.CheckedRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,6 +96,8 @@ class SegmentedRaftLogWorker implements Runnable {
   static class WriteLogTasks {
     private final Queue<WriteLog> q = new LinkedList<>();
     private volatile long index;
+    /** Set when a sync has failed; the tasks offered afterward are failed immediately. */
+    private IOException failure;
 
     void offerOrCompleteFuture(WriteLog writeLog) {
       if (writeLog.getEndIndex() <= index || !offer(writeLog)) {
@@ -106,10 +109,21 @@ class SegmentedRaftLogWorker implements Runnable {
       if (writeLog.getEndIndex() <= index) { // compare again synchronized
         return false;
       }
+      if (failure != null) {
+        writeLog.failed(failure);
+        return true;
+      }
       q.offer(writeLog);
       return true;
     }
 
+    synchronized void failAll(IOException e) {
+      failure = e;
+      for(WriteLog polled; (polled = q.poll()) != null; ) {
+        polled.failed(e);
+      }
+    }
+
     synchronized void updateIndex(long i) {
       index = i;
 
@@ -136,6 +150,8 @@ class SegmentedRaftLogWorker implements Runnable {
   private final WriteLogTasks writeTasks = new WriteLogTasks();
   private volatile boolean running = true;
   private final Thread workerThread;
+  /** Non-null iff group commit is enabled. */
+  private final GroupCommitSyncer syncer;
 
   private final RaftStorage storage;
   private volatile SegmentedRaftLogOutputStream out;
@@ -152,6 +168,8 @@ class SegmentedRaftLogWorker implements Runnable {
    * has not been flushed.
    */
   private int pendingFlushNum = 0;
+  /** The size of the entries that have been written but has not been flushed. */
+  private long pendingFlushBytes = 0;
   /** the index of the last entry that has been written */
   private long lastWrittenIndex;
   /** the largest index of the entry that has been flushed */
@@ -161,6 +179,7 @@ class SegmentedRaftLogWorker implements Runnable {
 
   private final long segmentMaxSize;
   private final long preallocatedSize;
+  private final Supplier<Crc32C> checksumSupplier;
   private final int bufferSize;
   private final RaftServerImpl server;
 
@@ -184,12 +203,15 @@ class SegmentedRaftLogWorker implements Runnable {
 
     this.segmentMaxSize = RaftServerConfigKeys.Log.segmentSizeMax(properties).getSize();
     this.preallocatedSize = RaftServerConfigKeys.Log.preallocatedSize(properties).getSize();
+    this.checksumSupplier = Crc32C.newSupplier(RaftServerConfigKeys.Log.checksumType(properties));
     this.bufferSize = RaftServerConfigKeys.Log.writeBufferSize(properties).getSizeInt();
     this.forceSyncNum = RaftServerConfigKeys.Log.forceSyncNum(properties);
 
     this.stateMachineDataPolicy = new StateMachineDataPolicy(properties);
 
     this.workerThread = new Thread(this, name);
+    this.syncer = RaftServerConfigKeys.Log.GroupCommit.enabled(properties)?
+        new GroupCommitSyncer(properties): null;
 
     // Server Id can be null in unit tests
     metricRegistry.addDataQueueSizeGauge(queue);
@@ -208,7 +230,10 @@ class SegmentedRaftLogWorker implements Runnable {
     if (openSegmentFile != null) {
       Preconditions.assertTrue(openSegmentFile.exists());
       out = new SegmentedRaftLogOutputStream(openSegmentFile, true, segmentMaxSize,
-          preallocatedSize, bufferSize);
+          preallocatedSize, bufferSize, checksumSupplier.get());
+    }
+    if (syncer != null) {
+      syncer.start();
     }
     workerThread.start();
   }
@@ -220,6 +245,9 @@ class SegmentedRaftLogWorker implements Runnable {
       workerThread.join(3000);
     } catch (InterruptedException ignored) {
     }
+    if (syncer != null) {
+      syncer.close();
+    }
     IOUtils.cleanup(LOG, out);
     LOG.info("{} close()", name);
   }
@@ -233,6 +261,7 @@ class SegmentedRaftLogWorker implements Runnable {
     lastWrittenIndex = lastSnapshotIndex;
     flushIndex.setUnconditionally(lastSnapshotIndex, infoIndexChange);
     pendingFlushNum = 0;
+    pendingFlushBytes = 0;
   }
 
   @Override
@@ -341,27 +370,47 @@ class SegmentedRaftLogWorker implements Runnable {
   private void flushWrites() throws IOException {
     if (out != null) {
       LOG.debug("{}: flush {}", name, out);
-      final Timer.Context timerContext = logFlushTimer.time();
-      try {
-        final CompletableFuture<Void> f = stateMachine != null ?
-            stateMachine.flushStateMachineData(lastWrittenIndex) :
-            CompletableFuture.completedFuture(null);
-        if (stateMachineDataPolicy.isSync()) {
-          stateMachineDataPolicy.getFromFuture(f, () -> this + "-flushStateMachineData");
-        }
-        final Timer.Context logSyncTimerContext = raftLogSyncTimer.time();
-        out.flush();
-        logSyncTimerContext.stop();
-        if (!stateMachineDataPolicy.isSync()) {
-          IOUtils.getFromFuture(f, () -> this + "-flushStateMachineData");
-        }
-      } finally {
-        timerContext.stop();
+      if (syncer != null) {
+        // hand over to the sync thread, which completes the futures after the sync
+        syncer.request(out.flushBuffer(), lastWrittenIndex, pendingFlushBytes);
+        pendingFlushNum = 0;
+        pendingFlushBytes = 0;
+        return;
       }
+      raftLogMetrics.onRaftLogFlush();
+      flush(out::flush, lastWrittenIndex);
       updateFlushedIndexIncreasingly();
     }
   }
 
+  /** Flush the state machine data and then sync the log up to the given index. */
+  private void flush(CheckedRunnable<IOException> syncLog, long index) throws IOException {
+    final Timer.Context timerContext = logFlushTimer.time();
+    try {
+      final CompletableFuture<Void> f = stateMachine != null ?
+          stateMachine.flushStateMachineData(index) :
+          CompletableFuture.completedFuture(null);
+      if (stateMachineDataPolicy.isSync()) {
+        stateMachineDataPolicy.getFromFuture(f, () -> this + "-flushStateMachineData");
+      }
+      final Timer.Context logSyncTimerContext = raftLogSyncTimer.time();
+      syncLog.run();
+      logSyncTimerContext.stop();
+      if (!stateMachineDataPolicy.isSync()) {
+        IOUtils.getFromFuture(f, () -> this + "-flushStateMachineData");
+      }
+    } finally {
+      timerContext.stop();
+    }
+  }
+
+  /** Wait for the sync thread, if there is any, to complete all the pending syncs. */
+  private void waitForPendingSyncs() throws IOException {
+    if (syncer != null) {
+      syncer.drain();
+    }
+  }
+
   private void updateFlushedIndexIncreasingly() {
     final long i = lastWrittenIndex;
     flushIndex.updateIncreasingly(i, traceIndexChange);
@@ -489,8 +538,8 @@ class SegmentedRaftLogWorker implements Runnable {
       out.write(entry);
       lastWrittenIndex = entry.getIndex();
       pendingFlushNum++;
+      pendingFlushBytes += getSerializedSize();
       if (shouldFlush()) {
-        raftLogMetrics.onRaftLogFlush();
         flushWrites();
       }
     }
@@ -518,6 +567,7 @@ class SegmentedRaftLogWorker implements Runnable {
 
     @Override
     public void execute() throws IOException {
+      waitForPendingSyncs();
       IOUtils.cleanup(LOG, out);
       out = null;
 
@@ -570,7 +620,7 @@ class SegmentedRaftLogWorker implements Runnable {
           openFile, name);
       Preconditions.assertTrue(out == null && pendingFlushNum == 0);
       out = new SegmentedRaftLogOutputStream(openFile, false, segmentMaxSize,
-          preallocatedSize, bufferSize);
+          preallocatedSize, bufferSize, checksumSupplier.get());
       Preconditions.assertTrue(openFile.exists(), "Failed to create file %s for %s",
           openFile.getAbsolutePath(), name);
       LOG.info("{}: created new log segment {}", name, openFile);
@@ -594,6 +644,7 @@ class SegmentedRaftLogWorker implements Runnable {
 
     @Override
     void execute() throws IOException {
+      waitForPendingSyncs();
       IOUtils.cleanup(null, out);
       out = null;
       CompletableFuture<Void> stateMachineFuture = null;
@@ -670,4 +721,136 @@ class SegmentedRaftLogWorker implements Runnable {
   long getFlushIndex() {
     return flushIndex.get();
   }
+
+  /**
+   * The group commit stage.
+   *
+   * The worker thread writes the entries to the file and then hands them over to this class.
+   * The sync thread waits for a short window, which adapts to the measured sync latency,
+   * and then syncs all the outstanding writes together.
+   * The writes handed over during a sync are batched into the next sync.
+   */
+  private class GroupCommitSyncer implements Runnable {
+    private final Thread syncThread;
+    private final long windowMaxNanos;
+    private final long byteLimit;
+    /** The current window, i.e. the mean sync latency bounded by the max window. */
+    private volatile long windowNanos = 0;
+
+    /** The stream to be synced; null means there is no pending request. */
+    private SegmentedRaftLogOutputStream pendingStream;
+    private long pendingIndex;
+    private long pendingBytes;
+    private boolean syncing = false;
+    private IOException failure;
+
+    GroupCommitSyncer(RaftProperties properties) {
+      this.syncThread = new Thread(this, name + "-sync");
+      this.windowMaxNanos = RaftServerConfigKeys.Log.GroupCommit.windowMax(properties).toLong(TimeUnit.NANOSECONDS);
+      this.byteLimit = RaftServerConfigKeys.Log.GroupCommit.byteLimit(properties).getSize();
+    }
+
+    void start() {
+      syncThread.start();
+    }
+
+    void close() {
+      syncThread.interrupt();
+      try {
+        syncThread.join(3000);
+      } catch (InterruptedException ignored) {
+      }
+    }
+
+    /** Request to sync the given stream up to the given index. */
+    synchronized void request(SegmentedRaftLogOutputStream stream, long index, long bytes) throws IOException {
+      checkFailure();
+      Preconditions.assertTrue(pendingStream == null || pendingStream == stream,
+          () -> name + ": stream changed from " + pendingStream + " to " + stream + " without a sync");
+      pendingStream = stream;
+      pendingIndex = index;
+      pendingBytes += bytes;
+      notifyAll();
+    }
+
+    /** Wait until all the requested syncs have completed. */
+    synchronized void drain() throws IOException {
+      try {
+        while (failure == null && (pendingStream != null || syncing)) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw IOUtils.toInterruptedIOException(name + ": interrupted when waiting for pending syncs", e);
+      }
+      checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+      if (failure != null) {
+        throw new RaftLogIOException("Log sync already failed", failure);
+      }
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        final SegmentedRaftLogOutputStream stream;
+        final long index;
+        synchronized (this) {
+          try {
+            while (pendingStream == null) {
+              wait();
+            }
+            // wait for more writes within the window unless the byte limit is reached
+            for(final long deadline = System.nanoTime() + windowNanos; pendingBytes < byteLimit; ) {
+              final long remaining = deadline - System.nanoTime();
+              if (remaining <= 0) {
+                break;
+              }
+              TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+          } catch (InterruptedException e) {
+            if (running) {
+              LOG.warn("{} got interrupted while still running", syncThread.getName());
+            }
+            Thread.currentThread().interrupt();
+            return;
+          }
+          stream = pendingStream;
+          index = pendingIndex;
+          pendingStream = null;
+          pendingBytes = 0;
+          syncing = true;
+        }
+
+        try {
+          sync(stream, index);
+        } catch (Throwable t) {
+          LOG.error("{}: Failed to sync log up to index {}", syncThread.getName(), index, t);
+          final IOException e = t instanceof IOException? (IOException) t
+              : new RaftLogIOException("Failed to sync log up to index " + index, t);
+          synchronized (this) {
+            failure = e;
+          }
+          writeTasks.failAll(e);
+        } finally {
+          synchronized (this) {
+            syncing = false;
+            notifyAll();
+          }
+        }
+      }
+    }
+
+    private void sync(SegmentedRaftLogOutputStream stream, long index) throws IOException {
+      raftLogMetrics.onRaftLogFlush();
+      flush(stream::sync, index);
+      windowNanos = Math.min(windowMaxNanos, (long) raftLogSyncTimer.getSnapshot().getMean());
+
+      flushIndex.updateToMax(index, traceIndexChange);
+      Optional.ofNullable(submitUpdateCommitEvent).ifPresent(Runnable::run);
+      writeTasks.updateIndex(index);
+    }
+  }
 }
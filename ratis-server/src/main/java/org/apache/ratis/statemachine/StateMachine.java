@@ -29,15 +29,20 @@ import org.apache.ratis.server.storage.RaftStorage;
 import org.apache.ratis.proto.RaftProtos.RoleInfoProto;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.LifeCycle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * StateMachine is the entry point for the custom implementation of replicated state as defined in
@@ -155,6 +160,44 @@ public interface StateMachine extends Closeable {
     return null;
   }
 
+  /**
+   * Open a channel for the bulk data streamed to this server out of the raft log.
+   * The stream is identified by the client id and the call id of the given request.
+   * The data is written to the channel in order and then the channel is closed.
+   * The client commits a log entry referring to the data afterward.
+   *
+   * The client only requires a majority of the servers to receive the data;
+   * the stream is aborted in the other servers, see {@link #abortStream(RaftClientRequest, Throwable)}.
+   * Therefore, the data may be missing when the entry is applied in a minority of the servers,
+   * including the servers restarted with the data lost or added to the group afterward.
+   * The data is not repaired by the server.
+   * {@link #applyTransaction(TransactionContext)} must detect the missing data and handle it,
+   * e.g. by fetching the data from the other servers.
+   *
+   * The default implementation does not support data streaming.
+   *
+   * @return a future of the channel to which the data is written.
+   */
+  default CompletableFuture<WritableByteChannel> stream(RaftClientRequest request) {
+    return JavaUtils.completeExceptionally(new UnsupportedOperationException(
+        getClass() + " does not support data streaming."));
+  }
+
+  /**
+   * Abort the stream opened by {@link #stream(RaftClientRequest)} before the channel is closed,
+   * e.g. the client has aborted the stream, the connection has failed or a write has failed.
+   * The stream is identified by the client id and the call id of the given request.
+   * The server does not close an aborted channel.
+   * The state machine should discard the data written so far and release the channel.
+   *
+   * The default implementation does nothing.
+   *
+   * @return a future completed when the stream is aborted.
+   */
+  default CompletableFuture<Void> abortStream(RaftClientRequest request, Throwable cause) {
+    return CompletableFuture.completedFuture(null);
+  }
+
   /**
    * This is called before the transaction passed from the StateMachine is appended to the raft log.
    * This method will be called from log append and having the same strict serial order that the
@@ -205,6 +248,45 @@ public interface StateMachine extends Closeable {
   // TODO: We do not need to return CompletableFuture
   CompletableFuture<Message> applyTransaction(TransactionContext trx);
 
+  /**
+   * Apply a batch of committed log entries to the state machine,
+   * when {@link RaftServerConfigKeys.Apply.Batch#ENABLED_KEY} is set.
+   * The transactions are given in the log order and they are contiguous in the log.
+   * The state machine may amortize the cost, such as locking and index updates, across the batch.
+   *
+   * The default implementation calls {@link #applyTransaction(TransactionContext)} for each transaction.
+   *
+   * @param trxs the transactions, each including the log entry that has been committed to a quorum
+   *             of the raft peers
+   * @return a future of the replies, one for each transaction in the same order.
+   *         When the future completes exceptionally, or the number of the replies does not match,
+   *         all the transactions in the batch are failed.
+   */
+  default CompletableFuture<List<Message>> applyTransactions(List<TransactionContext> trxs) {
+    final List<CompletableFuture<Message>> futures = new ArrayList<>(trxs.size());
+    for (TransactionContext trx : trxs) {
+      futures.add(applyTransaction(trx));
+    }
+    return JavaUtils.allOf(futures).thenApply(
+        v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  }
+
+  /**
+   * Return the partition key of the given transaction for the parallel apply;
+   * see {@link RaftServerConfigKeys.Apply.Parallel}.
+   * The transactions with equal keys are applied in the log order by the same executor.
+   * A null key means that the transaction may conflict with all the other transactions
+   * so that it is applied after all the preceding transactions have completed
+   * and before any of the following transactions is applied.
+   *
+   * This method is called serially, after {@link #applyTransactionSerial(TransactionContext)}.
+   * @param trx the transaction to be applied
+   * @return the partition key, or null if the transaction must be applied exclusively.
+   */
+  default Object getPartitionKey(TransactionContext trx) {
+    return null;
+  }
+
   TermIndex getLastAppliedTermIndex();
 
   /**
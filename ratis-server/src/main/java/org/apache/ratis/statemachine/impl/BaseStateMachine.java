@@ -32,15 +32,21 @@ import org.apache.ratis.statemachine.SnapshotInfo;
 import org.apache.ratis.statemachine.StateMachine;
 import org.apache.ratis.statemachine.StateMachineStorage;
 import org.apache.ratis.statemachine.TransactionContext;
+import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.LifeCycle;
 import org.apache.ratis.util.Preconditions;
+import org.apache.ratis.util.ProtoUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Base implementation for StateMachines.
@@ -100,6 +106,27 @@ public class BaseStateMachine implements StateMachine {
         Message.valueOf(trx.getLogEntry().getStateMachineLogEntry().getLogData()));
   }
 
+  /**
+   * Apply a batch of messages sent by a client with batching enabled.
+   * The messages are applied by the given function in order
+   * and the reply is the batch of their replies in the same order.
+   */
+  protected CompletableFuture<Message> applyBatch(TransactionContext trx,
+      Function<Message, CompletableFuture<Message>> applyMessage) {
+    final List<Message> messages;
+    try {
+      messages = ProtoUtils.toMessages(trx.getLogEntry().getStateMachineLogEntry().getLogData());
+    } catch (IOException e) {
+      return JavaUtils.completeExceptionally(e);
+    }
+    final List<CompletableFuture<Message>> replies = new ArrayList<>(messages.size());
+    for(Message m : messages) {
+      replies.add(applyMessage.apply(m));
+    }
+    return JavaUtils.allOf(replies).thenApply(v -> Message.valueOf(ProtoUtils.toMessageBatch(
+        replies.stream().map(CompletableFuture::join).collect(Collectors.toList()))));
+  }
+
   @Override
   public TermIndex getLastAppliedTermIndex() {
     return lastAppliedTermIndex.get();
@@ -124,6 +124,13 @@ public abstract class LogAppenderTests<CLUSTER extends MiniRaftCluster>
     runWithNewCluster(3, this::runTest);
   }
 
+  @Test
+  public void testPipelinedAppends() throws Exception {
+    RaftServerConfigKeys.Log.Appender.setBufferElementLimit(getProperties(), 1);
+    RaftServerConfigKeys.Log.Appender.setOutstandingAppendsMax(getProperties(), 4);
+    runWithNewCluster(3, this::runTest);
+  }
+
   @Test
   public void testFollowerHeartbeatMetric() throws IOException, InterruptedException {
 
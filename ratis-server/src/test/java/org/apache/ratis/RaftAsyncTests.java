@@ -17,29 +17,40 @@
  */
 package org.apache.ratis;
 
+import com.codahale.metrics.Counter;
 import org.apache.log4j.Level;
 import org.apache.ratis.RaftTestUtil.SimpleMessage;
 import org.apache.ratis.client.RaftClient;
 import org.apache.ratis.client.RaftClientConfigKeys;
 import org.apache.ratis.client.impl.RaftClientTestUtil;
 import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.metrics.RatisMetricRegistry;
 import org.apache.ratis.proto.RaftProtos.CommitInfoProto;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.protocol.AlreadyClosedException;
+import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.Message;
 import org.apache.ratis.protocol.RaftClientReply;
+import org.apache.ratis.protocol.RaftClientRequest;
 import org.apache.ratis.protocol.RaftGroup;
+import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftPeer;
 import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.protocol.RaftRetryFailureException;
 import org.apache.ratis.protocol.StateMachineException;
+import org.apache.ratis.protocol.TimeoutIOException;
 import org.apache.ratis.retry.RetryPolicies;
 import org.apache.ratis.retry.RetryPolicies.RetryLimited;
 import org.apache.ratis.retry.RetryPolicy;
 import org.apache.ratis.server.RaftServerConfigKeys;
 import org.apache.ratis.server.impl.RaftServerImpl;
+import org.apache.ratis.server.impl.RaftServerTestUtil;
+import org.apache.ratis.server.metrics.RatisMetricNames;
+import org.apache.ratis.server.metrics.RatisMetrics;
+import org.apache.ratis.statemachine.KeyedStateMachine4Testing;
 import org.apache.ratis.statemachine.SimpleStateMachine4Testing;
 import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.statemachine.TransactionContext;
 import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.thirdparty.com.google.protobuf.InvalidProtocolBufferException;
 import org.apache.ratis.util.JavaUtils;
@@ -52,15 +63,21 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.apache.ratis.RaftTestUtil.waitForLeader;
 
@@ -342,6 +359,406 @@ public abstract class RaftAsyncTests<CLUSTER extends MiniRaftCluster> extends Ba
     }
   }
 
+  @Test
+  public void testLinearizableReadAsync() throws Exception {
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.Option.LINEARIZABLE);
+    runWithNewCluster(NUM_SERVERS, cluster -> runTestLinearizableReadAsync(cluster, RaftClient::sendReadOnlyAsync));
+
+    //reset for the other tests
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.OPTION_DEFAULT);
+  }
+
+  @Test
+  public void testLeaderLeaseReadAsync() throws Exception {
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.Option.LINEARIZABLE);
+    RaftServerConfigKeys.Read.LeaderLease.setEnabled(getProperties(), true);
+    runWithNewCluster(NUM_SERVERS, this::runTestLeaderLeaseReadAsync);
+
+    //reset for the other tests
+    RaftServerConfigKeys.Read.LeaderLease.setEnabled(getProperties(),
+        RaftServerConfigKeys.Read.LeaderLease.ENABLED_DEFAULT);
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.OPTION_DEFAULT);
+  }
+
+  @Test
+  public void testFollowerReadAsync() throws Exception {
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.Option.LINEARIZABLE);
+    runWithNewCluster(NUM_SERVERS, this::runTestFollowerReadAsync);
+
+    //reset for the other tests
+    RaftServerConfigKeys.Read.setOption(getProperties(), RaftServerConfigKeys.Read.OPTION_DEFAULT);
+  }
+
+  @Test
+  public void testParallelApplyAsync() throws Exception {
+    RaftServerConfigKeys.Apply.Parallel.setEnabled(getProperties(), true);
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        KeyedStateMachine4Testing.class, StateMachine.class);
+    runWithNewCluster(NUM_SERVERS, this::runTestParallelApplyAsync);
+
+    //reset for the other tests
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        SimpleStateMachine4Testing.class, StateMachine.class);
+    RaftServerConfigKeys.Apply.Parallel.setEnabled(getProperties(),
+        RaftServerConfigKeys.Apply.Parallel.ENABLED_DEFAULT);
+  }
+
+  void runTestParallelApplyAsync(CLUSTER cluster) throws Exception {
+    final int numKeys = 4;
+    final int numPerKey = 20;
+    final List<CompletableFuture<RaftClientReply>> futures = new ArrayList<>();
+    try (RaftClient client = cluster.createClient()) {
+      for (int i = 0; i < numPerKey; i++) {
+        for (int k = 0; k < numKeys; k++) {
+          futures.add(client.sendAsync(new SimpleMessage("k" + k + ":" + i)));
+        }
+        if (i % 5 == 4) {
+          // a transaction without a partition key
+          futures.add(client.sendAsync(new SimpleMessage("exclusive" + i)));
+        }
+      }
+      for (CompletableFuture<RaftClientReply> f : futures) {
+        Assert.assertTrue(f.get().isSuccess());
+      }
+    }
+
+    final List<Integer> expected = IntStream.range(0, numPerKey).boxed().collect(Collectors.toList());
+    int maxRunning = 0;
+    for (RaftServerImpl server : cluster.iterateServerImpls()) {
+      final KeyedStateMachine4Testing stateMachine = KeyedStateMachine4Testing.get(server);
+      JavaUtils.attempt(() -> stateMachine.getNumApplied() == futures.size(),
+          50, HUNDRED_MILLIS, server.getId() + " numApplied", LOG);
+      // the transactions with the same key are applied in the log order
+      for (int k = 0; k < numKeys; k++) {
+        Assert.assertEquals(expected, stateMachine.getApplied("k" + k));
+      }
+      // the transactions without a partition key are applied exclusively
+      Assert.assertEquals(0, stateMachine.getNumExclusiveViolations());
+      maxRunning = Math.max(maxRunning, stateMachine.getMaxRunning());
+    }
+    // the transactions with different keys are applied concurrently
+    Assert.assertTrue("maxRunning = " + maxRunning, maxRunning > 1);
+  }
+
+  /** Record the size of each batch passed to {@link StateMachine#applyTransactions(List)}. */
+  public static class BatchRecordingStateMachine extends SimpleStateMachine4Testing {
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public CompletableFuture<List<Message>> applyTransactions(List<TransactionContext> trxs) {
+      batchSizes.add(trxs.size());
+      return super.applyTransactions(trxs);
+    }
+
+    List<Integer> getBatchSizes() {
+      synchronized (batchSizes) {
+        return new ArrayList<>(batchSizes);
+      }
+    }
+  }
+
+  @Test
+  public void testBatchApplyAsync() throws Exception {
+    RaftServerConfigKeys.Apply.Batch.setEnabled(getProperties(), true);
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        BatchRecordingStateMachine.class, StateMachine.class);
+    runWithNewCluster(NUM_SERVERS, this::runTestBatchApplyAsync);
+
+    //reset for the other tests
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        SimpleStateMachine4Testing.class, StateMachine.class);
+    RaftServerConfigKeys.Apply.Batch.setEnabled(getProperties(), RaftServerConfigKeys.Apply.Batch.ENABLED_DEFAULT);
+  }
+
+  void runTestBatchApplyAsync(CLUSTER cluster) throws Exception {
+    final int numMessages = 100;
+    try (RaftClient client = cluster.createClient()) {
+      final List<CompletableFuture<RaftClientReply>> futures = new ArrayList<>();
+      for (int i = 0; i < numMessages; i++) {
+        futures.add(client.sendAsync(new SimpleMessage("m" + i)));
+      }
+      for (CompletableFuture<RaftClientReply> f : futures) {
+        Assert.assertTrue(f.get().isSuccess());
+      }
+    }
+
+    int maxBatchSize = 0;
+    for (RaftServerImpl server : cluster.iterateServerImpls()) {
+      final BatchRecordingStateMachine stateMachine = (BatchRecordingStateMachine) server.getStateMachine();
+      // all the transactions are applied through the batches
+      JavaUtils.attempt(() -> stateMachine.getBatchSizes().stream().mapToInt(Integer::intValue).sum() == numMessages,
+          50, HUNDRED_MILLIS, server.getId() + " applied", LOG);
+      final List<Integer> batchSizes = stateMachine.getBatchSizes();
+      LOG.info("{}: batchSizes = {}", server.getId(), batchSizes);
+      maxBatchSize = Math.max(maxBatchSize, batchSizes.stream().mapToInt(Integer::intValue).max().orElse(0));
+    }
+    Assert.assertTrue("maxBatchSize = " + maxBatchSize, maxBatchSize > 1);
+  }
+
+  @Test
+  public void testHeartbeatCoalescingAsync() throws Exception {
+    RaftServerConfigKeys.Heartbeat.setCoalescingEnabled(getProperties(), true);
+    runWithNewCluster(NUM_SERVERS, this::runTestHeartbeatCoalescingAsync);
+
+    //reset for the other tests
+    RaftServerConfigKeys.Heartbeat.setCoalescingEnabled(getProperties(),
+        RaftServerConfigKeys.Heartbeat.COALESCING_ENABLED_DEFAULT);
+  }
+
+  @Test
+  public void testQuiescenceAsync() throws Exception {
+    RaftServerConfigKeys.Heartbeat.setQuiescenceEnabled(getProperties(), true);
+    runWithNewCluster(NUM_SERVERS, this::runTestQuiescenceAsync);
+
+    //reset for the other tests
+    RaftServerConfigKeys.Heartbeat.setQuiescenceEnabled(getProperties(),
+        RaftServerConfigKeys.Heartbeat.QUIESCENCE_ENABLED_DEFAULT);
+  }
+
+  @Test
+  public void testSharedThreadPoolAsync() throws Exception {
+    RaftServerConfigKeys.ThreadPool.setSharedEnabled(getProperties(), true);
+    RaftServerConfigKeys.ThreadPool.setSharedSize(getProperties(), 2);
+    // the log workers and SimpleStateMachine4Testing use a thread per group
+    RaftServerConfigKeys.Log.setUseMemory(getProperties(), true);
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        KeyedStateMachine4Testing.class, StateMachine.class);
+    runWithNewCluster(NUM_SERVERS, this::runTestSharedThreadPoolAsync);
+
+    //reset for the other tests
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        SimpleStateMachine4Testing.class, StateMachine.class);
+    RaftServerConfigKeys.Log.setUseMemory(getProperties(), RaftServerConfigKeys.Log.USE_MEMORY_DEFAULT);
+    RaftServerConfigKeys.ThreadPool.setSharedEnabled(getProperties(),
+        RaftServerConfigKeys.ThreadPool.SHARED_ENABLED_DEFAULT);
+    RaftServerConfigKeys.ThreadPool.setSharedSize(getProperties(),
+        RaftServerConfigKeys.ThreadPool.SHARED_SIZE_DEFAULT);
+  }
+
+  void runTestSharedThreadPoolAsync(CLUSTER cluster) throws Exception {
+    runTestIdleHeartbeatsAsync(cluster);
+    final int numThreads = Thread.getAllStackTraces().size();
+
+    // add groups and keep them busy
+    final int numGroups = 10;
+    for (RaftGroup group : addGroups(cluster, numGroups)) {
+      try (RaftClient client = cluster.createClient(group)) {
+        for (int i = 0; i < 4; i++) {
+          Assert.assertTrue(client.sendAsync(new SimpleMessage("m" + i)).get().isSuccess());
+        }
+      }
+    }
+
+    // without the shared thread pools, each group would add an updater thread per server
+    // and an appender thread per follower
+    final Set<Thread> threads = Thread.getAllStackTraces().keySet();
+    LOG.info("{} threads before adding {} groups, {} threads after", numThreads, numGroups, threads.size());
+    Assert.assertTrue(threads.size() - numThreads < numGroups);
+    Assert.assertTrue(threads.stream().map(Thread::getName).noneMatch(
+        name -> name.contains("StateMachineUpdater") || name.contains("AppenderDaemon")));
+
+    // the election timers run in the shared thread pools
+    final RaftPeerId leaderId = RaftTestUtil.waitForLeader(cluster).getId();
+    cluster.killServer(leaderId);
+    Assert.assertNotEquals(leaderId, RaftTestUtil.waitForLeader(cluster).getId());
+  }
+
+  /** Add the given number of groups to all the servers of the cluster. */
+  private List<RaftGroup> addGroups(CLUSTER cluster, int numGroups) throws IOException {
+    final List<RaftGroup> groups = new ArrayList<>();
+    for (int i = 0; i < numGroups; i++) {
+      final RaftGroup group = RaftGroup.valueOf(RaftGroupId.randomId(), cluster.getPeers());
+      for (RaftPeer peer : cluster.getPeers()) {
+        try (RaftClient client = cluster.createClient(peer.getId(), group)) {
+          Assert.assertTrue(client.groupAdd(group, peer.getId()).isSuccess());
+        }
+      }
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  void runTestFollowerReadAsync(CLUSTER cluster) throws Exception {
+    runTestLinearizableReadAsync(cluster, RaftClient::sendFollowerReadAsync);
+
+    final RaftServerImpl leader = waitForLeader(cluster);
+    final RaftServerImpl follower = cluster.getFollowers().get(0);
+    try (RaftClient client = cluster.createClient(leader.getId())) {
+      // the reads are served by the followers without retrying with the leader
+      for (int i = 0; i < 4; i++) {
+        final RaftClientReply reply = client.sendFollowerReadAsync(new SimpleMessage("" + i)).get();
+        Assert.assertTrue(reply.isSuccess());
+        Assert.assertNotEquals(leader.getId(), reply.getServerId());
+      }
+
+      // a read times out when the follower cannot apply up to the read index
+      final SimpleStateMachine4Testing stateMachine = SimpleStateMachine4Testing.get(follower);
+      stateMachine.blockWriteStateMachineData();
+      try {
+        Assert.assertTrue(client.sendAsync(new SimpleMessage("m0")).get().isSuccess());
+        final RaftClientRequest request = new RaftClientRequest(ClientId.randomId(), follower.getId(),
+            cluster.getGroupId(), 0L, new SimpleMessage("0"), RaftClientRequest.readRequestType(), null);
+        final CompletableFuture<RaftClientReply> read = follower.submitClientRequestAsync(request);
+        testFailureCaseAsync("follower read timeout", () -> read, TimeoutIOException.class);
+      } finally {
+        stateMachine.unblockWriteStateMachineData();
+      }
+    }
+  }
+
+  void runTestLeaderLeaseReadAsync(CLUSTER cluster) throws Exception {
+    runTestLinearizableReadAsync(cluster, RaftClient::sendReadOnlyAsync);
+
+    final RaftServerImpl leader = waitForLeader(cluster);
+    final RatisMetricRegistry registry = RatisMetrics.getMetricRegistryForRaftLeader(
+        leader.getMemberId().toString());
+    final Counter leaseReads = registry.counter(RatisMetricNames.LEADER_METRIC_LEASE_READ_COUNT);
+    final Counter expiredLeases = registry.counter(RatisMetricNames.LEADER_METRIC_LEASE_EXPIRED_COUNT);
+    // the reads are served locally by the leader without the ReadIndex heartbeats
+    Assert.assertTrue(leaseReads.getCount() > 0);
+
+    // the followers withhold their votes from a candidate with a higher term within the lease
+    for (RaftServerImpl follower : cluster.getFollowers()) {
+      Assert.assertFalse(RaftServerTestUtil.requestVoteWithHigherTerm(leader, follower));
+    }
+    Assert.assertEquals(leader.getId(), waitForLeader(cluster).getId());
+
+    // the lease expires when the followers stop acknowledging the leader
+    final long expiredCount = expiredLeases.getCount();
+    final String leaderId = leader.getId().toString();
+    final CompletableFuture<RaftClientReply> read;
+    try (RaftClient client = cluster.createClient(leader.getId())) {
+      cluster.setBlockRequestsFrom(leaderId, true);
+      try {
+        RaftServerConfigKeys.Rpc.timeoutMin(getProperties())
+            .minus(RaftServerConfigKeys.Read.LeaderLease.clockDrift(getProperties())).sleep();
+        read = client.sendReadOnlyAsync(new SimpleMessage("m0"));
+        // the read falls back to the ReadIndex algorithm
+        JavaUtils.attempt(() -> expiredLeases.getCount() > expiredCount,
+            10, HUNDRED_MILLIS, "expiredLeases", LOG);
+      } finally {
+        cluster.setBlockRequestsFrom(leaderId, false);
+      }
+      Assert.assertTrue(read.get().isSuccess());
+    }
+  }
+
+  void runTestHeartbeatCoalescingAsync(CLUSTER cluster) throws Exception {
+    // add more groups than servers to the same servers so that a server leads at least two groups
+    final List<RaftGroup> groups = new ArrayList<>();
+    groups.add(cluster.getGroup());
+    groups.addAll(addGroups(cluster, NUM_SERVERS));
+
+    final Map<RaftPeerId, Integer> numGroupsLed = new HashMap<>();
+    for (RaftGroup group : groups) {
+      try (RaftClient client = cluster.createClient(group)) {
+        final RaftClientReply reply = client.sendAsync(new SimpleMessage("m0")).get();
+        Assert.assertTrue(reply.isSuccess());
+        numGroupsLed.merge(reply.getServerId(), 1, Integer::sum);
+      }
+    }
+    LOG.info("numGroupsLed = {}", numGroupsLed);
+    final RaftPeerId leaderId = numGroupsLed.entrySet().stream()
+        .filter(e -> e.getValue() > 1).map(Map.Entry::getKey).findAny().orElseThrow(IllegalStateException::new);
+
+    final RatisMetricRegistry registry = RatisMetrics.getMetricsRegistryForServer(leaderId.toString());
+    final Counter rpcCount = registry.counter(RatisMetricNames.HEARTBEATS_RPC_COUNT);
+    final Counter heartbeatCount = registry.counter(RatisMetricNames.COALESCED_HEARTBEAT_COUNT);
+    final long rpcsBefore = rpcCount.getCount();
+    final long heartbeatsBefore = heartbeatCount.getCount();
+
+    // the groups are idle
+    runTestIdleHeartbeatsAsync(cluster);
+
+    final long numRpcs = rpcCount.getCount() - rpcsBefore;
+    final long numHeartbeats = heartbeatCount.getCount() - heartbeatsBefore;
+    LOG.info("{}: {} heartbeats in {} rpcs", leaderId, numHeartbeats, numRpcs);
+    Assert.assertTrue(numRpcs > 0);
+    // the heartbeats of the groups led by the same server are sent in the same rpcs
+    Assert.assertTrue(numHeartbeats > numRpcs);
+  }
+
+  void runTestQuiescenceAsync(CLUSTER cluster) throws Exception {
+    final RaftServerImpl leader = waitForLeader(cluster);
+    final Counter heartbeats = RatisMetrics.getMetricRegistryForRaftLeader(leader.getMemberId().toString())
+        .counter(RatisMetricNames.LEADER_METRIC_HEARTBEAT_COUNT);
+    try (RaftClient client = cluster.createClient(leader.getId())) {
+      Assert.assertTrue(client.sendAsync(new SimpleMessage("m0")).get().isSuccess());
+      assertQuiescent(cluster, leader, heartbeats);
+
+      // a new request wakes up the appenders, which resume the heartbeats until the group is idle again
+      final long count = heartbeats.getCount();
+      Assert.assertTrue(client.sendAsync(new SimpleMessage("m1")).get().isSuccess());
+      assertQuiescent(cluster, leader, heartbeats);
+      Assert.assertTrue(heartbeats.getCount() > count);
+    }
+
+    // the quiescent followers elect a new leader once the leader server is dead
+    cluster.killServer(leader.getId());
+    Assert.assertNotEquals(leader.getId(), waitForLeader(cluster).getId());
+  }
+
+  private void assertQuiescent(CLUSTER cluster, RaftServerImpl leader, Counter heartbeats) throws Exception {
+    // the appenders quiesce once the group is idle
+    JavaUtils.attempt(() -> RaftServerTestUtil.getLogAppenders(leader).allMatch(RaftServerTestUtil::isQuiescent),
+        50, HUNDRED_MILLIS, "quiescent", LOG);
+
+    // no heartbeats are sent while the group is quiescent and the leader is unchanged
+    final long count = heartbeats.getCount();
+    RaftServerConfigKeys.Rpc.timeoutMax(getProperties()).apply(t -> 5 * t).sleep();
+    Assert.assertEquals(count, heartbeats.getCount());
+    Assert.assertEquals(leader.getId(), waitForLeader(cluster).getId());
+    Assert.assertTrue(RaftServerTestUtil.getLogAppenders(leader).allMatch(RaftServerTestUtil::isQuiescent));
+  }
+
+  void runTestIdleHeartbeatsAsync(CLUSTER cluster) throws Exception {
+    try (RaftClient client = cluster.createClient()) {
+      final RaftPeerId leaderId = RaftTestUtil.waitForLeader(cluster).getId();
+      Assert.assertTrue(client.sendAsync(new SimpleMessage("m0")).join().isSuccess());
+
+      // the followers keep following the same leader when the group is idle
+      RaftServerConfigKeys.Rpc.timeoutMax(getProperties()).apply(t -> 5 * t).sleep();
+      Assert.assertEquals(leaderId, RaftTestUtil.waitForLeader(cluster).getId());
+      Assert.assertTrue(client.sendAsync(new SimpleMessage("m1")).join().isSuccess());
+    }
+  }
+
+  void runTestLinearizableReadAsync(CLUSTER cluster,
+      BiFunction<RaftClient, Message, CompletableFuture<RaftClientReply>> read) throws Exception {
+    final int numMesssages = 10;
+    try (RaftClient client = cluster.createClient()) {
+      RaftTestUtil.waitForLeader(cluster);
+
+      // each read is sent right after the corresponding write is replied, so that it must see the write
+      final List<CompletableFuture<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < numMesssages; i++) {
+        final Message message = new SimpleMessage("" + i);
+        futures.add(client.sendAsync(message).thenCompose(writeReply -> {
+          Assert.assertTrue(writeReply.isSuccess());
+          return read.apply(client, message).thenAccept(readReply -> {
+            Assert.assertTrue(readReply.isSuccess());
+            try {
+              final LogEntryProto entry = LogEntryProto.parseFrom(readReply.getMessage().getContent());
+              Assert.assertEquals(writeReply.getLogIndex(), entry.getIndex());
+            } catch (InvalidProtocolBufferException e) {
+              throw new CompletionException(e);
+            }
+          });
+        }));
+      }
+      JavaUtils.allOf(futures).join();
+
+      // many concurrent reads share the heartbeats
+      final List<CompletableFuture<RaftClientReply>> reads = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        reads.add(read.apply(client, new SimpleMessage("" + (i % numMesssages))));
+      }
+      for (CompletableFuture<RaftClientReply> f : reads) {
+        Assert.assertTrue(f.join().isSuccess());
+      }
+    }
+  }
+
   @Test
   public void testRequestTimeout() throws Exception {
     final TimeDuration oldExpiryTime = RaftServerConfigKeys.RetryCache.expiryTime(getProperties());
@@ -27,6 +27,7 @@ import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.protocol.RaftClientRequest;
 import org.apache.ratis.protocol.RaftPeer;
 import org.apache.ratis.protocol.RaftPeerId;
+import org.apache.ratis.server.RaftServerConfigKeys;
 import org.apache.ratis.server.impl.RaftServerImpl;
 import org.apache.ratis.server.impl.RaftServerTestUtil;
 import org.apache.ratis.server.raftlog.RaftLog;
@@ -165,4 +166,28 @@ public abstract class RetryCacheTests<CLUSTER extends MiniRaftCluster>
     Assert.assertEquals(0, count(cluster.getLeader().getState().getLog(), oldLastApplied + 1));
     client.close();
   }
+
+  /** The entries must expire even if the group has no new transactions. */
+  @Test
+  public void testExpiryOnIdleGroup() throws Exception {
+    final TimeDuration expiryTime = TimeDuration.valueOf(1, TimeUnit.SECONDS);
+    RaftServerConfigKeys.RetryCache.setExpiryTime(getProperties(), expiryTime);
+    runWithNewCluster(NUM_SERVERS, this::runTestExpiryOnIdleGroup);
+
+    //reset for the other tests
+    RaftServerConfigKeys.RetryCache.setExpiryTime(getProperties(), RaftServerConfigKeys.RetryCache.EXPIRY_TIME_DEFAULT);
+  }
+
+  void runTestExpiryOnIdleGroup(CLUSTER cluster) throws Exception {
+    RaftTestUtil.waitForLeader(cluster);
+    try (RaftClient client = cluster.createClient()) {
+      Assert.assertTrue(client.send(new SimpleMessage("message")).isSuccess());
+    }
+
+    // no more transactions; the entries are expired by the periodic expiry
+    for (RaftServerImpl server : cluster.iterateServerImpls()) {
+      JavaUtils.attempt(() -> Assert.assertEquals(0, RaftServerTestUtil.getRetryCacheSize(server)),
+          10, TimeDuration.valueOf(1, TimeUnit.SECONDS), server.getId() + " retryCacheSize", LOG);
+    }
+  }
 }
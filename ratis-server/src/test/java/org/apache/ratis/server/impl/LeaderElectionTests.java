@@ -23,9 +23,15 @@ import org.apache.ratis.MiniRaftCluster;
 import org.apache.ratis.RaftTestUtil;
 import org.apache.ratis.client.RaftClient;
 import org.apache.ratis.metrics.RatisMetricRegistry;
+import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
+import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.protocol.RaftPeerId;
 import org.apache.ratis.server.metrics.RatisMetrics;
+import org.apache.ratis.server.protocol.TermIndex;
+import org.apache.ratis.server.raftlog.RaftLog;
 import org.apache.ratis.server.raftlog.segmented.SegmentedRaftLogTestUtils;
+import org.apache.ratis.util.CodeInjectionForTesting;
 import org.apache.ratis.util.ExitUtils;
 import org.apache.ratis.util.JavaUtils;
 import org.apache.ratis.util.LogUtils;
@@ -36,8 +42,12 @@ import org.junit.Test;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
@@ -167,4 +177,58 @@ public abstract class LeaderElectionTests<CLUSTER extends MiniRaftCluster>
         s.contains(LEADER_ELECTION_LATENCY)).values().iterator().next().getValue();
     assertTrue(leaderElectionLatency > 0 && leaderElectionLatency < timestamp.elapsedTimeMs());
   }
+
+  @Test
+  public void testHeartbeatWhileAppendStalled() throws Exception {
+    LOG.info("Running testHeartbeatWhileAppendStalled");
+    final MiniRaftCluster cluster = newCluster(3);
+    cluster.start();
+    try (RaftClient client = cluster.createClient()) {
+      Assert.assertTrue(client.send(new RaftTestUtil.SimpleMessage("first")).isSuccess());
+    }
+    final RaftServerImpl leader = waitForLeader(cluster);
+    final RaftServerImpl follower = cluster.getFollowers().get(0);
+
+    // stall the log appends of the follower
+    final CountDownLatch stalled = new CountDownLatch(1);
+    final CountDownLatch released = new CountDownLatch(1);
+    CodeInjectionForTesting.put(RaftLog.LOG_SYNC, (localId, remoteId, args) -> {
+      if (!follower.getId().equals(localId)) {
+        return false;
+      }
+      stalled.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return true;
+    });
+
+    try (RaftClient client = cluster.createClient(leader.getId())) {
+      final CompletableFuture<RaftClientReply> write = CompletableFuture.supplyAsync(() -> {
+        try {
+          return client.send(new RaftTestUtil.SimpleMessage("m"));
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      });
+      Assert.assertTrue(stalled.await(10, TimeUnit.SECONDS));
+
+      // the heartbeat must not wait for the stalled append
+      final TermIndex last = follower.getState().getLog().getLastEntryTermIndex();
+      final AppendEntriesRequestProto heartbeat = ServerProtoUtils.toAppendEntriesRequestProto(
+          leader.getMemberId(), follower.getId(), leader.getState().getCurrentTerm(), Collections.emptyList(),
+          leader.getState().getLog().getLastCommittedIndex(), false, false, last, Collections.emptyList(), -1);
+      final AppendEntriesReplyProto reply = follower.appendEntriesAsync(heartbeat).get(5, TimeUnit.SECONDS);
+      Assert.assertEquals(AppendEntriesReplyProto.AppendResult.SUCCESS, reply.getResult());
+
+      released.countDown();
+      Assert.assertTrue(write.get(10, TimeUnit.SECONDS).isSuccess());
+    } finally {
+      released.countDown();
+      CodeInjectionForTesting.put(RaftLog.LOG_SYNC, (localId, remoteId, args) -> false);
+      cluster.shutdown();
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.ratis.server.impl;
 import org.apache.log4j.Level;
 import org.apache.ratis.MiniRaftCluster;
 import org.apache.ratis.proto.RaftProtos.RaftPeerRole;
+import org.apache.ratis.proto.RaftProtos.RequestVoteRequestProto;
 import org.apache.ratis.protocol.ClientId;
 import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftPeer;
@@ -31,6 +32,7 @@ import org.junit.Assert;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -105,6 +107,10 @@ public class RaftServerTestUtil {
     return server.getRole().getLeaderState().map(LeaderState::getLogAppenders).orElse(null);
   }
 
+  public static boolean isQuiescent(LogAppender appender) {
+    return appender.isQuiescent();
+  }
+
   public static Logger getStateMachineUpdaterLog() {
     return StateMachineUpdater.LOG;
   }
@@ -116,4 +122,15 @@ public class RaftServerTestUtil {
   public static RaftServerImpl getRaftServerImpl(RaftServerProxy proxy, RaftGroupId groupId) {
     return JavaUtils.callAsUnchecked(() -> proxy.getImpl(groupId));
   }
+
+  /**
+   * Request a vote from the voter for the candidate with a term higher than the voter's current term.
+   * @return true iff the vote is granted.
+   */
+  public static boolean requestVoteWithHigherTerm(RaftServerImpl candidate, RaftServerImpl voter)
+      throws IOException {
+    final RequestVoteRequestProto request = ServerProtoUtils.toRequestVoteRequestProto(candidate.getMemberId(),
+        voter.getId(), voter.getState().getCurrentTerm() + 1, candidate.getState().getLog().getLastEntryTermIndex());
+    return voter.requestVote(request).getServerReply().getSuccess();
+  }
 }
@@ -20,7 +20,9 @@ package org.apache.ratis.server.simulation;
 import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftRpcMessage;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesReplyProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsReplyProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotReplyProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexReplyProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteReplyProto;
 import org.apache.ratis.util.ProtoUtils;
 
@@ -30,23 +32,47 @@ public class RaftServerReply implements RaftRpcMessage {
   private final AppendEntriesReplyProto appendEntries;
   private final RequestVoteReplyProto requestVote;
   private final InstallSnapshotReplyProto installSnapshot;
+  private final ReadIndexReplyProto readIndex;
+  private final HeartbeatsReplyProto heartbeats;
 
   RaftServerReply(AppendEntriesReplyProto a) {
     appendEntries = Objects.requireNonNull(a);
     requestVote = null;
     installSnapshot = null;
+    readIndex = null;
+    heartbeats = null;
   }
 
   RaftServerReply(RequestVoteReplyProto r) {
     appendEntries = null;
     requestVote = Objects.requireNonNull(r);
     installSnapshot = null;
+    readIndex = null;
+    heartbeats = null;
   }
 
   RaftServerReply(InstallSnapshotReplyProto i) {
     appendEntries = null;
     requestVote = null;
     installSnapshot = Objects.requireNonNull(i);
+    readIndex = null;
+    heartbeats = null;
+  }
+
+  RaftServerReply(ReadIndexReplyProto r) {
+    appendEntries = null;
+    requestVote = null;
+    installSnapshot = null;
+    readIndex = Objects.requireNonNull(r);
+    heartbeats = null;
+  }
+
+  RaftServerReply(HeartbeatsReplyProto h) {
+    appendEntries = null;
+    requestVote = null;
+    installSnapshot = null;
+    readIndex = null;
+    heartbeats = Objects.requireNonNull(h);
   }
 
   boolean isAppendEntries() {
@@ -61,6 +87,14 @@ public class RaftServerReply implements RaftRpcMessage {
     return installSnapshot != null;
   }
 
+  boolean isReadIndex() {
+    return readIndex != null;
+  }
+
+  boolean isHeartbeats() {
+    return heartbeats != null;
+  }
+
   AppendEntriesReplyProto getAppendEntries() {
     return appendEntries;
   }
@@ -73,6 +107,14 @@ public class RaftServerReply implements RaftRpcMessage {
     return installSnapshot;
   }
 
+  ReadIndexReplyProto getReadIndex() {
+    return readIndex;
+  }
+
+  HeartbeatsReplyProto getHeartbeats() {
+    return heartbeats;
+  }
+
   @Override
   public boolean isRequest() {
     return false;
@@ -84,8 +126,12 @@ public class RaftServerReply implements RaftRpcMessage {
       return appendEntries.getServerReply().getRequestorId().toStringUtf8();
     } else if (isRequestVote()) {
       return requestVote.getServerReply().getRequestorId().toStringUtf8();
-    } else {
+    } else if (isInstallSnapshot()) {
       return installSnapshot.getServerReply().getRequestorId().toStringUtf8();
+    } else if (isReadIndex()) {
+      return readIndex.getServerReply().getRequestorId().toStringUtf8();
+    } else {
+      return heartbeats.getServerReply().getRequestorId().toStringUtf8();
     }
   }
 
@@ -95,8 +141,12 @@ public class RaftServerReply implements RaftRpcMessage {
       return appendEntries.getServerReply().getReplyId().toStringUtf8();
     } else if (isRequestVote()) {
       return requestVote.getServerReply().getReplyId().toStringUtf8();
-    } else {
+    } else if (isInstallSnapshot()) {
       return installSnapshot.getServerReply().getReplyId().toStringUtf8();
+    } else if (isReadIndex()) {
+      return readIndex.getServerReply().getReplyId().toStringUtf8();
+    } else {
+      return heartbeats.getServerReply().getReplyId().toStringUtf8();
     }
   }
 
@@ -106,8 +156,12 @@ public class RaftServerReply implements RaftRpcMessage {
       return ProtoUtils.toRaftGroupId(appendEntries.getServerReply().getRaftGroupId());
     } else if (isRequestVote()) {
       return ProtoUtils.toRaftGroupId(requestVote.getServerReply().getRaftGroupId());
-    } else {
+    } else if (isInstallSnapshot()) {
       return ProtoUtils.toRaftGroupId(installSnapshot.getServerReply().getRaftGroupId());
+    } else if (isReadIndex()) {
+      return ProtoUtils.toRaftGroupId(readIndex.getServerReply().getRaftGroupId());
+    } else {
+      return ProtoUtils.toRaftGroupId(heartbeats.getServerReply().getRaftGroupId());
     }
   }
 }
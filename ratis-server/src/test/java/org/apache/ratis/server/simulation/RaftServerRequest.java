@@ -20,7 +20,9 @@ package org.apache.ratis.server.simulation;
 import org.apache.ratis.protocol.RaftGroupId;
 import org.apache.ratis.protocol.RaftRpcMessage;
 import org.apache.ratis.proto.RaftProtos.AppendEntriesRequestProto;
+import org.apache.ratis.proto.RaftProtos.HeartbeatsRequestProto;
 import org.apache.ratis.proto.RaftProtos.InstallSnapshotRequestProto;
+import org.apache.ratis.proto.RaftProtos.ReadIndexRequestProto;
 import org.apache.ratis.proto.RaftProtos.RequestVoteRequestProto;
 import org.apache.ratis.util.ProtoUtils;
 
@@ -28,23 +30,47 @@ class RaftServerRequest implements RaftRpcMessage {
   private final AppendEntriesRequestProto appendEntries;
   private final RequestVoteRequestProto requestVote;
   private final InstallSnapshotRequestProto installSnapshot;
+  private final ReadIndexRequestProto readIndex;
+  private final HeartbeatsRequestProto heartbeats;
 
   RaftServerRequest(AppendEntriesRequestProto a) {
     appendEntries = a;
     requestVote = null;
     installSnapshot = null;
+    readIndex = null;
+    heartbeats = null;
   }
 
   RaftServerRequest(RequestVoteRequestProto r) {
     appendEntries = null;
     requestVote = r;
     installSnapshot = null;
+    readIndex = null;
+    heartbeats = null;
   }
 
   RaftServerRequest(InstallSnapshotRequestProto i) {
     appendEntries = null;
     requestVote = null;
     installSnapshot = i;
+    readIndex = null;
+    heartbeats = null;
+  }
+
+  RaftServerRequest(ReadIndexRequestProto r) {
+    appendEntries = null;
+    requestVote = null;
+    installSnapshot = null;
+    readIndex = r;
+    heartbeats = null;
+  }
+
+  RaftServerRequest(HeartbeatsRequestProto h) {
+    appendEntries = null;
+    requestVote = null;
+    installSnapshot = null;
+    readIndex = null;
+    heartbeats = h;
   }
 
   boolean isAppendEntries() {
@@ -59,6 +85,14 @@ class RaftServerRequest implements RaftRpcMessage {
     return installSnapshot != null;
   }
 
+  boolean isReadIndex() {
+    return readIndex != null;
+  }
+
+  boolean isHeartbeats() {
+    return heartbeats != null;
+  }
+
   AppendEntriesRequestProto getAppendEntries() {
     return appendEntries;
   }
@@ -71,6 +105,14 @@ class RaftServerRequest implements RaftRpcMessage {
     return installSnapshot;
   }
 
+  ReadIndexRequestProto getReadIndex() {
+    return readIndex;
+  }
+
+  HeartbeatsRequestProto getHeartbeats() {
+    return heartbeats;
+  }
+
   @Override
   public boolean isRequest() {
     return true;
@@ -82,8 +124,12 @@ class RaftServerRequest implements RaftRpcMessage {
       return appendEntries.getServerRequest().getRequestorId().toStringUtf8();
     } else if (isRequestVote()) {
       return requestVote.getServerRequest().getRequestorId().toStringUtf8();
-    } else {
+    } else if (isInstallSnapshot()) {
       return installSnapshot.getServerRequest().getRequestorId().toStringUtf8();
+    } else if (isReadIndex()) {
+      return readIndex.getServerRequest().getRequestorId().toStringUtf8();
+    } else {
+      return heartbeats.getServerRequest().getRequestorId().toStringUtf8();
     }
   }
 
@@ -93,8 +139,12 @@ class RaftServerRequest implements RaftRpcMessage {
       return appendEntries.getServerRequest().getReplyId().toStringUtf8();
     } else if (isRequestVote()) {
       return requestVote.getServerRequest().getReplyId().toStringUtf8();
-    } else {
+    } else if (isInstallSnapshot()) {
       return installSnapshot.getServerRequest().getReplyId().toStringUtf8();
+    } else if (isReadIndex()) {
+      return readIndex.getServerRequest().getReplyId().toStringUtf8();
+    } else {
+      return heartbeats.getServerRequest().getReplyId().toStringUtf8();
     }
   }
 
@@ -104,8 +154,12 @@ class RaftServerRequest implements RaftRpcMessage {
       return ProtoUtils.toRaftGroupId(appendEntries.getServerRequest().getRaftGroupId());
     } else if (isRequestVote()) {
       return ProtoUtils.toRaftGroupId(requestVote.getServerRequest().getRaftGroupId());
-    } else {
+    } else if (isInstallSnapshot()) {
       return ProtoUtils.toRaftGroupId(installSnapshot.getServerRequest().getRaftGroupId());
+    } else if (isReadIndex()) {
+      return ProtoUtils.toRaftGroupId(readIndex.getServerRequest().getRaftGroupId());
+    } else {
+      return ProtoUtils.toRaftGroupId(heartbeats.getServerRequest().getRaftGroupId());
     }
   }
 }
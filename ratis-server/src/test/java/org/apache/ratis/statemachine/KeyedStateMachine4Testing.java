@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.statemachine;
+
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.server.impl.RaftServerImpl;
+import org.apache.ratis.statemachine.impl.BaseStateMachine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A state machine for testing the parallel apply.
+ * A transaction "key:seq" has the partition key "key"; any other transaction has no partition key.
+ * It records the applied sequence numbers of each key,
+ * the max number of transactions being applied concurrently
+ * and the number of transactions violating the exclusiveness of the transactions without partition keys.
+ */
+public class KeyedStateMachine4Testing extends BaseStateMachine {
+  public static KeyedStateMachine4Testing get(RaftServerImpl s) {
+    return (KeyedStateMachine4Testing)s.getStateMachine();
+  }
+
+  private final Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+  private final AtomicInteger numApplied = new AtomicInteger();
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+  private final AtomicBoolean exclusiveRunning = new AtomicBoolean();
+  private final AtomicInteger numExclusiveViolations = new AtomicInteger();
+
+  private static String[] parse(TransactionContext trx) {
+    return trx.getLogEntry().getStateMachineLogEntry().getLogData().toStringUtf8().split(":");
+  }
+
+  @Override
+  public Object getPartitionKey(TransactionContext trx) {
+    final String[] keySeq = parse(trx);
+    return keySeq.length == 2? keySeq[0]: null;
+  }
+
+  @Override
+  public CompletableFuture<Message> applyTransaction(TransactionContext trx) {
+    final String[] keySeq = parse(trx);
+    final boolean exclusive = keySeq.length != 2;
+    final int n = running.incrementAndGet();
+    maxRunning.accumulateAndGet(n, Math::max);
+    if (exclusive) {
+      exclusiveRunning.set(true);
+    }
+    if ((exclusive && n > 1) || (!exclusive && exclusiveRunning.get())) {
+      numExclusiveViolations.incrementAndGet();
+    }
+    try {
+      // give the other executors a chance to run concurrently
+      Thread.sleep(5);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } finally {
+      if (exclusive) {
+        exclusiveRunning.set(false);
+      } else {
+        applied.computeIfAbsent(keySeq[0], k -> Collections.synchronizedList(new ArrayList<>()))
+            .add(Integer.parseInt(keySeq[1]));
+      }
+      numApplied.incrementAndGet();
+      running.decrementAndGet();
+    }
+    return super.applyTransaction(trx);
+  }
+
+  /** @return the applied sequence numbers of the given key in the apply order. */
+  public List<Integer> getApplied(String key) {
+    final List<Integer> list = applied.getOrDefault(key, Collections.emptyList());
+    synchronized (list) {
+      return new ArrayList<>(list);
+    }
+  }
+
+  public int getNumApplied() {
+    return numApplied.get();
+  }
+
+  public int getMaxRunning() {
+    return maxRunning.get();
+  }
+
+  public int getNumExclusiveViolations() {
+    return numExclusiveViolations.get();
+  }
+}
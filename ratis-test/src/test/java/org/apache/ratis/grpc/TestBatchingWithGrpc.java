@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.grpc;
+
+import org.apache.ratis.BaseTest;
+import org.apache.ratis.MiniRaftCluster;
+import org.apache.ratis.RaftTestUtil;
+import org.apache.ratis.client.RaftClient;
+import org.apache.ratis.client.RaftClientConfigKeys;
+import org.apache.ratis.proto.RaftProtos.ReplicationLevel;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
+import org.apache.ratis.server.impl.RaftServerImpl;
+import org.apache.ratis.statemachine.SimpleStateMachine4Testing;
+import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.statemachine.TransactionContext;
+import org.apache.ratis.util.TimeDuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestBatchingWithGrpc extends BaseTest implements MiniRaftClusterWithGrpc.FactoryGet {
+  static final int MESSAGES_MAX = 10;
+
+  {
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        BatchStateMachine.class, StateMachine.class);
+    RaftClientConfigKeys.Batch.setEnabled(getProperties(), true);
+    RaftClientConfigKeys.Batch.setMessagesMax(getProperties(), MESSAGES_MAX);
+    RaftClientConfigKeys.Batch.setWindow(getProperties(), TimeDuration.valueOf(100, TimeUnit.MILLISECONDS));
+  }
+
+  /** Unpack the batches and reply each message with its own content. */
+  public static class BatchStateMachine extends SimpleStateMachine4Testing {
+    @Override
+    public CompletableFuture<Message> applyTransaction(TransactionContext trx) {
+      return super.applyTransaction(trx).thenCompose(m -> applyBatch(trx, message -> CompletableFuture.completedFuture(
+          Message.valueOf("reply:" + message.getContent().toStringUtf8()))));
+    }
+
+    @Override
+    public CompletableFuture<Message> query(Message request) {
+      return CompletableFuture.completedFuture(Message.valueOf("reply:" + request.getContent().toStringUtf8()));
+    }
+  }
+
+  @Test
+  public void testBatching() throws Exception {
+    runWithNewCluster(3, this::runTestBatching);
+  }
+
+  void runTestBatching(MiniRaftClusterWithGrpc cluster) throws Exception {
+    RaftTestUtil.waitForLeader(cluster);
+    final int numBatches = 10;
+    final int numMessages = numBatches * MESSAGES_MAX + 3;
+
+    try (RaftClient client = cluster.createClient()) {
+      final List<CompletableFuture<RaftClientReply>> futures = new ArrayList<>();
+      for (int i = 0; i < numMessages; i++) {
+        futures.add(client.sendAsync(Message.valueOf("m" + i)));
+      }
+
+      // the full batches are sent right away, and the last partial batch is sent after the window
+      final List<Long> logIndices = new ArrayList<>();
+      for (int i = 0; i < numMessages; i++) {
+        final RaftClientReply reply = futures.get(i).join();
+        Assert.assertTrue(reply.isSuccess());
+        Assert.assertEquals("reply:m" + i, reply.getMessage().getContent().toStringUtf8());
+        if (i % MESSAGES_MAX == 0) {
+          logIndices.add(reply.getLogIndex());
+        } else {
+          // the messages in the same batch are in the same log entry
+          Assert.assertEquals(logIndices.get(logIndices.size() - 1).longValue(), reply.getLogIndex());
+        }
+      }
+      Assert.assertEquals(numBatches + 1, logIndices.stream().distinct().count());
+    }
+  }
+
+  @Test
+  public void testBatchNotOvertaken() throws Exception {
+    // a long window so that the batch is sent only if it is flushed by the subsequent requests
+    RaftClientConfigKeys.Batch.setWindow(getProperties(), TimeDuration.valueOf(10, TimeUnit.SECONDS));
+    runWithNewCluster(3, this::runTestBatchNotOvertaken);
+  }
+
+  void runTestBatchNotOvertaken(MiniRaftClusterWithGrpc cluster) throws Exception {
+    RaftTestUtil.waitForLeader(cluster);
+    final int numMessages = MESSAGES_MAX / 2;
+
+    try (RaftClient client = cluster.createClient()) {
+      // an ordered request is replied after the pending batch sent before it
+      final List<CompletableFuture<RaftClientReply>> writes = sendAsync(client, "w", numMessages);
+      final List<Boolean> writesDoneOnRead = new ArrayList<>();
+      final RaftClientReply readReply = client.sendReadOnlyAsync(Message.valueOf("r")).thenApply(reply -> {
+        writes.forEach(w -> writesDoneOnRead.add(w.isDone()));
+        return reply;
+      }).get(5, TimeUnit.SECONDS);
+      Assert.assertTrue(readReply.isSuccess());
+      Assert.assertEquals("reply:r", readReply.getMessage().getContent().toStringUtf8());
+      Assert.assertEquals(numMessages, writesDoneOnRead.size());
+      Assert.assertFalse(writesDoneOnRead.contains(false));
+      for (CompletableFuture<RaftClientReply> w : writes) {
+        Assert.assertTrue(w.join().isSuccess());
+      }
+
+      // a watch request flushes the pending batch
+      final List<CompletableFuture<RaftClientReply>> moreWrites = sendAsync(client, "x", numMessages);
+      final long index = writes.get(numMessages - 1).join().getLogIndex();
+      client.sendWatchAsync(index, ReplicationLevel.MAJORITY).get(5, TimeUnit.SECONDS);
+      for (CompletableFuture<RaftClientReply> w : moreWrites) {
+        Assert.assertTrue(w.get(5, TimeUnit.SECONDS).isSuccess());
+      }
+    }
+  }
+
+  static List<CompletableFuture<RaftClientReply>> sendAsync(RaftClient client, String prefix, int numMessages) {
+    final List<CompletableFuture<RaftClientReply>> futures = new ArrayList<>();
+    for (int i = 0; i < numMessages; i++) {
+      futures.add(client.sendAsync(Message.valueOf(prefix + i)));
+    }
+    return futures;
+  }
+
+  @Test
+  public void testBatchingWithLeaderChange() throws Exception {
+    // few permits and a short window, so that the scheduler thread flushes the batches
+    // while the permits are held by the batches retried with the scheduler
+    RaftClientConfigKeys.Async.setMaxOutstandingRequests(getProperties(), 2);
+    RaftClientConfigKeys.Batch.setWindow(getProperties(), TimeDuration.valueOf(1, TimeUnit.MILLISECONDS));
+    runWithNewCluster(3, this::runTestBatchingWithLeaderChange);
+  }
+
+  void runTestBatchingWithLeaderChange(MiniRaftClusterWithGrpc cluster) throws Exception {
+    final RaftServerImpl leader = RaftTestUtil.waitForLeader(cluster);
+    final int numMessages = 50;
+
+    try (RaftClient client = cluster.createClient()) {
+      final List<CompletableFuture<RaftClientReply>> futures = new ArrayList<>();
+      for (int i = 0; i < numMessages; i++) {
+        futures.add(client.sendAsync(Message.valueOf("m" + i)));
+        if (i == numMessages / 2) {
+          cluster.killServer(leader.getId());
+        }
+      }
+
+      for (int i = 0; i < numMessages; i++) {
+        final RaftClientReply reply = futures.get(i).get(30, TimeUnit.SECONDS);
+        Assert.assertTrue(reply.isSuccess());
+        Assert.assertEquals("reply:m" + i, reply.getMessage().getContent().toStringUtf8());
+      }
+    }
+  }
+}
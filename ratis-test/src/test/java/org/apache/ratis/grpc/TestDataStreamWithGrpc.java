@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.grpc;
+
+import org.apache.ratis.BaseTest;
+import org.apache.ratis.MiniRaftCluster;
+import org.apache.ratis.RaftTestUtil;
+import org.apache.ratis.client.DataStreamOutput;
+import org.apache.ratis.client.RaftClient;
+import org.apache.ratis.protocol.AlreadyClosedException;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
+import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.protocol.RaftPeerId;
+import org.apache.ratis.server.impl.RaftServerImpl;
+import org.apache.ratis.statemachine.SimpleStateMachine4Testing;
+import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.statemachine.TransactionContext;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.util.JavaUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TestDataStreamWithGrpc extends BaseTest implements MiniRaftClusterWithGrpc.FactoryGet {
+  {
+    getProperties().setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY,
+        DataStreamStateMachine.class, StateMachine.class);
+  }
+
+  /**
+   * Collect the streamed data in memory; the log entry referring to a stream is replied with its size,
+   * or "null" if the data is missing in this server.
+   */
+  public static class DataStreamStateMachine extends SimpleStateMachine4Testing {
+    private final Map<String, ByteArrayOutputStream> streams = new ConcurrentHashMap<>();
+    private final Set<String> aborted = ConcurrentHashMap.newKeySet();
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    static String getKey(Object clientId, long streamId) {
+      return clientId + ":" + streamId;
+    }
+
+    public static DataStreamStateMachine get(RaftServerImpl server) {
+      return (DataStreamStateMachine) server.getStateMachine();
+    }
+
+    @Override
+    public CompletableFuture<WritableByteChannel> stream(RaftClientRequest request) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      streams.put(getKey(request.getClientId(), request.getCallId()), out);
+      return CompletableFuture.completedFuture(Channels.newChannel(out));
+    }
+
+    @Override
+    public CompletableFuture<Void> abortStream(RaftClientRequest request, Throwable cause) {
+      final String key = getKey(request.getClientId(), request.getCallId());
+      streams.remove(key);
+      aborted.add(key);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Message> applyTransaction(TransactionContext trx) {
+      final String key = trx.getLogEntry().getStateMachineLogEntry().getLogData().toStringUtf8();
+      final ByteArrayOutputStream out = streams.get(key);
+      if (out == null) {
+        // the data is not repaired; a real state machine may fetch it from the other servers.
+        missing.add(key);
+      }
+      return super.applyTransaction(trx).thenApply(
+          m -> Message.valueOf(out == null? "null": String.valueOf(out.size())));
+    }
+
+    ByteString getData(String key) {
+      return ByteString.copyFrom(streams.get(key).toByteArray());
+    }
+
+    boolean isAborted(String key) {
+      return aborted.contains(key);
+    }
+
+    boolean isMissing(String key) {
+      return missing.contains(key);
+    }
+  }
+
+  static final int CHUNK_SIZE = 1 << 16;
+
+  static List<CompletableFuture<Long>> writeChunks(DataStreamOutput out, int numChunks, ByteArrayOutputStream written)
+      throws IOException {
+    final List<CompletableFuture<Long>> writes = new ArrayList<>();
+    for (int i = 0; i < numChunks; i++) {
+      final byte[] chunk = new byte[CHUNK_SIZE];
+      ThreadLocalRandom.current().nextBytes(chunk);
+      written.write(chunk);
+      writes.add(out.writeAsync(ByteBuffer.wrap(chunk)));
+    }
+    return writes;
+  }
+
+  @Test
+  public void testDataStream() throws Exception {
+    runWithNewCluster(3, this::runTestDataStream);
+  }
+
+  void runTestDataStream(MiniRaftClusterWithGrpc cluster) throws Exception {
+    RaftTestUtil.waitForLeader(cluster);
+    final int numChunks = 16;
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+    try (RaftClient client = cluster.createClient()) {
+      final DataStreamOutput out = client.stream();
+      final List<CompletableFuture<Long>> writes = writeChunks(out, numChunks, expected);
+      for (int i = 0; i < numChunks; i++) {
+        Assert.assertEquals((i + 1L) * CHUNK_SIZE, writes.get(i).join().longValue());
+      }
+
+      final String key = DataStreamStateMachine.getKey(client.getId(), out.getStreamId());
+      final RaftClientReply reply = out.closeAsync(Message.valueOf(key)).join();
+      Assert.assertTrue(reply.isSuccess());
+      Assert.assertEquals(String.valueOf(numChunks * CHUNK_SIZE), reply.getMessage().getContent().toStringUtf8());
+
+      // the data is streamed to all the servers
+      final ByteString expectedData = ByteString.copyFrom(expected.toByteArray());
+      for (RaftServerImpl server : cluster.iterateServerImpls()) {
+        Assert.assertEquals(expectedData, DataStreamStateMachine.get(server).getData(key));
+      }
+    }
+  }
+
+  @Test
+  public void testDataStreamWithFollowerFailure() throws Exception {
+    runWithNewCluster(3, this::runTestDataStreamWithFollowerFailure);
+  }
+
+  void runTestDataStreamWithFollowerFailure(MiniRaftClusterWithGrpc cluster) throws Exception {
+    final RaftServerImpl leader = RaftTestUtil.waitForLeader(cluster);
+    final RaftPeerId followerId = cluster.getFollowers().get(0).getId();
+    final int numChunks = 8;
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+
+    try (RaftClient client = cluster.createClient(leader.getId())) {
+      final DataStreamOutput out = client.stream();
+      for (CompletableFuture<Long> f : writeChunks(out, numChunks, expected)) {
+        f.join();
+      }
+
+      // kill a follower in the middle of the stream; the writes are still acked by a majority
+      cluster.killServer(followerId);
+      final List<CompletableFuture<Long>> writes = writeChunks(out, numChunks, expected);
+      for (int i = 0; i < numChunks; i++) {
+        Assert.assertEquals((numChunks + i + 1L) * CHUNK_SIZE, writes.get(i).join().longValue());
+      }
+
+      final String key = DataStreamStateMachine.getKey(client.getId(), out.getStreamId());
+      final RaftClientReply reply = out.closeAsync(Message.valueOf(key)).join();
+      Assert.assertTrue(reply.isSuccess());
+      Assert.assertEquals(String.valueOf(expected.size()), reply.getMessage().getContent().toStringUtf8());
+
+      // the data is streamed to the alive servers
+      final ByteString expectedData = ByteString.copyFrom(expected.toByteArray());
+      cluster.getServerAliveStream().forEach(
+          server -> Assert.assertEquals(expectedData, DataStreamStateMachine.get(server).getData(key)));
+
+      // the restarted follower applies the entry without the data
+      final RaftServerImpl follower = cluster.restartServer(followerId, false);
+      JavaUtils.attempt(() -> DataStreamStateMachine.get(follower).isMissing(key),
+          50, HUNDRED_MILLIS, "missing " + key + " in " + followerId, LOG);
+    }
+  }
+
+  @Test
+  public void testDataStreamAbort() throws Exception {
+    runWithNewCluster(3, this::runTestDataStreamAbort);
+  }
+
+  void runTestDataStreamAbort(MiniRaftClusterWithGrpc cluster) throws Exception {
+    RaftTestUtil.waitForLeader(cluster);
+    final int numChunks = 8;
+
+    try (RaftClient client = cluster.createClient()) {
+      final DataStreamOutput out = client.stream();
+      for (CompletableFuture<Long> f : writeChunks(out, numChunks, new ByteArrayOutputStream())) {
+        f.join();
+      }
+      out.abort();
+
+      // all the servers discard the data
+      final String key = DataStreamStateMachine.getKey(client.getId(), out.getStreamId());
+      for (RaftServerImpl server : cluster.iterateServerImpls()) {
+        JavaUtils.attempt(() -> DataStreamStateMachine.get(server).isAborted(key),
+            50, HUNDRED_MILLIS, "abort " + key + " in " + server.getId(), LOG);
+      }
+
+      // the stream cannot be used after aborted
+      testFailureCase("write after abort",
+          () -> out.writeAsync(ByteBuffer.allocate(1)).join(), CompletionException.class, AlreadyClosedException.class);
+      testFailureCase("close after abort",
+          () -> out.closeAsync(Message.valueOf(key)).join(), CompletionException.class, AlreadyClosedException.class);
+    }
+  }
+}
@@ -17,10 +17,29 @@
  */
 package org.apache.ratis.netty;
 
+import org.apache.ratis.MiniRaftCluster;
 import org.apache.ratis.RaftBasicTests;
+import org.apache.ratis.RaftTestUtil;
+import org.apache.ratis.RaftTestUtil.SimpleMessage;
+import org.apache.ratis.client.RaftClient;
+import org.apache.ratis.conf.RaftProperties;
+import org.apache.ratis.proto.RaftProtos.ReplicationLevel;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientReply;
 import org.apache.ratis.server.impl.BlockRequestHandlingInjection;
+import org.apache.ratis.server.impl.RaftServerImpl;
+import org.apache.ratis.statemachine.SimpleStateMachine4Testing;
+import org.apache.ratis.statemachine.StateMachine;
+import org.apache.ratis.util.JavaUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public class TestRaftWithNetty
     extends RaftBasicTests<MiniRaftClusterWithNetty>
     implements MiniRaftClusterWithNetty.FactoryGet {
@@ -31,4 +50,114 @@ public class TestRaftWithNetty
     super.testWithLoad();
     BlockRequestHandlingInjection.getInstance().unblockAll();
   }
+
+  /** The watch requests are sent asynchronously over the multiplexed connections. */
+  @Test
+  public void testAsyncWatchRequests() throws Exception {
+    runWithNewCluster(NUM_SERVERS, cluster -> {
+      try (RaftClient client = cluster.createClient()) {
+        RaftTestUtil.waitForLeader(cluster);
+        final List<CompletableFuture<RaftClientReply>> watches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+          final RaftClientReply reply = client.send(new SimpleMessage("m" + i));
+          Assert.assertTrue(reply.isSuccess());
+          watches.add(client.sendWatchAsync(reply.getLogIndex(), ReplicationLevel.ALL_COMMITTED));
+        }
+        for (CompletableFuture<RaftClientReply> watch : watches) {
+          Assert.assertTrue(watch.join().isSuccess());
+        }
+      }
+    });
+  }
+
+  /** A state machine whose queries block until {@link #unblockQuery()} is called. */
+  public static class BlockingQueryStateMachine extends SimpleStateMachine4Testing {
+    private final CompletableFuture<Void> querying = new CompletableFuture<>();
+    private final CompletableFuture<Void> unblocked = new CompletableFuture<>();
+
+    @Override
+    public CompletableFuture<Message> query(Message request) {
+      querying.complete(null);
+      unblocked.join();
+      return super.query(request);
+    }
+
+    void awaitQuery() {
+      querying.join();
+    }
+
+    void unblockQuery() {
+      unblocked.complete(null);
+    }
+  }
+
+  /** A slow request does not block the event loop, so that the appendEntries requests keep going. */
+  @Test
+  public void testSlowRequest() throws Exception {
+    final RaftProperties p = getProperties();
+    // a single event loop serves all the connections of a server
+    NettyConfigKeys.Server.setWorkerThreads(p, 1);
+    p.setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY, BlockingQueryStateMachine.class, StateMachine.class);
+    try {
+      runWithNewCluster(NUM_SERVERS, this::runTestSlowRequest);
+    } finally {
+      NettyConfigKeys.Server.setWorkerThreads(p, NettyConfigKeys.Server.WORKER_THREADS_DEFAULT);
+      p.setClass(MiniRaftCluster.STATEMACHINE_CLASS_KEY, SimpleStateMachine4Testing.class, StateMachine.class);
+    }
+  }
+
+  void runTestSlowRequest(MiniRaftClusterWithNetty cluster) throws Exception {
+    final RaftServerImpl leader = RaftTestUtil.waitForLeader(cluster);
+    final RaftServerImpl follower = cluster.getFollowers().get(0);
+    final BlockingQueryStateMachine stateMachine = (BlockingQueryStateMachine) follower.getStateMachine();
+    try (RaftClient client = cluster.createClient(leader.getId());
+         RaftClient readClient = cluster.createClient(follower.getId())) {
+      Assert.assertTrue(client.send(new SimpleMessage("m0")).isSuccess());
+
+      // a stale read is in flight in the follower
+      final CompletableFuture<RaftClientReply> read = CompletableFuture.supplyAsync(() -> {
+        try {
+          return readClient.sendStaleRead(new SimpleMessage("m0"), 0, follower.getId());
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      });
+      stateMachine.awaitQuery();
+
+      // the follower keeps appending the entries
+      for (int i = 1; i < 10; i++) {
+        Assert.assertTrue(client.send(new SimpleMessage("m" + i)).isSuccess());
+      }
+      final long nextIndex = leader.getState().getLog().getNextIndex();
+      JavaUtils.attempt(() -> follower.getState().getLog().getNextIndex() >= nextIndex,
+          10, HUNDRED_MILLIS, "follower appendEntries", LOG);
+      Assert.assertFalse(read.isDone());
+
+      stateMachine.unblockQuery();
+      Assert.assertTrue(read.get().isSuccess());
+    }
+  }
+
+  /** With epoll enabled, the native transport is used if it is available; otherwise, it falls back to nio. */
+  @Test
+  public void testEpollTransport() throws Exception {
+    final RaftProperties p = getProperties();
+    NettyConfigKeys.Transport.setEpollEnabled(p, true);
+    NettyConfigKeys.Server.setWorkerThreads(p, 2);
+    NettyConfigKeys.Client.setWorkerThreads(p, 2);
+    try {
+      runWithNewCluster(NUM_SERVERS, cluster -> {
+        try (RaftClient client = cluster.createClient()) {
+          RaftTestUtil.waitForLeader(cluster);
+          for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(client.send(new SimpleMessage("m" + i)).isSuccess());
+          }
+        }
+      });
+    } finally {
+      NettyConfigKeys.Transport.setEpollEnabled(p, NettyConfigKeys.Transport.EPOLL_ENABLED_DEFAULT);
+      NettyConfigKeys.Server.setWorkerThreads(p, NettyConfigKeys.Server.WORKER_THREADS_DEFAULT);
+      NettyConfigKeys.Client.setWorkerThreads(p, NettyConfigKeys.Client.WORKER_THREADS_DEFAULT);
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.server.impl;
+
+import org.apache.ratis.BaseTest;
+import org.apache.ratis.protocol.ClientId;
+import org.apache.ratis.util.TimeDuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestRetryCache extends BaseTest {
+  @Test
+  public void testQueryCache() {
+    final RetryCache cache = new RetryCache(TimeDuration.valueOf(60, TimeUnit.SECONDS));
+    final ClientId clientId = ClientId.randomId();
+
+    final RetryCache.CacheQueryResult first = cache.queryCache(clientId, 1);
+    Assert.assertFalse(first.isRetry());
+    // the pending entry is returned for a retry
+    final RetryCache.CacheQueryResult retry = cache.queryCache(clientId, 1);
+    Assert.assertTrue(retry.isRetry());
+    Assert.assertSame(first.getEntry(), retry.getEntry());
+
+    // a failed entry is replaced
+    first.getEntry().failWithException(new Exception("test"));
+    final RetryCache.CacheQueryResult replaced = cache.queryCache(clientId, 1);
+    Assert.assertFalse(replaced.isRetry());
+    Assert.assertNotSame(first.getEntry(), replaced.getEntry());
+    Assert.assertSame(replaced.getEntry(), cache.get(clientId, 1));
+
+    Assert.assertFalse(cache.queryCache(clientId, 2).isRetry());
+    Assert.assertFalse(cache.queryCache(ClientId.randomId(), 1).isRetry());
+    Assert.assertEquals(3, cache.size());
+
+    cache.close();
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    final TimeDuration expiryTime = TimeDuration.valueOf(100, TimeUnit.MILLISECONDS);
+    final RetryCache cache = new RetryCache(expiryTime);
+    final ClientId clientId = ClientId.randomId();
+    for(int i = 0; i < 10; i++) {
+      cache.getOrCreateEntry(clientId, i);
+    }
+    Assert.assertEquals(10, cache.size());
+
+    expiryTime.sleep();
+    // an expired entry is removed when it is accessed
+    Assert.assertNull(cache.get(clientId, 0));
+    Assert.assertEquals(9, cache.size());
+
+    // the other expired entries are removed in bulk
+    cache.expire(1);
+    Assert.assertEquals(0, cache.size());
+    Assert.assertFalse(cache.queryCache(clientId, 1).isRetry());
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testExpiryNotInCallIdOrder() throws Exception {
+    final TimeDuration expiryTime = TimeDuration.valueOf(100, TimeUnit.MILLISECONDS);
+    final RetryCache cache = new RetryCache(expiryTime);
+    final ClientId clientId = ClientId.randomId();
+    for(int i = 1; i < 10; i++) {
+      cache.getOrCreateEntry(clientId, i);
+    }
+    final RetryCache.CacheEntry first = cache.getOrCreateEntry(clientId, 0);
+    first.failWithException(new Exception("test"));
+    Assert.assertEquals(10, cache.size());
+
+    expiryTime.sleep();
+    // the failed entry with the smallest callId is replaced by a new entry
+    Assert.assertFalse(cache.queryCache(clientId, 0).isRetry());
+    Assert.assertEquals(10, cache.size());
+
+    // the expired entries after the new entry are also removed in bulk
+    cache.expire(1);
+    Assert.assertEquals(1, cache.size());
+    Assert.assertNotNull(cache.get(clientId, 0));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.server.impl;
+
+import org.apache.ratis.BaseTest;
+import org.apache.ratis.client.impl.ClientProtoUtils;
+import org.apache.ratis.proto.RaftProtos.LogEntryProto;
+import org.apache.ratis.proto.RaftProtos.RaftClientRequestProto;
+import org.apache.ratis.proto.RaftProtos.StateMachineLogEntryProto;
+import org.apache.ratis.protocol.ClientId;
+import org.apache.ratis.protocol.Message;
+import org.apache.ratis.protocol.RaftClientRequest;
+import org.apache.ratis.protocol.RaftGroupId;
+import org.apache.ratis.protocol.RaftPeerId;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
+import org.apache.ratis.util.ProtoUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Test that the message payloads are not copied
+ * from the client request to the log entry and then to the state machine.
+ */
+public class TestZeroCopy extends BaseTest {
+  @Override
+  public int getGlobalTimeoutSeconds() {
+    return 10;
+  }
+
+  static byte[] randomBytes(int size) {
+    final byte[] bytes = new byte[size];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void testUnsafeWrap() {
+    final byte[] bytes = randomBytes(1 << 16);
+    final ByteString wrapped = ProtoUtils.unsafeWrap(bytes, 0, bytes.length);
+    Assert.assertEquals(ByteString.copyFrom(bytes), wrapped);
+
+    // the wrapped bytes are shared, not copied
+    bytes[0]++;
+    Assert.assertEquals(bytes[0], wrapped.byteAt(0));
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    buffer.put(bytes).flip();
+    final ByteString wrappedBuffer = ProtoUtils.unsafeWrap(buffer);
+    buffer.put(1, (byte)(buffer.get(1) + 1));
+    Assert.assertEquals(buffer.get(1), wrappedBuffer.byteAt(1));
+
+    Assert.assertSame(ByteString.EMPTY, ProtoUtils.unsafeWrap(bytes, 0, 0));
+    Assert.assertSame(ByteString.EMPTY, ProtoUtils.unsafeWrap(ByteBuffer.allocate(0)));
+  }
+
+  @Test
+  public void testRequestToLogEntry() {
+    final ByteString content = ProtoUtils.unsafeWrap(ByteBuffer.wrap(randomBytes(1 << 20)));
+    final RaftClientRequest request = new RaftClientRequest(ClientId.randomId(), RaftPeerId.valueOf("s0"),
+        RaftGroupId.randomId(), 1, Message.valueOf(content), RaftClientRequest.writeRequestType(), null);
+
+    // client -> proto -> server request
+    final RaftClientRequestProto proto = ClientProtoUtils.toRaftClientRequestProto(request);
+    Assert.assertSame(content, proto.getMessage().getContent());
+    final RaftClientRequest received = ClientProtoUtils.toRaftClientRequest(proto);
+    Assert.assertSame(content, received.getMessage().getContent());
+
+    // server request -> log entry -> state machine
+    final StateMachineLogEntryProto smLog = ServerProtoUtils.toStateMachineLogEntryProto(received, null, null);
+    final LogEntryProto entry = ServerProtoUtils.toLogEntryProto(smLog, 1, 1);
+    Assert.assertSame(content, entry.getStateMachineLogEntry().getLogData());
+    Assert.assertSame(content, Message.valueOf(entry.getStateMachineLogEntry().getLogData()).getContent());
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.ratis.server.impl.RaftServerImpl;
 import org.apache.ratis.server.impl.ServerProtoUtils;
 import org.apache.ratis.server.impl.ServerState;
 import org.apache.ratis.server.raftlog.RaftLog;
+import org.apache.ratis.server.raftlog.segmented.CacheInvalidationPolicy.CacheInvalidationPolicyByteSize;
 import org.apache.ratis.server.raftlog.segmented.CacheInvalidationPolicy.CacheInvalidationPolicyDefault;
 import org.apache.ratis.server.raftlog.segmented.SegmentedRaftLogCache.LogSegmentList;
 import org.apache.ratis.server.raftlog.segmented.TestSegmentedRaftLog.SegmentRange;
@@ -148,6 +149,54 @@ public class TestCacheEviction extends BaseTest {
     Assert.assertEquals(0, evicted.size());
   }
 
+  static LogSegmentList prepareCachedSegments(int numSegments, long start, long size) {
+    final LogSegmentList segments = new LogSegmentList(TestCacheEviction.class.getSimpleName());
+    for (int i = 0; i < numSegments; i++) {
+      final LogSegment s = LogSegment.newOpenSegment(null, start, null);
+      for (long index = start; index < start + size; index++) {
+        final SimpleOperation m = new SimpleOperation(new String(new byte[100]));
+        s.appendToOpenSegment(ServerProtoUtils.toLogEntryProto(m.getLogEntryContent(), 0, index));
+      }
+      s.close();
+      segments.add(s);
+      start += size;
+    }
+    return segments;
+  }
+
+  @Test
+  public void testByteSizeEviction() throws Exception {
+    // start from index 1 so that all the entries have the same size
+    final LogSegmentList segments = prepareCachedSegments(5, 1, 10);
+    final long segmentSize = segments.get(0).getCachedSize();
+    final CacheInvalidationPolicy byteSizePolicy = new CacheInvalidationPolicyByteSize(segmentSize * 3);
+    Assert.assertTrue(byteSizePolicy.shouldEvict(segments, 0));
+
+    // case 1, make sure we do not evict cache for segments behind local flushed index
+    List<LogSegment> evicted = byteSizePolicy.evict(new long[]{26, 41, 46}, 5, 16, segments, 0);
+    Assert.assertEquals(0, evicted.size());
+    Assert.assertEquals(segmentSize * 5, segments.getCachedSize());
+
+    // case 2, evict only enough entries before the min follower next index
+    evicted = byteSizePolicy.evict(new long[]{26, 41, 46}, 50, 31, segments, 0);
+    Assert.assertEquals(2, evicted.size());
+    Assert.assertSame(evicted.get(0), segments.get(0));
+    Assert.assertSame(evicted.get(1), segments.get(1));
+    Assert.assertEquals(segmentSize * 3, segments.getCachedSize());
+    Assert.assertFalse(byteSizePolicy.shouldEvict(segments, 0));
+
+    // case 3, evict individual entries and then the least recently accessed segment
+    final CacheInvalidationPolicy smallPolicy = new CacheInvalidationPolicyByteSize(segmentSize * 3 / 2);
+    final LogSegment.LogRecord record = segments.get(3).getLogRecord(36);
+    Assert.assertNotNull(segments.get(3).getEntryFromCache(record.getTermIndex()));
+    evicted = smallPolicy.evict(new long[]{26, 26}, 50, 25, segments, 0);
+    Assert.assertEquals(1, evicted.size());
+    Assert.assertSame(evicted.get(0), segments.get(4));
+    Assert.assertEquals(segmentSize / 2, segments.get(2).getCachedSize());
+    Assert.assertEquals(segmentSize, segments.get(3).getCachedSize());
+    Assert.assertEquals(segmentSize * 3 / 2, segments.getCachedSize());
+  }
+
   @Test
   public void testEvictionInSegmentedLog() throws Exception {
     final RaftProperties prop = new RaftProperties();
@@ -184,7 +184,17 @@ public class TestLogSegment extends BaseTest {
         1000, 1099, false, loadInitial, null, null);
     checkLogSegment(closedSegment, 1000, 1099, false,
         closedSegment.getTotalSize(), 1);
-    Assert.assertEquals(loadInitial ? 0 : 1, closedSegment.getLoadingTimes());
+    // for closed segment each cache miss loads exactly one entry
+    Assert.assertEquals(loadInitial ? 0 : 100, closedSegment.getLoadingTimes());
+
+    // after eviction, an entry is loaded again from the segment file
+    closedSegment.evictCache();
+    Assert.assertFalse(closedSegment.hasCache());
+    final LogSegment.LogRecord record = closedSegment.getLogRecord(1050);
+    final LogEntryProto entry = closedSegment.loadCache(record);
+    Assert.assertEquals(record.getTermIndex(), ServerProtoUtils.toTermIndex(entry));
+    Assert.assertEquals(loadInitial ? 1 : 101, closedSegment.getLoadingTimes());
+    Assert.assertTrue(closedSegment.hasCache());
   }
 
   @Test
@@ -40,6 +40,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -121,6 +122,40 @@ public class TestRaftLogReadWrite extends BaseTest {
     Assert.assertArrayEquals(entries, readEntries);
   }
 
+  /**
+   * With a small write buffer, some entries are serialized directly into the buffer
+   * while the others are larger than the buffer.
+   */
+  @Test
+  public void testReadWriteLogWithSmallBuffer() throws IOException {
+    final RaftStorage storage = new RaftStorage(storageDir, StartupOption.REGULAR);
+    File openSegment = storage.getStorageDir().getOpenLogFile(0);
+    long size = SegmentedRaftLogFormat.getHeaderLength();
+
+    final int smallBufferSize = 1024;
+    final LogEntryProto[] entries = new LogEntryProto[100];
+    try (SegmentedRaftLogOutputStream out = new SegmentedRaftLogOutputStream(openSegment, false,
+        segmentMaxSize, preallocatedSize, smallBufferSize)) {
+      for (int i = 0; i < entries.length; i++) {
+        final char[] content = new char[i * 37];
+        Arrays.fill(content, (char) ('a' + i % 26));
+        SimpleOperation m = new SimpleOperation(new String(content));
+        entries[i] = ServerProtoUtils.toLogEntryProto(m.getLogEntryContent(), 0, i);
+        final int s = entries[i].getSerializedSize();
+        size += CodedOutputStream.computeUInt32SizeNoTag(s) + s + 4;
+        out.write(entries[i]);
+      }
+    } finally {
+      storage.close();
+    }
+
+    Assert.assertEquals(size, openSegment.length());
+
+    LogEntryProto[] readEntries = readLog(openSegment, 0,
+        RaftServerConstants.INVALID_LOG_INDEX, true);
+    Assert.assertArrayEquals(entries, readEntries);
+  }
+
   @Test
   public void testAppendLog() throws IOException {
     final RaftStorage storage = new RaftStorage(storageDir, StartupOption.REGULAR);
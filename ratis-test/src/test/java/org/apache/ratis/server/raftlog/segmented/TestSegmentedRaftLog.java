@@ -36,10 +36,12 @@ import org.apache.ratis.server.metrics.RatisMetrics;
 import org.apache.ratis.server.protocol.TermIndex;
 import org.apache.ratis.proto.RaftProtos.LogEntryProto;
 import org.apache.ratis.server.raftlog.RaftLog;
+import org.apache.ratis.server.raftlog.RaftLogIOException;
 import org.apache.ratis.server.storage.RaftStorage;
 import org.apache.ratis.statemachine.SimpleStateMachine4Testing;
 import org.apache.ratis.statemachine.StateMachine;
 import org.apache.ratis.statemachine.impl.BaseStateMachine;
+import org.apache.ratis.thirdparty.com.google.protobuf.ByteString;
 import org.apache.ratis.util.LifeCycle;
 import org.apache.ratis.util.FileUtils;
 import org.apache.ratis.util.JavaUtils;
@@ -61,6 +63,7 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.mockito.Matchers.any;
@@ -209,6 +212,63 @@ public class TestSegmentedRaftLog extends BaseTest {
     }
   }
 
+  @Test
+  public void testLoadLogSegmentsInParallel() throws Exception {
+    final int maxCachedSegments = 2;
+    RaftServerConfigKeys.Log.setMaxCachedSegmentNum(properties, maxCachedSegments);
+    final List<SegmentRange> ranges = prepareRanges(0, 20, 10, 0);
+    final LogEntryProto[] entries = prepareLog(ranges);
+
+    for (int threads : new int[]{1, 8}) {
+      RaftServerConfigKeys.Log.setSegmentLoadThreads(properties, threads);
+      final List<LogEntryProto> consumed = new ArrayList<>();
+      try (SegmentedRaftLog raftLog = newSegmentedRaftLog()) {
+        raftLog.open(RaftLog.INVALID_LOG_INDEX, consumed::add);
+        Assert.assertEquals(ranges.size(), raftLog.getRaftLogCache().getNumOfSegments());
+        for (LogEntryProto e : entries) {
+          Assert.assertEquals(e, raftLog.get(e.getIndex()));
+        }
+        Assert.assertEquals(entries[entries.length - 1], getLastEntry(raftLog));
+      }
+
+      // both the sequential and the parallel loading pass all the entries to the consumer in order
+      Assert.assertEquals(Arrays.asList(entries), consumed);
+    }
+  }
+
+  @Test
+  public void testGetEntriesWithData() throws Exception {
+    RaftServerConfigKeys.Log.setMaxCachedSegmentNum(properties, 2);
+    final List<SegmentRange> ranges = prepareRanges(0, 10, 10, 0);
+    final LogEntryProto[] entries = prepareLog(ranges);
+
+    try (SegmentedRaftLog raftLog = newSegmentedRaftLog()) {
+      raftLog.open(RaftLog.INVALID_LOG_INDEX, null);
+      // the range spans segments, where only the last segments are cached
+      final List<RaftLog.EntryWithData> all = raftLog.getEntriesWithData(5, 100, Integer.MAX_VALUE, Long.MAX_VALUE);
+      Assert.assertEquals(95, all.size());
+      assertEntriesWithData(entries, 5, all);
+      assertEntriesWithData(entries, 5, raftLog.getEntriesWithData(5, 200, 30, Long.MAX_VALUE));
+      Assert.assertEquals(30, raftLog.getEntriesWithData(5, 200, 30, Long.MAX_VALUE).size());
+
+      // limited by bytes
+      final long size = ServerProtoUtils.getSerializedSize(entries[5]);
+      Assert.assertEquals(3, raftLog.getEntriesWithData(5, 100, 100, 3 * size).size());
+      Assert.assertEquals(1, raftLog.getEntriesWithData(5, 100, 100, 1).size());
+
+      Assert.assertTrue(raftLog.getEntriesWithData(5, 5, 100, Long.MAX_VALUE).isEmpty());
+      testFailureCase("start index not found",
+          () -> raftLog.getEntriesWithData(100, 200, 100, Long.MAX_VALUE), RaftLogIOException.class);
+    }
+  }
+
+  static void assertEntriesWithData(LogEntryProto[] expected, int startIndex, List<RaftLog.EntryWithData> entries)
+      throws Exception {
+    for (int i = 0; i < entries.size(); i++) {
+      Assert.assertEquals(expected[startIndex + i], entries.get(i).getEntry(TimeDuration.valueOf(1, TimeUnit.SECONDS)));
+    }
+  }
+
   static List<LogEntryProto> prepareLogEntries(List<SegmentRange> slist,
       Supplier<String> stringSupplier) {
     List<LogEntryProto> eList = new ArrayList<>();
@@ -305,6 +365,41 @@ public class TestSegmentedRaftLog extends BaseTest {
     }
   }
 
+  /**
+   * Append, roll and truncate with group commit enabled.
+   */
+  @Test
+  public void testGroupCommit() throws Exception {
+    RaftServerConfigKeys.Log.GroupCommit.setEnabled(properties, true);
+    RaftServerConfigKeys.Log.setPreallocatedSize(properties, SizeInBytes.valueOf("16KB"));
+    RaftServerConfigKeys.Log.setSegmentSizeMax(properties, SizeInBytes.valueOf("128KB"));
+
+    List<SegmentRange> ranges = prepareRanges(0, 1, 1024, 0);
+    final byte[] content = new byte[1024];
+    List<LogEntryProto> entries = prepareLogEntries(ranges,
+        () -> new String(content));
+
+    try (SegmentedRaftLog raftLog = newSegmentedRaftLog()) {
+      raftLog.open(RaftLog.INVALID_LOG_INDEX, null);
+      // append entries to the raftlog without waiting for each of them
+      final List<CompletableFuture<Long>> futures = new ArrayList<>();
+      entries.stream().map(raftLog::appendEntry).forEach(futures::add);
+      for (int i = 0; i < futures.size(); i++) {
+        Assert.assertEquals(i, futures.get(i).join().longValue());
+      }
+      Assert.assertEquals(entries.size() - 1, raftLog.getFlushIndex());
+    }
+
+    try (SegmentedRaftLog raftLog = newSegmentedRaftLog()) {
+      raftLog.open(RaftLog.INVALID_LOG_INDEX, null);
+      // check if the raft log is correct
+      checkEntries(raftLog, entries, 0, entries.size());
+      Assert.assertEquals(9, raftLog.getRaftLogCache().getNumOfSegments());
+    }
+
+    testTruncate(entries, 500);
+  }
+
   @Test
   public void testTruncate() throws Exception {
     // prepare the log for truncation
@@ -525,6 +620,64 @@ public class TestSegmentedRaftLog extends BaseTest {
     }
   }
 
+  @Test
+  public void testSharedEntryCache() throws Exception {
+    runTestSharedEntryCache(SizeInBytes.valueOf("1MB"), 1);
+    // disabled by default
+    runTestSharedEntryCache(RaftServerConfigKeys.Log.Appender.SHARED_ENTRY_CACHE_BYTE_LIMIT_DEFAULT, 3);
+    // the byte limit is too small to keep any data
+    runTestSharedEntryCache(SizeInBytes.valueOf(1), 3);
+  }
+
+  void runTestSharedEntryCache(SizeInBytes byteLimit, int expectedReadsPerEntry) throws Exception {
+    RaftServerConfigKeys.Log.Appender.setSharedEntryCacheByteLimit(properties, byteLimit);
+    // the state machine data is removed from the cached entries and has to be read from the state machine
+    RaftServerConfigKeys.Log.StateMachineData.setCachingEnabled(properties, true);
+    final SegmentRange range = new SegmentRange(0, 10, 1, true);
+    final List<LogEntryProto> entries = prepareLogEntries(range, null, true, new ArrayList<>());
+
+    final AtomicInteger numReads = new AtomicInteger();
+    final StateMachine sm = new BaseStateMachine() {
+      @Override
+      public CompletableFuture<ByteString> readStateMachineData(LogEntryProto entry) {
+        numReads.incrementAndGet();
+        final LogEntryProto original = entries.get(Math.toIntExact(entry.getIndex()));
+        return CompletableFuture.completedFuture(original.getStateMachineLogEntry().getStateMachineEntry()
+            .getStateMachineData());
+      }
+    };
+
+    final RaftStorage dir = new RaftStorage(new File(storageDir, "limit" + byteLimit.getSize()),
+        RaftServerConstants.StartupOption.REGULAR);
+    try (SegmentedRaftLog raftLog = new SegmentedRaftLog(memberId, null, sm, null, dir, -1, properties)) {
+      raftLog.open(RaftLog.INVALID_LOG_INDEX, null);
+      for (LogEntryProto e : entries) {
+        raftLog.appendEntry(e).get();
+      }
+
+      // read the entries once for each of the three followers
+      List<RaftLog.EntryWithData> first = null;
+      for (int i = 0; i < 3; i++) {
+        final List<RaftLog.EntryWithData> read = raftLog.getEntriesWithData(
+            0, entries.size(), Integer.MAX_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(entries.size(), read.size());
+        assertEntriesWithData(entries.toArray(new LogEntryProto[0]), 0, read);
+        if (first == null) {
+          first = read;
+        } else if (expectedReadsPerEntry == 1) {
+          Assert.assertSame(first.get(0), read.get(0));
+        }
+      }
+      Assert.assertEquals(expectedReadsPerEntry * entries.size(), numReads.get());
+
+      // once the entries are sent to all the followers, they are released and have to be read again
+      raftLog.releaseEntriesBelow(entries.size());
+      numReads.set(0);
+      raftLog.getEntriesWithData(0, entries.size(), Integer.MAX_VALUE, Long.MAX_VALUE);
+      Assert.assertEquals(entries.size(), numReads.get());
+    }
+  }
+
   @Test(expected = TimeoutIOException.class)
   public void testServerShutdownOnTimeoutIOException() throws Throwable {
     RaftServerConfigKeys.Log.StateMachineData.setSync(properties, true);
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ratis.util;
+
+import org.apache.ratis.BaseTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class TestCrc32C extends BaseTest {
+  /** The check value of CRC32C, i.e. the checksum of "123456789". */
+  static final long CHECK = 0xE3069283L;
+
+  @Test(timeout = 10000)
+  public void testCrc32C() {
+    final byte[] check = "123456789".getBytes();
+    for (Crc32C.Type type : Crc32C.Type.values()) {
+      final Crc32C crc = Crc32C.newSupplier(type).get();
+      LOG.info("{} resolves to {}", type, crc.getClass().getSimpleName());
+      crc.update(check, 0, check.length);
+      Assert.assertEquals(CHECK, crc.getValue());
+
+      for (int n = 0; n < 100; n++) {
+        runTestCrc32C(crc, ThreadLocalRandom.current().nextInt(10000));
+      }
+    }
+  }
+
+  static void runTestCrc32C(Crc32C crc, int length) {
+    final byte[] data = new byte[length];
+    ThreadLocalRandom.current().nextBytes(data);
+    final PureJavaCrc32C expected = new PureJavaCrc32C();
+    expected.update(data, 0, length);
+
+    // array
+    crc.reset();
+    crc.update(data, 0, length);
+    Assert.assertEquals(expected.getValue(), crc.getValue());
+
+    // split updates with direct and heap buffers
+    final int split = length == 0? 0: ThreadLocalRandom.current().nextInt(length);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(length);
+    direct.put(data).flip();
+    final ByteBuffer heap = ByteBuffer.wrap(data);
+    crc.reset();
+    crc.update(direct, 0, split);
+    crc.update(heap, split, length - split);
+    Assert.assertEquals(expected.getValue(), crc.getValue());
+    Assert.assertEquals(0, direct.position());
+    Assert.assertEquals(length, direct.limit());
+  }
+
+  @Test(timeout = 10000)
+  public void testCombine() {
+    for (int n = 0; n < 100; n++) {
+      final byte[] data = new byte[ThreadLocalRandom.current().nextInt(1, 10000)];
+      ThreadLocalRandom.current().nextBytes(data);
+      final int split = ThreadLocalRandom.current().nextInt(data.length);
+
+      final int crc1 = crc(data, 0, split);
+      final int crc2 = crc(data, split, data.length - split);
+      Assert.assertEquals(crc(data, 0, data.length), NativeCrc32C.combine(crc1, crc2, data.length - split));
+    }
+  }
+
+  static int crc(byte[] data, int offset, int length) {
+    final PureJavaCrc32C crc = new PureJavaCrc32C();
+    crc.update(data, offset, length);
+    return (int) crc.getValue();
+  }
+}